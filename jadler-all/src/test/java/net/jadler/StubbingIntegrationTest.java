@@ -8,6 +8,7 @@ import net.jadler.parameters.StubHttpServerFactory;
 import net.jadler.parameters.TestParameters;
 import net.jadler.stubbing.Responder;
 import net.jadler.stubbing.StubResponse;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.fluent.Executor;
@@ -16,12 +17,15 @@ import org.apache.http.entity.ContentType;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -29,6 +33,15 @@ import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static net.jadler.Jadler.closeJadler;
@@ -52,6 +65,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -94,6 +108,9 @@ public class StubbingIntegrationTest {
     private static final Charset ISO_8859_2_CHARSET = Charset.forName("ISO-8859-2");
     private static final byte[] ISO_8859_2_BODY_REPRESENTATION = STRING_WITH_DIACRITICS.getBytes(ISO_8859_2_CHARSET);
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private final StubHttpServerFactory serverFactory;
 
 
@@ -675,6 +692,91 @@ public class StubbingIntegrationTest {
     }
 
 
+    /*
+     * Response body scenario using a file.
+     *
+     * Tests the body retrieved in the response is exactly the same as the file content (large enough not to fit
+     * into the response buffer) and its length is sent.
+     */
+    @Test
+    public void withBodyFile() throws IOException {
+        final byte[] content = new byte[3 * 1024 * 1024 + 7];
+        new Random(42).nextBytes(content);
+        final Path file = this.folder.newFile().toPath();
+        Files.write(file, content);
+
+        onRequest().respond().withBody(file);
+
+        final HttpResponse response = Executor.newInstance().execute(Request.Get(jadlerUri())).returnResponse();
+
+        assertThat(response.getFirstHeader("Content-Length").getValue(), is(String.valueOf(content.length)));
+        assertThat(rawBodyOf(response), is(content));
+    }
+
+
+    /*
+     * Streaming response scenario.
+     *
+     * Tests the headers are sent immediately and the chunks follow one by one using the chunked transfer encoding.
+     */
+    @Test
+    public void withChunks() throws IOException {
+        onRequest().respond()
+                .withStatus(200)
+                .withEncoding(UTF_8_CHARSET)
+                .withChunk("first,")
+                .withChunk(BINARY_BODY)
+                .withChunk(",last")
+                .withChunkInterval(300, TimeUnit.MILLISECONDS);
+
+        final long start = System.nanoTime();
+        final HttpURLConnection c = (HttpURLConnection) new URL(jadlerUri().toString()).openConnection();
+
+        assertThat(c.getResponseCode(), is(200));
+        final long headersReceived = System.nanoTime();
+        assertThat(c.getHeaderField("Transfer-Encoding"), is("chunked"));
+
+        final byte[] body;
+        try (InputStream is = c.getInputStream()) {
+            body = IOUtils.toByteArray(is);
+        }
+        final long bodyReceived = System.nanoTime();
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write("first,".getBytes(UTF_8_CHARSET));
+        expected.write(BINARY_BODY);
+        expected.write(",last".getBytes(UTF_8_CHARSET));
+        assertThat(body, is(expected.toByteArray()));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(headersReceived - start), is(lessThan(300L)));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(bodyReceived - start), is(greaterThanOrEqualTo(900L)));
+    }
+
+
+    /*
+     * Rate limited response scenario.
+     *
+     * Tests the body is received completely (with its length sent in advance), however not faster than allowed.
+     */
+    @Test
+    public void withBandwidthLimit() throws IOException {
+        final byte[] content = new byte[20 * 1024];
+        new Random(42).nextBytes(content);
+
+        onRequest().respond()
+                .withBody(content)
+                .withBandwidthLimit(40 * 1024);
+
+        final long start = System.nanoTime();
+        final HttpResponse response = Executor.newInstance().execute(Request.Get(jadlerUri())).returnResponse();
+        final byte[] body = rawBodyOf(response);
+
+        //the first 4KB slice is sent immediately, the rest at 40KB/s
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(350L)));
+        assertThat(response.getFirstHeader("Content-Length").getValue(), is(String.valueOf(content.length)));
+        assertThat(body, is(content));
+    }
+
+
     /*
      * Response headers scenario.
      */
@@ -816,4 +918,39 @@ public class StubbingIntegrationTest {
         final long dur = end - start;
         assertThat(dur / 1000, is(greaterThanOrEqualTo(1L)));
     }
+
+
+    /*
+     * Concurrent delayed requests scenario. Tests the delays don't occupy server threads, so ten requests delayed
+     * by half a second are all responded in well under the five seconds they would take if handled one by one.
+     */
+    @Test
+    public void delayConcurrent() throws Exception {
+        onRequest().respond().withBody("delayed").withDelay(500, TimeUnit.MILLISECONDS);
+
+        final int count = 10;
+        final ExecutorService clients = Executors.newFixedThreadPool(count);
+        try {
+            final List<Future<String>> bodies = new ArrayList<Future<String>>();
+            final long start = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                bodies.add(clients.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() throws IOException {
+                        return stringBodyOf(Executor.newInstance().execute(Request.Get(jadlerUri())).returnResponse());
+                    }
+                }));
+            }
+
+            for (final Future<String> body : bodies) {
+                assertThat(body.get(10, TimeUnit.SECONDS), is("delayed"));
+            }
+            final long dur = System.currentTimeMillis() - start;
+            assertThat(dur, is(greaterThanOrEqualTo(500L)));
+            assertThat(dur, is(lessThan(2500L)));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
 }
@@ -10,15 +10,16 @@ import org.hamcrest.Matcher;
 import java.util.ArrayList;
 import java.util.List;
 
+import static net.jadler.matchers.BodyBytesMatchers.bytesEqualTo;
 import static net.jadler.matchers.BodyRequestMatcher.requestBody;
 import static net.jadler.matchers.HeaderRequestMatcher.requestHeader;
 import static net.jadler.matchers.MethodRequestMatcher.requestMethod;
+import static net.jadler.matchers.MethodRequestMatcher.requestMethodEqualTo;
 import static net.jadler.matchers.ParameterRequestMatcher.requestParameter;
 import static net.jadler.matchers.PathRequestMatcher.requestPath;
+import static net.jadler.matchers.PathRequestMatcher.requestPathEqualTo;
 import static net.jadler.matchers.QueryStringRequestMatcher.requestQueryString;
-import static net.jadler.matchers.RawBodyRequestMatcher.requestRawBody;
 import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -61,7 +62,7 @@ public abstract class AbstractRequestMatching<T extends RequestMatching<T>> impl
     public T havingMethodEqualTo(final String method) {
         Validate.notEmpty(method, "method cannot be empty");
 
-        return havingMethod(equalToIgnoringCase(method));
+        return that(requestMethodEqualTo(method));
     }
 
 
@@ -105,7 +106,7 @@ public abstract class AbstractRequestMatching<T extends RequestMatching<T>> impl
     public T havingRawBodyEqualTo(final byte[] requestBody) {
         Validate.notNull(requestBody, "requestBody cannot be null, use an empty array instead");
 
-        return that(requestRawBody(equalTo(requestBody)));
+        return havingRawBody(bytesEqualTo(requestBody));
     }
 
 
@@ -116,7 +117,7 @@ public abstract class AbstractRequestMatching<T extends RequestMatching<T>> impl
     public T havingPathEqualTo(final String path) {
         Validate.notEmpty(path, "path cannot be empty");
 
-        return havingPath(equalTo(path));
+        return that(requestPathEqualTo(path));
     }
 
 
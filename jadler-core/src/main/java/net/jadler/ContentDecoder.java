@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * <p>Decompresses request bodies according to the {@code Content-Encoding} header. Supports the {@code gzip},
+ * {@code x-gzip}, {@code deflate} (both zlib wrapped and raw) and {@code identity} codings applied in any order.
+ * A body with any other coding is left as is.</p>
+ *
+ * <p>Package private, used by {@link Request} only.</p>
+ */
+class ContentDecoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+
+    private ContentDecoder() {
+        //gtfo
+    }
+
+
+    /**
+     * Decodes the given body.
+     *
+     * @param body body as received (its position and limit are not modified)
+     * @param contentEncodings values of the {@code Content-Encoding} header or {@code null} if not present
+     * @param maxLength maximal length of the decoded body in bytes
+     * @return decoded body or the given body if there is nothing to be decoded
+     * @throws JadlerException if the body cannot be decoded or is decoded to more than {@code maxLength} bytes
+     */
+    static ByteBuffer decode(final ByteBuffer body, final List<String> contentEncodings, final int maxLength) {
+        final List<String> codings = codings(contentEncodings);
+        if (codings == null) {
+            return body;
+        }
+
+        //the codings are listed in the order they were applied in
+        ByteBuffer res = body;
+        for (int i = codings.size() - 1; i >= 0; i--) {
+            final String coding = codings.get(i);
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                res = inflate(res, Format.GZIP, maxLength);
+            } else if ("deflate".equals(coding)) {
+                res = inflate(res, Format.ZLIB, maxLength);
+            }
+        }
+        return res;
+    }
+
+
+    /*
+     * @return all codings except identity in lower case or null if there is nothing to be decoded (no or identity
+     * codings only, or an unsupported coding which makes the whole chain undecodable)
+     */
+    private static List<String> codings(final List<String> contentEncodings) {
+        if (contentEncodings == null) {
+            return null;
+        }
+
+        List<String> res = null;
+        for (final String value : contentEncodings) {
+            for (final String token : value.split(",")) {
+                final String coding = token.trim().toLowerCase();
+
+                if (coding.isEmpty() || "identity".equals(coding)) {
+                    continue;
+                }
+                if (!"gzip".equals(coding) && !"x-gzip".equals(coding) && !"deflate".equals(coding)) {
+                    return null;
+                }
+                if (res == null) {
+                    res = new ArrayList<String>(2);
+                }
+                res.add(coding);
+            }
+        }
+        return res;
+    }
+
+
+    private static ByteBuffer inflate(final ByteBuffer compressed, final Format format, final int maxLength) {
+        try {
+            return ByteBuffer.wrap(read(format.open(stream(compressed)), maxLength));
+        } catch (final IOException e) {
+            //some clients send raw deflate data without the zlib wrapper
+            if (format == Format.ZLIB) {
+                return inflate(compressed, Format.RAW, maxLength);
+            }
+            throw new JadlerException("cannot decode the request body (Content-Encoding: "
+                    + format.coding + ")", e);
+        }
+    }
+
+
+    private static byte[] read(final InputStream is, final int maxLength) throws IOException {
+        final ByteArrayOutputStream res = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+
+        try {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                if (res.size() + read > maxLength) {
+                    throw new JadlerException("the decoded request body is longer than " + maxLength + " bytes");
+                }
+                res.write(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+        return res.toByteArray();
+    }
+
+
+    private static InputStream stream(final ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+
+    /*
+     * An inflating stream releasing the native resources of its inflater once closed.
+     */
+    private static InputStream inflating(final InputStream is, final boolean nowrap) {
+        return new InflaterInputStream(is, new Inflater(nowrap), BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                this.inf.end();
+            }
+        };
+    }
+
+
+    private enum Format {
+        GZIP("gzip") {
+            @Override
+            InputStream open(final InputStream is) throws IOException {
+                return new GZIPInputStream(is, BUFFER_SIZE);
+            }
+        },
+        ZLIB("deflate") {
+            @Override
+            InputStream open(final InputStream is) {
+                return inflating(is, false);
+            }
+        },
+        RAW("deflate") {
+            @Override
+            InputStream open(final InputStream is) {
+                return inflating(is, true);
+            }
+        };
+
+        private final String coding;
+
+        Format(final String coding) {
+            this.coding = coding;
+        }
+
+        abstract InputStream open(InputStream is) throws IOException;
+    }
+}
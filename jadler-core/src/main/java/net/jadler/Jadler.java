@@ -934,6 +934,36 @@ public class Jadler {
         }
 
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public OngoingConfiguration withRecordingPolicy(final RecordingPolicy policy) {
+            jadlerMockerContainer.get().setRecordingPolicy(policy);
+            return this;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public OngoingConfiguration withBodySpillThreshold(final long threshold) {
+            jadlerMockerContainer.get().setBodySpillThreshold(threshold);
+            return this;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public OngoingConfiguration withBandwidthLimit(final long bytesPerSecond) {
+            jadlerMockerContainer.get().setBandwidthLimit(bytesPerSecond);
+            return this;
+        }
+
+
         /**
          * @param defaultContentType default {@code Content-Type} header of every http stub response
          * @return this ongoing configuration
@@ -65,4 +65,37 @@ public interface JadlerConfiguration {
      */
     JadlerConfiguration withRequestsRecordingDisabled();
 
+    /**
+     * <p>Limits the incoming http requests kept for verification purposes. Unlike
+     * {@link #withRequestsRecordingDisabled()} the verification is still available, the oldest requests are evicted
+     * according to the given policy. For further explanation jump straight to
+     * {@link JadlerMocker#setRecordingPolicy(RecordingPolicy)}.</p>
+     *
+     * @param policy recording policy
+     * @return this ongoing configuration
+     * @see JadlerMocker#setRecordingPolicy(RecordingPolicy)
+     */
+    JadlerConfiguration withRecordingPolicy(RecordingPolicy policy);
+
+    /**
+     * <p>Sets the maximal length of an incoming http request body read to the heap, longer bodies are spilled
+     * to a memory-mapped temporary file. For further explanation jump straight to
+     * {@link JadlerMocker#setBodySpillThreshold(long)}.</p>
+     *
+     * @param threshold maximal length in bytes of a request body read to the heap
+     * @return this ongoing configuration
+     * @see JadlerMocker#setBodySpillThreshold(long)
+     */
+    JadlerConfiguration withBodySpillThreshold(long threshold);
+
+    /**
+     * <p>Limits the rate all stub responses together are sent at. For further explanation jump straight to
+     * {@link JadlerMocker#setBandwidthLimit(long)}.</p>
+     *
+     * @param bytesPerSecond maximal rate in bytes per second ({@code 0} means no limit)
+     * @return this ongoing configuration
+     * @see JadlerMocker#setBandwidthLimit(long)
+     */
+    JadlerConfiguration withBandwidthLimit(long bytesPerSecond);
+
 }
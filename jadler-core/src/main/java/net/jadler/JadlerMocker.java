@@ -8,9 +8,10 @@ import net.jadler.exception.JadlerException;
 import net.jadler.mocking.Mocker;
 import net.jadler.mocking.VerificationException;
 import net.jadler.mocking.Verifying;
-import net.jadler.stubbing.HttpStub;
+import net.jadler.stubbing.HttpStubIndex;
 import net.jadler.stubbing.RequestStubbing;
 import net.jadler.stubbing.StubResponse;
+import net.jadler.stubbing.StubRegistry;
 import net.jadler.stubbing.Stubber;
 import net.jadler.stubbing.Stubbing;
 import net.jadler.stubbing.StubbingFactory;
@@ -27,11 +28,12 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static org.hamcrest.Matchers.allOf;
 
@@ -53,6 +55,8 @@ import static org.hamcrest.Matchers.allOf;
 public class JadlerMocker implements StubHttpServerManager, Stubber, RequestManager, Mocker {
 
     private static final StubResponse NO_RULE_FOUND_RESPONSE;
+    private static final int DEFAULT_UNMATCHED_REQUESTS_CAPACITY = 100;
+    private static final int DEFAULT_PARALLEL_VERIFICATION_THRESHOLD = 10000;
     private static final Logger logger = LoggerFactory.getLogger(JadlerMocker.class);
 
     static {
@@ -65,15 +69,20 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
 
     private final StubHttpServer server;
     private final StubbingFactory stubbingFactory;
-    private final List<Stubbing> stubbings;
-    private final List<Request> receivedRequests;
-    private Deque<HttpStub> httpStubs;
+    private volatile RequestJournal receivedRequests;
+    private final List<RequestCounter> counters;
+    private volatile StubRegistry stubRegistry;
     private MultiMap defaultHeaders;
     private int defaultStatus;
     private Charset defaultEncoding;
-    private boolean recordRequests = true;
+    private volatile boolean recordRequests = true;
+    private volatile UnmatchedRequests unmatchedRequests;
+    private double mismatchLoggingSampleRate = 1.0;
+    private volatile int parallelVerificationThreshold = DEFAULT_PARALLEL_VERIFICATION_THRESHOLD;
+    private volatile long bodySpillThreshold = Long.MAX_VALUE;
+    private volatile long bandwidthLimit = 0;
     private boolean started = false;
-    private boolean configurable = true;
+    private volatile boolean configurable = true;
 
 
     /**
@@ -97,7 +106,6 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
         Validate.notNull(server, "server cannot be null");
         this.server = server;
 
-        this.stubbings = new LinkedList<Stubbing>();
         this.defaultHeaders = new MultiValueMap();
         this.defaultStatus = 200;
         this.defaultEncoding = Charset.forName("UTF-8");
@@ -105,9 +113,11 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
         Validate.notNull(stubbingFactory, "stubbingFactory cannot be null");
         this.stubbingFactory = stubbingFactory;
 
-        this.httpStubs = new LinkedList<HttpStub>();
+        this.stubRegistry = new StubRegistry();
 
-        this.receivedRequests = new ArrayList<Request>();
+        this.counters = new CopyOnWriteArrayList<RequestCounter>();
+        this.receivedRequests = new RequestJournal();
+        this.unmatchedRequests = new UnmatchedRequests(DEFAULT_UNMATCHED_REQUESTS_CAPACITY);
     }
 
     /**
@@ -218,57 +228,302 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
     @Override
     public RequestStubbing onRequest() {
         logger.debug("adding new stubbing...");
-        this.checkConfigurable();
 
         final Stubbing stubbing = this.stubbingFactory.createStubbing(defaultEncoding, defaultStatus, defaultHeaders);
-        stubbings.add(stubbing);
+        this.stubRegistry.add(stubbing);
         return stubbing;
     }
 
 
+    /**
+     * <p>Removes the given stubbing (created using {@link #onRequest()}) so its stub rule won't be applied to any
+     * subsequent http request. Unlike {@link #reset()} this method doesn't affect the received requests or any other
+     * stubbing, so it can be used even while the stub server is handling requests.</p>
+     *
+     * @param stubbing stubbing to be removed
+     * @return {@code true} if the stubbing has been removed, {@code false} if it hasn't been created by this mocker
+     * (or it has been removed already)
+     */
+    public boolean removeStubbing(final RequestStubbing stubbing) {
+        return this.stubRegistry.remove(stubbing);
+    }
+
+
+    /**
+     * <p>Removes all stubbings created so far. Unlike {@link #reset()} this method doesn't clear the received requests
+     * and doesn't affect the configuration of this mocker, so it can be used even while the stub server is handling
+     * requests.</p>
+     */
+    public void resetStubbings() {
+        this.stubRegistry.clear();
+    }
+
+
     /**
      * {@inheritDoc}
      */
     @Override
     public StubResponse provideStubResponseFor(final Request request) {
-        synchronized (this) {
-            if (this.configurable) {
-                this.configurable = false;
-                this.httpStubs = this.createHttpStubs();
+        if (this.configurable) {
+            synchronized (this) {
+                if (this.configurable) {
+                    this.stubRegistry.publish();
+                    this.configurable = false;
+                }
             }
+        }
 
-            if (this.recordRequests) {
-                this.receivedRequests.add(request);
-            }
+        //the counters must see the request before it's appended, otherwise a concurrent eviction could discard it
+        //from the counters before it has been offered
+        for (final RequestCounter counter : this.counters) {
+            counter.offer(request);
+        }
+
+        if (this.recordRequests) {
+            this.receivedRequests.append(request);
         }
 
-        for (final Iterator<HttpStub> it = this.httpStubs.descendingIterator(); it.hasNext(); ) {
-            final HttpStub rule = it.next();
-            if (rule.matches(request)) {
+        //all stub rules applied to this request must come from the very same snapshot, stubbings defined
+        //(or modified) since the previous request are published first
+        final StubRegistry registry = this.stubRegistry;
+        registry.publishChanges();
+        final HttpStubIndex httpStubs = registry.getSnapshot();
+        final HttpStubIndex.Match match = httpStubs.findMatch(request);
+        if (match != null) {
+            if (logger.isDebugEnabled()) {
                 final StringBuilder sb = new StringBuilder();
                 sb.append("Following rule will be applied:\n");
-                sb.append(rule);
+                sb.append(match.getStub());
                 logger.debug(sb.toString());
-
-                return rule.nextResponse(request);
             }
+
+            request.recordMatch(match.getStub());
+
+            //the request passed to the responder provides the path template variables
+            return match.getStub().nextResponse(match.getRequest());
         }
 
-        final StringBuilder sb = new StringBuilder();
-        sb.append("No suitable rule found. Reason:\n");
-        for (final HttpStub rule : this.httpStubs) {
-            sb.append("The rule '");
-            sb.append(rule);
-            sb.append("' cannot be applied. Mismatch:\n");
-            sb.append(rule.describeMismatch(request));
-            sb.append("\n");
+        //the body isn't kept if the requests are not supposed to be recorded
+        final UnmatchedRequest unmatched = new UnmatchedRequest(
+                this.recordRequests ? request : request.withoutBody(), httpStubs.getStubs());
+        this.unmatchedRequests.add(unmatched);
+
+        if (logger.isInfoEnabled() && this.isMismatchLogged()) {
+            logger.info(unmatched.describeMismatch());
         }
-        logger.info(sb.toString());
 
         return NO_RULE_FOUND_RESPONSE;
     }
 
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void responseCompleted(final Request req) {
+        Validate.notNull(req, "req cannot be null");
+
+        req.recordCompletion(System.nanoTime());
+    }
+
+
+    /**
+     * Returns all http requests received so far (minus the ones dropped according to the recording policy, see
+     * {@link #setRecordingPolicy(RecordingPolicy)}). Besides other things, every request provides the time it's been
+     * received at, the stub rule applied and the time the response has been sent at (see
+     * {@link Request#getReceivedNanos()}, {@link Request#getMatchedStub()} and {@link Request#getCompletedNanos()}).
+     *
+     * @return received http requests from the oldest one to the most recent one (never returns {@code null})
+     * @throws IllegalStateException if request recording is switched off
+     */
+    public List<Request> getReceivedRequests() {
+        this.checkRequestRecording();
+
+        return this.receivedRequests.snapshot();
+    }
+
+
+    /**
+     * <p>Returns the most recent http requests no stub rule could be applied to (the stub server responded
+     * with the {@code 404} status). The number of unmatched requests kept is limited,
+     * see {@link #setUnmatchedRequestsCapacity(int)}.</p>
+     *
+     * <p>The reason why a request hasn't been matched is computed lazily
+     * using {@link UnmatchedRequest#describeMismatch()}.</p>
+     *
+     * <p>If the requests recording is disabled (see {@link #setRecordRequests(boolean)}), the unmatched requests are
+     * kept without their bodies (so the body related parts of the mismatch description refer to an empty body).
+     * Use {@link #setUnmatchedRequestsCapacity(int)} to stop keeping them at all.</p>
+     *
+     * @return unmatched http requests from the oldest one to the most recent one (never returns {@code null})
+     */
+    public List<UnmatchedRequest> getUnmatchedRequests() {
+        return this.unmatchedRequests.snapshot();
+    }
+
+
+    /**
+     * @return total number of http requests no stub rule could be applied to (including the ones not kept anymore,
+     * see {@link #setUnmatchedRequestsCapacity(int)})
+     */
+    public long getUnmatchedRequestsCount() {
+        return this.unmatchedRequests.getTotalCount();
+    }
+
+
+    /**
+     * Sets the maximum number of unmatched requests kept for diagnostic purposes (see
+     * {@link #getUnmatchedRequests()}). Once the limit has been reached the oldest unmatched requests are discarded.
+     * If not set, the last 100 unmatched requests are kept.
+     *
+     * @param capacity maximum number of unmatched requests kept (cannot be negative, {@code 0} disables keeping
+     *                 unmatched requests at all)
+     */
+    public void setUnmatchedRequestsCapacity(final int capacity) {
+        Validate.isTrue(capacity >= 0, "capacity cannot be negative");
+        this.checkConfigurable();
+        this.unmatchedRequests = new UnmatchedRequests(capacity);
+    }
+
+
+    /**
+     * <p>When no stub rule can be applied to an incoming request, the reason (a mismatch description of every stub
+     * rule) is logged on the {@code INFO} level. Rendering the mismatch descriptions might be expensive when there
+     * are many stub rules and many unmatched requests, this method allows to log the reason just for a sample
+     * of unmatched requests.</p>
+     *
+     * <p>Regardless of this setting all unmatched requests are available via {@link #getUnmatchedRequests()}.</p>
+     *
+     * @param sampleRate a probability an unmatched request is logged, must be within the {@code [0, 1]} interval
+     *                   ({@code 1} means all unmatched requests are logged which is the default, {@code 0} means no
+     *                   unmatched request is logged)
+     */
+    public void setMismatchLoggingSampleRate(final double sampleRate) {
+        Validate.isTrue(sampleRate >= 0 && sampleRate <= 1, "sampleRate must be within the [0, 1] interval");
+        this.checkConfigurable();
+        this.mismatchLoggingSampleRate = sampleRate;
+    }
+
+
+    /**
+     * <p>Sets a policy limiting the incoming http requests kept for verification purposes. By default all incoming
+     * requests are kept in memory for the whole lifetime of this mocker (or until {@link #reset()} is called) which
+     * might exhaust the heap in long running tests. Unlike {@link #setRecordRequests(boolean)} a bounded policy
+     * doesn't disable the verification, the oldest requests are just evicted (either dropped or spilled to disk,
+     * see {@link RecordingPolicy}).</p>
+     *
+     * <p>Please note dropped requests are not taken into account by verifications (including the registered ones,
+     * see {@link net.jadler.mocking.Verifying#register()}), see {@link #getDroppedRequestsCount()}.</p>
+     *
+     * @param policy recording policy (cannot be {@code null})
+     */
+    public void setRecordingPolicy(final RecordingPolicy policy) {
+        Validate.notNull(policy, "policy cannot be null");
+        this.checkConfigurable();
+
+        final RequestJournal previous = this.receivedRequests;
+        //live counters must not count the dropped requests
+        this.receivedRequests = new RequestJournal(policy, new RequestJournal.DropListener() {
+
+            @Override
+            public void dropped(final Request request) {
+                for (final RequestCounter counter : counters) {
+                    counter.discard(request);
+                }
+            }
+        });
+        previous.clear();
+    }
+
+
+    /**
+     * @return number of incoming http requests evicted and dropped so far according to the recording policy
+     * (see {@link #setRecordingPolicy(RecordingPolicy)}). These requests are not taken into account by verifications.
+     */
+    public long getDroppedRequestsCount() {
+        return this.receivedRequests.getDroppedCount();
+    }
+
+
+    /**
+     * <p>Verifications evaluate their predicates against all received requests. When there are at least the given
+     * number of received requests, the evaluation is partitioned and run in parallel using the common
+     * {@link java.util.concurrent.ForkJoinPool}, otherwise it runs sequentially in the calling thread. If not set,
+     * verifications over at least 10000 received requests are evaluated in parallel.</p>
+     *
+     * <p>Please note the request predicates (matchers) must be thread-safe if evaluated in parallel. All predicates
+     * provided by Jadler are. The list of requests logged when a verification fails is always evaluated sequentially
+     * and in the order of receiving.</p>
+     *
+     * <p>Unlike other configuration methods, this one can be called at any time.</p>
+     *
+     * @param threshold minimal number of received requests evaluated in parallel (must be positive,
+     *                  {@link Integer#MAX_VALUE} disables the parallel evaluation)
+     */
+    public void setParallelVerificationThreshold(final int threshold) {
+        Validate.isTrue(threshold > 0, "threshold must be positive");
+        this.parallelVerificationThreshold = threshold;
+    }
+
+
+    /**
+     * <p>Sets the maximal length of an incoming http request body read to the heap. Longer bodies are streamed
+     * by the stub http server to a temporary file which is memory-mapped (see
+     * {@link net.jadler.stubbing.server.RequestBodyReader}), so even very large uploads can be received without
+     * exhausting the heap. Such a body is still available through the standard {@link Request} API and it's never
+     * loaded to the memory unless a request predicate or a responder actually reads it.</p>
+     *
+     * <p>If not set, request bodies are never spilled.</p>
+     *
+     * <p>Unlike other configuration methods, this one can be called at any time, the new threshold is applied
+     * to requests received afterwards.</p>
+     *
+     * @param threshold maximal length in bytes of a request body read to the heap (cannot be negative,
+     *                  {@link Long#MAX_VALUE} disables spilling)
+     */
+    public void setBodySpillThreshold(final long threshold) {
+        Validate.isTrue(threshold >= 0, "threshold cannot be negative");
+        this.bodySpillThreshold = threshold;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBodySpillThreshold() {
+        return this.bodySpillThreshold;
+    }
+
+
+    /**
+     * <p>Limits the rate all stub responses together are sent at by the stub http server, so a slow (or shared)
+     * link can be simulated. The server paces the responses using scheduled writes, so even thousands of throttled
+     * connections don't occupy a thread each. Besides this global limit each response can be limited separately
+     * using {@link net.jadler.stubbing.ResponseStubbing#withBandwidthLimit(long)}, the lower limit applies.</p>
+     *
+     * <p>If not set, the rate is not limited.</p>
+     *
+     * <p>Unlike other configuration methods, this one can be called at any time, the new limit is applied
+     * to responses sent afterwards.</p>
+     *
+     * @param bytesPerSecond maximal rate in bytes per second (cannot be negative, {@code 0} means no limit)
+     */
+    public void setBandwidthLimit(final long bytesPerSecond) {
+        Validate.isTrue(bytesPerSecond >= 0, "bytesPerSecond cannot be negative");
+        this.bandwidthLimit = bytesPerSecond;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBandwidthLimit() {
+        return this.bandwidthLimit;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -288,19 +543,51 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
         Validate.notNull(predicates, "predicates cannot be null");
         checkRequestRecording();
 
-        final Matcher<Request> all = allOf(predicates);
+        return this.countMatching(this.receivedRequests.snapshot(), predicates);
+    }
 
-        int cnt = 0;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RequestCounter registerVerification(final Collection<Matcher<? super Request>> requestPredicates) {
+        Validate.notNull(requestPredicates, "requestPredicates cannot be null");
 
         synchronized (this) {
-            for (final Request req : this.receivedRequests) {
-                if (all.matches(req)) {
-                    cnt++;
-                }
+            if (!this.configurable) {
+                throw new IllegalStateException("Once first http request has been served, "
+                        + "you can't register any verification anymore.");
             }
+
+            final RequestCounter counter = new RequestCounter(requestPredicates);
+            this.counters.add(counter);
+            return counter;
         }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evaluateRegisteredVerification(final RequestCounter counter,
+                                               final Matcher<Integer> nrRequestsPredicate) {
+        Validate.notNull(counter, "counter cannot be null");
+        Validate.notNull(nrRequestsPredicate, "nrRequestsPredicate cannot be null");
 
-        return cnt;
+        //requests exceeding the policy limits (for example the expired ones) are discarded from the counter first,
+        //so the counter agrees with a verification evaluated against the recorded requests
+        this.receivedRequests.evictIfNeeded();
+        final int cnt = counter.getCount();
+
+        if (!nrRequestsPredicate.matches(cnt)) {
+            if (this.recordRequests) {
+                this.logReceivedRequests(this.receivedRequests.snapshot(), counter.getPredicates());
+            }
+            throw new VerificationException(
+                    this.mismatchDescription(cnt, counter.getPredicates(), nrRequestsPredicate));
+        }
     }
 
 
@@ -313,13 +600,37 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
 
         this.checkRequestRecording();
 
-        synchronized (this) {
-            final int cnt = this.numberOfRequestsMatching(requestPredicates);
+        //both the counting and the logging must work with the very same requests
+        final List<Request> requests = this.receivedRequests.snapshot();
+        final int cnt = this.countMatching(requests, requestPredicates);
 
-            if (!nrRequestsPredicate.matches(cnt)) {
-                this.logReceivedRequests(requestPredicates);
-                throw new VerificationException(this.mismatchDescription(cnt, requestPredicates, nrRequestsPredicate));
-            }
+        if (!nrRequestsPredicate.matches(cnt)) {
+            this.logReceivedRequests(requests, requestPredicates);
+            throw new VerificationException(this.mismatchDescription(cnt, requestPredicates, nrRequestsPredicate));
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void evaluateWindowedVerification(final Collection<Matcher<? super Request>> requestPredicates,
+                                             final long windowNanos, final Matcher<Integer> maxRequestsPredicate) {
+        Validate.notNull(requestPredicates, "requestPredicates cannot be null");
+        Validate.isTrue(windowNanos > 0, "windowNanos must be positive");
+        Validate.notNull(maxRequestsPredicate, "maxRequestsPredicate cannot be null");
+
+        this.checkRequestRecording();
+
+        final List<Request> requests = this.receivedRequests.snapshot();
+        final int max = maxInWindow(requests, allOf(requestPredicates), windowNanos);
+
+        if (!maxRequestsPredicate.matches(max)) {
+            this.logReceivedRequests(requests, requestPredicates);
+            throw new VerificationException(this.mismatchDescription("The maximal number of http requests", max,
+                    requestPredicates, "received within any " + describeWindow(windowNanos) + " window ",
+                    maxRequestsPredicate));
         }
     }
 
@@ -327,8 +638,13 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
     /**
      * <p>Resets this mocker instance so it can be reused. This method clears all previously created stubs as well as
      * stored received requests (for mocking purpose,
-     * see {@link RequestManager#numberOfRequestsMatching(java.util.Collection)}). Once this method has been called
-     * new stubs can be created again using {@link #onRequest()}.</p>
+     * see {@link RequestManager#numberOfRequestsMatching(java.util.Collection)}) and unmatched requests (see
+     * {@link #getUnmatchedRequests()}). Once this method has been called new stubs can be created again using
+     * {@link #onRequest()}.</p>
+     *
+     * <p>Registered verifications (see {@link #registerVerification(java.util.Collection)}) are reset to zero and stay
+     * registered, so a {@link net.jadler.mocking.Verifying} instance registered before counts the requests received
+     * after the reset. New verifications can be registered again until the first request is received.</p>
      *
      * <p>Please note that calling this method in a test body <strong>always</strong> signalizes a poorly written test
      * with a problem with the granularity. In this case consider writing more fine grained tests instead of using this
@@ -386,9 +702,13 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
      */
     public void reset() {
         synchronized (this) {
-            this.stubbings.clear();
-            this.httpStubs.clear();
+            this.stubRegistry = new StubRegistry();
             this.receivedRequests.clear();
+            //the registered verifications stay registered, they count the requests received from now on
+            for (final RequestCounter counter : this.counters) {
+                counter.reset();
+            }
+            this.unmatchedRequests = new UnmatchedRequests(this.unmatchedRequests.getCapacity());
             this.configurable = true;
         }
     }
@@ -418,21 +738,64 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
     }
 
 
-    private Deque<HttpStub> createHttpStubs() {
-        final Deque<HttpStub> stubs = new LinkedList<HttpStub>();
-        for (final Stubbing stub : stubbings) {
-            stubs.add(stub.createRule());
+    private boolean isMismatchLogged() {
+        return this.mismatchLoggingSampleRate >= 1
+                || ThreadLocalRandom.current().nextDouble() < this.mismatchLoggingSampleRate;
+    }
+
+
+    /*
+     * @return maximal number of the matching requests received within any window of the given length
+     */
+    private static int maxInWindow(final List<Request> requests, final Matcher<Request> predicate,
+                                   final long windowNanos) {
+        final long[] times = new long[requests.size()];
+        int cnt = 0;
+        for (final Request req : requests) {
+            if (predicate.matches(req)) {
+                times[cnt++] = req.getReceivedNanos();
+            }
+        }
+
+        //concurrently received requests might have been recorded out of order
+        Arrays.sort(times, 0, cnt);
+
+        int max = 0;
+        int first = 0;
+        for (int i = 0; i < cnt; i++) {
+            while (times[i] - times[first] >= windowNanos) {
+                first++;
+            }
+            max = Math.max(max, i - first + 1);
         }
-        return stubs;
+        return max;
     }
 
 
-    private void logReceivedRequests(final Collection<Matcher<? super Request>> requestPredicates) {
+    private static String describeWindow(final long windowNanos) {
+        return windowNanos % 1000000 == 0 ? (windowNanos / 1000000) + " ms" : windowNanos + " ns";
+    }
+
+
+    private int countMatching(final List<Request> requests, final Collection<Matcher<? super Request>> predicates) {
+        return MatchingRequestsCounter.count(requests, allOf(predicates), this.parallelVerificationThreshold);
+    }
+
+
+    private void logReceivedRequests(final List<Request> requests,
+                                     final Collection<Matcher<? super Request>> requestPredicates) {
         final StringBuilder sb = new StringBuilder("Verification failed, here is a list of requests received so far:");
-        this.appendNoneIfEmpty(this.receivedRequests, sb);
+        this.appendNoneIfEmpty(requests, sb);
+
+        final long dropped = this.receivedRequests.getDroppedCount();
+        if (dropped > 0) {
+            sb.append("\n(");
+            sb.append(dropped);
+            sb.append(" older requests have been dropped according to the recording policy and are not listed)");
+        }
 
         int pos = 1;
-        for (final Request req : this.receivedRequests) {
+        for (final Request req : requests) {
             sb.append("\n");
             final Collection<Matcher<? super Request>> matching = new ArrayList<Matcher<? super Request>>();
             final Collection<Matcher<? super Request>> clashing = new ArrayList<Matcher<? super Request>>();
@@ -496,9 +859,16 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
 
     private String mismatchDescription(final int cnt, final Collection<Matcher<? super Request>> predicates,
                                        final Matcher<Integer> nrRequestsMatcher) {
+        return this.mismatchDescription("The number of http requests", cnt, predicates, "", nrRequestsMatcher);
+    }
+
+
+    private String mismatchDescription(final String subject, final int cnt,
+                                       final Collection<Matcher<? super Request>> predicates, final String qualifier,
+                                       final Matcher<Integer> nrRequestsMatcher) {
         final Description desc = new StringDescription();
 
-        desc.appendText("The number of http requests");
+        desc.appendText(subject);
         if (!predicates.isEmpty()) {
             desc.appendText(" having");
         }
@@ -514,6 +884,7 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
             desc.appendText(" ");
         }
 
+        desc.appendText(qualifier);
         desc.appendText("was expected to be ");
         desc.appendDescriptionOf(nrRequestsMatcher);
         desc.appendText(", but ");
@@ -526,7 +897,7 @@ public class JadlerMocker implements StubHttpServerManager, Stubber, RequestMana
     private synchronized void checkConfigurable() {
         if (!this.configurable) {
             throw new IllegalStateException("Once first http request has been served, "
-                    + "you can't do any stubbing anymore.");
+                    + "you can't change the configuration anymore.");
         }
     }
 
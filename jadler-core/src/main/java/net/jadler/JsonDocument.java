@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+import org.apache.commons.lang.Validate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * <p>A JSON request body (see {@link Request#getBodyAsJson()}) queried using JSON pointers
+ * (<a href="https://tools.ietf.org/html/rfc6901">RFC 6901</a>), for example {@code /order/items/0/id}.</p>
+ *
+ * <p>The body is parsed by a streaming parser lazily, only as far as needed to evaluate a pointer. Once the value
+ * the pointer refers to has been read (or it's clear there is no such a value), the parsing is suspended. The part
+ * of the document read so far is kept as a tree, so every part of the body is parsed at most once regardless of
+ * the number of evaluated pointers. As a consequence a syntax error following the evaluated values is not detected.
+ * </p>
+ *
+ * <p>JSON values are represented by following Java types: an object by an unmodifiable {@link Map} (the first
+ * occurrence of a duplicate member wins), an array by an unmodifiable {@link List}, a string by {@link String},
+ * an integral number by {@link Integer}, {@link Long} or {@link BigInteger} (the smallest type the value fits in),
+ * any other number by {@link Double}, {@code true} and {@code false} by {@link Boolean} and {@code null}
+ * by {@code null}.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class JsonDocument {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+
+    private Object root;
+    private boolean rootRead;
+    private final Deque<Frame> open;
+    private JadlerException failure;
+
+
+    /**
+     * @param reader reader providing the JSON document (cannot be {@code null}), it's read lazily
+     */
+    JsonDocument(final Reader reader) {
+        Validate.notNull(reader, "reader cannot be null");
+
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.pos = 0;
+        this.limit = 0;
+        this.open = new ArrayDeque<Frame>();
+    }
+
+
+    /**
+     * Evaluates the given JSON pointer.
+     *
+     * @param pointer a JSON pointer, an empty string refers to the whole document (cannot be {@code null})
+     * @return value the pointer refers to (see the class description for the representation of JSON values)
+     * or {@code null} if there is no such a value
+     * @throws JadlerException if the body is not a well-formed JSON document up to the value
+     */
+    public synchronized Object getValue(final String pointer) {
+        final List<String> tokens = parsePointer(pointer);
+
+        if (this.failure != null) {
+            throw new JadlerException(this.failure.getMessage(), this.failure);
+        }
+
+        try {
+            while (true) {
+                if (!this.rootRead) {
+                    this.root = this.readValue(null, null);
+                    this.rootRead = true;
+                    this.finishIfClosed();
+                    continue;
+                }
+
+                final Object res = this.resolve(tokens);
+                if (res != Unresolved.INSTANCE) {
+                    return res;
+                }
+                this.step();
+            }
+        } catch (final JadlerException e) {
+            this.failure = e;
+            throw e;
+        } catch (final IOException e) {
+            this.failure = new JadlerException("cannot read the JSON request body", e);
+            throw this.failure;
+        }
+    }
+
+
+    /**
+     * Splits the given JSON pointer to reference tokens.
+     *
+     * @param pointer JSON pointer (cannot be {@code null}, must be empty or start with {@code /})
+     * @return unescaped reference tokens
+     */
+    public static List<String> parsePointer(final String pointer) {
+        Validate.notNull(pointer, "pointer cannot be null");
+        Validate.isTrue(pointer.isEmpty() || pointer.charAt(0) == '/', "pointer must be empty or start with '/'");
+
+        if (pointer.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<String> res = new ArrayList<String>();
+        int start = 1;
+        while (true) {
+            int end = pointer.indexOf('/', start);
+            if (end < 0) {
+                end = pointer.length();
+            }
+            res.add(pointer.substring(start, end).replace("~1", "/").replace("~0", "~"));
+
+            if (end == pointer.length()) {
+                return res;
+            }
+            start = end + 1;
+        }
+    }
+
+
+    /*
+     * @return the value, null if there is no such a value or Unresolved.INSTANCE if more has to be read
+     */
+    private Object resolve(final List<String> tokens) {
+        Object node = this.root;
+
+        for (final String token : tokens) {
+            if (node instanceof Map) {
+                final Map<?, ?> map = (Map<?, ?>) node;
+                if (map.containsKey(token)) {
+                    node = map.get(token);
+                } else {
+                    return this.isOpen(node) ? Unresolved.INSTANCE : null;
+                }
+            } else if (node instanceof List) {
+                final List<?> list = (List<?>) node;
+                final int index = arrayIndex(token);
+                if (index < 0) {
+                    return null;
+                }
+                if (index < list.size()) {
+                    node = list.get(index);
+                } else {
+                    return this.isOpen(node) ? Unresolved.INSTANCE : null;
+                }
+            } else {
+                return null;
+            }
+        }
+
+        return this.isOpen(node) ? Unresolved.INSTANCE : node;
+    }
+
+
+    /*
+     * @return the array index the given token represents or -1 if it's not an index
+     */
+    private static int arrayIndex(final String token) {
+        if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(token);
+    }
+
+
+    private boolean isOpen(final Object node) {
+        for (final Frame frame : this.open) {
+            if (frame.container == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /*
+     * Reads the next member or element of the innermost open container (or closes the container).
+     */
+    private void step() throws IOException {
+        final Frame frame = this.open.peek();
+        final char c = this.nextToken();
+
+        if (frame.map != null) {
+            if (c == '}' && frame.empty) {
+                this.close();
+                return;
+            }
+            if (!frame.empty) {
+                if (c == '}') {
+                    this.close();
+                    return;
+                }
+                this.expect(c, ',');
+                this.expect(this.nextToken(), '"');
+            } else {
+                this.expect(c, '"');
+            }
+            frame.empty = false;
+
+            final String key = this.readString();
+            this.expect(this.nextToken(), ':');
+
+            //the first occurrence of a duplicate member wins, the others are read but not kept
+            if (frame.map.containsKey(key)) {
+                this.readValue(null, null);
+            } else {
+                frame.map.put(key, this.readValue(frame, key));
+            }
+        } else {
+            if (c == ']' && frame.empty) {
+                this.close();
+                return;
+            }
+            if (!frame.empty) {
+                if (c == ']') {
+                    this.close();
+                    return;
+                }
+                this.expect(c, ',');
+            } else {
+                this.pos--;
+            }
+            frame.empty = false;
+            frame.list.add(this.readValue(frame, frame.list.size()));
+        }
+    }
+
+
+    /*
+     * Reads a value. A scalar value is read whole, a container is just opened (and pushed to the stack
+     * of open containers if it's going to be attached to the given parent).
+     */
+    private Object readValue(final Frame parent, final Object slot) throws IOException {
+        final char c = this.nextToken();
+        switch (c) {
+            case '{':
+                final Map<String, Object> map = new LinkedHashMap<String, Object>();
+                this.open.push(new Frame(map, null, parent, slot));
+                return map;
+            case '[':
+                final List<Object> list = new ArrayList<Object>();
+                this.open.push(new Frame(null, list, parent, slot));
+                return list;
+            case '"':
+                return this.readString();
+            case 't':
+                this.readLiteral("rue");
+                return Boolean.TRUE;
+            case 'f':
+                this.readLiteral("alse");
+                return Boolean.FALSE;
+            case 'n':
+                this.readLiteral("ull");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    this.pos--;
+                    return this.readNumber();
+                }
+                throw this.malformed("unexpected character '" + c + "'");
+        }
+    }
+
+
+    /*
+     * Closes the innermost open container, the container is replaced by its unmodifiable view in its parent.
+     */
+    @SuppressWarnings("unchecked")
+    private void close() throws IOException {
+        final Frame frame = this.open.pop();
+        final Object complete = frame.map != null
+                ? Collections.unmodifiableMap(frame.map)
+                : Collections.unmodifiableList(frame.list);
+
+        if (frame.parent == null) {
+            if (frame.container == this.root) {
+                this.root = complete;
+            }
+        } else if (frame.parent.map != null) {
+            //a duplicate member has never been attached
+            if (frame.parent.map.get(frame.slot) == frame.container) {
+                frame.parent.map.put((String) frame.slot, complete);
+            }
+        } else {
+            frame.parent.list.set((Integer) frame.slot, complete);
+        }
+
+        this.finishIfClosed();
+    }
+
+
+    /*
+     * Checks nothing but whitespace follows the document once all containers have been closed.
+     */
+    private void finishIfClosed() throws IOException {
+        if (this.open.isEmpty() && this.rootRead) {
+            final int c = this.nextTokenOrEnd();
+            if (c >= 0) {
+                throw this.malformed("unexpected character '" + (char) c + "' after the document");
+            }
+        }
+    }
+
+
+    private String readString() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        while (true) {
+            final char c = this.next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            final char escaped = this.next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(escaped);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        final int digit = Character.digit(this.next(), 16);
+                        if (digit < 0) {
+                            throw this.malformed("invalid unicode escape sequence");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    sb.append((char) code);
+                    break;
+                default:
+                    throw this.malformed("invalid escape sequence '\\" + escaped + "'");
+            }
+        }
+    }
+
+
+    private Object readNumber() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        boolean integral = true;
+
+        while (true) {
+            final int c = this.peek();
+            if (c >= '0' && c <= '9' || c == '-' || c == '+') {
+                sb.append((char) c);
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                sb.append((char) c);
+                integral = false;
+            } else {
+                break;
+            }
+            this.pos++;
+        }
+
+        final String number = sb.toString();
+        try {
+            if (!integral) {
+                return Double.valueOf(number);
+            }
+            final BigInteger res = new BigInteger(number);
+            if (res.bitLength() < Integer.SIZE) {
+                return res.intValue();
+            }
+            if (res.bitLength() < Long.SIZE) {
+                return res.longValue();
+            }
+            return res;
+        } catch (final NumberFormatException e) {
+            throw this.malformed("invalid number '" + number + "'");
+        }
+    }
+
+
+    private void readLiteral(final String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (this.next() != rest.charAt(i)) {
+                throw this.malformed("invalid literal");
+            }
+        }
+    }
+
+
+    private void expect(final char actual, final char expected) {
+        if (actual != expected) {
+            throw this.malformed("expected '" + expected + "' but found '" + actual + "'");
+        }
+    }
+
+
+    /*
+     * @return next non-whitespace character
+     */
+    private char nextToken() throws IOException {
+        final int c = this.nextTokenOrEnd();
+        if (c < 0) {
+            throw this.malformed("unexpected end of the document");
+        }
+        return (char) c;
+    }
+
+
+    private int nextTokenOrEnd() throws IOException {
+        while (true) {
+            final int c = this.peek();
+            if (c < 0) {
+                return c;
+            }
+            this.pos++;
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+
+    private char next() throws IOException {
+        final int c = this.peek();
+        if (c < 0) {
+            throw this.malformed("unexpected end of the document");
+        }
+        this.pos++;
+        return (char) c;
+    }
+
+
+    private int peek() throws IOException {
+        if (this.pos == this.limit) {
+            final int read = this.reader.read(this.buffer);
+            if (read <= 0) {
+                return -1;
+            }
+            this.pos = 0;
+            this.limit = read;
+        }
+        return this.buffer[this.pos];
+    }
+
+
+    private JadlerException malformed(final String message) {
+        return new JadlerException("malformed JSON request body: " + message);
+    }
+
+
+    /*
+     * An open (not completely read yet) object or array.
+     */
+    private static class Frame {
+        private final Map<String, Object> map;
+        private final List<Object> list;
+        private final Object container;
+        private final Frame parent;
+        private final Object slot;
+        private boolean empty;
+
+        private Frame(final Map<String, Object> map, final List<Object> list, final Frame parent, final Object slot) {
+            this.map = map;
+            this.list = list;
+            this.container = map != null ? map : list;
+            this.parent = parent;
+            this.slot = slot;
+            this.empty = true;
+        }
+    }
+
+
+    private enum Unresolved {
+        INSTANCE
+    }
+}
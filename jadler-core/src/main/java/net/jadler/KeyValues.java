@@ -4,17 +4,18 @@
  */
 package net.jadler;
 
-import org.apache.commons.collections.MultiMap;
-import org.apache.commons.collections.map.MultiValueMap;
 import org.apache.commons.lang.Validate;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -32,23 +33,47 @@ import java.util.Set;
  * ({@link #add(java.lang.String, java.lang.String)}, {@link #addAll(net.jadler.KeyValues)} create new instances
  * rather than modifying the instance.</p>
  *
+ * <p>Keys are normalized (see {@link #normalize(String)}) when added. The values are grouped by the normalized keys
+ * lazily on the first lookup, the lookups then neither normalize a normalized key again nor copy the values, so
+ * a lookup by a key normalized in advance doesn't allocate at all.</p>
+ *
+ * <p>The key-value pairs are stored in the order of addition in two parallel arrays (normalized keys and values)
+ * shared by an instance and the instances created from it. An addition appends to the shared arrays in place unless
+ * another instance has already been created from the very same instance (only then the arrays are copied), so
+ * creating an instance by a chain of {@code n} additions takes {@code O(n)} time rather than {@code O(n^2)}.</p>
+ *
  * @see Request
  * @see net.jadler.stubbing.StubResponse
  */
 public class KeyValues {
 
+    private static final int INITIAL_CAPACITY = 8;
+    //must be initialized before the empty instance
+    private static final Storage NO_STORAGE = new Storage(0);
+
     /**
      * An empty instance.
      */
     public static final KeyValues EMPTY = new KeyValues();
-    private final MultiMap values;
+
+    private final Storage storage;
+    private final int size;
+
+    //values grouped by keys, racy single-check is fine since the map is never modified once built
+    private volatile Map<String, List<String>> index;
 
 
     /**
      * Creates new empty instance.
      */
     public KeyValues() {
-        this.values = new MultiValueMap();
+        this(NO_STORAGE, 0);
+    }
+
+
+    private KeyValues(final Storage storage, final int size) {
+        this.storage = storage;
+        this.size = size;
     }
 
 
@@ -61,16 +86,16 @@ public class KeyValues {
      * @param value value (cannot be {@code null}, however can be empty for valueless headers)
      * @return an exact copy of this instance containing all existing values plus the new one
      */
-    @SuppressWarnings("unchecked")
     public KeyValues add(final String key, final String value) {
         Validate.notEmpty(key, "key cannot be empty");
         Validate.notNull(value, "value cannot be null, use an empty string instead");
 
-        final KeyValues res = new KeyValues();
-        res.values.putAll(this.values);
-        res.values.put(key.toLowerCase(), value);
+        final Storage target = this.extend(1);
+        target.keys[this.size] = normalize(key);
+        target.values[this.size] = value;
 
-        return res;
+        //the arrays are written before the final fields of the new instance are frozen
+        return new KeyValues(target, this.size + 1);
     }
 
 
@@ -82,14 +107,37 @@ public class KeyValues {
      * @param keyValues values to be added no(cannot be {@code null})
      * @return an exact copy of this instance containing all existing values plus the new ones
      */
-    @SuppressWarnings("unchecked")
     public KeyValues addAll(final KeyValues keyValues) {
         Validate.notNull(keyValues, "keyValues cannot be null");
 
-        final KeyValues res = new KeyValues();
-        res.values.putAll(this.values);
-        res.values.putAll(keyValues.values);
-        return res;
+        if (keyValues.size == 0) {
+            return new KeyValues(this.storage, this.size);
+        }
+        if (this.size == 0) {
+            return new KeyValues(keyValues.storage, keyValues.size);
+        }
+
+        final Storage target = this.extend(keyValues.size);
+        System.arraycopy(keyValues.storage.keys, 0, target.keys, this.size, keyValues.size);
+        System.arraycopy(keyValues.storage.values, 0, target.values, this.size, keyValues.size);
+
+        return new KeyValues(target, this.size + keyValues.size);
+    }
+
+
+    /**
+     * Normalizes the given key the very same way keys are normalized when added to an instance of this class:
+     * the key is lower-cased (regardless of the default locale) and interned. Lookups by a normalized key
+     * don't allocate, so keys used repeatedly (by request matchers for example) should be normalized in advance.
+     *
+     * @param key key to be normalized (cannot be empty)
+     * @return normalized key
+     */
+    public static String normalize(final String key) {
+        Validate.notEmpty(key, "key cannot be empty");
+
+        //toLowerCase returns the very same instance if there is nothing to lower-case
+        return key.toLowerCase(Locale.ENGLISH).intern();
     }
 
 
@@ -100,10 +148,8 @@ public class KeyValues {
      * @return single (first) value for the given key or {@code null}, if there is no such a key in this instance
      */
     public String getValue(final String key) {
-        Validate.notEmpty(key, "key cannot be empty");
-
-        final List<String> allValues = this.getValues(key);
-        return allValues != null ? allValues.get(0) : null;
+        final List<String> values = this.getValues(key);
+        return values == null ? null : values.get(0);
     }
 
 
@@ -111,31 +157,80 @@ public class KeyValues {
      * Returns all values for the given key
      *
      * @param key key (case insensitive)
-     * @return all values of the given header or {@code null}, if there is no such a key in this instance
+     * @return read-only view of all values of the given key or {@code null}, if there is no such a key in this
+     * instance (the view is shared by all lookups, it's not a copy)
      */
     public List<String> getValues(final String key) {
-        Validate.notEmpty(key, "name cannot be empty");
+        Validate.notEmpty(key, "key cannot be empty");
 
-        @SuppressWarnings("unchecked") final List<String> result = (List<String>) values.get(key.toLowerCase());
-        return result == null || result.isEmpty() ? null : new ArrayList<String>(result);
+        final Map<String, List<String>> idx = this.index();
+        //no need to normalize if the key is normalized already
+        final List<String> res = idx.get(key);
+        return res != null ? res : idx.get(key.toLowerCase(Locale.ENGLISH));
     }
 
 
     /**
-     * @return all keys (lower-cased) from this instance (never returns {@code null})
+     * @return all keys (lower-cased) from this instance in the order of addition (never returns {@code null})
      */
     public Set<String> getKeys() {
-        @SuppressWarnings("unchecked") final Set<String> result = new HashSet<String>(this.values.keySet());
+        final Set<String> result = new LinkedHashSet<String>();
+        for (int i = 0; i < this.size; i++) {
+            result.add(this.storage.keys[i]);
+        }
         return result;
     }
 
 
+    /*
+     * Provides storage with all pairs of this instance and count free slots following them. The shared storage is
+     * used if no other instance has claimed the slots after this one already, otherwise the pairs are copied.
+     */
+    private Storage extend(final int count) {
+        final int newSize = this.size + count;
+
+        if (newSize <= this.storage.keys.length && this.storage.claim(this.size, newSize)) {
+            return this.storage;
+        }
+
+        final Storage res = new Storage(Math.max(INITIAL_CAPACITY, Math.max(newSize, 2 * this.size)));
+        System.arraycopy(this.storage.keys, 0, res.keys, 0, this.size);
+        System.arraycopy(this.storage.values, 0, res.values, 0, this.size);
+        res.claim(0, newSize);
+        return res;
+    }
+
+
+    /*
+     * @return all values (read-only lists) grouped by keys, both in the order of addition
+     */
+    private Map<String, List<String>> index() {
+        Map<String, List<String>> res = this.index;
+        if (res == null) {
+            res = new LinkedHashMap<String, List<String>>();
+            for (int i = 0; i < this.size; i++) {
+                List<String> vals = res.get(this.storage.keys[i]);
+                if (vals == null) {
+                    vals = new ArrayList<String>(2);
+                    res.put(this.storage.keys[i], vals);
+                }
+                vals.add(this.storage.values[i]);
+            }
+
+            for (final Map.Entry<String, List<String>> e : res.entrySet()) {
+                e.setValue(Collections.unmodifiableList(e.getValue()));
+            }
+            this.index = res;
+        }
+        return res;
+    }
+
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
-        for (@SuppressWarnings("unchecked") final Iterator<Map.Entry<String, Collection<String>>> it
-             = this.values.entrySet().iterator(); it.hasNext(); ) {
-            final Map.Entry<String, Collection<String>> e = it.next();
+        for (final Iterator<Map.Entry<String, List<String>>> it = this.index().entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<String, List<String>> e = it.next();
 
             for (final Iterator<String> it2 = e.getValue().iterator(); it2.hasNext(); ) {
                 sb.append(e.getKey()).append(": ").append(it2.next());
@@ -156,7 +251,7 @@ public class KeyValues {
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 43 * hash + (this.values != null ? this.values.hashCode() : 0);
+        hash = 43 * hash + this.index().hashCode();
         return hash;
     }
 
@@ -170,9 +265,34 @@ public class KeyValues {
             return false;
         }
         final KeyValues other = (KeyValues) obj;
-        if (this.values != other.values && (this.values == null || !this.values.equals(other.values))) {
+        if (this.size != other.size) {
             return false;
         }
-        return true;
+        if (this.storage == other.storage) {
+            return true;
+        }
+        //the order of values of different keys doesn't matter
+        return this.index().equals(other.index());
+    }
+
+
+    /*
+     * Parallel arrays of keys and values shared by instances. Slots up to the claimed count are owned by
+     * the instances created so far, any slot is written just once before being published by a new instance.
+     */
+    private static class Storage {
+        private final String[] keys;
+        private final String[] values;
+        private final AtomicInteger claimed;
+
+        private Storage(final int capacity) {
+            this.keys = new String[capacity];
+            this.values = new String[capacity];
+            this.claimed = new AtomicInteger();
+        }
+
+        private boolean claim(final int from, final int to) {
+            return this.claimed.compareAndSet(from, to);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * <p>Counts requests matching a predicate. Small lists of requests are evaluated sequentially in the calling thread,
+ * lists having at least the given threshold of requests are partitioned and evaluated in parallel using the common
+ * {@link ForkJoinPool}.</p>
+ *
+ * <p>The evaluated list must support fast random access and must not be modified during the evaluation (a journal
+ * snapshot fulfills both conditions). The predicate must be thread-safe when evaluated in parallel.</p>
+ *
+ * <p>This class is package private and used internally only.</p>
+ */
+class MatchingRequestsCounter {
+
+    private static final int MIN_PARTITION_SIZE = 1024;
+
+
+    private MatchingRequestsCounter() {
+    }
+
+
+    /**
+     * @param requests          requests to be evaluated (cannot be {@code null})
+     * @param predicate         predicate the counted requests must match (cannot be {@code null})
+     * @param parallelThreshold the minimal number of requests evaluated in parallel
+     * @return number of requests matching the given predicate
+     */
+    static int count(final List<Request> requests, final Matcher<? super Request> predicate,
+                     final int parallelThreshold) {
+        Validate.notNull(requests, "requests cannot be null");
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        final int size = requests.size();
+
+        if (size < parallelThreshold || size < 2) {
+            return countSequentially(requests, predicate, 0, size);
+        }
+
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int partitionSize = Math.max(Math.min(MIN_PARTITION_SIZE, size / 2),
+                size / (4 * pool.getParallelism()));
+
+        return pool.invoke(new CountingTask(requests, predicate, 0, size, partitionSize));
+    }
+
+
+    private static int countSequentially(final List<Request> requests, final Matcher<? super Request> predicate,
+                                         final int from, final int to) {
+        int cnt = 0;
+        for (int i = from; i < to; i++) {
+            if (predicate.matches(requests.get(i))) {
+                cnt++;
+            }
+        }
+        return cnt;
+    }
+
+
+    private static class CountingTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Request> requests;
+        private final transient Matcher<? super Request> predicate;
+        private final int from;
+        private final int to;
+        private final int partitionSize;
+
+        private CountingTask(final List<Request> requests, final Matcher<? super Request> predicate,
+                             final int from, final int to, final int partitionSize) {
+            this.requests = requests;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (this.to - this.from <= this.partitionSize) {
+                return countSequentially(this.requests, this.predicate, this.from, this.to);
+            }
+
+            final int middle = (this.from + this.to) >>> 1;
+            final CountingTask left = new CountingTask(this.requests, this.predicate, this.from, middle,
+                    this.partitionSize);
+            left.fork();
+
+            final int right = new CountingTask(this.requests, this.predicate, middle, this.to,
+                    this.partitionSize).compute();
+
+            return right + left.join();
+        }
+    }
+}
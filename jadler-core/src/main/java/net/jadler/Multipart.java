@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * <p>Splits a multipart body (<a href="https://tools.ietf.org/html/rfc2046#section-5.1">RFC 2046</a>) to parts.
+ * Only the boundaries are searched for in the body, the content of every part is a view of the body rather than
+ * a copy. A malformed body is parsed leniently: a part not terminated by a boundary is ignored.</p>
+ *
+ * <p>Package private, used by {@link Request} only.</p>
+ */
+class Multipart {
+
+    private static final Charset HEADERS_ENCODING = Charset.forName("UTF-8");
+    private static final byte[] CLOSE = {'-', '-'};
+    private static final byte[] LINE_BREAK = {'\r', '\n'};
+    private static final byte[] EMPTY_LINE = {'\r', '\n', '\r', '\n'};
+
+
+    private Multipart() {
+        //gtfo
+    }
+
+
+    /**
+     * @param contentType value of the {@code Content-Type} header of the request (can be {@code null})
+     * @return the boundary of a multipart body or {@code null} if the content type is not a multipart one
+     */
+    static String boundary(final String contentType) {
+        if (contentType == null || !contentType.trim().toLowerCase().startsWith("multipart/")) {
+            return null;
+        }
+        final String res = parameter(contentType, "boundary");
+        return res == null || res.isEmpty() ? null : res;
+    }
+
+
+    /**
+     * @param contentType value of a {@code Content-Type} header (can be {@code null})
+     * @param defaultCharset charset to be used if the content type doesn't define a supported one
+     * @return charset set by the given content type or the default one
+     */
+    static Charset charset(final String contentType, final Charset defaultCharset) {
+        final String name = contentType == null ? null : parameter(contentType, "charset");
+        if (name == null) {
+            return defaultCharset;
+        }
+
+        try {
+            return Charset.forName(name);
+        } catch (final IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return defaultCharset;
+        }
+    }
+
+
+    /**
+     * Splits the given body to parts.
+     *
+     * @param body multipart body (its position and limit are not modified)
+     * @param boundary boundary of the parts
+     * @param encoding encoding of parts not defining one
+     * @return all parts of the body
+     */
+    static List<Part> parse(final ByteBuffer body, final String boundary, final Charset encoding) {
+        final ByteBuffer b = body.slice();
+        final byte[] delimiter = ("\r\n--" + boundary).getBytes(Charset.forName("ISO-8859-1"));
+        final List<Part> res = new ArrayList<Part>();
+
+        //the very first delimiter doesn't need to be preceded by a line break
+        int pos;
+        if (startsWith(b, 0, delimiter, 2)) {
+            pos = delimiter.length - 2;
+        } else {
+            final int first = indexOf(b, delimiter, 0);
+            if (first < 0) {
+                return res;
+            }
+            pos = first + delimiter.length;
+        }
+
+        while (true) {
+            //the close delimiter
+            if (startsWith(b, pos, CLOSE, 0)) {
+                return res;
+            }
+
+            pos = skipLine(b, pos);
+            if (pos < 0) {
+                return res;
+            }
+
+            final int headersEnd = headersEnd(b, pos);
+            if (headersEnd < 0) {
+                return res;
+            }
+            final int contentStart = headersEnd == pos ? pos + 2 : headersEnd + 4;
+
+            //the line break terminating the headers can be a part of the delimiter of an empty part
+            final int contentEnd = indexOf(b, delimiter, contentStart - 2);
+            if (contentEnd < 0) {
+                return res;
+            }
+
+            res.add(part(b, pos, headersEnd, contentStart, contentEnd, encoding));
+            pos = contentEnd + delimiter.length;
+        }
+    }
+
+
+    private static Part part(final ByteBuffer b, final int headersStart, final int headersEnd,
+            final int contentStart, final int contentEnd, final Charset encoding) {
+        KeyValues headers = new KeyValues();
+
+        if (headersEnd > headersStart) {
+            final ByteBuffer raw = b.duplicate();
+            raw.limit(headersEnd).position(headersStart);
+
+            for (final String line : HEADERS_ENCODING.decode(raw).toString().split("\r\n")) {
+                final int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers = headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+                }
+            }
+        }
+
+        final String disposition = headers.getValue("content-disposition");
+        final String name = disposition == null ? null : parameter(disposition, "name");
+        final String fileName = disposition == null ? null : parameter(disposition, "filename");
+
+        final ByteBuffer content = b.duplicate();
+        content.limit(Math.max(contentStart, contentEnd)).position(contentStart);
+
+        return new Part(headers, name, fileName, content.slice(), encoding);
+    }
+
+
+    /**
+     * @param headerValue a header value with parameters, for example {@code form-data; name="field"}
+     * @param parameterName name of the parameter (case insensitive)
+     * @return value of the given parameter (unquoted) or {@code null} if not present
+     */
+    static String parameter(final String headerValue, final String parameterName) {
+        int pos = headerValue.indexOf(';');
+
+        while (pos >= 0 && pos < headerValue.length()) {
+            pos++;
+            while (pos < headerValue.length() && Character.isWhitespace(headerValue.charAt(pos))) {
+                pos++;
+            }
+
+            final int eq = headerValue.indexOf('=', pos);
+            if (eq < 0) {
+                return null;
+            }
+            final String name = headerValue.substring(pos, eq).trim();
+
+            final StringBuilder value = new StringBuilder();
+            pos = eq + 1;
+            if (pos < headerValue.length() && headerValue.charAt(pos) == '"') {
+                pos++;
+                while (pos < headerValue.length() && headerValue.charAt(pos) != '"') {
+                    if (headerValue.charAt(pos) == '\\' && pos + 1 < headerValue.length()) {
+                        pos++;
+                    }
+                    value.append(headerValue.charAt(pos++));
+                }
+                pos = headerValue.indexOf(';', pos);
+            } else {
+                final int end = headerValue.indexOf(';', pos);
+                value.append(headerValue.substring(pos, end < 0 ? headerValue.length() : end).trim());
+                pos = end;
+            }
+
+            if (name.equalsIgnoreCase(parameterName)) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+
+
+    /*
+     * Skips the rest of a delimiter line (transport padding and the line break).
+     * @return start of the next line or -1 if there is no next line
+     */
+    private static int skipLine(final ByteBuffer b, final int from) {
+        for (int i = from; i < b.limit(); i++) {
+            if (b.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+
+    /*
+     * @return position of the empty line terminating the headers starting at the given position or -1
+     */
+    private static int headersEnd(final ByteBuffer b, final int from) {
+        if (startsWith(b, from, LINE_BREAK, 0)) {
+            return from;
+        }
+        return indexOf(b, EMPTY_LINE, from);
+    }
+
+
+    private static int indexOf(final ByteBuffer b, final byte[] pattern, final int from) {
+        final int last = b.limit() - pattern.length;
+        for (int i = from; i <= last; i++) {
+            if (b.get(i) == pattern[0] && startsWith(b, i, pattern, 0)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /*
+     * @return true if the buffer contains the pattern (from the given pattern offset) at the given position
+     */
+    private static boolean startsWith(final ByteBuffer b, final int pos, final byte[] pattern, final int offset) {
+        if (pos + pattern.length - offset > b.limit()) {
+            return false;
+        }
+        for (int i = offset; i < pattern.length; i++) {
+            if (b.get(pos + i - offset) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
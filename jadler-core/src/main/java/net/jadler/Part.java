@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+
+/**
+ * <p>A part of a multipart request body (see {@link Request#getParts()}).</p>
+ *
+ * <p>The content of a part is a view of the request body, it's never copied. It's decoded to a string only
+ * if {@link #getContentAsString()} is called, so predicates working with large file parts should use
+ * {@link #getContentAsBuffer()} instead.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ */
+public class Part {
+
+    private final KeyValues headers;
+    private final String name;
+    private final String fileName;
+    //never modified, only read-only views are provided
+    private final ByteBuffer content;
+    private final Charset encoding;
+
+    //lazily decoded content, racy single-check is fine since strings are immutable
+    private volatile String contentAsString;
+
+
+    /**
+     * @param headers headers of this part (cannot be {@code null})
+     * @param name name of this part (the {@code name} parameter of the {@code Content-Disposition} header)
+     *             or {@code null}
+     * @param fileName file name of this part (the {@code filename} parameter of the {@code Content-Disposition}
+     *                 header) or {@code null}
+     * @param content content of this part (cannot be {@code null})
+     * @param encoding encoding of the content if the part headers don't define one (cannot be {@code null})
+     */
+    Part(final KeyValues headers, final String name, final String fileName, final ByteBuffer content,
+            final Charset encoding) {
+        Validate.notNull(headers, "headers cannot be null");
+        Validate.notNull(content, "content cannot be null");
+        Validate.notNull(encoding, "encoding cannot be null");
+
+        this.headers = headers;
+        this.name = name;
+        this.fileName = fileName;
+        this.content = content;
+        this.encoding = encoding;
+    }
+
+
+    /**
+     * @return name of this part (the {@code name} parameter of the {@code Content-Disposition} header)
+     * or {@code null} if not defined
+     */
+    public String getName() {
+        return this.name;
+    }
+
+
+    /**
+     * @return file name of this part (the {@code filename} parameter of the {@code Content-Disposition} header)
+     * or {@code null} if not defined
+     */
+    public String getFileName() {
+        return this.fileName;
+    }
+
+
+    /**
+     * @return all headers of this part (never returns {@code null})
+     */
+    public KeyValues getHeaders() {
+        return this.headers;
+    }
+
+
+    /**
+     * @return value of the {@code Content-Type} header of this part or {@code null} if not defined
+     */
+    public String getContentType() {
+        return this.headers.getValue("content-type");
+    }
+
+
+    /**
+     * @return length of the content of this part in bytes
+     */
+    public int getLength() {
+        return this.content.remaining();
+    }
+
+
+    /**
+     * @return content of this part as a read-only {@link ByteBuffer} view of the request body (every call returns
+     * a new view with its own position and limit)
+     */
+    public ByteBuffer getContentAsBuffer() {
+        return this.content.asReadOnlyBuffer();
+    }
+
+
+    /**
+     * @return content of this part decoded using the charset set by the {@code Content-Type} header of this part.
+     * If not set, the encoding of the request (or UTF-8 if the request doesn't define one either) is used.
+     * The content is decoded at most once.
+     */
+    public String getContentAsString() {
+        String res = this.contentAsString;
+        if (res == null) {
+            final Charset charset = Multipart.charset(this.getContentType(), this.encoding);
+            res = charset.decode(this.content.duplicate()).toString();
+            this.contentAsString = res;
+        }
+        return res;
+    }
+
+
+    @Override
+    public String toString() {
+        return "{name=" + this.name + ", fileName=" + this.fileName + ", headers=(" + this.headers + "), length="
+                + this.getLength() + "}";
+    }
+}
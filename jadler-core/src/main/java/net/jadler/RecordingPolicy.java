@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>Defines how many incoming http requests {@link JadlerMocker} keeps in memory for verification purposes. By default
+ * all incoming requests (including their bodies) are kept in memory for the whole lifetime of the mocker which might
+ * be a problem in long running (soak, performance) tests. A recording policy limits the number of kept requests,
+ * the sum of their body sizes and their age.</p>
+ *
+ * <p>Once a limit has been exceeded the oldest requests are evicted. An evicted request is either dropped (which is
+ * the default, dropped requests are just counted, see {@link JadlerMocker#getDroppedRequestsCount()}) or spilled
+ * to a compact journal file on disk (see {@link Builder#spillTo(File)}). Spilled requests are still taken into
+ * account by verifications, dropped requests are not.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>
+ * mocker.setRecordingPolicy(RecordingPolicy.builder()
+ *         .maxRequests(10000)
+ *         .maxBodyBytes(64 * 1024 * 1024)
+ *         .maxAge(1, TimeUnit.HOURS)
+ *         .build());
+ * </pre>
+ *
+ * <p>Instances of this class are immutable, use {@link #builder()} to create them.</p>
+ */
+public class RecordingPolicy {
+
+    /**
+     * A policy keeping all incoming requests in memory. This is the default policy.
+     */
+    public static final RecordingPolicy UNBOUNDED = builder().build();
+
+    private final int maxRequests;
+    private final long maxBodyBytes;
+    private final long maxAgeMillis;
+    private final File spillDirectory;
+
+
+    private RecordingPolicy(final int maxRequests, final long maxBodyBytes, final long maxAgeMillis,
+                            final File spillDirectory) {
+        this.maxRequests = maxRequests;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.spillDirectory = spillDirectory;
+    }
+
+
+    /**
+     * @return new builder for creating {@link RecordingPolicy} instances
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+
+    /**
+     * @return maximum number of requests kept in memory ({@link Integer#MAX_VALUE} if not limited)
+     */
+    public int getMaxRequests() {
+        return this.maxRequests;
+    }
+
+
+    /**
+     * @return maximum sum of body sizes (in bytes) of all requests kept in memory ({@link Long#MAX_VALUE} if not
+     * limited)
+     */
+    public long getMaxBodyBytes() {
+        return this.maxBodyBytes;
+    }
+
+
+    /**
+     * @return maximum age (in milliseconds) of a request kept in memory ({@link Long#MAX_VALUE} if not limited)
+     */
+    public long getMaxAgeMillis() {
+        return this.maxAgeMillis;
+    }
+
+
+    /**
+     * @return a directory evicted requests are spilled to or {@code null} if evicted requests are dropped
+     */
+    public File getSpillDirectory() {
+        return this.spillDirectory;
+    }
+
+
+    /**
+     * @return {@code true} if this policy doesn't limit the recorded requests at all, otherwise {@code false}
+     */
+    boolean isUnbounded() {
+        return this.maxRequests == Integer.MAX_VALUE && this.maxBodyBytes == Long.MAX_VALUE
+                && this.maxAgeMillis == Long.MAX_VALUE;
+    }
+
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+                .append("{maxRequests=")
+                .append(this.maxRequests == Integer.MAX_VALUE ? "<unlimited>" : this.maxRequests)
+                .append(", maxBodyBytes=")
+                .append(this.maxBodyBytes == Long.MAX_VALUE ? "<unlimited>" : this.maxBodyBytes)
+                .append(", maxAgeMillis=")
+                .append(this.maxAgeMillis == Long.MAX_VALUE ? "<unlimited>" : this.maxAgeMillis)
+                .append(", evicted=")
+                .append(this.spillDirectory == null ? "<dropped>" : this.spillDirectory)
+                .append("}")
+                .toString();
+    }
+
+
+    /**
+     * A builder class for {@link RecordingPolicy} instances.
+     */
+    public static class Builder {
+
+        private int maxRequests = Integer.MAX_VALUE;
+        private long maxBodyBytes = Long.MAX_VALUE;
+        private long maxAgeMillis = Long.MAX_VALUE;
+        private File spillDirectory = null;
+
+
+        /**
+         * Private constructor. Use {@link RecordingPolicy#builder()} instead.
+         */
+        private Builder() {
+        }
+
+
+        /**
+         * Limits the number of requests kept in memory.
+         *
+         * @param maxRequests maximum number of requests kept in memory (must be positive)
+         * @return this builder
+         */
+        public Builder maxRequests(final int maxRequests) {
+            Validate.isTrue(maxRequests > 0, "maxRequests must be positive");
+
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+
+        /**
+         * Limits the sum of body sizes of all requests kept in memory.
+         *
+         * @param maxBodyBytes maximum sum of body sizes (in bytes) of all requests kept in memory
+         *                     (cannot be negative)
+         * @return this builder
+         */
+        public Builder maxBodyBytes(final long maxBodyBytes) {
+            Validate.isTrue(maxBodyBytes >= 0, "maxBodyBytes cannot be negative");
+
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+
+        /**
+         * Limits the age of requests kept in memory.
+         *
+         * @param maxAge maximum age of a request kept in memory (must be positive)
+         * @param unit   time unit of the {@code maxAge} parameter (cannot be {@code null})
+         * @return this builder
+         */
+        public Builder maxAge(final long maxAge, final TimeUnit unit) {
+            Validate.isTrue(maxAge > 0, "maxAge must be positive");
+            Validate.notNull(unit, "unit cannot be null");
+
+            this.maxAgeMillis = Math.max(1, unit.toMillis(maxAge));
+            return this;
+        }
+
+
+        /**
+         * Instructs Jadler to spill evicted requests to a journal file created in the given directory rather than
+         * dropping them. Spilled requests are still taken into account by verifications. The journal file is
+         * deleted once the mocker has been reset (see {@link JadlerMocker#reset()}) or when the JVM terminates.
+         *
+         * <p>Only the request itself is spilled, a spilled request read back by a verification doesn't know the
+         * stub rule it has been matched by ({@link Request#getMatchedStub()} returns {@code null}).</p>
+         *
+         * <p>Spilling never fails a stubbed response. Requests which cannot be written to the journal file (for
+         * example because the disk is full) are logged and dropped. Requests waiting to be written are kept in memory,
+         * they're limited by {@link #maxRequests(int)} and {@link #maxBodyBytes(long)} as well. If the journal file
+         * cannot keep up with the evictions, the requests over these limits are dropped.</p>
+         *
+         * @param directory directory to create the journal file in (cannot be {@code null})
+         * @return this builder
+         */
+        public Builder spillTo(final File directory) {
+            Validate.notNull(directory, "directory cannot be null");
+
+            this.spillDirectory = directory;
+            return this;
+        }
+
+
+        /**
+         * Instructs Jadler to drop evicted requests. This is the default behavior.
+         *
+         * @return this builder
+         */
+        public Builder dropEvicted() {
+            this.spillDirectory = null;
+            return this;
+        }
+
+
+        /**
+         * @return new {@link RecordingPolicy} instance
+         */
+        public RecordingPolicy build() {
+            return new RecordingPolicy(this.maxRequests, this.maxBodyBytes, this.maxAgeMillis, this.spillDirectory);
+        }
+    }
+}
@@ -4,13 +4,26 @@
  */
 package net.jadler;
 
+import net.jadler.exception.JadlerException;
+import net.jadler.stubbing.HttpStub;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -21,29 +34,50 @@ import java.nio.charset.Charset;
 public class Request {
 
     private static final Charset DEFAULT_ENCODING = Charset.forName("ISO-8859-1");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int DEFAULT_MAX_DECODED_BODY_LENGTH = 64 * 1024 * 1024;
 
     private final String method;
 
-    private final URI requestURI;
+    private final Target target;
 
-    private final byte[] body;
+    //never modified, only read-only views are provided
+    private final ByteBuffer body;
 
-    private final KeyValues parameters;
+    //lazily parsed parameters, racy single-check is fine since KeyValues instances are immutable
+    private volatile KeyValues parameters;
 
     private final KeyValues headers;
 
     private final Charset encoding;
 
+    private final Map<String, String> pathVariables;
+
+    //lazily decoded body, racy single-check is fine since strings are immutable
+    private volatile String bodyAsString;
+
+    private final int maxDecodedBodyLength;
+
+    //lazily decompressed body (see Content-Encoding) and its string form, racy single-check again
+    private volatile ByteBuffer content;
+    private volatile JadlerException contentFailure;
+    private volatile String decodedBodyAsString;
+
+    //structured views of the body, shared by all copies of this request
+    private final StructuredBody structured;
+
+    //shared by all copies of this request as well
+    private final Timing timing;
+
 
     @SuppressWarnings("unchecked")
-    private Request(final String method, final URI requestURI, final KeyValues headers, final byte[] body,
-                    final Charset encoding) {
+    private Request(final String method, final Target target, final KeyValues headers, final ByteBuffer body,
+                    final Charset encoding, final int maxDecodedBodyLength, final long receivedNanos) {
 
         Validate.notEmpty(method, "method cannot be empty");
         this.method = method;
 
-        Validate.notNull(requestURI, "requestURI cannot be null");
-        this.requestURI = requestURI;
+        this.target = target;
 
         this.encoding = encoding;
 
@@ -53,7 +87,44 @@ public class Request {
         Validate.notNull(headers, "headers cannot be null");
         this.headers = headers;
 
-        this.parameters = readParameters();
+        this.maxDecodedBodyLength = maxDecodedBodyLength;
+
+        this.structured = new StructuredBody();
+        this.timing = new Timing(receivedNanos);
+
+        this.pathVariables = Collections.emptyMap();
+    }
+
+
+    private Request(final Request original, final Map<String, String> pathVariables) {
+        this.method = original.method;
+        this.target = original.target;
+        this.encoding = original.encoding;
+        this.body = original.body;
+        this.headers = original.headers;
+        this.parameters = original.parameters;
+        this.bodyAsString = original.bodyAsString;
+        this.maxDecodedBodyLength = original.maxDecodedBodyLength;
+        this.content = original.content;
+        this.contentFailure = original.contentFailure;
+        this.decodedBodyAsString = original.decodedBodyAsString;
+        this.structured = original.structured;
+        this.timing = original.timing;
+        this.pathVariables = Collections.unmodifiableMap(new LinkedHashMap<String, String>(pathVariables));
+    }
+
+
+    private Request(final Request original) {
+        this.method = original.method;
+        this.target = original.target;
+        this.encoding = original.encoding;
+        this.body = ByteBuffer.allocate(0);
+        this.headers = original.headers;
+        this.maxDecodedBodyLength = original.maxDecodedBodyLength;
+        //the views derived from the original body are not shared
+        this.structured = new StructuredBody();
+        this.timing = original.timing;
+        this.pathVariables = original.pathVariables;
     }
 
     /**
@@ -71,18 +142,117 @@ public class Request {
     }
 
     /**
-     * @return URI of the request. For example http://localhost:8080/test/file?a=4
+     * @return URI of the request. For example http://localhost:8080/test/file?a=4. If the request has been built from
+     * a raw path and query (see {@link Builder#rawPath(String)}), the URI is created on the first call of this method.
      */
     public URI getURI() {
-        return this.requestURI;
+        return this.target.getURI();
+    }
+
+    /**
+     * @return raw (percent-encoded) path of the request. For example /test/file. Unlike {@link #getURI()} this method
+     * never needs to create an {@link URI} instance, so it's preferred when only the path is needed.
+     */
+    public String getRawPath() {
+        return this.target.rawPath;
     }
 
     /**
-     * @return all http parameters (read from both query string and request body) from this request.
-     * Never returns {@code null}
+     * @return raw (percent-encoded) query string of the request (without the leading {@code ?}) or {@code null}
+     * if there is no query string. For example a=4. Unlike {@link #getURI()} this method never needs to create
+     * an {@link URI} instance, so it's preferred when only the query string is needed.
+     */
+    public String getRawQuery() {
+        return this.target.rawQuery;
+    }
+
+    /**
+     * @return all http parameters (read from both query string and request body) from this request. The parameters
+     * are parsed on the first call of this method. Never returns {@code null}
      */
     public KeyValues getParameters() {
-        return this.parameters;
+        KeyValues res = this.parameters;
+        if (res == null) {
+            res = this.readParameters();
+            this.parameters = res;
+        }
+        return res;
+    }
+
+    /**
+     * @return values of path template variables (see {@link RequestMatching#havingPathTemplate(String)}) keyed
+     * by the variable names. The values are available only if this request has been matched by a stub rule with
+     * a path template, otherwise an empty map is returned. Never returns {@code null}
+     */
+    public Map<String, String> getPathVariables() {
+        return this.pathVariables;
+    }
+
+    /**
+     * @return time this request has been received at in nanoseconds. The value comes from {@link System#nanoTime()}
+     * (unless set explicitly using {@link Builder#receivedNanos(long)}), so it's meaningful only when compared
+     * to other values of this kind.
+     */
+    public long getReceivedNanos() {
+        return this.timing.received;
+    }
+
+    /**
+     * @return the stub rule which has been applied to this request or {@code null} if no rule has been applied
+     * (no rule matched the request or the request hasn't been evaluated yet)
+     */
+    public HttpStub getMatchedStub() {
+        return this.timing.matchedStub;
+    }
+
+    /**
+     * @return time the response to this request has been sent completely at in nanoseconds (comparable with
+     * {@link #getReceivedNanos()}) or {@code -1} if not known (the response hasn't been sent yet or the stub http
+     * server doesn't report completed responses, see {@link RequestManager#responseCompleted(Request)})
+     */
+    public long getCompletedNanos() {
+        return this.timing.completed;
+    }
+
+    /**
+     * Records the stub rule applied to this request. Package private, used by {@link JadlerMocker} only.
+     *
+     * @param stub the applied stub rule
+     */
+    void recordMatch(final HttpStub stub) {
+        this.timing.matchedStub = stub;
+    }
+
+    /**
+     * Records the time the response to this request has been sent completely at. Package private, used by
+     * {@link JadlerMocker} and {@link SpilledRequests} only.
+     *
+     * @param nanos time in nanoseconds, see {@link System#nanoTime()}
+     */
+    void recordCompletion(final long nanos) {
+        this.timing.completed = nanos;
+    }
+
+    /**
+     * Creates a copy of this request with the given path variables (see {@link #getPathVariables()}). Used by Jadler
+     * when a stub rule with a path template has been matched, you shouldn't need to call this method on your own.
+     *
+     * @param pathVariables values of path template variables keyed by the variable names (cannot be {@code null})
+     * @return a copy of this request with the given path variables
+     */
+    public Request withPathVariables(final Map<String, String> pathVariables) {
+        Validate.notNull(pathVariables, "pathVariables cannot be null");
+        return new Request(this, pathVariables);
+    }
+
+    /**
+     * Creates a copy of this request with an empty body. Package private, used by {@link JadlerMocker} for keeping
+     * unmatched requests when the requests recording is disabled.
+     *
+     * @return a copy of this request with an empty body (and so with no body parameters)
+     */
+    Request withoutBody() {
+        return new Request(this);
     }
 
     /**
@@ -96,26 +266,218 @@ public class Request {
      * Returns the body content as an {@link InputStream} instance. This method can be called multiple times
      * always returning valid, readable stream.
      *
+     * <p>Like all other {@code getBodyAs*} accessors this method provides the body exactly as received, see
+     * {@link #getDecodedBodyAsStream()} for the body decompressed according to the {@code Content-Encoding}
+     * header.</p>
+     *
      * @return request body as an {@link InputStream} instance
      */
     public InputStream getBodyAsStream() {
-        return new ByteArrayInputStream(body);
+        return stream(this.body);
     }
 
     /**
      * @return request body as an array of bytes
      */
     public byte[] getBodyAsBytes() {
-        return this.body.clone();
+        return bytes(this.body);
+    }
+
+    /**
+     * Returns a read-only view of the request body. The body isn't copied, so this is the preferred way
+     * to inspect large bodies (unlike {@link #getBodyAsBytes()} which creates a defensive copy on every call).
+     * Every call returns a new view with its own position and limit.
+     *
+     * @return request body as a read-only {@link ByteBuffer} instance
+     */
+    public ByteBuffer getBodyAsBuffer() {
+        return this.body.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return length of the request body as received in bytes (package private, the body is not copied)
+     */
+    int getBodyLength() {
+        return this.body.remaining();
     }
 
     /**
      * @return request body as a string (if the body is empty, returns an empty string). If no encoding was
      * set using the {@code Content-Type} header ISO-8859-1 will be used
-     * (http://www.w3.org/Protocols/rfc2616/rfc2616-sec3.html).
+     * (http://www.w3.org/Protocols/rfc2616/rfc2616-sec3.html). The body is decoded at most once per request.
      */
     public String getBodyAsString() {
-        return new String(this.body, this.getEffectiveEncoding());
+        String res = this.bodyAsString;
+        if (res == null) {
+            res = decode(this.body, 0, this.body.remaining(), this.getEffectiveEncoding());
+            this.bodyAsString = res;
+        }
+        return res;
+    }
+
+    /**
+     * Returns the body decompressed according to the {@code Content-Encoding} header as an {@link InputStream}
+     * instance. This method can be called multiple times always returning valid, readable stream.
+     *
+     * <p>The {@code gzip}, {@code x-gzip} and {@code deflate} codings are supported, a body with no or any other
+     * coding is provided as received. The body is decompressed lazily just once per request and the result is
+     * shared by all {@code getDecodedBodyAs*} accessors, by the structured views of the body ({@link #getBodyAsJson()},
+     * {@link #getBodyAsXml()}, {@link #getParts()}), by {@link #getBodyDigest(String)} and by the parameters
+     * of a form body. A body decompressed to more than the limit set by {@link Builder#maxDecodedBodyLength(int)}
+     * (64 MiB by default) or a corrupted compressed body results in a {@link JadlerException} thrown by all these
+     * methods.</p>
+     *
+     * @return decompressed request body as an {@link InputStream} instance
+     */
+    public InputStream getDecodedBodyAsStream() {
+        return stream(this.content());
+    }
+
+    /**
+     * @return request body decompressed according to the {@code Content-Encoding} header (see
+     * {@link #getDecodedBodyAsStream()}) as an array of bytes
+     */
+    public byte[] getDecodedBodyAsBytes() {
+        return bytes(this.content());
+    }
+
+    /**
+     * Returns a read-only view of the request body decompressed according to the {@code Content-Encoding} header
+     * (see {@link #getDecodedBodyAsStream()}). Every call returns a new view with its own position and limit.
+     *
+     * @return decompressed request body as a read-only {@link ByteBuffer} instance
+     */
+    public ByteBuffer getDecodedBodyAsBuffer() {
+        return this.content().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return request body decompressed according to the {@code Content-Encoding} header (see
+     * {@link #getDecodedBodyAsStream()}) as a string, decoded the same way as {@link #getBodyAsString()}.
+     * The body is decoded at most once per request.
+     */
+    public String getDecodedBodyAsString() {
+        String res = this.decodedBodyAsString;
+        if (res == null) {
+            final ByteBuffer content = this.content();
+            //nothing to decompress, share the string with getBodyAsString()
+            res = content == this.body
+                    ? this.getBodyAsString()
+                    : decode(content, 0, content.remaining(), this.getEffectiveEncoding());
+            this.decodedBodyAsString = res;
+        }
+        return res;
+    }
+
+    /**
+     * Provides the body as a JSON document queried using JSON pointers. The body (decompressed, see
+     * {@link #getDecodedBodyAsStream()}) is decoded using the encoding set by the {@code Content-Type} header,
+     * UTF-8 is used if not set. The document is created at most once per request and parsed lazily (see
+     * {@link JsonDocument}), so it's shared by all predicates evaluating the request.
+     *
+     * @return request body as a JSON document (never returns {@code null}, the body is not guaranteed
+     * to be a well-formed JSON document however)
+     */
+    public JsonDocument getBodyAsJson() {
+        JsonDocument res = this.structured.json;
+        if (res == null) {
+            synchronized (this.structured) {
+                res = this.structured.json;
+                if (res == null) {
+                    final Charset charset = this.encoding == null ? UTF_8 : this.encoding;
+                    res = new JsonDocument(new InputStreamReader(this.getDecodedBodyAsStream(), charset));
+                    this.structured.json = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Provides the body (decompressed, see {@link #getDecodedBodyAsStream()}) as an XML document queried using XPath
+     * expressions. The document is created at most once per request and parsed lazily (see {@link XmlDocument}),
+     * so it's shared by all predicates evaluating the request.
+     *
+     * @return request body as an XML document (never returns {@code null}, the body is not guaranteed
+     * to be a well-formed XML document however)
+     */
+    public XmlDocument getBodyAsXml() {
+        XmlDocument res = this.structured.xml;
+        if (res == null) {
+            synchronized (this.structured) {
+                res = this.structured.xml;
+                if (res == null) {
+                    res = new XmlDocument(this.getDecodedBodyAsStream());
+                    this.structured.xml = res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Provides parts of a multipart body (for example {@code multipart/form-data}). The body (decompressed, see
+     * {@link #getDecodedBodyAsStream()}) is split to parts on the first call of this method, only the boundaries
+     * are searched for, the content of the parts is neither copied nor decoded (see {@link Part}).
+     *
+     * @return all parts of the body in the order of appearance or an empty list if the request body is not
+     * a multipart one (never returns {@code null})
+     */
+    public List<Part> getParts() {
+        //racy single-check is fine, the list is unmodifiable
+        List<Part> res = this.structured.parts;
+        if (res == null) {
+            final String boundary = Multipart.boundary(this.getContentType());
+            res = boundary == null
+                    ? Collections.<Part>emptyList()
+                    : Collections.unmodifiableList(Multipart.parse(this.content(), boundary,
+                            this.encoding == null ? UTF_8 : this.encoding));
+            this.structured.parts = res;
+        }
+        return res;
+    }
+
+    /**
+     * Computes a digest of the request body (decompressed, see {@link #getDecodedBodyAsStream()}). The digest
+     * is computed at most once per request and algorithm, so it's shared by all predicates evaluating the request.
+     *
+     * @param algorithm name of a message digest algorithm, for example {@code SHA-256} (cannot be empty, must be
+     *                  supported by the platform)
+     * @return digest of the request body (never returns {@code null})
+     */
+    public byte[] getBodyDigest(final String algorithm) {
+        Validate.notEmpty(algorithm, "algorithm cannot be empty");
+
+        byte[] res = this.structured.digests.get(algorithm);
+        if (res == null) {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("unsupported digest algorithm: " + algorithm, e);
+            }
+            digest.update(this.content().duplicate());
+            res = digest.digest();
+            //computing the same digest concurrently twice is harmless
+            this.structured.digests.putIfAbsent(algorithm, res);
+        }
+        return res.clone();
+    }
+
+    /**
+     * @param name name of a part (case sensitive)
+     * @return the first part of a multipart body with the given name (see {@link #getParts()}) or {@code null}
+     * if there is no such a part
+     */
+    public Part getPart(final String name) {
+        Validate.notNull(name, "name cannot be null");
+
+        for (final Part part : this.getParts()) {
+            if (name.equals(part.getName())) {
+                return part;
+            }
+        }
+        return null;
     }
 
     /**
@@ -150,40 +512,175 @@ public class Request {
 
 
     private KeyValues readParametersFromQueryString() {
-        return this.readParametersFromString(this.requestURI.getRawQuery());
+        final String query = this.target.rawQuery;
+
+        if (StringUtils.isBlank(query)) {
+            return new KeyValues();
+        }
+        return readParametersFromString(query);
     }
 
 
     private KeyValues readParametersFromBody() {
-        return this.readParametersFromString(new String(this.body, this.getEffectiveEncoding()));
+        //the body has been decoded already, no need to scan the bytes
+        final String decoded = this.decodedBodyAsString;
+        if (decoded != null) {
+            return StringUtils.isBlank(decoded) ? new KeyValues() : readParametersFromString(decoded);
+        }
+
+        final Charset charset = this.getEffectiveEncoding();
+        if (!isAsciiCompatible(charset)) {
+            final String body = this.getDecodedBodyAsString();
+            return StringUtils.isBlank(body) ? new KeyValues() : readParametersFromString(body);
+        }
+
+        return readParametersFromBytes(this.content(), charset);
     }
 
 
-    private KeyValues readParametersFromString(final String parametersString) {
+    /*
+     * Scans the given string for the pairs, the string isn't split to an array first.
+     */
+    private static KeyValues readParametersFromString(final String parametersString) {
         KeyValues res = new KeyValues();
 
-        if (StringUtils.isBlank(parametersString)) {
+        int start = 0;
+        while (start <= parametersString.length()) {
+            int end = parametersString.indexOf('&', start);
+            if (end < 0) {
+                end = parametersString.length();
+            }
+
+            final int idx = parametersString.indexOf('=', start);
+            if (idx > -1 && idx < end) {
+                res = addParameter(res, parametersString.substring(start, idx),
+                        parametersString.substring(idx + 1, end));
+            } else {
+                res = addParameter(res, parametersString.substring(start, end), "");
+            }
+
+            start = end + 1;
+        }
+
+        return res;
+    }
+
+
+    /*
+     * Scans the form body for the pairs. Only the names and values are decoded, not the whole body.
+     */
+    private static KeyValues readParametersFromBytes(final ByteBuffer content, final Charset charset) {
+        KeyValues res = new KeyValues();
+        final int length = content.remaining();
+
+        if (isBlank(content)) {
             return res;
         }
 
-        final String[] pairs = parametersString.split("&");
+        int start = 0;
+        while (start <= length) {
+            int end = start;
+            int idx = -1;
+            while (end < length && content.get(end) != '&') {
+                if (idx < 0 && content.get(end) == '=') {
+                    idx = end;
+                }
+                end++;
+            }
 
-        for (final String pair : pairs) {
-            final int idx = pair.indexOf('=');
             if (idx > -1) {
-                final String name = StringUtils.substring(pair, 0, idx);
-                final String value = StringUtils.substring(pair, idx + 1);
-                res = res.add(name, value);
-
+                res = addParameter(res, decode(content, start, idx - start, charset),
+                        decode(content, idx + 1, end - idx - 1, charset));
             } else {
-                res = res.add(pair, "");
+                res = addParameter(res, decode(content, start, end - start, charset), "");
             }
+
+            start = end + 1;
         }
 
         return res;
     }
 
 
+    private static InputStream stream(final ByteBuffer content) {
+        if (content.hasArray()) {
+            return new ByteArrayInputStream(content.array(), content.arrayOffset(), content.remaining());
+        }
+        return new ByteBufferInputStream(content.duplicate());
+    }
+
+
+    private static byte[] bytes(final ByteBuffer content) {
+        final byte[] res = new byte[content.remaining()];
+        content.duplicate().get(res);
+        return res;
+    }
+
+
+    /*
+     * Decodes the given region of the body.
+     */
+    private static String decode(final ByteBuffer content, final int from, final int length, final Charset charset) {
+        if (content.hasArray()) {
+            return new String(content.array(), content.arrayOffset() + from, length, charset);
+        }
+
+        final ByteBuffer region = content.duplicate();
+        region.position(from).limit(from + length);
+        return charset.decode(region).toString();
+    }
+
+
+    private static KeyValues addParameter(final KeyValues params, final String name, final String value) {
+        //pairs with no name (for example a trailing ampersand) are ignored
+        return name.isEmpty() ? params : params.add(name, value);
+    }
+
+
+    private static boolean isBlank(final ByteBuffer content) {
+        for (int i = 0; i < content.remaining(); i++) {
+            final byte b = content.get(i);
+            if (b < 0 || !Character.isWhitespace((char) b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /*
+     * @return true if the ASCII delimiters are encoded to single bytes of the same value by the given charset,
+     * so the form body can be scanned directly
+     */
+    private static boolean isAsciiCompatible(final Charset charset) {
+        return Arrays.equals("&= ".getBytes(charset), new byte[]{'&', '=', ' '});
+    }
+
+
+    /*
+     * @return the body decompressed according to the Content-Encoding header
+     */
+    private ByteBuffer content() {
+        ByteBuffer res = this.content;
+        if (res == null) {
+            final JadlerException failure = this.contentFailure;
+            if (failure != null) {
+                throw new JadlerException(failure.getMessage(), failure);
+            }
+
+            try {
+                res = ContentDecoder.decode(this.body, this.headers.getValues("content-encoding"),
+                        this.maxDecodedBodyLength);
+            } catch (final JadlerException e) {
+                this.contentFailure = e;
+                throw e;
+            }
+            this.content = res;
+        }
+        return res;
+    }
+
+
     private Charset getEffectiveEncoding() {
         return this.encoding == null ? DEFAULT_ENCODING : this.encoding;
     }
@@ -196,20 +693,156 @@ public class Request {
                 .append("method=")
                 .append(method)
                 .append(", URI=")
-                .append(requestURI)
+                .append(this.getURI())
                 .append(", parameters=[")
-                .append(parameters)
+                .append(this.describeParameters())
                 .append("], headers=[")
                 .append(headers)
                 .append("], encoding=")
                 .append(encoding == null ? "<none>" : encoding)
                 .append(", body=")
-                .append(this.getBodyAsBytes().length > 1 ? "<nonempty>" : "<empty>")
+                .append(this.body.remaining() > 1 ? "<nonempty>" : "<empty>")
                 .append("}")
                 .toString();
     }
 
 
+    /*
+     * Parameters of a form body cannot be read if the body cannot be decompressed, toString() mustn't fail though.
+     */
+    private String describeParameters() {
+        try {
+            return String.valueOf(this.getParameters());
+        } catch (final JadlerException e) {
+            return "<unavailable: " + e.getMessage() + ">";
+        }
+    }
+
+
+    /*
+     * Target of the request, either created from an URI or from the split parts. In the latter case the URI
+     * is created lazily, racy single-check is fine since URI instances are immutable.
+     */
+    private static class Target {
+        private final String scheme;
+        private final String host;
+        private final int port;
+        private final String rawPath;
+        private final String rawQuery;
+        private volatile URI uri;
+
+        private Target(final URI uri) {
+            this.scheme = null;
+            this.host = null;
+            this.port = -1;
+            this.rawPath = uri.getRawPath();
+            this.rawQuery = uri.getRawQuery();
+            this.uri = uri;
+        }
+
+        private Target(final String scheme, final String host, final int port, final String rawPath,
+                       final String rawQuery) {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.rawPath = rawPath;
+            this.rawQuery = rawQuery;
+        }
+
+        private URI getURI() {
+            URI res = this.uri;
+            if (res == null) {
+                final StringBuilder sb = new StringBuilder();
+
+                if (this.host != null) {
+                    sb.append(this.scheme).append("://");
+                    //an IPv6 address must be enclosed in brackets
+                    if (this.host.indexOf(':') > -1 && !this.host.startsWith("[")) {
+                        sb.append('[').append(this.host).append(']');
+                    } else {
+                        sb.append(this.host);
+                    }
+                    if (this.port > -1) {
+                        sb.append(':').append(this.port);
+                    }
+                }
+
+                sb.append(this.rawPath);
+                if (this.rawQuery != null) {
+                    sb.append('?').append(this.rawQuery);
+                }
+
+                res = URI.create(sb.toString());
+                this.uri = res;
+            }
+            return res;
+        }
+    }
+
+
+    /*
+     * Timing of the processing of a request. The stub and the completion time are recorded by the request manager
+     * (and a stub http server) once the request has been created.
+     */
+    private static class Timing {
+        private final long received;
+        private volatile HttpStub matchedStub;
+        private volatile long completed;
+
+        private Timing(final long received) {
+            this.received = received;
+            this.completed = -1;
+        }
+    }
+
+
+    /*
+     * Lazily created structured views and digests of the body, each view is created just once.
+     */
+    private static class StructuredBody {
+        private volatile JsonDocument json;
+        private volatile XmlDocument xml;
+        private volatile List<Part> parts;
+        private final ConcurrentMap<String, byte[]> digests = new ConcurrentHashMap<String, byte[]>();
+    }
+
+
+    /*
+     * An input stream reading a buffer which isn't backed by an accessible array.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int count = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+
+
     /**
      * A builder class for {@link Request} instances.
      */
@@ -217,15 +850,24 @@ public class Request {
 
         private String method;
         private URI requestURI;
-        private byte[] body = new byte[0];
+        private String scheme;
+        private String host;
+        private int port = -1;
+        private String rawPath;
+        private String rawQuery;
+        private ByteBuffer body = ByteBuffer.allocate(0);
         private KeyValues headers = new KeyValues();
         private Charset encoding = null;
+        private int maxDecodedBodyLength = DEFAULT_MAX_DECODED_BODY_LENGTH;
+        private long receivedNanos;
 
 
         /**
          * Private constructor. Use {@link Request#builder()} instead.
          */
         private Builder() {
+            //stub http servers start building a request as soon as it's been received
+            this.receivedNanos = System.nanoTime();
         }
 
 
@@ -253,6 +895,57 @@ public class Request {
         }
 
 
+        /**
+         * Sets the origin of the request. Intended for server adapters which build the request from already split
+         * parts (see {@link #rawPath(String)}). If not called, the request URI will be relative.
+         *
+         * @param scheme request scheme, for example {@code http} (cannot be empty)
+         * @param host server host name or address (cannot be empty)
+         * @param port server port or a negative value for the default port of the scheme
+         * @return this builder
+         */
+        public Builder origin(final String scheme, final String host, final int port) {
+            Validate.notEmpty(scheme, "scheme cannot be empty");
+            Validate.notEmpty(host, "host cannot be empty");
+
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            return this;
+        }
+
+
+        /**
+         * Sets the raw (percent-encoded) request path. Server adapters having the path and the query string split
+         * already can use this method (together with {@link #rawQuery(String)} and
+         * {@link #origin(String, String, int)}) rather than {@link #requestURI(URI)}, the request URI is then created
+         * only if {@link Request#getURI()} is called. Either this method or {@link #requestURI(URI)} must be called
+         * before {@link Builder#build()}, if both are called the request URI takes precedence.
+         *
+         * @param rawPath raw request path, for example {@code /test/file} (cannot be {@code null})
+         * @return this builder
+         */
+        public Builder rawPath(final String rawPath) {
+            Validate.notNull(rawPath, "rawPath cannot be null");
+
+            this.rawPath = rawPath;
+            return this;
+        }
+
+
+        /**
+         * Sets the raw (percent-encoded) request query string (see {@link #rawPath(String)}).
+         *
+         * @param rawQuery raw query string without the leading {@code ?}, for example {@code a=4}
+         *                 ({@code null} if there is no query string)
+         * @return this builder
+         */
+        public Builder rawQuery(final String rawQuery) {
+            this.rawQuery = rawQuery;
+            return this;
+        }
+
+
         /**
          * Sets the request body. If not called, an empty body will be used.
          *
@@ -260,7 +953,25 @@ public class Request {
          * @return this builder
          */
         public Builder body(final byte[] body) {
-            this.body = body;
+            this.body = body == null ? null : ByteBuffer.wrap(body);
+            return this;
+        }
+
+
+        /**
+         * Sets the request body to the remaining content of the given buffer. This method is intended for server
+         * adapters which want to hand over a (possibly direct or pooled) buffer the body has been read into. The
+         * buffer content is not copied, the constructed request takes the ownership of it, so the content must not be
+         * modified (or the buffer returned to a pool) while the request is in use. Neither the position nor the limit
+         * of the given buffer is modified. If not called, an empty body will be used.
+         *
+         * @param body request body (cannot be {@code null})
+         * @return this builder
+         */
+        public Builder body(final ByteBuffer body) {
+            Validate.notNull(body, "body cannot be null");
+
+            this.body = body.slice();
             return this;
         }
 
@@ -290,7 +1001,7 @@ public class Request {
             Validate.notEmpty(name, "name cannot be blank");
             Validate.notNull(value, "value cannot be null");
 
-            this.headers = this.headers.add(name.toLowerCase(), value);
+            this.headers = this.headers.add(name, value);
             return this;
         }
 
@@ -308,11 +1019,48 @@ public class Request {
         }
 
 
+        /**
+         * Sets the time the request has been received at. If not called, the time this builder has been created at
+         * will be used.
+         *
+         * @param receivedNanos time in nanoseconds, see {@link System#nanoTime()}
+         * @return this builder
+         */
+        public Builder receivedNanos(final long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+            return this;
+        }
+
+
+        /**
+         * Sets the maximal length of the request body decompressed according to the {@code Content-Encoding}
+         * header (see {@link Request#getDecodedBodyAsStream()}), which guards against decompression bombs.
+         * If not called, 64 MiB will be used.
+         *
+         * @param maxDecodedBodyLength maximal length of the decompressed body in bytes (must be positive)
+         * @return this builder
+         */
+        public Builder maxDecodedBodyLength(final int maxDecodedBodyLength) {
+            Validate.isTrue(maxDecodedBodyLength > 0, "maxDecodedBodyLength must be positive");
+
+            this.maxDecodedBodyLength = maxDecodedBodyLength;
+            return this;
+        }
+
+
         /**
          * @return new {@link Request} instance
          */
         public Request build() {
-            return new Request(method, requestURI, headers, body, encoding);
+            final Target target;
+            if (this.requestURI != null) {
+                target = new Target(this.requestURI);
+            } else {
+                Validate.notNull(this.rawPath, "either requestURI or rawPath must be set");
+                target = new Target(this.scheme, this.host, this.port, this.rawPath, this.rawQuery);
+            }
+
+            return new Request(method, target, headers, body, encoding, maxDecodedBodyLength, receivedNanos);
         }
     }
 }
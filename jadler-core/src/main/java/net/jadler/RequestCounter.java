@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.allOf;
+
+
+/**
+ * <p>A live counter of incoming http requests fitting the given predicates. Counters are registered using
+ * {@link RequestManager#registerVerification(Collection)} before any http request has been received, each incoming
+ * request is then evaluated just once by every registered counter. A pre-registered verification
+ * (see {@link net.jadler.mocking.Verifying#register()}) reads the counter rather than evaluating the predicates
+ * against all recorded requests again.</p>
+ *
+ * <p>Requests dropped according to the recording policy (see {@link JadlerMocker#setRecordingPolicy(RecordingPolicy)})
+ * are not counted anymore.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class RequestCounter {
+
+    private final List<Matcher<? super Request>> predicates;
+    private final Matcher<Request> all;
+    private final AtomicInteger count;
+
+
+    /**
+     * @param predicates predicates the counted requests must fit (cannot be {@code null}, can be empty however)
+     */
+    RequestCounter(final Collection<Matcher<? super Request>> predicates) {
+        Validate.notNull(predicates, "predicates cannot be null");
+
+        this.predicates = Collections.unmodifiableList(new ArrayList<Matcher<? super Request>>(predicates));
+        this.all = allOf(this.predicates);
+        this.count = new AtomicInteger();
+    }
+
+
+    /**
+     * @return predicates the counted requests must fit
+     */
+    public List<Matcher<? super Request>> getPredicates() {
+        return this.predicates;
+    }
+
+
+    /**
+     * @return number of requests fitting the predicates received so far
+     */
+    public int getCount() {
+        return this.count.get();
+    }
+
+
+    /**
+     * Evaluates the given request and increments the counter if the request fits all predicates.
+     *
+     * @param request an incoming http request
+     */
+    void offer(final Request request) {
+        if (this.all.matches(request)) {
+            this.count.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Evaluates the given request again and decrements the counter if the request fits all predicates. Called
+     * for requests dropped according to the recording policy (see {@link RecordingPolicy}), so the counter matches
+     * the verification evaluated against the recorded requests.
+     *
+     * @param request a request offered before and dropped now
+     */
+    void discard(final Request request) {
+        if (this.all.matches(request)) {
+            this.count.decrementAndGet();
+        }
+    }
+
+
+    /**
+     * Resets the counter to zero.
+     */
+    void reset() {
+        this.count.set(0);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+
+/**
+ * <p>An append-only journal of received http requests. Request threads append to the journal without taking any
+ * lock, verifications read a consistent snapshot (all requests appended before the snapshot has been taken, in the
+ * order of appending) without blocking the writers.</p>
+ *
+ * <p>The journal is implemented as a singly linked list. A new request is linked after the last node using a CAS
+ * operation, a snapshot is a walk from the first node to the node which was the last one when the snapshot
+ * was started.</p>
+ *
+ * <p>The number of requests kept in memory is limited by a {@link RecordingPolicy}. Once a limit has been exceeded
+ * the oldest requests are evicted (the first node is unlinked). Evicted requests are either dropped (and counted)
+ * or spilled to a {@link SpilledRequests} journal file which is still part of the snapshots. Evictions are
+ * serialized using a lock which is never entered by the writers unless a limit has been exceeded. The lock is held
+ * just for unlinking the evicted nodes, the evicted requests are written to the journal file after it has been
+ * released. Requests which cannot be spilled (the journal file cannot be written or the writes cannot keep up with
+ * the evictions) are dropped. The request of the first node (the sentinel) is released once the node has been unlinked, so a snapshot
+ * of a bounded journal is copied while holding the lock.</p>
+ *
+ * <p>This class is thread-safe. It's package private and used internally only.</p>
+ */
+class RequestJournal {
+
+    private final RecordingPolicy policy;
+    private final DropListener dropListener;
+    private final long maxAgeNanos;
+    private final SpilledRequests spilled;
+    private final AtomicLong dropped;
+    private final Object evictionLock;
+    private final AtomicReference<Node> tail;
+    private volatile Node head;
+
+
+    /**
+     * Creates new empty journal keeping all appended requests in memory.
+     */
+    RequestJournal() {
+        this(RecordingPolicy.UNBOUNDED);
+    }
+
+
+    /**
+     * Creates new empty journal with no drop listener.
+     *
+     * @param policy policy limiting the requests kept in memory (cannot be {@code null})
+     */
+    RequestJournal(final RecordingPolicy policy) {
+        this(policy, null);
+    }
+
+
+    /**
+     * Creates new empty journal.
+     *
+     * @param policy policy limiting the requests kept in memory (cannot be {@code null})
+     * @param dropListener listener notified about every dropped request (can be {@code null})
+     */
+    RequestJournal(final RecordingPolicy policy, final DropListener dropListener) {
+        Validate.notNull(policy, "policy cannot be null");
+        this.policy = policy;
+        this.dropListener = dropListener;
+
+        this.maxAgeNanos = policy.getMaxAgeMillis() == Long.MAX_VALUE
+                ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(policy.getMaxAgeMillis());
+        //requests waiting to be spilled are kept in memory, so they're limited by the policy as well
+        this.spilled = policy.getSpillDirectory() == null ? null : new SpilledRequests(policy.getSpillDirectory(),
+                policy.getMaxRequests(), policy.getMaxBodyBytes());
+        this.dropped = new AtomicLong();
+        this.evictionLock = new Object();
+
+        this.head = new Node(null, 0, 0, 0);
+        this.tail = new AtomicReference<Node>(this.head);
+    }
+
+
+    /**
+     * Appends the given request to the end of this journal.
+     *
+     * @param request request to be appended (cannot be {@code null})
+     */
+    void append(final Request request) {
+        Validate.notNull(request, "request cannot be null");
+
+        final long bodyLength = request.getBodyLength();
+        final long timestamp = System.nanoTime();
+
+        while (true) {
+            final Node last = this.tail.get();
+            final Node next = last.next;
+
+            if (next == null) {
+                final Node node = new Node(request, last.seq + 1, last.bytes + bodyLength, timestamp);
+                if (last.casNext(node)) {
+                    this.tail.compareAndSet(last, node);
+                    break;
+                }
+            } else {
+                //another thread has appended a node but hasn't moved the tail yet, help it
+                this.tail.compareAndSet(last, next);
+            }
+        }
+
+        if (!this.policy.isUnbounded()) {
+            this.evictIfNeeded();
+        }
+    }
+
+
+    /**
+     * @return all requests appended to this journal so far in the order of appending (minus the dropped ones). The
+     * returned list is a copy which is not affected by subsequent appends.
+     */
+    List<Request> snapshot() {
+        if (this.policy.isUnbounded()) {
+            //nothing is ever evicted, no need to lock
+            return copy(this.head, this.tail.get());
+        }
+
+        this.evictIfNeeded();
+
+        final List<Request> spilledRequests;
+        final List<Request> res;
+        //the head and the spilled requests must be read atomically so no request is missed or duplicated, the nodes
+        //must be copied before they are evicted (and their requests released)
+        synchronized (this.evictionLock) {
+            spilledRequests = this.spilled == null ? null : this.spilled.snapshot();
+            res = copy(this.head, this.tail.get());
+        }
+
+        return spilledRequests == null || spilledRequests.isEmpty() ? res : new Concatenation(spilledRequests, res);
+    }
+
+
+    private static List<Request> copy(final Node first, final Node last) {
+        final List<Request> res = new ArrayList<Request>((int) Math.max(0, last.seq - first.seq));
+        //the head is read before the tail, so the tail is always reachable from the head
+        for (Node n = first; n != last; ) {
+            n = n.next;
+            res.add(n.request);
+        }
+        return res;
+    }
+
+
+    /**
+     * @return number of requests stored in this journal (both in memory and spilled)
+     */
+    int size() {
+        final Node first = this.head;
+        final int inMemory = (int) Math.max(0, this.tail.get().seq - first.seq);
+
+        return this.spilled == null ? inMemory : inMemory + this.spilled.size();
+    }
+
+
+    /**
+     * @return number of requests evicted and dropped from this journal so far
+     */
+    long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+
+    /**
+     * Removes all requests appended so far (including the spilled ones). Requests appended concurrently with this
+     * operation might be kept.
+     */
+    void clear() {
+        synchronized (this.evictionLock) {
+            Node last = this.tail.get();
+            //make sure the tail isn't lagging behind, so no request appended before this call survives
+            while (last.next != null) {
+                this.tail.compareAndSet(last, last.next);
+                last = this.tail.get();
+            }
+            this.head = last;
+            //unbounded snapshots are copied without the lock and might still walk through the last node, its request
+            //is released only when the node is evicted (if ever)
+
+            if (this.spilled != null) {
+                this.spilled.clear();
+            }
+            this.dropped.set(0);
+        }
+    }
+
+
+    /**
+     * Evicts the oldest requests exceeding the limits of the policy (if any). Called on every append, verifications
+     * not reading a snapshot (but depending on the evictions) call it explicitly so the expired requests are evicted
+     * even if no request has been appended for a while. The drop listener has been notified about all requests
+     * dropped by this call once it returns.
+     */
+    void evictIfNeeded() {
+        if (this.policy.isUnbounded() || !this.exceedsLimits(System.nanoTime())) {
+            return;
+        }
+
+        final List<Request> droppedRequests = new ArrayList<Request>();
+
+        synchronized (this.evictionLock) {
+            final long now = System.nanoTime();
+
+            while (this.exceedsLimits(now)) {
+                final Node h = this.head;
+                final Node first = h.next;
+
+                //the tail must never fall behind the head
+                this.tail.compareAndSet(h, first);
+
+                //just queued, no I/O while holding the lock. If the queue is full, the request is dropped.
+                if (this.spilled == null || !this.spilled.add(first.request)) {
+                    this.dropped.incrementAndGet();
+                    droppedRequests.add(first.request);
+                }
+
+                //the first node becomes the new sentinel, its request is not needed anymore
+                this.head = first;
+                first.request = null;
+            }
+        }
+
+        if (this.spilled != null) {
+            //requests which couldn't be written to the journal file are dropped
+            final List<Request> failed = this.spilled.flush();
+            this.dropped.addAndGet(failed.size());
+            droppedRequests.addAll(failed);
+        }
+
+        //the listener is notified outside of the lock
+        if (this.dropListener != null) {
+            for (final Request request : droppedRequests) {
+                this.dropListener.dropped(request);
+            }
+        }
+    }
+
+
+    private boolean exceedsLimits(final long now) {
+        final Node h = this.head;
+        final Node first = h.next;
+
+        if (first == null) {
+            return false;
+        }
+
+        //the head must be read before the tail
+        final Node t = this.tail.get();
+
+        return t.seq - h.seq > this.policy.getMaxRequests()
+                || t.bytes - h.bytes > this.policy.getMaxBodyBytes()
+                || now - first.timestamp > this.maxAgeNanos;
+    }
+
+
+    /**
+     * Listener notified about requests evicted and dropped from a journal.
+     */
+    interface DropListener {
+
+        /**
+         * @param request a request dropped from the journal
+         */
+        void dropped(Request request);
+    }
+
+
+    private static class Node {
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        //released (under the eviction lock) once the node has become the sentinel
+        private Request request;
+        private final long seq;
+        private final long bytes;
+        private final long timestamp;
+        private volatile Node next;
+
+        private Node(final Request request, final long seq, final long bytes, final long timestamp) {
+            this.request = request;
+            this.seq = seq;
+            this.bytes = bytes;
+            this.timestamp = timestamp;
+        }
+
+        private boolean casNext(final Node node) {
+            return NEXT.compareAndSet(this, null, node);
+        }
+    }
+
+
+    private static class Concatenation extends AbstractList<Request> {
+        private final List<Request> first;
+        private final List<Request> second;
+
+        private Concatenation(final List<Request> first, final List<Request> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Request get(final int index) {
+            return index < this.first.size() ? this.first.get(index) : this.second.get(index - this.first.size());
+        }
+
+        @Override
+        public int size() {
+            return this.first.size() + this.second.size();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package net.jadler;
 
 import net.jadler.stubbing.StubResponse;
+import org.apache.commons.lang.Validate;
 import org.hamcrest.Matcher;
 
 import java.util.Collection;
@@ -25,6 +26,47 @@ public interface RequestManager {
     StubResponse provideStubResponseFor(Request req);
 
 
+    /**
+     * <p>Notifies this manager the response to the given request (provided by
+     * {@link #provideStubResponseFor(Request)}) has been sent completely, so the completion time can be recorded
+     * (see {@link Request#getCompletedNanos()}). Stub http servers should call this method once the response has been
+     * sent (or sending it has failed).</p>
+     *
+     * <p>The default implementation does nothing.</p>
+     *
+     * @param req http request the response to has been sent
+     */
+    default void responseCompleted(final Request req) {
+    }
+
+
+    /**
+     * <p>Request bodies longer than this threshold should be spilled to a memory-mapped temporary file by the stub
+     * http server rather than read to the heap (see {@link net.jadler.stubbing.server.RequestBodyReader}).</p>
+     *
+     * <p>The default implementation never spills request bodies.</p>
+     *
+     * @return maximal length in bytes of a request body read to the heap
+     */
+    default long getBodySpillThreshold() {
+        return Long.MAX_VALUE;
+    }
+
+
+    /**
+     * <p>Maximal rate all stub responses together should be sent at by the stub http server (see
+     * {@link net.jadler.stubbing.server.ResponseStreamer}). Besides this global limit, each stub response can be
+     * limited separately (see {@link net.jadler.stubbing.StubResponse#getBandwidthLimit()}).</p>
+     *
+     * <p>The default implementation doesn't limit the rate.</p>
+     *
+     * @return maximal rate in bytes per second or {@code 0} if not limited
+     */
+    default long getBandwidthLimit() {
+        return 0;
+    }
+
+
     /**
      * Verifies whether the number of received http requests fitting the given predicates is as expected. Basically
      * at first this operation computes the exact number of http requests received so far fitting the given predicates
@@ -41,6 +83,65 @@ public interface RequestManager {
                               Matcher<Integer> nrRequestsPredicate);
 
 
+    /**
+     * <p>Registers a live counter of incoming http requests fitting the given predicates. Once registered, every
+     * incoming http request is evaluated by the counter just once when received, so a verification using the counter
+     * (see {@link #evaluateRegisteredVerification(RequestCounter, org.hamcrest.Matcher)}) doesn't need to evaluate
+     * the predicates against all requests received so far.</p>
+     *
+     * <p>The default implementation doesn't support live counters.</p>
+     *
+     * @param requestPredicates predicates about the incoming http requests (cannot be {@code null}, can be
+     *                          empty however)
+     * @return registered counter
+     * @throws IllegalStateException if an http request has already been received
+     */
+    default RequestCounter registerVerification(final Collection<Matcher<? super Request>> requestPredicates) {
+        throw new UnsupportedOperationException("This request manager doesn't support registered verifications");
+    }
+
+
+    /**
+     * <p>Verifies whether the number of received http requests counted by the given registered counter is
+     * as expected. If not a {@link net.jadler.mocking.VerificationException} is thrown and the exact reason is logged
+     * on the {@code INFO} level.</p>
+     *
+     * <p>The default implementation evaluates the counter predicates using
+     * {@link #evaluateVerification(java.util.Collection, org.hamcrest.Matcher)}.</p>
+     *
+     * @param counter             counter registered using {@link #registerVerification(java.util.Collection)}
+     *                            (cannot be {@code null})
+     * @param nrRequestsPredicate a predicate about the number of counted http requests (cannot be {@code null})
+     * @throws net.jadler.mocking.VerificationException if the verification fails
+     */
+    default void evaluateRegisteredVerification(final RequestCounter counter,
+                                                final Matcher<Integer> nrRequestsPredicate) {
+        Validate.notNull(counter, "counter cannot be null");
+        this.evaluateVerification(counter.getPredicates(), nrRequestsPredicate);
+    }
+
+
+    /**
+     * <p>Verifies whether the maximal number of received http requests fitting the given predicates received within
+     * any time window of the given length (according to {@link Request#getReceivedNanos()}) is as expected.
+     * If not a {@link net.jadler.mocking.VerificationException} is thrown and the exact reason is logged on the
+     * {@code INFO} level.</p>
+     *
+     * <p>The default implementation doesn't support windowed verifications.</p>
+     *
+     * @param requestPredicates    predicates about the http requests received so far (cannot be {@code null}, can be
+     *                             empty however)
+     * @param windowNanos          length of the time window in nanoseconds (must be positive)
+     * @param maxRequestsPredicate a predicate about the maximal number of http requests fitting the given request
+     *                             predicates received within any window (cannot be {@code null})
+     * @throws net.jadler.mocking.VerificationException if the verification fails
+     */
+    default void evaluateWindowedVerification(final Collection<Matcher<? super Request>> requestPredicates,
+                                              final long windowNanos, final Matcher<Integer> maxRequestsPredicate) {
+        throw new UnsupportedOperationException("This request manager doesn't support windowed verifications");
+    }
+
+
     /**
      * @param predicates predicates to be applied on all incoming http requests
      * @return number of requests recorded by {@link #provideStubResponseFor(net.jadler.Request)} matching the
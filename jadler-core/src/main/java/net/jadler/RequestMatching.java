@@ -4,15 +4,33 @@
  */
 package net.jadler;
 
+import org.apache.commons.lang.Validate;
 import org.hamcrest.Matcher;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
+import static net.jadler.matchers.BinaryBodyRequestMatcher.requestBinaryBody;
+import static net.jadler.matchers.BodyBytesMatchers.containingBytes;
+import static net.jadler.matchers.BodyBytesMatchers.startingWithBytes;
+import static net.jadler.matchers.BodyDigestRequestMatcher.requestBodyDigest;
+import static net.jadler.matchers.JsonValueRequestMatcher.requestJsonValue;
+import static net.jadler.matchers.PartRequestMatcher.requestPart;
+import static net.jadler.matchers.PathRequestMatcher.requestPathPrefix;
+import static net.jadler.matchers.PathRequestMatcher.requestPathTemplate;
+import static net.jadler.matchers.RawPartRequestMatcher.requestRawPart;
+import static net.jadler.matchers.XPathRequestMatcher.requestXPath;
+import static org.hamcrest.Matchers.equalTo;
+
 
 /**
  * This interface introduces methods for a fluent request matching. Classes implementing this interface usually
  * collect request predicates using these methods.
  *
+ * <p>All body predicates are applied on the body decompressed according to the {@code Content-Encoding} header
+ * (see {@link Request#getDecodedBodyAsStream()}), the raw body accessors of {@link Request} provide the body
+ * exactly as received.</p>
+ *
  * @param <T> type (either class or interface) of the implementation. This type will be returned by all methods
  *            introduced by this interface so fluid request matching is possible.
  */
@@ -76,6 +94,183 @@ public interface RequestMatching<T extends RequestMatching<T>> {
     T havingRawBodyEqualTo(byte[] requestBody);
 
 
+    /**
+     * Adds a request body predicate. The request body must start with the given bytes.
+     *
+     * @param prefix expected beginning of the body of the incoming http request (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingRawBodyStartingWith(final byte[] prefix) {
+        Validate.notNull(prefix, "prefix cannot be null");
+
+        return havingRawBody(startingWithBytes(prefix));
+    }
+
+
+    /**
+     * Adds a request body predicate. The request body must contain the given bytes.
+     *
+     * @param bytes expected subsequence of the body of the incoming http request (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingRawBodyContaining(final byte[] bytes) {
+        Validate.notNull(bytes, "bytes cannot be null");
+
+        return havingRawBody(containingBytes(bytes));
+    }
+
+
+    /**
+     * Adds a request body predicate. The digest of the request body computed using the given algorithm must be
+     * equal to the given value. The digest is computed at most once per request and algorithm (see
+     * {@link Request#getBodyDigest(String)}).
+     *
+     * @param algorithm name of a message digest algorithm, for example {@code SHA-256} (cannot be empty)
+     * @param digest expected digest of the body of the incoming http request (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingRawBodyDigest(final String algorithm, final byte[] digest) {
+        Validate.notEmpty(algorithm, "algorithm cannot be empty");
+        Validate.notNull(digest, "digest cannot be null");
+
+        return that(requestBodyDigest(algorithm, equalTo(digest.clone())));
+    }
+
+
+    /**
+     * Adds a request body predicate applied on a read-only view of the request body (see
+     * {@link Request#getDecodedBodyAsBuffer()}). Unlike the string based predicates the body is neither copied nor
+     * decoded to characters.
+     * Predicates working on the view are available in {@link net.jadler.matchers.BodyBytesMatchers}.
+     *
+     * @param predicate request body predicate (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingRawBody(final Matcher<? super ByteBuffer> predicate) {
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        return that(requestBinaryBody(predicate));
+    }
+
+
+    /**
+     * Adds a JSON request body predicate. The value the given JSON pointer refers to must be equal to the given value.
+     * See {@link JsonDocument} for the representation of JSON values, for example a JSON number {@code 42} is
+     * represented by an {@link Integer} and can be matched by {@code havingJsonValueEqualTo("/id", 42)}.
+     *
+     * @param pointer a JSON pointer (<a href="https://tools.ietf.org/html/rfc6901">RFC 6901</a>) referring
+     *                to the value, for example {@code /order/items/0/id} (cannot be {@code null})
+     * @param value expected value, {@code null} matches a JSON {@code null} as well as a missing value
+     * @return this ongoing request matching
+     */
+    default T havingJsonValueEqualTo(final String pointer, final Object value) {
+        return havingJsonValue(pointer, equalTo(value));
+    }
+
+
+    /**
+     * Adds a JSON request body predicate applied on the value the given JSON pointer refers to ({@code null}
+     * if there is no such a value). The body is parsed at most once per request and only as far as needed
+     * to evaluate the pointer (see {@link Request#getBodyAsJson()}).
+     *
+     * @param pointer a JSON pointer (<a href="https://tools.ietf.org/html/rfc6901">RFC 6901</a>) referring
+     *                to the value, for example {@code /order/items/0/id} (cannot be {@code null})
+     * @param predicate JSON value predicate (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingJsonValue(final String pointer, final Matcher<?> predicate) {
+        Validate.notNull(pointer, "pointer cannot be null");
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        return that(requestJsonValue(pointer, predicate));
+    }
+
+
+    /**
+     * Adds an XML request body predicate. The result of the given XPath expression converted to a string must be
+     * equal to the given value.
+     *
+     * @param expression an XPath expression, for example {@code /order/id} (cannot be empty)
+     * @param value expected result of the expression (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingXPathEqualTo(final String expression, final String value) {
+        Validate.notNull(value, "value cannot be null");
+
+        return havingXPath(expression, equalTo(value));
+    }
+
+
+    /**
+     * Adds an XML request body predicate applied on the result of the given XPath expression converted to a string
+     * (an empty string if the expression selects no node). The body is parsed at most once per request
+     * (see {@link Request#getBodyAsXml()}).
+     *
+     * @param expression an XPath expression, for example {@code /order/id} (cannot be empty)
+     * @param predicate predicate applied on the result of the expression (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingXPath(final String expression, final Matcher<? super String> predicate) {
+        Validate.notEmpty(expression, "expression cannot be empty");
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        return that(requestXPath(expression, predicate));
+    }
+
+
+    /**
+     * Adds a multipart request body predicate. The content of the first part with the given name decoded to a string
+     * (see {@link Part#getContentAsString()}) must be equal to the given value.
+     *
+     * @param name name of the part (the {@code name} parameter of its {@code Content-Disposition} header,
+     *             cannot be {@code null})
+     * @param value expected content of the part (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingPartEqualTo(final String name, final String value) {
+        Validate.notNull(value, "value cannot be null");
+
+        return havingPart(name, equalTo(value));
+    }
+
+
+    /**
+     * Adds a multipart request body predicate applied on the content of the first part with the given name decoded
+     * to a string ({@code null} if there is no such a part). See {@link #havingRawPart(String, Matcher)} for large
+     * file parts.
+     *
+     * @param name name of the part (the {@code name} parameter of its {@code Content-Disposition} header,
+     *             cannot be {@code null})
+     * @param predicate part content predicate (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingPart(final String name, final Matcher<? super String> predicate) {
+        Validate.notNull(name, "name cannot be null");
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        return that(requestPart(name, predicate));
+    }
+
+
+    /**
+     * Adds a multipart request body predicate applied on a read-only view of the content of the first part with
+     * the given name ({@code null} if there is no such a part). The content is neither copied nor decoded, predicates
+     * working on the view (matching the length or a digest for example) are available
+     * in {@link net.jadler.matchers.BodyBytesMatchers}.
+     *
+     * @param name name of the part (the {@code name} parameter of its {@code Content-Disposition} header,
+     *             cannot be {@code null})
+     * @param predicate part content predicate (cannot be {@code null})
+     * @return this ongoing request matching
+     */
+    default T havingRawPart(final String name, final Matcher<? super ByteBuffer> predicate) {
+        Validate.notNull(name, "name cannot be null");
+        Validate.notNull(predicate, "predicate cannot be null");
+
+        return that(requestRawPart(name, predicate));
+    }
+
+
     /**
      * Adds a request path predicate. The request path must be equal to the given value. A root path can be matched
      * by {@code havingPathEqualTo("/")}. Please note the path value doesn't contain a query string portion and is
@@ -97,6 +292,40 @@ public interface RequestMatching<T extends RequestMatching<T>> {
     T havingPath(Matcher<? super String> predicate);
 
 
+    /**
+     * Adds a request path predicate. The request path must match the given template, for example
+     * {@code havingPathTemplate("/accounts/{id}/orders")} matches {@code /accounts/123/orders}. A template segment
+     * written as <code>{name}</code> matches any non-empty path segment, its value is available to
+     * {@link net.jadler.stubbing.Responder} implementations using {@link Request#getPathVariables()}. Please note
+     * both the template and the path value are percent-encoded.
+     *
+     * @param template path template (cannot be empty)
+     * @return this ongoing request matching
+     * @see net.jadler.matchers.PathTemplate
+     */
+    default T havingPathTemplate(final String template) {
+        Validate.notEmpty(template, "template cannot be empty");
+
+        return that(requestPathTemplate(template));
+    }
+
+
+    /**
+     * Adds a request path predicate. The request path must start with the segments of the given template, for example
+     * {@code havingPathPrefix("/static")} matches {@code /static/css/main.css} but not {@code /statics}. The template
+     * can contain variables just like {@link #havingPathTemplate(String)}.
+     *
+     * @param prefix path prefix template (cannot be empty)
+     * @return this ongoing request matching
+     * @see net.jadler.matchers.PathTemplate
+     */
+    default T havingPathPrefix(final String prefix) {
+        Validate.notEmpty(prefix, "prefix cannot be empty");
+
+        return that(requestPathPrefix(prefix));
+    }
+
+
     /**
      * Adds a query string predicate. The query string must be equal to the given value. Examples:
      * <ul>
@@ -0,0 +1,495 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * <p>A journal file storing requests evicted from the memory (see {@link RecordingPolicy}). The file is created lazily
+ * once the first request has been spilled. Each request is stored as a length prefixed record (the request line and
+ * headers) followed by the body, only the offsets of the records are kept in memory.</p>
+ *
+ * <p>Spilling is split into two steps. {@link #add(Request)} just queues the request in memory, so it can be called
+ * while holding a lock. {@link #flush()} writes the queued requests to the file in a batch, it's called outside
+ * of any lock and it never waits for another thread writing a batch (the other thread writes the queued requests
+ * instead). Queued requests are part of the snapshots as well.</p>
+ *
+ * <p>Spilling never fails. The queue is limited, a request which doesn't fit in it (the writes cannot keep up with
+ * the evictions) is not queued at all. Requests which cannot be written to the file (for example because the disk is
+ * full) are logged and removed from the queue. The caller is responsible for counting these requests as dropped.</p>
+ *
+ * <p>Requests are read back lazily, a snapshot ({@link #snapshot()}) is a list view reading the records from the file
+ * on demand. The file is kept (and stays readable by the snapshots) even after {@link #clear()} until the last
+ * snapshot referencing it has been garbage collected.</p>
+ *
+ * <p>This class is thread-safe. It's package private and used internally only.</p>
+ */
+class SpilledRequests {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    //bodies of this size and bigger are memory-mapped when read back rather than copied to the heap
+    private static final int MAPPED_BODY_THRESHOLD = 64 * 1024;
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Logger logger = LoggerFactory.getLogger(SpilledRequests.class);
+
+    private final File directory;
+    private final int maxPending;
+    private final long maxPendingBytes;
+    private final ReentrantLock writeLock;
+    private JournalFile file;
+    private long[] offsets;
+    private int count;
+    private long end;
+    private List<Request> pending;
+    private long pendingBytes;
+
+
+    /**
+     * Creates new instance with no limit of the queued requests.
+     *
+     * @param directory directory to create the journal file in (cannot be {@code null})
+     */
+    SpilledRequests(final File directory) {
+        this(directory, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * @param directory directory to create the journal file in (cannot be {@code null})
+     * @param maxPending maximum number of requests queued to be written (must be positive)
+     * @param maxPendingBytes maximum sum of body sizes (in bytes) of requests queued to be written. A single request
+     *                        is always queued if the queue is empty, no matter its size.
+     */
+    SpilledRequests(final File directory, final int maxPending, final long maxPendingBytes) {
+        Validate.notNull(directory, "directory cannot be null");
+        Validate.isTrue(maxPending > 0, "maxPending must be positive");
+
+        this.directory = directory;
+        this.maxPending = maxPending;
+        this.maxPendingBytes = maxPendingBytes;
+        this.writeLock = new ReentrantLock();
+        this.offsets = new long[16];
+        this.pending = new ArrayList<Request>();
+    }
+
+
+    /**
+     * Queues the given request to be written to the journal file by {@link #flush()}. No I/O is performed.
+     *
+     * @param request request to be spilled
+     * @return {@code true} if the request has been queued, {@code false} if the queue is full
+     */
+    synchronized boolean add(final Request request) {
+        final long bodyLength = request.getBodyLength();
+
+        if (!this.pending.isEmpty() && (this.pending.size() >= this.maxPending
+                || this.pendingBytes + bodyLength > this.maxPendingBytes)) {
+            return false;
+        }
+
+        this.pending.add(request);
+        this.pendingBytes += bodyLength;
+        return true;
+    }
+
+
+    /**
+     * Writes all queued requests to the end of the journal file. Returns immediately if another thread is writing
+     * a batch at the moment.
+     *
+     * @return requests which couldn't be written to the journal file, they were removed from the queue (never
+     * {@code null})
+     */
+    List<Request> flush() {
+        if (!this.writeLock.tryLock()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            final JournalFile target;
+            final List<Request> batch;
+            long pos;
+            synchronized (this) {
+                if (this.pending.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                batch = new ArrayList<Request>(this.pending);
+
+                if (this.file == null) {
+                    try {
+                        this.file = JournalFile.create(this.directory);
+                    } catch (final JadlerException e) {
+                        logger.warn("Cannot spill " + batch.size() + " evicted request(s), dropping them", e);
+                        this.removePending(batch.size());
+                        return batch;
+                    }
+                }
+                target = this.file;
+                pos = this.end;
+            }
+
+            final long[] batchOffsets = new long[batch.size()];
+            int written = 0;
+            JadlerException failure = null;
+            try {
+                for (; written < batch.size(); written++) {
+                    batchOffsets[written] = pos;
+                    pos = target.write(batch.get(written), pos);
+                }
+            } catch (final JadlerException e) {
+                //a partially written record is overwritten by the next batch
+                failure = e;
+            }
+
+            synchronized (this) {
+                //the journal might have been cleared meanwhile, the batch is discarded then
+                if (this.file != target) {
+                    return Collections.emptyList();
+                }
+                this.appendOffsets(Arrays.copyOf(batchOffsets, written));
+                this.end = pos;
+                this.removePending(batch.size());
+            }
+
+            if (failure == null) {
+                return Collections.emptyList();
+            }
+
+            final List<Request> failed = batch.subList(written, batch.size());
+            logger.warn("Cannot spill " + failed.size() + " evicted request(s), dropping them", failure);
+            return failed;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+
+    /**
+     * @return all requests spilled so far in the order of spilling. The returned list reads the requests from
+     * the journal file on demand and it's not affected by subsequent writes.
+     */
+    synchronized List<Request> snapshot() {
+        if (this.count == 0 && this.pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        //slots up to count are never rewritten, the array itself might be replaced by a bigger copy though
+        return new Snapshot(this.file, this.offsets, this.count, new ArrayList<Request>(this.pending));
+    }
+
+
+    /**
+     * @return number of requests spilled so far
+     */
+    synchronized int size() {
+        return this.count + this.pending.size();
+    }
+
+
+    /**
+     * Removes all spilled requests. The journal file is deleted once it's not referenced by any snapshot anymore.
+     */
+    synchronized void clear() {
+        if (this.file != null) {
+            this.file.release();
+            this.file = null;
+        }
+
+        this.offsets = new long[16];
+        this.count = 0;
+        this.end = 0;
+        this.pending = new ArrayList<Request>();
+        this.pendingBytes = 0;
+    }
+
+
+    private void removePending(final int n) {
+        final List<Request> removed = this.pending.subList(0, n);
+        for (final Request request : removed) {
+            this.pendingBytes -= request.getBodyLength();
+        }
+        removed.clear();
+    }
+
+
+    private void appendOffsets(final long[] batchOffsets) {
+        if (this.count + batchOffsets.length > this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, Math.max(this.offsets.length * 2,
+                    this.count + batchOffsets.length));
+        }
+        System.arraycopy(batchOffsets, 0, this.offsets, this.count, batchOffsets.length);
+        this.count += batchOffsets.length;
+    }
+
+
+    /*
+     * Encodes everything but the body which is written from its buffer directly.
+     */
+    static byte[] encodeHead(final Request request) {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bos);
+
+        try {
+            writeString(out, request.getMethod());
+            writeString(out, request.getURI().toString());
+            writeString(out, request.getEncoding() == null ? "" : request.getEncoding().name());
+            //the matched stub rule is not kept
+            out.writeLong(request.getReceivedNanos());
+            out.writeLong(request.getCompletedNanos());
+
+            final KeyValues headers = request.getHeaders();
+            out.writeInt(headers.getKeys().size());
+            for (final String name : headers.getKeys()) {
+                final List<String> values = headers.getValues(name);
+                writeString(out, name);
+                out.writeInt(values.size());
+                for (final String value : values) {
+                    writeString(out, value);
+                }
+            }
+        } catch (final IOException e) {
+            //cannot happen, writing to a byte array
+            throw new JadlerException(e);
+        }
+
+        return bos.toByteArray();
+    }
+
+
+    static Request decode(final byte[] head, final ByteBuffer body) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(head));
+
+        final Request.Builder builder = Request.builder()
+                .method(readString(in))
+                .requestURI(URI.create(readString(in)));
+
+        final String encoding = readString(in);
+        builder.encoding(encoding.isEmpty() ? null : Charset.forName(encoding));
+        builder.receivedNanos(in.readLong());
+        final long completedNanos = in.readLong();
+
+        KeyValues headers = new KeyValues();
+        for (int i = in.readInt(); i > 0; i--) {
+            final String name = readString(in);
+            for (int j = in.readInt(); j > 0; j--) {
+                headers = headers.add(name, readString(in));
+            }
+        }
+        builder.headers(headers);
+
+        //the body as received, it's decompressed again (if needed) once the request is restored
+        final Request res = builder.body(body).build();
+        res.recordCompletion(completedNanos);
+        return res;
+    }
+
+
+    private static void writeString(final DataOutputStream out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+
+    /*
+     * The journal file and its channel. The channel is closed and the file deleted once this instance is not
+     * reachable anymore (neither from the journal nor from any snapshot).
+     */
+    private static class JournalFile {
+        private final FileChannel channel;
+        private final Path path;
+
+        private JournalFile(final FileChannel channel, final Path path) {
+            this.channel = channel;
+            this.path = path;
+        }
+
+        private static JournalFile create(final File directory) {
+            final Path path;
+            try {
+                path = Files.createTempFile(directory.toPath(), "jadler-journal", ".bin");
+            } catch (final IOException e) {
+                throw new JadlerException("Cannot create a journal file in " + directory, e);
+            }
+            path.toFile().deleteOnExit();
+
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (final IOException e) {
+                throw new JadlerException("Cannot open " + path, e);
+            }
+
+            final JournalFile res = new JournalFile(channel, path);
+            CLEANER.register(res, new Cleanup(channel, path));
+            return res;
+        }
+
+        /*
+         * Writes the given request at the given position, returns the position after the record.
+         */
+        private long write(final Request request, final long position) {
+            final byte[] head = encodeHead(request);
+            final ByteBuffer body = request.getBodyAsBuffer();
+
+            final ByteBuffer prefix = ByteBuffer.allocate(4 + head.length + 8);
+            prefix.putInt(head.length).put(head).putLong(body.remaining()).flip();
+
+            try {
+                return this.writeFully(body, this.writeFully(prefix, position));
+            } catch (final IOException e) {
+                throw new JadlerException("Cannot spill a request to " + this.path, e);
+            }
+        }
+
+        private Request read(final long position) throws IOException {
+            final ByteBuffer headLength = ByteBuffer.allocate(4);
+            this.readFully(headLength, position);
+
+            final ByteBuffer head = ByteBuffer.allocate(headLength.getInt(0));
+            this.readFully(head, position + 4);
+
+            final ByteBuffer bodyLength = ByteBuffer.allocate(8);
+            final long bodyPosition = position + 4 + head.capacity() + 8;
+            this.readFully(bodyLength, bodyPosition - 8);
+
+            //a body spilled from the memory never exceeds the size of a buffer
+            final int length = (int) bodyLength.getLong(0);
+            final ByteBuffer body;
+            if (length >= MAPPED_BODY_THRESHOLD) {
+                body = this.channel.map(FileChannel.MapMode.READ_ONLY, bodyPosition, length);
+            } else {
+                body = ByteBuffer.allocate(length);
+                this.readFully(body, bodyPosition);
+                body.flip();
+            }
+
+            return decode(head.array(), body);
+        }
+
+        /*
+         * Deletes the file early (where the platform allows deleting an open file), the snapshots can still read it.
+         */
+        private void release() {
+            try {
+                Files.deleteIfExists(this.path);
+            } catch (final IOException e) {
+                //deleted once the channel has been closed
+            }
+        }
+
+        private long writeFully(final ByteBuffer buffer, final long position) throws IOException {
+            long pos = position;
+            while (buffer.hasRemaining()) {
+                pos += this.channel.write(buffer, pos);
+            }
+            return pos;
+        }
+
+        private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+            long pos = position;
+            while (buffer.hasRemaining()) {
+                final int read = this.channel.read(buffer, pos);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of the journal file");
+                }
+                pos += read;
+            }
+        }
+    }
+
+
+    /*
+     * Mustn't reference the JournalFile instance, otherwise it would never become phantom reachable.
+     */
+    private static class Cleanup implements Runnable {
+        private final FileChannel channel;
+        private final Path path;
+
+        private Cleanup(final FileChannel channel, final Path path) {
+            this.channel = channel;
+            this.path = path;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.channel.close();
+                Files.deleteIfExists(this.path);
+            } catch (final IOException e) {
+                //nothing to do, the file is deleted on exit at the latest
+            }
+        }
+    }
+
+
+    private static class Snapshot extends AbstractList<Request> {
+        private final JournalFile file;
+        private final long[] offsets;
+        private final int count;
+        private final List<Request> pending;
+
+        private Snapshot(final JournalFile file, final long[] offsets, final int count, final List<Request> pending) {
+            this.file = file;
+            this.offsets = offsets;
+            this.count = count;
+            this.pending = pending;
+        }
+
+        @Override
+        public Request get(final int index) {
+            if (index < 0 || index >= this.size()) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + this.size());
+            }
+
+            //requests not written to the file yet are kept in memory
+            if (index >= this.count) {
+                return this.pending.get(index - this.count);
+            }
+
+            try {
+                return this.file.read(this.offsets[index]);
+            } catch (final IOException e) {
+                throw new JadlerException("Cannot read a spilled request", e);
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.count + this.pending.size();
+        }
+    }
+}
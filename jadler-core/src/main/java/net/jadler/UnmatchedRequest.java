@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.stubbing.HttpStub;
+import org.apache.commons.lang.Validate;
+
+import java.util.List;
+
+
+/**
+ * <p>An http request no stub rule could be applied to. Instances of this class are recorded by {@link JadlerMocker}
+ * (see {@link JadlerMocker#getUnmatchedRequests()}) so it's possible to find out why a request didn't match any
+ * stub rule.</p>
+ *
+ * <p>The description of the mismatch is not computed until {@link #describeMismatch()} is called, so recording
+ * unmatched requests is cheap even if there are many stub rules.</p>
+ */
+public class UnmatchedRequest {
+
+    private final Request request;
+    private final List<HttpStub> stubs;
+
+
+    /**
+     * @param request the unmatched request
+     * @param stubs   all stub rules available at the time the request was received
+     */
+    UnmatchedRequest(final Request request, final List<HttpStub> stubs) {
+        Validate.notNull(request, "request cannot be null");
+        Validate.notNull(stubs, "stubs cannot be null");
+
+        this.request = request;
+        this.stubs = stubs;
+    }
+
+
+    /**
+     * @return the http request no stub rule could be applied to
+     */
+    public Request getRequest() {
+        return this.request;
+    }
+
+
+    /**
+     * @return a human readable description explaining why each stub rule available at the time the request was
+     * received cannot be applied to the request
+     */
+    public String describeMismatch() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("No suitable rule found. Reason:\n");
+        for (final HttpStub rule : this.stubs) {
+            sb.append("The rule '");
+            sb.append(rule);
+            sb.append("' cannot be applied. Mismatch:\n");
+            sb.append(rule.describeMismatch(this.request));
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+
+    @Override
+    public String toString() {
+        return this.request.toString();
+    }
+}
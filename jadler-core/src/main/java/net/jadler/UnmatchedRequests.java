@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * A bounded ring buffer of the most recent {@link UnmatchedRequest} instances. Adding is lock-free, once the buffer
+ * is full the oldest entries are overwritten. This class is package private and used internally only.
+ */
+class UnmatchedRequests {
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong counter;
+
+
+    /**
+     * @param capacity maximum number of unmatched requests kept (cannot be negative, zero disables the recording)
+     */
+    UnmatchedRequests(final int capacity) {
+        Validate.isTrue(capacity >= 0, "capacity cannot be negative");
+
+        this.slots = new AtomicReferenceArray<Slot>(capacity);
+        this.counter = new AtomicLong();
+    }
+
+
+    /**
+     * Records new unmatched request, possibly overwriting the oldest one.
+     *
+     * @param unmatched an unmatched request to be recorded
+     */
+    void add(final UnmatchedRequest unmatched) {
+        final long seq = this.counter.getAndIncrement();
+
+        if (this.slots.length() > 0) {
+            this.slots.set((int) (seq % this.slots.length()), new Slot(seq, unmatched));
+        }
+    }
+
+
+    /**
+     * @return the recorded unmatched requests from the oldest one to the most recent one
+     */
+    List<UnmatchedRequest> snapshot() {
+        final long last = this.counter.get();
+        final long first = Math.max(0, last - this.slots.length());
+
+        final List<UnmatchedRequest> res = new ArrayList<UnmatchedRequest>((int) (last - first));
+        for (long seq = first; seq < last; seq++) {
+            final Slot slot = this.slots.get((int) (seq % this.slots.length()));
+            //the slot might not have been written yet or it might have been overwritten concurrently already
+            if (slot != null && slot.seq == seq) {
+                res.add(slot.value);
+            }
+        }
+        return res;
+    }
+
+
+    /**
+     * @return total number of unmatched requests added so far (including the ones already overwritten)
+     */
+    long getTotalCount() {
+        return this.counter.get();
+    }
+
+
+    /**
+     * @return maximum number of unmatched requests kept
+     */
+    int getCapacity() {
+        return this.slots.length();
+    }
+
+
+    private static class Slot {
+        private final long seq;
+        private final UnmatchedRequest value;
+
+        private Slot(final long seq, final UnmatchedRequest value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+import org.apache.commons.lang.Validate;
+import org.w3c.dom.Document;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.InputStream;
+
+
+/**
+ * <p>An XML request body (see {@link Request#getBodyAsXml()}) queried using XPath expressions.</p>
+ *
+ * <p>The body is parsed lazily when the first expression is evaluated, the parsed document is then reused by all
+ * subsequent evaluations. The parser is not namespace aware (so expressions don't need to deal with namespace
+ * prefixes), document type declarations are not allowed.</p>
+ *
+ * <p>The whole body is parsed to a DOM tree held in the memory as long as the request is, even if the expressions
+ * evaluated refer to the very beginning of the document only. Matching huge XML bodies is therefore rather
+ * expensive.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class XmlDocument {
+
+    private final InputStream source;
+    private Document document;
+    private JadlerException failure;
+
+
+    /**
+     * @param source stream providing the XML document (cannot be {@code null}), it's read lazily
+     */
+    XmlDocument(final InputStream source) {
+        Validate.notNull(source, "source cannot be null");
+
+        this.source = source;
+    }
+
+
+    /**
+     * Evaluates the given XPath expression. The expression is compiled on every call, use
+     * {@link #evaluate(XPathExpression)} to evaluate an expression repeatedly.
+     *
+     * @param expression an XPath expression (cannot be empty)
+     * @return result of the expression converted to a string (an empty string if the expression selects no node)
+     * @throws JadlerException if the body is not a well-formed XML document
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public String evaluate(final String expression) {
+        return this.evaluate(compile(expression));
+    }
+
+
+    /**
+     * Evaluates the given compiled XPath expression (see {@link #compile(String)}). Since compiled expressions
+     * are not thread-safe, the evaluation is synchronized on the given instance, so it can be shared by multiple
+     * threads.
+     *
+     * @param expression a compiled XPath expression (cannot be {@code null})
+     * @return result of the expression converted to a string (an empty string if the expression selects no node)
+     * @throws JadlerException if the body is not a well-formed XML document
+     */
+    public synchronized String evaluate(final XPathExpression expression) {
+        Validate.notNull(expression, "expression cannot be null");
+
+        final Document doc = this.document();
+        try {
+            //always acquired after the document lock, never the other way round
+            synchronized (expression) {
+                return (String) expression.evaluate(doc, XPathConstants.STRING);
+            }
+        } catch (final XPathExpressionException e) {
+            throw new JadlerException("cannot evaluate XPath expression", e);
+        }
+    }
+
+
+    /**
+     * Compiles the given XPath expression.
+     *
+     * @param expression an XPath expression (cannot be empty)
+     * @return compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static XPathExpression compile(final String expression) {
+        Validate.notEmpty(expression, "expression cannot be empty");
+
+        try {
+            return XPathFactory.newInstance().newXPath().compile(expression);
+        } catch (final XPathExpressionException e) {
+            throw new IllegalArgumentException("invalid XPath expression " + expression, e);
+        }
+    }
+
+
+    private Document document() {
+        if (this.failure != null) {
+            throw new JadlerException(this.failure.getMessage(), this.failure);
+        }
+
+        if (this.document == null) {
+            try {
+                final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                //the document is read by multiple threads, deferred nodes would be expanded on the fly
+                factory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
+                factory.setExpandEntityReferences(false);
+
+                this.document = factory.newDocumentBuilder().parse(this.source);
+            } catch (final Exception e) {
+                this.failure = new JadlerException("malformed XML request body", e);
+                throw this.failure;
+            }
+        }
+        return this.document;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A {@link RequestMatcher} used for matching the request body (decompressed according to the {@code Content-Encoding}
+ * header, see {@link Request#getDecodedBodyAsBuffer()}) as a read-only {@link ByteBuffer} view. Unlike
+ * {@link RawBodyRequestMatcher} the body is not copied, see {@link BodyBytesMatchers} for predicates working
+ * on the view.
+ */
+public class BinaryBodyRequestMatcher extends RequestMatcher<ByteBuffer> {
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestBinaryBody(org.hamcrest.Matcher)} instead.
+     *
+     * @param pred a predicate to be applied on the request body
+     */
+    protected BinaryBodyRequestMatcher(final Matcher<? super ByteBuffer> pred) {
+        super(pred);
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param pred a predicate to be applied on the request body
+     * @return new instance of this matcher
+     */
+    public static BinaryBodyRequestMatcher requestBinaryBody(final Matcher<? super ByteBuffer> pred) {
+        return new BinaryBodyRequestMatcher(pred);
+    }
+
+    /**
+     * Retrieves the body of the given request
+     *
+     * @param req request to retrieve the body from
+     * @return a read-only view of the decompressed request body (never returns {@code null})
+     */
+    @Override
+    protected ByteBuffer retrieveValue(final Request req) {
+        return req.getDecodedBodyAsBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return "binary body is";
+    }
+}
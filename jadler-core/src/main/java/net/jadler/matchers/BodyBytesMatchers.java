@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Description;
+import org.hamcrest.FeatureMatcher;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * <p>Factory methods of predicates applicable on a binary request body (see
+ * {@link BinaryBodyRequestMatcher#requestBinaryBody(Matcher)}).</p>
+ *
+ * <p>All the predicates read the given buffer using absolute operations, so neither its content nor its position
+ * is modified and the body is never copied.</p>
+ */
+public class BodyBytesMatchers {
+
+    private static final int DESCRIBED_BYTES = 16;
+
+
+    private BodyBytesMatchers() {
+        //gtfo
+    }
+
+
+    /**
+     * @param expected expected content (cannot be {@code null})
+     * @return a predicate matching a buffer with the remaining content equal to the given bytes
+     */
+    public static Matcher<ByteBuffer> bytesEqualTo(final byte[] expected) {
+        Validate.notNull(expected, "expected cannot be null");
+        final byte[] copy = expected.clone();
+
+        return new BytesMatcher("equal to", copy) {
+            @Override
+            protected boolean matchesSafely(final ByteBuffer item) {
+                return item.remaining() == copy.length && regionMatches(item, item.position(), copy);
+            }
+        };
+    }
+
+
+    /**
+     * @param expected expected prefix (cannot be {@code null})
+     * @return a predicate matching a buffer with the remaining content starting with the given bytes
+     */
+    public static Matcher<ByteBuffer> startingWithBytes(final byte[] expected) {
+        Validate.notNull(expected, "expected cannot be null");
+        final byte[] copy = expected.clone();
+
+        return new BytesMatcher("starting with", copy) {
+            @Override
+            protected boolean matchesSafely(final ByteBuffer item) {
+                return item.remaining() >= copy.length && regionMatches(item, item.position(), copy);
+            }
+        };
+    }
+
+
+    /**
+     * @param expected expected subsequence (cannot be {@code null})
+     * @return a predicate matching a buffer with the remaining content containing the given bytes
+     */
+    public static Matcher<ByteBuffer> containingBytes(final byte[] expected) {
+        Validate.notNull(expected, "expected cannot be null");
+        final byte[] copy = expected.clone();
+
+        return new BytesMatcher("containing", copy) {
+            @Override
+            protected boolean matchesSafely(final ByteBuffer item) {
+                if (copy.length == 0) {
+                    return true;
+                }
+
+                final int last = item.limit() - copy.length;
+                for (int i = item.position(); i <= last; i++) {
+                    if (item.get(i) == copy[0] && regionMatches(item, i, copy)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+
+    /**
+     * The digest is computed on every evaluation of the returned predicate. When matching requests prefer
+     * {@link BodyDigestRequestMatcher} (used by {@link net.jadler.RequestMatching#havingRawBodyDigest(String, byte[])})
+     * which computes the digest at most once per request.
+     *
+     * @param algorithm name of a message digest algorithm, for example {@code SHA-256} (cannot be empty, must be
+     *                  supported by the platform)
+     * @param expected expected digest of the remaining buffer content (cannot be {@code null})
+     * @return a predicate matching a buffer with the remaining content having the given digest
+     */
+    public static Matcher<ByteBuffer> havingDigest(final String algorithm, final byte[] expected) {
+        Validate.notEmpty(algorithm, "algorithm cannot be empty");
+        Validate.notNull(expected, "expected cannot be null");
+        //fail fast if the algorithm isn't available
+        newDigest(algorithm);
+        final byte[] copy = expected.clone();
+
+        return new BytesMatcher(algorithm + " digest equal to", copy) {
+            @Override
+            protected boolean matchesSafely(final ByteBuffer item) {
+                final MessageDigest digest = newDigest(algorithm);
+                digest.update(item.duplicate());
+                return MessageDigest.isEqual(digest.digest(), copy);
+            }
+        };
+    }
+
+
+    /**
+     * @param pred a predicate applied on the number of remaining bytes (cannot be {@code null})
+     * @return a predicate matching a buffer with the number of remaining bytes matching the given predicate
+     */
+    public static Matcher<ByteBuffer> havingLength(final Matcher<? super Integer> pred) {
+        Validate.notNull(pred, "pred cannot be null");
+
+        return new FeatureMatcher<ByteBuffer, Integer>(pred, "length", "length") {
+            @Override
+            protected Integer featureValueOf(final ByteBuffer actual) {
+                return actual.remaining();
+            }
+        };
+    }
+
+
+    private static MessageDigest newDigest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("unsupported digest algorithm: " + algorithm, e);
+        }
+    }
+
+
+    private static boolean regionMatches(final ByteBuffer buffer, final int offset, final byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private abstract static class BytesMatcher extends TypeSafeMatcher<ByteBuffer> {
+        private final String operation;
+        private final byte[] expected;
+
+        private BytesMatcher(final String operation, final byte[] expected) {
+            this.operation = operation;
+            this.expected = expected;
+        }
+
+        @Override
+        public void describeTo(final Description description) {
+            description.appendText(this.operation).appendText(" ");
+            appendBytes(this.expected, description);
+        }
+
+        @Override
+        protected void describeMismatchSafely(final ByteBuffer item, final Description description) {
+            final byte[] head = new byte[Math.min(item.remaining(), DESCRIBED_BYTES + 1)];
+            item.duplicate().get(head);
+            description.appendText("was ");
+            appendBytes(head, description);
+            description.appendText(" (" + item.remaining() + " bytes)");
+        }
+
+        private static void appendBytes(final byte[] bytes, final Description description) {
+            final StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < Math.min(bytes.length, DESCRIBED_BYTES); i++) {
+                sb.append(String.format("%02x", bytes[i]));
+            }
+            if (bytes.length > DESCRIBED_BYTES) {
+                sb.append("...");
+            }
+            description.appendText(sb.append("]").toString());
+        }
+    }
+}
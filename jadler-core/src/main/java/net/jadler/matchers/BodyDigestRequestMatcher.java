@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * A {@link RequestMatcher} used for matching a digest of the request body. Unlike
+ * {@link BodyBytesMatchers#havingDigest(java.lang.String, byte[])} the digest is computed at most once per request
+ * and algorithm, see {@link Request#getBodyDigest(java.lang.String)}.
+ */
+public class BodyDigestRequestMatcher extends RequestMatcher<byte[]> {
+
+    private final String algorithm;
+    private final String desc;
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestBodyDigest(java.lang.String, org.hamcrest.Matcher)} instead.
+     *
+     * @param pred      a predicate to be applied on the digest
+     * @param algorithm name of a message digest algorithm, for example {@code SHA-256}
+     */
+    protected BodyDigestRequestMatcher(final Matcher<? super byte[]> pred, final String algorithm) {
+        super(pred);
+
+        Validate.notEmpty(algorithm, "algorithm cannot be empty");
+        //fail fast if the algorithm isn't available
+        try {
+            MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("unsupported digest algorithm: " + algorithm, e);
+        }
+        this.algorithm = algorithm;
+
+        this.desc = algorithm + " digest of body is";
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param algorithm name of a message digest algorithm, for example {@code SHA-256} (cannot be empty, must be
+     *                  supported by the platform)
+     * @param pred      a predicate to be applied on the digest
+     * @return new instance of this matcher
+     */
+    public static BodyDigestRequestMatcher requestBodyDigest(final String algorithm,
+            final Matcher<? super byte[]> pred) {
+        return new BodyDigestRequestMatcher(pred, algorithm);
+    }
+
+    /**
+     * Retrieves the digest (computed using the algorithm defined in
+     * {@link #BodyDigestRequestMatcher(org.hamcrest.Matcher, java.lang.String)}) of the body of the given request.
+     *
+     * @param req request to retrieve the digest from
+     * @return digest of the request body
+     */
+    @Override
+    protected byte[] retrieveValue(final Request req) {
+        return req.getBodyDigest(this.algorithm);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return this.desc;
+    }
+}
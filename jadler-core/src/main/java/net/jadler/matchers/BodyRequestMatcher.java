@@ -9,7 +9,8 @@ import org.hamcrest.Matcher;
 
 
 /**
- * A {@link RequestMatcher} used for matching the request body as a string.
+ * A {@link RequestMatcher} used for matching the request body as a string. The body is decompressed according
+ * to the {@code Content-Encoding} header first, see {@link Request#getDecodedBodyAsString()}.
  */
 public class BodyRequestMatcher extends RequestMatcher<String> {
 
@@ -38,11 +39,11 @@ public class BodyRequestMatcher extends RequestMatcher<String> {
      * Retrieves the body of the given request
      *
      * @param req request to retrieve the body from
-     * @return request body as a string (never returns {@code null})
+     * @return decompressed request body as a string (never returns {@code null})
      */
     @Override
     protected String retrieveValue(final Request req) {
-        return req.getBodyAsString();
+        return req.getDecodedBodyAsString();
     }
 
     /**
@@ -4,6 +4,7 @@
  */
 package net.jadler.matchers;
 
+import net.jadler.KeyValues;
 import net.jadler.Request;
 import org.apache.commons.lang.Validate;
 import org.hamcrest.Matcher;
@@ -31,7 +32,8 @@ public class HeaderRequestMatcher extends RequestMatcher<List<String>> {
         super(pred);
 
         Validate.notEmpty(headerName, "headerName cannot be empty");
-        this.headerName = headerName;
+        //normalized just once, so the lookups don't allocate
+        this.headerName = KeyValues.normalize(headerName);
 
         this.desc = "header \"" + headerName + "\" is";
     }
@@ -53,7 +55,8 @@ public class HeaderRequestMatcher extends RequestMatcher<List<String>> {
      * of the given request.
      *
      * @param req request to retrieve the header from
-     * @return the request header as a list of values or {@code null} if there is no such a header in the request
+     * @return the request header as a read-only list of values or {@code null} if there is no such a header in the
+     * request
      */
     @Override
     protected List<String> retrieveValue(final Request req) {
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.JsonDocument;
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+
+
+/**
+ * A {@link RequestMatcher} used for matching a value of a JSON request body referred by a JSON pointer. The body is
+ * parsed at most once per request and only as far as needed, see {@link JsonDocument}.
+ */
+public class JsonValueRequestMatcher extends RequestMatcher<Object> {
+
+    private final String pointer;
+    private final String desc;
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestJsonValue(java.lang.String, org.hamcrest.Matcher)} instead.
+     *
+     * @param pred    a predicate to be applied on the JSON value
+     * @param pointer a JSON pointer referring to the value, for example {@code /order/id}
+     */
+    protected JsonValueRequestMatcher(final Matcher<? super Object> pred, final String pointer) {
+        super(pred);
+
+        //validates the pointer
+        JsonDocument.parsePointer(pointer);
+        this.pointer = pointer;
+
+        this.desc = "JSON value \"" + pointer + "\" is";
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param pointer a JSON pointer referring to the value, for example {@code /order/id}
+     * @param pred    a predicate to be applied on the JSON value (see {@link JsonDocument} for the representation
+     *                of JSON values)
+     * @return new instance of this matcher
+     */
+    @SuppressWarnings("unchecked")
+    public static JsonValueRequestMatcher requestJsonValue(final String pointer, final Matcher<?> pred) {
+        return new JsonValueRequestMatcher((Matcher<? super Object>) pred, pointer);
+    }
+
+    /**
+     * Retrieves the JSON value (defined in {@link #JsonValueRequestMatcher(org.hamcrest.Matcher, java.lang.String)})
+     * of the given request.
+     *
+     * @param req request to retrieve the value from
+     * @return the JSON value or {@code null} if there is no such a value in the request body
+     */
+    @Override
+    protected Object retrieveValue(final Request req) {
+        return req.getBodyAsJson().getValue(this.pointer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return this.desc;
+    }
+}
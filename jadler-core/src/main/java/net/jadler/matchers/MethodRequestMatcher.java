@@ -5,14 +5,19 @@
 package net.jadler.matchers;
 
 import net.jadler.Request;
+import org.apache.commons.lang.Validate;
 import org.hamcrest.Matcher;
 
+import static org.hamcrest.Matchers.equalToIgnoringCase;
+
 
 /**
  * A {@link RequestMatcher} used for matching the request method.
  */
 public class MethodRequestMatcher extends RequestMatcher<String> {
 
+    private final String expectedMethod;
+
 
     /**
      * Protected constructor useful only when subtyping. For creating instances of this class use
@@ -21,7 +26,13 @@ public class MethodRequestMatcher extends RequestMatcher<String> {
      * @param pred a predicate to be applied on the request method
      */
     protected MethodRequestMatcher(final Matcher<? super String> pred) {
+        this(pred, null);
+    }
+
+
+    private MethodRequestMatcher(final Matcher<? super String> pred, final String expectedMethod) {
         super(pred);
+        this.expectedMethod = expectedMethod;
     }
 
     /**
@@ -34,6 +45,27 @@ public class MethodRequestMatcher extends RequestMatcher<String> {
         return new MethodRequestMatcher(pred);
     }
 
+    /**
+     * Factory method to create new instance of this matcher which checks the request method is equal
+     * (case insensitive) to the given value. Unlike {@link #requestMethod(org.hamcrest.Matcher)} the expected
+     * method is kept by the matcher so it can be used for indexing http stubs.
+     *
+     * @param method expected request method (cannot be empty)
+     * @return new instance of this matcher
+     */
+    public static MethodRequestMatcher requestMethodEqualTo(final String method) {
+        Validate.notEmpty(method, "method cannot be empty");
+        return new MethodRequestMatcher(equalToIgnoringCase(method), method);
+    }
+
+    /**
+     * @return the expected method if this matcher has been created using {@link #requestMethodEqualTo(String)},
+     * otherwise {@code null}
+     */
+    public String getExpectedMethod() {
+        return this.expectedMethod;
+    }
+
     /**
      * Retrieves the the method of the given request
      *
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Part;
+import net.jadler.Request;
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
+
+
+/**
+ * A {@link RequestMatcher} used for matching the content of a part of a multipart request body decoded
+ * to a string (see {@link Part#getContentAsString()}).
+ */
+public class PartRequestMatcher extends RequestMatcher<String> {
+
+    private final String partName;
+    private final String desc;
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestPart(java.lang.String, org.hamcrest.Matcher)} instead.
+     *
+     * @param pred     a predicate to be applied on the content of the part
+     * @param partName name of a part (case sensitive)
+     */
+    protected PartRequestMatcher(final Matcher<? super String> pred, final String partName) {
+        super(pred);
+
+        Validate.notNull(partName, "partName cannot be null");
+        this.partName = partName;
+
+        this.desc = "part \"" + partName + "\" is";
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param partName name of a part
+     * @param pred     a predicate to be applied on the content of the part
+     * @return new instance of this matcher
+     */
+    public static PartRequestMatcher requestPart(final String partName, final Matcher<? super String> pred) {
+        return new PartRequestMatcher(pred, partName);
+    }
+
+    /**
+     * Retrieves the content of a part (defined in {@link #PartRequestMatcher(org.hamcrest.Matcher, java.lang.String)})
+     * of the given request.
+     *
+     * @param req request to retrieve the part from
+     * @return content of the first part with the name as a string or {@code null} if there is no such a part
+     */
+    @Override
+    protected String retrieveValue(final Request req) {
+        final Part part = req.getPart(this.partName);
+        return part == null ? null : part.getContentAsString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return this.desc;
+    }
+}
@@ -5,7 +5,12 @@
 package net.jadler.matchers;
 
 import net.jadler.Request;
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeMatcher;
+
+import static org.hamcrest.Matchers.equalTo;
 
 
 /**
@@ -13,6 +18,10 @@ import org.hamcrest.Matcher;
  */
 public class PathRequestMatcher extends RequestMatcher<String> {
 
+    private final String expectedPath;
+    private final PathTemplate pathTemplate;
+
+
     /**
      * Protected constructor useful only when subtyping. For creating instances of this class use
      * {@link #requestPath(org.hamcrest.Matcher)} instead.
@@ -20,7 +29,15 @@ public class PathRequestMatcher extends RequestMatcher<String> {
      * @param pred a predicate to be applied on the request path
      */
     protected PathRequestMatcher(final Matcher<? super String> pred) {
+        this(pred, null, null);
+    }
+
+
+    private PathRequestMatcher(final Matcher<? super String> pred, final String expectedPath,
+                               final PathTemplate pathTemplate) {
         super(pred);
+        this.expectedPath = expectedPath;
+        this.pathTemplate = pathTemplate;
     }
 
     /**
@@ -33,6 +50,62 @@ public class PathRequestMatcher extends RequestMatcher<String> {
         return new PathRequestMatcher(pred);
     }
 
+    /**
+     * Factory method to create new instance of this matcher which checks the request path is equal to the given
+     * value. Unlike {@link #requestPath(org.hamcrest.Matcher)} the expected path is kept by the matcher so it can
+     * be used for indexing http stubs.
+     *
+     * @param path expected request path (percent-encoded, cannot be empty)
+     * @return new instance of this matcher
+     */
+    public static PathRequestMatcher requestPathEqualTo(final String path) {
+        Validate.notEmpty(path, "path cannot be empty");
+        return new PathRequestMatcher(equalTo(path), path, null);
+    }
+
+    /**
+     * Factory method to create new instance of this matcher which checks the request path matches the given
+     * template (see {@link PathTemplate#exact(String)}). The compiled template is kept by the matcher so it can be
+     * used for indexing http stubs.
+     *
+     * @param template path template, for example {@code /accounts/{id}/orders} (percent-encoded, cannot be empty)
+     * @return new instance of this matcher
+     */
+    public static PathRequestMatcher requestPathTemplate(final String template) {
+        final PathTemplate compiled = PathTemplate.exact(template);
+        return new PathRequestMatcher(new TemplateMatcher(compiled), null, compiled);
+    }
+
+    /**
+     * Factory method to create new instance of this matcher which checks the request path starts with the segments
+     * of the given template (see {@link PathTemplate#prefix(String)}). The compiled template is kept by the matcher
+     * so it can be used for indexing http stubs.
+     *
+     * @param prefix path prefix template, for example {@code /static} or {@code /accounts/{id}} (percent-encoded,
+     *               cannot be empty)
+     * @return new instance of this matcher
+     */
+    public static PathRequestMatcher requestPathPrefix(final String prefix) {
+        final PathTemplate compiled = PathTemplate.prefix(prefix);
+        return new PathRequestMatcher(new TemplateMatcher(compiled), null, compiled);
+    }
+
+    /**
+     * @return the expected path if this matcher has been created using {@link #requestPathEqualTo(String)},
+     * otherwise {@code null}
+     */
+    public String getExpectedPath() {
+        return this.expectedPath;
+    }
+
+    /**
+     * @return the path template if this matcher has been created using {@link #requestPathTemplate(String)}
+     * or {@link #requestPathPrefix(String)}, otherwise {@code null}
+     */
+    public PathTemplate getPathTemplate() {
+        return this.pathTemplate;
+    }
+
     /**
      * Retrieves the path of the given request. The value is percent-encoded.
      *
@@ -41,7 +114,7 @@ public class PathRequestMatcher extends RequestMatcher<String> {
      */
     @Override
     public String retrieveValue(final Request req) {
-        return req.getURI().getRawPath();
+        return req.getRawPath();
     }
 
     /**
@@ -51,4 +124,24 @@ public class PathRequestMatcher extends RequestMatcher<String> {
     protected String provideDescription() {
         return "Path is";
     }
+
+
+    private static class TemplateMatcher extends TypeSafeMatcher<String> {
+        private final PathTemplate template;
+
+        private TemplateMatcher(final PathTemplate template) {
+            this.template = template;
+        }
+
+        @Override
+        protected boolean matchesSafely(final String path) {
+            return this.template.match(path) != null;
+        }
+
+        @Override
+        public void describeTo(final Description description) {
+            description.appendText(this.template.isPrefix() ? "starting with segments " : "matching template ");
+            description.appendValue(this.template.toString());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * <p>A compiled request path template, for example {@code /accounts/{id}/orders}. A template consists of path
+ * segments separated by the {@code /} character. A segment is either a literal (which must be equal to the
+ * corresponding segment of a request path) or a variable written as <code>{name}</code> (which matches any
+ * non-empty segment). Values of variables can be retrieved using {@link #match(String)}.</p>
+ *
+ * <p>A template is either exact (see {@link #exact(String)}, the request path must have the very same number
+ * of segments) or a prefix (see {@link #prefix(String)}, the request path must start with the template segments,
+ * for example the {@code /static} prefix matches {@code /static}, {@code /static/} and {@code /static/css/main.css},
+ * but not {@code /statics}).</p>
+ *
+ * <p>Both the template and the request path are percent-encoded, values of variables are kept percent-encoded too.
+ * </p>
+ *
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ */
+public class PathTemplate {
+
+    private final String template;
+    private final List<String> segments;
+    private final List<String> variableNames;
+    private final boolean prefix;
+
+
+    private PathTemplate(final String template, final boolean prefix) {
+        Validate.notEmpty(template, "template cannot be empty");
+        Validate.isTrue(template.startsWith("/"), "template must start with '/'");
+
+        this.template = template;
+        this.prefix = prefix;
+
+        final String normalized = prefix && template.length() > 1 && template.endsWith("/")
+                ? template.substring(0, template.length() - 1)
+                : template;
+
+        final List<String> segs = new ArrayList<String>();
+        final List<String> names = new ArrayList<String>();
+
+        for (final String segment : splitPath(normalized)) {
+            final String name = variableName(segment);
+            if (name != null) {
+                Validate.isTrue(!name.isEmpty(), "variable name cannot be empty: " + template);
+                Validate.isTrue(!names.contains(name), "duplicate variable name '" + name + "': " + template);
+                names.add(name);
+                segs.add(null);
+            } else {
+                Validate.isTrue(segment.indexOf('{') < 0 && segment.indexOf('}') < 0,
+                        "a variable must span the whole segment: " + template);
+                segs.add(segment);
+            }
+        }
+
+        this.segments = Collections.unmodifiableList(segs);
+        this.variableNames = Collections.unmodifiableList(names);
+    }
+
+
+    /**
+     * Compiles an exact path template.
+     *
+     * @param template path template, for example {@code /accounts/{id}} (cannot be empty, must start with {@code /})
+     * @return compiled template
+     */
+    public static PathTemplate exact(final String template) {
+        return new PathTemplate(template, false);
+    }
+
+
+    /**
+     * Compiles a prefix path template.
+     *
+     * @param template path prefix template, for example {@code /static} or {@code /accounts/{id}} (cannot be empty,
+     *                 must start with {@code /})
+     * @return compiled template
+     */
+    public static PathTemplate prefix(final String template) {
+        return new PathTemplate(template, true);
+    }
+
+
+    /**
+     * Splits the given percent-encoded path into segments. The leading {@code /} is ignored, so the root path
+     * has no segments at all.
+     *
+     * @param path path to be split (cannot be {@code null}, should start with {@code /})
+     * @return path segments
+     */
+    public static String[] splitPath(final String path) {
+        final String relative = path.startsWith("/") ? path.substring(1) : path;
+        return StringUtils.splitPreserveAllTokens(relative, '/');
+    }
+
+
+    /**
+     * @param segment a template segment
+     * @return name of the variable if the given segment is a variable, otherwise {@code null}
+     */
+    private static String variableName(final String segment) {
+        if (segment.length() >= 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}') {
+            return segment.substring(1, segment.length() - 1);
+        }
+        return null;
+    }
+
+
+    /**
+     * @return segments of this template (a request path must start with these segments), variable segments are
+     * represented by {@code null} values
+     */
+    public List<String> getSegments() {
+        return this.segments;
+    }
+
+
+    /**
+     * @return names of all variables of this template in the order of appearance
+     */
+    public List<String> getVariableNames() {
+        return this.variableNames;
+    }
+
+
+    /**
+     * @return {@code true} if this is a prefix template, {@code false} if this is an exact template
+     */
+    public boolean isPrefix() {
+        return this.prefix;
+    }
+
+
+    /**
+     * Matches the given request path against this template.
+     *
+     * @param path percent-encoded request path
+     * @return values of all variables of this template (an empty map if there are no variables) if the path
+     * matches this template, otherwise {@code null}
+     */
+    public Map<String, String> match(final String path) {
+        if (path == null) {
+            return null;
+        }
+
+        final String[] pathSegments = splitPath(path);
+        final int count = this.segments.size();
+
+        if (this.prefix ? pathSegments.length < count : pathSegments.length != count) {
+            return null;
+        }
+
+        final Map<String, String> variables = new LinkedHashMap<String, String>();
+        int var = 0;
+        for (int i = 0; i < count; i++) {
+            final String expected = this.segments.get(i);
+            if (expected == null) {
+                if (pathSegments[i].isEmpty()) {
+                    return null;
+                }
+                variables.put(this.variableNames.get(var++), pathSegments[i]);
+            } else if (!expected.equals(pathSegments[i])) {
+                return null;
+            }
+        }
+
+        return variables;
+    }
+
+
+    /**
+     * Binds the given values to the variables of this template.
+     *
+     * @param values values of all variables in the order of appearance
+     * @return variables of this template
+     */
+    public Map<String, String> bind(final List<String> values) {
+        Validate.isTrue(values.size() == this.variableNames.size(), "wrong number of values");
+
+        final Map<String, String> res = new LinkedHashMap<String, String>();
+        for (int i = 0; i < values.size(); i++) {
+            res.put(this.variableNames.get(i), values.get(i));
+        }
+        return res;
+    }
+
+
+    @Override
+    public String toString() {
+        return this.template;
+    }
+}
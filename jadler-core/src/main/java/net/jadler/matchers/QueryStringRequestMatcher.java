@@ -47,7 +47,7 @@ public class QueryStringRequestMatcher extends RequestMatcher<String> {
      */
     @Override
     public String retrieveValue(final Request req) {
-        return req.getURI().getRawQuery();
+        return req.getRawQuery();
     }
 
     /**
@@ -5,12 +5,13 @@
 package net.jadler.matchers;
 
 import net.jadler.Request;
-import org.apache.commons.io.IOUtils;
 import org.hamcrest.Matcher;
 
 
 /**
- * A {@link RequestMatcher} used for matching the request body as an array of bytes.
+ * A {@link RequestMatcher} used for matching the request body (decompressed according to the {@code Content-Encoding}
+ * header, see {@link Request#getDecodedBodyAsBytes()}) as an array of bytes. The body is copied for every evaluation,
+ * consider using {@link BinaryBodyRequestMatcher} for large bodies.
  */
 public class RawBodyRequestMatcher extends RequestMatcher<byte[]> {
 
@@ -39,11 +40,11 @@ public class RawBodyRequestMatcher extends RequestMatcher<byte[]> {
      * Retrieves the body of the given request
      *
      * @param req request to retrieve the body from
-     * @return request body as an array of bytes (never returns {@code null})
+     * @return decompressed request body as an array of bytes (never returns {@code null})
      */
     @Override
-    protected byte[] retrieveValue(final Request req) throws Exception {
-        return IOUtils.toByteArray(req.getBodyAsStream());
+    protected byte[] retrieveValue(final Request req) {
+        return req.getDecodedBodyAsBytes();
     }
 
     /**
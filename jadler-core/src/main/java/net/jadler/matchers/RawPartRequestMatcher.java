@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Part;
+import net.jadler.Request;
+import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A {@link RequestMatcher} used for matching the content of a part of a multipart request body as a read-only
+ * {@link ByteBuffer} view. The content is neither copied nor decoded, so this matcher (together with predicates
+ * from {@link BodyBytesMatchers}) is suitable for large file parts.
+ */
+public class RawPartRequestMatcher extends RequestMatcher<ByteBuffer> {
+
+    private final String partName;
+    private final String desc;
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestRawPart(java.lang.String, org.hamcrest.Matcher)} instead.
+     *
+     * @param pred     a predicate to be applied on the content of the part
+     * @param partName name of a part (case sensitive)
+     */
+    protected RawPartRequestMatcher(final Matcher<? super ByteBuffer> pred, final String partName) {
+        super(pred);
+
+        Validate.notNull(partName, "partName cannot be null");
+        this.partName = partName;
+
+        this.desc = "raw part \"" + partName + "\" is";
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param partName name of a part
+     * @param pred     a predicate to be applied on the content of the part
+     * @return new instance of this matcher
+     */
+    public static RawPartRequestMatcher requestRawPart(final String partName,
+                                                       final Matcher<? super ByteBuffer> pred) {
+        return new RawPartRequestMatcher(pred, partName);
+    }
+
+    /**
+     * Retrieves the content of a part (defined in
+     * {@link #RawPartRequestMatcher(org.hamcrest.Matcher, java.lang.String)}) of the given request.
+     *
+     * @param req request to retrieve the part from
+     * @return a read-only view of the content of the first part with the name or {@code null} if there is no such
+     * a part
+     */
+    @Override
+    protected ByteBuffer retrieveValue(final Request req) {
+        final Part part = req.getPart(this.partName);
+        return part == null ? null : part.getContentAsBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return this.desc;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import net.jadler.XmlDocument;
+import org.hamcrest.Matcher;
+
+import javax.xml.xpath.XPathExpression;
+
+
+/**
+ * A {@link RequestMatcher} used for matching a result of an XPath expression evaluated on an XML request body.
+ * The expression is compiled just once when this matcher is created, the body is parsed (to a DOM tree) at most once
+ * per request, see {@link XmlDocument}.
+ */
+public class XPathRequestMatcher extends RequestMatcher<String> {
+
+    private final XPathExpression expression;
+    private final String desc;
+
+
+    /**
+     * Protected constructor useful only when subtyping. For creating instances of this class use
+     * {@link #requestXPath(java.lang.String, org.hamcrest.Matcher)} instead.
+     *
+     * @param pred       a predicate to be applied on the result of the expression
+     * @param expression an XPath expression, for example {@code /order/id}
+     */
+    protected XPathRequestMatcher(final Matcher<? super String> pred, final String expression) {
+        super(pred);
+
+        //validates the expression as well
+        this.expression = XmlDocument.compile(expression);
+
+        this.desc = "XPath \"" + expression + "\" is";
+    }
+
+    /**
+     * Factory method to create new instance of this matcher.
+     *
+     * @param expression an XPath expression, for example {@code /order/id}
+     * @param pred       a predicate to be applied on the result of the expression
+     * @return new instance of this matcher
+     */
+    public static XPathRequestMatcher requestXPath(final String expression, final Matcher<? super String> pred) {
+        return new XPathRequestMatcher(pred, expression);
+    }
+
+    /**
+     * Evaluates the XPath expression (defined in
+     * {@link #XPathRequestMatcher(org.hamcrest.Matcher, java.lang.String)}) on the body of the given request.
+     *
+     * @param req request to evaluate the expression on
+     * @return result of the expression converted to a string (an empty string if the expression selects no node)
+     */
+    @Override
+    protected String retrieveValue(final Request req) {
+        return req.getBodyAsXml().evaluate(this.expression);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String provideDescription() {
+        return this.desc;
+    }
+}
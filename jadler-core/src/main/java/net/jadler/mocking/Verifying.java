@@ -5,21 +5,32 @@
 package net.jadler.mocking;
 
 import net.jadler.AbstractRequestMatching;
+import net.jadler.Request;
+import net.jadler.RequestCounter;
 import net.jadler.RequestManager;
 import org.apache.commons.lang.Validate;
 import org.hamcrest.Matcher;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 
 /**
- * Allows defining new verification in a fluid fashion. You shouldn't create instances
+ * <p>Allows defining new verification in a fluid fashion. You shouldn't create instances
  * of this class on your own, please see {@link net.jadler.Jadler#verifyThatRequest()} for more information
- * on creating instances of this class.
+ * on creating instances of this class.</p>
+ *
+ * <p>By default every verification evaluates its predicates against all requests received so far. When many requests
+ * are received and many verifications are evaluated, a verification can be registered before the first request
+ * is received instead (see {@link #register()}). A registered verification keeps a live counter updated as the
+ * requests arrive, so evaluating it doesn't scan the received requests at all.</p>
  */
 public class Verifying extends AbstractRequestMatching<Verifying> {
 
     private final RequestManager requestManager;
+    private RequestCounter counter;
 
 
     /**
@@ -32,6 +43,51 @@ public class Verifying extends AbstractRequestMatching<Verifying> {
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this verification has been registered already (see {@link #register()})
+     */
+    @Override
+    public Verifying that(final Matcher<? super Request> predicate) {
+        if (this.counter != null) {
+            throw new IllegalStateException("This verification has been registered already, "
+                    + "no predicates can be added anymore.");
+        }
+        return super.that(predicate);
+    }
+
+
+    /**
+     * <p>Registers this verification so the requests fitting the predicates defined so far are counted as they arrive
+     * rather than by evaluating all received requests once {@link #receivedTimes(Matcher)} (or any other
+     * {@code received*} method) is called. The registered verification can be evaluated any number of times.</p>
+     *
+     * <pre>
+     * final Verifying getA = verifyThatRequest().havingPathEqualTo("/a").register();
+     *
+     * //http requests are sent here
+     *
+     * getA.receivedTimes(1000);
+     * </pre>
+     *
+     * <p>A verification must be registered before the first request is received and no predicates can be added
+     * to it once registered.</p>
+     *
+     * @return this verifying
+     * @throws IllegalStateException if this verification has been registered already or an http request
+     *                               has been received already
+     */
+    public Verifying register() {
+        if (this.counter != null) {
+            throw new IllegalStateException("This verification has been registered already.");
+        }
+
+        this.counter = this.requestManager.registerVerification(this.predicates);
+        return this;
+    }
+
+
     /**
      * Checks whether the number of requests described in this verifying object received so far matches the given predicate.
      *
@@ -42,7 +98,11 @@ public class Verifying extends AbstractRequestMatching<Verifying> {
     public void receivedTimes(final Matcher<Integer> nrRequestsPredicate) {
         Validate.notNull(nrRequestsPredicate, "predicate cannot be null");
 
-        this.requestManager.evaluateVerification(predicates, nrRequestsPredicate);
+        if (this.counter == null) {
+            this.requestManager.evaluateVerification(predicates, nrRequestsPredicate);
+        } else {
+            this.requestManager.evaluateRegisteredVerification(this.counter, nrRequestsPredicate);
+        }
     }
 
 
@@ -59,6 +119,52 @@ public class Verifying extends AbstractRequestMatching<Verifying> {
     }
 
 
+    /**
+     * <p>Checks whether the maximal number of requests described in this verifying object received within any time
+     * window of the given length matches the given predicate. The time a request has been received at is given by
+     * {@link Request#getReceivedNanos()}.</p>
+     *
+     * <pre>
+     * //a burst of at least 10 requests within 100 milliseconds
+     * verifyThatRequest().havingPathEqualTo("/a").receivedInAnyWindow(100, MILLISECONDS, greaterThanOrEqualTo(10));
+     * </pre>
+     *
+     * <p>Please note this verification always evaluates the predicates against all requests received so far,
+     * even if this verification has been registered (see {@link #register()}).</p>
+     *
+     * @param window length of the time window (must be positive)
+     * @param unit time unit of the window length (cannot be {@code null})
+     * @param maxRequestsPredicate to be applied on the maximal number of requests received within any window
+     * @throws VerificationException if the maximal number of requests described by this verifying received within
+     *                               any window is not matched by the given predicate
+     */
+    public void receivedInAnyWindow(final long window, final TimeUnit unit,
+                                    final Matcher<Integer> maxRequestsPredicate) {
+        Validate.isTrue(window > 0, "window must be positive");
+        Validate.notNull(unit, "unit cannot be null");
+        Validate.notNull(maxRequestsPredicate, "predicate cannot be null");
+
+        this.requestManager.evaluateWindowedVerification(this.predicates, unit.toNanos(window), maxRequestsPredicate);
+    }
+
+
+    /**
+     * Checks that no more than the given number of requests described in this verifying object have been received
+     * within any time window of the given length. For example {@code receivedAtMost(5, 1, SECONDS)} checks the
+     * requests haven't been received at a rate higher than 5 requests per second.
+     *
+     * @param count maximal number of requests received within any window (cannot be negative)
+     * @param window length of the time window (must be positive)
+     * @param unit time unit of the window length (cannot be {@code null})
+     * @throws VerificationException if more than the given number of requests described in this verifying object
+     *                               have been received within a window
+     */
+    public void receivedAtMost(final int count, final long window, final TimeUnit unit) {
+        Validate.isTrue(count >= 0, "count cannot be negative");
+        this.receivedInAnyWindow(window, unit, lessThanOrEqualTo(count));
+    }
+
+
     /**
      * Checks that exactly one request described in this verifying object has been received so far.
      *
@@ -5,6 +5,20 @@
 package net.jadler.stubbing;
 
 import net.jadler.Request;
+import net.jadler.matchers.BinaryBodyRequestMatcher;
+import net.jadler.matchers.BodyDigestRequestMatcher;
+import net.jadler.matchers.BodyRequestMatcher;
+import net.jadler.matchers.HeaderRequestMatcher;
+import net.jadler.matchers.JsonValueRequestMatcher;
+import net.jadler.matchers.MethodRequestMatcher;
+import net.jadler.matchers.ParameterRequestMatcher;
+import net.jadler.matchers.PartRequestMatcher;
+import net.jadler.matchers.PathRequestMatcher;
+import net.jadler.matchers.PathTemplate;
+import net.jadler.matchers.QueryStringRequestMatcher;
+import net.jadler.matchers.RawBodyRequestMatcher;
+import net.jadler.matchers.RawPartRequestMatcher;
+import net.jadler.matchers.XPathRequestMatcher;
 import org.apache.commons.lang.Validate;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -12,9 +26,11 @@ import org.hamcrest.StringDescription;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
-
-import static org.hamcrest.Matchers.allOf;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -22,7 +38,9 @@ import static org.hamcrest.Matchers.allOf;
  * then respond with a defined response).</p>
  *
  * <p>The <em>WHEN</em> part is a list of predicates (in form of Hamcrest matchers) applicable to a request.
- * All of these matchers must be evaluated to {@code true} in order to apply the <em>THEN</em> part.</p>
+ * All of these matchers must be evaluated to {@code true} in order to apply the <em>THEN</em> part. The predicates
+ * are compiled into an evaluation plan once this stub is created. The plan evaluates cheap predicates (method, path,
+ * query string) before the expensive ones (body, custom predicates) and stops on the first failure.</p>
  *
  * <p>The <em>THEN</em> part is defined by an instance of the {@link Responder} interface.
  * This instance is capable of constructing stub http responses to be returned to the client.</p>
@@ -35,8 +53,18 @@ import static org.hamcrest.Matchers.allOf;
  */
 public class HttpStub {
 
+    private static final Comparator<Matcher<?>> BY_COST = new Comparator<Matcher<?>>() {
+        @Override
+        public int compare(final Matcher<?> m1, final Matcher<?> m2) {
+            return Integer.compare(costOf(m1), costOf(m2));
+        }
+    };
+
     private final Collection<Matcher<? super Request>> predicates;
+    private final List<Matcher<? super Request>> evaluationPlan;
     private final Responder responder;
+    private final LongAdder matchEvaluations;
+    private final LongAdder predicateEvaluations;
 
 
     /**
@@ -48,8 +76,15 @@ public class HttpStub {
         Validate.notNull(predicates, "predicates cannot be null, use an empty list instead");
         this.predicates = new ArrayList<Matcher<? super Request>>(predicates);
 
+        final List<Matcher<? super Request>> plan = new ArrayList<Matcher<? super Request>>(predicates);
+        Collections.sort(plan, BY_COST);
+        this.evaluationPlan = Collections.unmodifiableList(plan);
+
         Validate.notNull(responder, "responder cannot be null");
         this.responder = responder;
+
+        this.matchEvaluations = new LongAdder();
+        this.predicateEvaluations = new LongAdder();
     }
 
 
@@ -59,7 +94,37 @@ public class HttpStub {
      * by the given request.
      */
     public boolean matches(final Request request) {
-        return allOf(this.predicates).matches(request);
+        int evaluated = 0;
+        try {
+            for (final Matcher<? super Request> pred : this.evaluationPlan) {
+                evaluated++;
+                if (!pred.matches(request)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            this.matchEvaluations.increment();
+            this.predicateEvaluations.add(evaluated);
+        }
+    }
+
+
+    /**
+     * @return number of times {@link #matches(net.jadler.Request)} has been called on this stub so far
+     */
+    public long getMatchEvaluationsCount() {
+        return this.matchEvaluations.sum();
+    }
+
+
+    /**
+     * @return number of single predicate evaluations performed by {@link #matches(net.jadler.Request)} so far.
+     * Together with {@link #getMatchEvaluationsCount()} this gives the average number of predicates evaluated
+     * per request.
+     */
+    public long getPredicateEvaluationsCount() {
+        return this.predicateEvaluations.sum();
     }
 
 
@@ -73,6 +138,70 @@ public class HttpStub {
     }
 
 
+    /**
+     * @return the responder provided in {@link #HttpStub(java.util.Collection, net.jadler.stubbing.Responder)}
+     * (package private, used by {@link Stubbing} when recompiling a rule)
+     */
+    Responder getResponder() {
+        return this.responder;
+    }
+
+
+    /**
+     * @return the request method this stub requires (as defined using
+     * {@link net.jadler.RequestMatching#havingMethodEqualTo(String)}) or {@code null} if this stub doesn't
+     * require a literal method value. Used for indexing stubs, see {@link HttpStubIndex}.
+     */
+    String getIndexedMethod() {
+        for (final Matcher<? super Request> pred : this.predicates) {
+            if (pred instanceof MethodRequestMatcher) {
+                final String method = ((MethodRequestMatcher) pred).getExpectedMethod();
+                if (method != null) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * @return the request path this stub requires (as defined using
+     * {@link net.jadler.RequestMatching#havingPathEqualTo(String)}) or {@code null} if this stub doesn't
+     * require a literal path value. Used for indexing stubs, see {@link HttpStubIndex}.
+     */
+    String getIndexedPath() {
+        for (final Matcher<? super Request> pred : this.predicates) {
+            if (pred instanceof PathRequestMatcher) {
+                final String path = ((PathRequestMatcher) pred).getExpectedPath();
+                if (path != null) {
+                    return path;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * @return the request path template this stub requires (as defined using
+     * {@link net.jadler.RequestMatching#havingPathTemplate(String)} or
+     * {@link net.jadler.RequestMatching#havingPathPrefix(String)}) or {@code null} if this stub doesn't require
+     * a path template. Used for indexing stubs, see {@link HttpStubIndex}.
+     */
+    PathTemplate getIndexedPathTemplate() {
+        for (final Matcher<? super Request> pred : this.predicates) {
+            if (pred instanceof PathRequestMatcher) {
+                final PathTemplate template = ((PathRequestMatcher) pred).getPathTemplate();
+                if (template != null) {
+                    return template;
+                }
+            }
+        }
+        return null;
+    }
+
+
     /**
      * Returns a reason why the given request doesn't match this rule. This method should be called if
      * and only if {@link  #matches(net.jadler.Request)} would return {@code false}. However, this is not checked.
@@ -117,4 +246,54 @@ public class HttpStub {
 
         return desc.toString();
     }
-}
\ No newline at end of file
+
+
+    /*
+     * Estimated cost of the evaluation of the given predicate. Predicates working with values already parsed
+     * from the request go first, predicates working with the body (the binary view first as it's neither copied
+     * nor decoded, then the body digest which is computed once per request) and custom predicates (which cost is
+     * unknown) go last.
+     */
+    private static int costOf(final Matcher<?> pred) {
+        if (pred instanceof MethodRequestMatcher) {
+            return 0;
+        }
+        if (pred instanceof PathRequestMatcher) {
+            return 1;
+        }
+        if (pred instanceof QueryStringRequestMatcher) {
+            return 2;
+        }
+        if (pred instanceof HeaderRequestMatcher) {
+            return 3;
+        }
+        if (pred instanceof ParameterRequestMatcher) {
+            return 4;
+        }
+        if (pred instanceof BinaryBodyRequestMatcher) {
+            return 5;
+        }
+        if (pred instanceof BodyDigestRequestMatcher) {
+            return 6;
+        }
+        if (pred instanceof BodyRequestMatcher) {
+            return 7;
+        }
+        if (pred instanceof RawBodyRequestMatcher) {
+            return 8;
+        }
+        if (pred instanceof RawPartRequestMatcher) {
+            return 9;
+        }
+        if (pred instanceof PartRequestMatcher) {
+            return 10;
+        }
+        if (pred instanceof JsonValueRequestMatcher) {
+            return 11;
+        }
+        if (pred instanceof XPathRequestMatcher) {
+            return 12;
+        }
+        return 13;
+    }
+}
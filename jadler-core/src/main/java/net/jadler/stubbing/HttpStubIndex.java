@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import net.jadler.Request;
+import net.jadler.matchers.PathTemplate;
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * <p>An immutable index of http stubs used to find the stub applicable to an incoming request without evaluating
+ * predicates of every single stub.</p>
+ *
+ * <p>Stubs are bucketed by the literal method and path values they require (see
+ * {@link net.jadler.RequestMatching#havingMethodEqualTo(String)} and
+ * {@link net.jadler.RequestMatching#havingPathEqualTo(String)}). Stubs which don't require any literal value fall
+ * into a residual bucket. When looking up a stub only the buckets relevant to the request method and path (plus the
+ * residual bucket) are scanned. Stubs requiring a path template (see
+ * {@link net.jadler.RequestMatching#havingPathTemplate(String)} and
+ * {@link net.jadler.RequestMatching#havingPathPrefix(String)}) are compiled into a shared segment trie, a single
+ * traversal of the request path yields all candidate stubs together with the values of the template variables.
+ * The <em>last registered wins</em> precedence is preserved across all buckets.</p>
+ *
+ * <p>This class is immutable and thread-safe if the indexed stubs are thread-safe. It's used internally only,
+ * you shouldn't create instances of this class on your own.</p>
+ */
+public class HttpStubIndex {
+
+    /**
+     * An index containing no stubs at all
+     */
+    public static final HttpStubIndex EMPTY = new HttpStubIndex(Collections.<HttpStub>emptyList());
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final int TEMPLATES_BUCKET = 4;
+
+    private final List<HttpStub> stubs;
+    private final Map<String, Map<String, int[]>> byMethodAndPath;
+    private final Map<String, int[]> byMethod;
+    private final Map<String, int[]> byPath;
+    private final int[] residual;
+    private final PathTemplateTrie templates;
+
+
+    /**
+     * @param stubs stubs to be indexed in the order they were registered (cannot be {@code null})
+     */
+    public HttpStubIndex(final List<HttpStub> stubs) {
+        Validate.notNull(stubs, "stubs cannot be null");
+        this.stubs = Collections.unmodifiableList(new ArrayList<HttpStub>(stubs));
+
+        final Map<String, Map<String, List<Integer>>> methodAndPath = new HashMap<String, Map<String, List<Integer>>>();
+        final Map<String, List<Integer>> method = new HashMap<String, List<Integer>>();
+        final Map<String, List<Integer>> path = new HashMap<String, List<Integer>>();
+        final List<Integer> rest = new ArrayList<Integer>();
+        this.templates = new PathTemplateTrie();
+
+        for (int i = 0; i < this.stubs.size(); i++) {
+            final HttpStub stub = this.stubs.get(i);
+            final String m = normalizeMethod(stub.getIndexedMethod());
+            final String p = stub.getIndexedPath();
+            final PathTemplate t = p == null ? stub.getIndexedPathTemplate() : null;
+
+            if (t != null) {
+                this.templates.add(t, i);
+            } else if (m != null && p != null) {
+                Map<String, List<Integer>> paths = methodAndPath.get(m);
+                if (paths == null) {
+                    paths = new HashMap<String, List<Integer>>();
+                    methodAndPath.put(m, paths);
+                }
+                positionsFor(paths, p).add(i);
+            } else if (m != null) {
+                positionsFor(method, m).add(i);
+            } else if (p != null) {
+                positionsFor(path, p).add(i);
+            } else {
+                rest.add(i);
+            }
+        }
+
+        this.byMethodAndPath = new HashMap<String, Map<String, int[]>>();
+        for (final Map.Entry<String, Map<String, List<Integer>>> e : methodAndPath.entrySet()) {
+            this.byMethodAndPath.put(e.getKey(), freeze(e.getValue()));
+        }
+        this.byMethod = freeze(method);
+        this.byPath = freeze(path);
+        this.residual = toArray(rest);
+    }
+
+
+    /**
+     * @return all indexed stubs in the order they were registered
+     */
+    public List<HttpStub> getStubs() {
+        return this.stubs;
+    }
+
+
+    /**
+     * Finds the last registered stub matching the given request.
+     *
+     * @param request an http request to find a stub for
+     * @return the last registered stub matching the given request or {@code null} if there is no such stub
+     */
+    public HttpStub findMatching(final Request request) {
+        final Match match = this.findMatch(request);
+        return match != null ? match.getStub() : null;
+    }
+
+
+    /**
+     * Finds the last registered stub matching the given request. Unlike {@link #findMatching(Request)} this method
+     * provides the values of the path template variables as well.
+     *
+     * @param request an http request to find a stub for
+     * @return the last registered stub matching the given request or {@code null} if there is no such stub
+     */
+    public Match findMatch(final Request request) {
+        final int[][] buckets;
+        List<PathTemplateTrie.Candidate> candidates = Collections.emptyList();
+
+        if (this.residual.length == this.stubs.size()) {
+            //nothing indexed, no need to retrieve the method and path from the request at all
+            buckets = new int[][]{this.residual};
+        } else {
+            final String method = normalizeMethod(request.getMethod());
+            final String path = request.getRawPath();
+
+            final Map<String, int[]> paths = method != null ? this.byMethodAndPath.get(method) : null;
+            candidates = this.templates.candidates(path);
+
+            final int[] templatePositions = new int[candidates.size()];
+            for (int i = 0; i < templatePositions.length; i++) {
+                templatePositions[i] = candidates.get(i).getPosition();
+            }
+
+            buckets = new int[][]{
+                    lookup(paths, path),
+                    lookup(this.byMethod, method),
+                    lookup(this.byPath, path),
+                    this.residual,
+                    templatePositions};
+        }
+
+        //merges all candidate buckets from the last registered stub to the first one
+        final int[] cursors = new int[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            cursors[i] = buckets[i].length - 1;
+        }
+
+        while (true) {
+            int bucket = -1;
+            int position = -1;
+            for (int i = 0; i < buckets.length; i++) {
+                if (cursors[i] >= 0 && buckets[i][cursors[i]] > position) {
+                    position = buckets[i][cursors[i]];
+                    bucket = i;
+                }
+            }
+
+            if (bucket < 0) {
+                return null;
+            }
+
+            final HttpStub stub = this.stubs.get(position);
+            if (stub.matches(request)) {
+                if (bucket == TEMPLATES_BUCKET) {
+                    final Map<String, String> variables = candidates.get(cursors[bucket]).getVariables();
+                    return new Match(stub, variables.isEmpty() ? request : request.withPathVariables(variables));
+                }
+                return new Match(stub, request);
+            }
+            cursors[bucket]--;
+        }
+    }
+
+
+    private static String normalizeMethod(final String method) {
+        return method != null ? method.toUpperCase(Locale.ENGLISH) : null;
+    }
+
+
+    private static int[] lookup(final Map<String, int[]> map, final String key) {
+        if (map == null || key == null) {
+            return NO_POSITIONS;
+        }
+        final int[] res = map.get(key);
+        return res != null ? res : NO_POSITIONS;
+    }
+
+
+    private static List<Integer> positionsFor(final Map<String, List<Integer>> map, final String key) {
+        List<Integer> res = map.get(key);
+        if (res == null) {
+            res = new ArrayList<Integer>();
+            map.put(key, res);
+        }
+        return res;
+    }
+
+
+    private static Map<String, int[]> freeze(final Map<String, List<Integer>> map) {
+        final Map<String, int[]> res = new HashMap<String, int[]>();
+        for (final Map.Entry<String, List<Integer>> e : map.entrySet()) {
+            res.put(e.getKey(), toArray(e.getValue()));
+        }
+        return res;
+    }
+
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] res = new int[list.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = list.get(i);
+        }
+        return res;
+    }
+
+
+    /**
+     * A stub matching a request.
+     */
+    public static class Match {
+        private final HttpStub stub;
+        private final Request request;
+
+        private Match(final HttpStub stub, final Request request) {
+            this.stub = stub;
+            this.request = request;
+        }
+
+        /**
+         * @return the matching stub
+         */
+        public HttpStub getStub() {
+            return this.stub;
+        }
+
+        /**
+         * @return the matched request. If the stub requires a path template with variables, the request provides
+         * the values of the variables (see {@link Request#getPathVariables()}).
+         */
+        public Request getRequest() {
+            return this.request;
+        }
+    }
+}
@@ -8,9 +8,13 @@ import net.jadler.KeyValues;
 import org.apache.commons.collections.MultiMap;
 import org.apache.commons.collections.map.MultiValueMap;
 
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 
@@ -22,6 +26,12 @@ class MutableStubResponse {
     private Charset encoding;
     private String stringBody;
     private byte[] rawBody;
+    private Path fileBody;
+    private FileChannel channelBody;
+    private List<Chunk> chunks;
+    private Iterable<byte[]> chunkSource;
+    private long chunkInterval;
+    private long bandwidthLimit;
     private int status;
     private long delay;
 
@@ -82,27 +92,155 @@ class MutableStubResponse {
     }
 
 
+    /**
+     * @return body as set by {@link #setBody(Path)} or {@code null} if the body was not set as a file
+     */
+    Path getFileBody() {
+        return this.fileBody;
+    }
+
+
+    /**
+     * @return body as set by {@link #setBody(FileChannel)} or {@code null} if the body was not set as a file channel
+     */
+    FileChannel getChannelBody() {
+        return this.channelBody;
+    }
+
+
     /**
      * Sets the stub response body as a string.
-     * Calling this method also resets any previous calls of {@link #setBody(byte[]) }
+     * Calling this method also resets any previous calls of other {@code setBody} methods.
      *
      * @param body stub response body
      */
     void setBody(final String body) {
+        this.resetBody();
         this.stringBody = body;
-        this.rawBody = null;
     }
 
 
     /**
      * Sets the stub response body as an array of bytes.
-     * Calling this method also resets any previous calls of {@link #setBody(java.lang.String) }
+     * Calling this method also resets any previous calls of other {@code setBody} methods.
      *
      * @param body stub response body
      */
     void setBody(byte[] body) {
+        this.resetBody();
         this.rawBody = body;
+    }
+
+
+    /**
+     * Sets the stub response body as the content of a file.
+     * Calling this method also resets any previous calls of other {@code setBody} methods.
+     *
+     * @param body file containing the stub response body
+     */
+    void setBody(final Path body) {
+        this.resetBody();
+        this.fileBody = body;
+    }
+
+
+    /**
+     * Sets the stub response body as the content of a file channel.
+     * Calling this method also resets any previous calls of other {@code setBody} methods.
+     *
+     * @param body file channel containing the stub response body
+     */
+    void setBody(final FileChannel body) {
+        this.resetBody();
+        this.channelBody = body;
+    }
+
+
+    /**
+     * Adds a chunk (to be encoded using the encoding of this response) to this streaming stub response.
+     * Calling this method for the first time also resets any previous calls of the {@code setBody} and
+     * {@link #setChunks(Iterable)} methods.
+     *
+     * @param chunk chunk of the stub response
+     */
+    void addChunk(final String chunk) {
+        this.chunks().add(new Chunk(chunk, null));
+    }
+
+
+    /**
+     * Adds a chunk to this streaming stub response.
+     * Calling this method for the first time also resets any previous calls of the {@code setBody} and
+     * {@link #setChunks(Iterable)} methods.
+     *
+     * @param chunk chunk of the stub response
+     */
+    void addChunk(final byte[] chunk) {
+        this.chunks().add(new Chunk(null, chunk));
+    }
+
+
+    /**
+     * Sets all chunks of this streaming stub response.
+     * Calling this method also resets any previous calls of the {@code setBody} and {@code addChunk} methods.
+     *
+     * @param chunks chunks of the stub response
+     */
+    void setChunks(final Iterable<byte[]> chunks) {
+        this.resetBody();
+        this.chunkSource = chunks;
+    }
+
+
+    /**
+     * @return an interval (in millis) each chunk of this streaming stub response is sent after
+     */
+    long getChunkInterval() {
+        return this.chunkInterval;
+    }
+
+
+    /**
+     * @param chunkInterval an interval (in millis) each chunk of this streaming stub response is sent after
+     */
+    void setChunkInterval(final long chunkInterval) {
+        this.chunkInterval = chunkInterval;
+    }
+
+
+    /**
+     * @return maximal rate (in bytes per second) the stub response is sent at or {@code 0} if not limited
+     */
+    long getBandwidthLimit() {
+        return this.bandwidthLimit;
+    }
+
+
+    /**
+     * @param bandwidthLimit maximal rate (in bytes per second) the stub response is sent at, {@code 0} means
+     *                       no limit
+     */
+    void setBandwidthLimit(final long bandwidthLimit) {
+        this.bandwidthLimit = bandwidthLimit;
+    }
+
+
+    private List<Chunk> chunks() {
+        if (this.chunks == null) {
+            this.resetBody();
+            this.chunks = new ArrayList<Chunk>();
+        }
+        return this.chunks;
+    }
+
+
+    private void resetBody() {
         this.stringBody = null;
+        this.rawBody = null;
+        this.fileBody = null;
+        this.channelBody = null;
+        this.chunks = null;
+        this.chunkSource = null;
     }
 
 
@@ -190,7 +328,18 @@ class MutableStubResponse {
                 .delay(delay, TimeUnit.MILLISECONDS)
                 .headers(this.createHeaders());
 
-        if (this.stringBody != null) {
+        builder.chunkInterval(this.chunkInterval, TimeUnit.MILLISECONDS);
+        builder.bandwidthLimit(this.bandwidthLimit);
+
+        if (this.chunks != null) {
+            final List<byte[]> encoded = new ArrayList<byte[]>(this.chunks.size());
+            for (final Chunk chunk : this.chunks) {
+                encoded.add(chunk.encode(this.encoding));
+            }
+            builder.chunks(encoded);
+        } else if (this.chunkSource != null) {
+            builder.chunks(this.chunkSource);
+        } else if (this.stringBody != null) {
             if (this.encoding == null) {
                 throw new IllegalStateException("The response body encoding has not been set yet, "
                         + "cannot generate a StubResponse instance.");
@@ -199,6 +348,10 @@ class MutableStubResponse {
             }
         } else if (this.rawBody != null) {
             builder.body(rawBody);
+        } else if (this.fileBody != null) {
+            builder.body(this.fileBody);
+        } else if (this.channelBody != null) {
+            builder.body(this.channelBody);
         } else {
             throw new IllegalStateException("The response body has not been set yet, "
                     + "cannot generate a StubResponse instance.");
@@ -223,4 +376,31 @@ class MutableStubResponse {
 
         return res;
     }
-}
\ No newline at end of file
+
+
+    /*
+     * A chunk of a streaming response set either as a string (encoded once the encoding is known for sure) or
+     * as an array of bytes.
+     */
+    private static class Chunk {
+        private final String string;
+        private final byte[] raw;
+
+        private Chunk(final String string, final byte[] raw) {
+            this.string = string;
+            this.raw = raw;
+        }
+
+        private byte[] encode(final Charset encoding) {
+            if (this.raw != null) {
+                return this.raw;
+            }
+
+            if (encoding == null) {
+                throw new IllegalStateException("The response body encoding has not been set yet, "
+                        + "cannot generate a StubResponse instance.");
+            }
+            return this.string.getBytes(encoding);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import net.jadler.matchers.PathTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * <p>A segment trie of compiled path templates (see {@link PathTemplate}). All templates are merged into one trie,
+ * so a single traversal of a request path yields all templates matching the path together with the values
+ * of their variables.</p>
+ *
+ * <p>Once built, instances of this class are immutable and thread-safe. This class is package private and used
+ * by {@link HttpStubIndex} only.</p>
+ */
+class PathTemplateTrie {
+
+    private static final Comparator<Candidate> BY_POSITION = new Comparator<Candidate>() {
+        @Override
+        public int compare(final Candidate c1, final Candidate c2) {
+            return Integer.compare(c1.position, c2.position);
+        }
+    };
+
+    private final Node root;
+    private int size;
+
+
+    /**
+     * Creates new empty trie.
+     */
+    PathTemplateTrie() {
+        this.root = new Node();
+        this.size = 0;
+    }
+
+
+    /**
+     * Adds a template to this trie. Must not be called once the trie has been published to other threads.
+     *
+     * @param template compiled path template
+     * @param position position of the stub requiring the template
+     */
+    void add(final PathTemplate template, final int position) {
+        Node node = this.root;
+
+        for (final String segment : template.getSegments()) {
+            if (segment == null) {
+                if (node.variable == null) {
+                    node.variable = new Node();
+                }
+                node = node.variable;
+            } else {
+                Node child = node.literals.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.literals.put(segment, child);
+                }
+                node = child;
+            }
+        }
+
+        final Entry entry = new Entry(template, position);
+        if (template.isPrefix()) {
+            node.prefixes.add(entry);
+        } else {
+            node.exact.add(entry);
+        }
+        this.size++;
+    }
+
+
+    /**
+     * @return {@code true} if no template has been added to this trie
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    /**
+     * Traverses the trie using the segments of the given path.
+     *
+     * @param path percent-encoded request path
+     * @return all templates matching the given path sorted by the stub position
+     */
+    List<Candidate> candidates(final String path) {
+        if (path == null || this.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Candidate> res = new ArrayList<Candidate>();
+        this.visit(this.root, PathTemplate.splitPath(path), 0, new ArrayList<String>(), res);
+
+        Collections.sort(res, BY_POSITION);
+        return res;
+    }
+
+
+    private void visit(final Node node, final String[] segments, final int depth, final List<String> captured,
+                       final List<Candidate> res) {
+
+        for (final Entry e : node.prefixes) {
+            res.add(new Candidate(e, captured));
+        }
+
+        if (depth == segments.length) {
+            for (final Entry e : node.exact) {
+                res.add(new Candidate(e, captured));
+            }
+            return;
+        }
+
+        final Node literal = node.literals.get(segments[depth]);
+        if (literal != null) {
+            this.visit(literal, segments, depth + 1, captured, res);
+        }
+
+        if (node.variable != null && !segments[depth].isEmpty()) {
+            captured.add(segments[depth]);
+            this.visit(node.variable, segments, depth + 1, captured, res);
+            captured.remove(captured.size() - 1);
+        }
+    }
+
+
+    /**
+     * A template matching a request path.
+     */
+    static class Candidate {
+        private final int position;
+        private final PathTemplate template;
+        private final List<String> values;
+
+        private Candidate(final Entry entry, final List<String> values) {
+            this.position = entry.position;
+            this.template = entry.template;
+            this.values = new ArrayList<String>(values);
+        }
+
+        /**
+         * @return position of the stub requiring the matching template
+         */
+        int getPosition() {
+            return this.position;
+        }
+
+        /**
+         * @return values of the template variables keyed by the variable names
+         */
+        Map<String, String> getVariables() {
+            return this.template.bind(this.values);
+        }
+    }
+
+
+    private static class Entry {
+        private final PathTemplate template;
+        private final int position;
+
+        private Entry(final PathTemplate template, final int position) {
+            this.template = template;
+            this.position = position;
+        }
+    }
+
+
+    private static class Node {
+        private final Map<String, Node> literals = new HashMap<String, Node>();
+        private final List<Entry> exact = new ArrayList<Entry>();
+        private final List<Entry> prefixes = new ArrayList<Entry>();
+        private Node variable;
+    }
+}
@@ -6,7 +6,9 @@ package net.jadler.stubbing;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 
 
@@ -118,6 +120,94 @@ public interface ResponseStubbing {
     ResponseStubbing withBody(byte[] responseBody);
 
 
+    /**
+     * Sets the stub http response body as the content of the given file. Unlike {@link #withBody(InputStream)}
+     * the file is not read into memory, it's streamed every time the stub response is sent, so even huge files
+     * (large downloads for example) can be stubbed without affecting the memory usage. The file is used as-is,
+     * it is not affected by the encoding set by {@link #withEncoding(java.nio.charset.Charset)} in any way and
+     * it must not be modified as long as this stubbing is used.
+     * Calling this method overrides any previous calls of this or any other <tt>withBody</tt> method.
+     *
+     * @param file response body source
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withBody(Path file);
+
+
+    /**
+     * Sets the stub http response body as the whole content of the given file channel. The channel is streamed
+     * every time the stub response is sent the same way as a file set by {@link #withBody(Path)}. The channel
+     * is not closed by Jadler, it must be kept open as long as this stubbing is used.
+     * Calling this method overrides any previous calls of this or any other <tt>withBody</tt> method.
+     *
+     * @param channel response body source
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withBody(FileChannel channel);
+
+
+    /**
+     * Adds a chunk to the streaming stub http response. The headers of a streaming response are sent immediately,
+     * the chunks follow one by one using the chunked transfer encoding, each of them after the interval set by
+     * {@link #withChunkInterval(long, TimeUnit)} elapses. This string chunk will be encoded using an encoding set by
+     * {@link #withEncoding(java.nio.charset.Charset)}.
+     * The first call of this or any other <tt>withChunk</tt> method overrides any previous calls of any
+     * <tt>withBody</tt> method and {@link #withChunks(Iterable)}.
+     *
+     * @param chunk response chunk
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withChunk(String chunk);
+
+
+    /**
+     * Adds a chunk to the streaming stub http response the same way as {@link #withChunk(String)}. The given array
+     * of bytes is used as-is, it is not affected by the encoding set by
+     * {@link #withEncoding(java.nio.charset.Charset)} in any way.
+     *
+     * @param chunk response chunk
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withChunk(byte[] chunk);
+
+
+    /**
+     * Sets all chunks of the streaming stub http response (see {@link #withChunk(String)}). The given iterable
+     * is iterated anew every time the stub response is sent, so the chunks can be generated on the fly (the iterable
+     * can be even infinite to simulate a never-ending stream).
+     * Calling this method overrides any previous calls of any <tt>withBody</tt> or <tt>withChunk</tt> method.
+     *
+     * @param chunks response chunks
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withChunks(Iterable<byte[]> chunks);
+
+
+    /**
+     * Sets the interval each chunk of the streaming stub http response is sent after (see
+     * {@link #withChunk(String)}). If not set, all chunks are sent immediately.
+     * Calling this method overrides any previous calls of this method.
+     *
+     * @param intervalValue an interval (in units defined by the {@code intervalUnit} parameter)
+     * @param intervalUnit unit of the interval parameter
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withChunkInterval(long intervalValue, TimeUnit intervalUnit);
+
+
+    /**
+     * Limits the rate the stub http response (either its body or its chunks) is sent at, so a slow link can be
+     * simulated (a 10 MB body limited to 256 KB per second takes 40 seconds to be received). The limit applies to
+     * each stub response separately, a global limit shared by all responses can be set using
+     * {@link net.jadler.JadlerMocker#setBandwidthLimit(long)}.
+     * Calling this method overrides any previous calls of this method.
+     *
+     * @param bytesPerSecond maximal rate in bytes per second ({@code 0} means no limit)
+     * @return this ongoing stubbing
+     */
+    ResponseStubbing withBandwidthLimit(long bytesPerSecond);
+
+
     /**
      * Sets the response delay. The stub http response is returned after the specified amount of time.
      * Calling this method overrides any previous calls of this method.
@@ -18,7 +18,8 @@ import java.util.List;
 class StaticResponder implements Responder {
 
     private final List<StubResponse> stubResponses;
-    private int responsePointer = 0;
+    //number of responses served so far, it doesn't grow once the last response has been reached
+    private int served;
 
 
     /**
@@ -27,8 +28,22 @@ class StaticResponder implements Responder {
      * @param stubResponses list of predefined stub responses (cannot be empty)
      */
     StaticResponder(final List<StubResponse> stubResponses) {
+        this(stubResponses, 0);
+    }
+
+
+    /**
+     * Creates a {@link Responder} which returns stub responses from a predefined list starting after the given
+     * number of responses served already (by a responder this one replaces).
+     *
+     * @param stubResponses list of predefined stub responses (cannot be empty)
+     * @param served number of responses served already (cannot be negative)
+     */
+    StaticResponder(final List<StubResponse> stubResponses, final int served) {
         Validate.notEmpty(stubResponses, "stubResponses cannot be empty");
+        Validate.isTrue(served >= 0, "served cannot be negative");
         this.stubResponses = stubResponses;
+        this.served = served;
     }
 
 
@@ -39,11 +54,19 @@ class StaticResponder implements Responder {
      */
     @Override
     public synchronized StubResponse nextResponse(final Request request) {
-        if (this.responsePointer < this.stubResponses.size() - 1) {
-            return this.stubResponses.get(this.responsePointer++);
-        } else {
-            return this.stubResponses.get(this.responsePointer);
+        final StubResponse res = this.stubResponses.get(Math.min(this.served, this.stubResponses.size() - 1));
+        if (this.served < this.stubResponses.size()) {
+            this.served++;
         }
+        return res;
+    }
+
+
+    /**
+     * @return number of responses served so far (at most the number of the stub responses)
+     */
+    synchronized int getServedCount() {
+        return this.served;
     }
 
 
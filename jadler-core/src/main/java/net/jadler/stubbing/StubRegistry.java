@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * <p>A copy-on-write registry of stubbings. The stub rules created from the registered stubbings are available
+ * as an immutable {@link HttpStubIndex} snapshot (see {@link #getSnapshot()}) which can be read by request threads
+ * without any locking.</p>
+ *
+ * <p>Until {@link #publish()} has been called for the first time, the registry just collects the stubbings. Once
+ * published, the registry is <em>live</em>: stubbings added or modified afterwards are not compiled by the fluent
+ * calls defining them (these just flag the stubbing as modified). All pending changes are published at once by
+ * {@link #publishChanges()} which is called before the next request is matched, so a stubbing is compiled once
+ * it's been completely defined rather than after every single call and defining many stubbings costs just one
+ * rebuild of the snapshot. Rules created from unmodified stubbings are reused, a rule recompiled after its stubbing
+ * has been modified keeps the position in its sequence of stub responses.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class StubRegistry {
+
+    private final List<Stubbing> stubbings;
+    private final Map<Stubbing, HttpStub> rules;
+    private volatile HttpStubIndex snapshot;
+    private boolean live;
+    //set by modified stubbings without locking, cleared once the changes have been published
+    private volatile boolean changed;
+
+
+    /**
+     * Creates new empty registry.
+     */
+    public StubRegistry() {
+        this.stubbings = new ArrayList<Stubbing>();
+        this.rules = new IdentityHashMap<Stubbing, HttpStub>();
+        this.snapshot = HttpStubIndex.EMPTY;
+        this.live = false;
+    }
+
+
+    /**
+     * Registers new stubbing. If this registry is live already, the stubbing is published by the next
+     * {@link #publishChanges()} call (provided it defines at least one response by then).
+     *
+     * @param stubbing stubbing to be registered (cannot be {@code null})
+     */
+    public synchronized void add(final Stubbing stubbing) {
+        Validate.notNull(stubbing, "stubbing cannot be null");
+
+        this.stubbings.add(stubbing);
+        stubbing.setRegistry(this);
+    }
+
+
+    /**
+     * Unregisters the given stubbing.
+     *
+     * @param stubbing stubbing to be unregistered
+     * @return {@code true} if the stubbing was registered in this registry, otherwise {@code false}
+     */
+    public synchronized boolean remove(final Object stubbing) {
+        for (int i = 0; i < this.stubbings.size(); i++) {
+            if (this.stubbings.get(i) == stubbing) {
+                this.stubbings.remove(i);
+                this.rules.remove(stubbing);
+                ((Stubbing) stubbing).setRegistry(null);
+
+                if (this.live) {
+                    this.publishModified();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Unregisters all stubbings.
+     */
+    public synchronized void clear() {
+        for (final Stubbing stubbing : this.stubbings) {
+            stubbing.setRegistry(null);
+        }
+        this.stubbings.clear();
+        this.rules.clear();
+        this.snapshot = HttpStubIndex.EMPTY;
+    }
+
+
+    /**
+     * Creates stub rules from all registered stubbings, publishes them and makes this registry live. Does nothing
+     * if this registry is live already.
+     */
+    public synchronized void publish() {
+        if (this.live) {
+            return;
+        }
+
+        this.changed = false;
+        for (final Stubbing stubbing : this.stubbings) {
+            stubbing.clearModified();
+            this.rules.put(stubbing, stubbing.createRule());
+        }
+
+        this.publishSnapshot();
+        this.live = true;
+    }
+
+
+    /**
+     * Publishes all stubbings added or modified since the last publication. Returns immediately (without locking)
+     * if there are no such stubbings or if this registry is not live yet.
+     */
+    public void publishChanges() {
+        if (this.changed) {
+            synchronized (this) {
+                if (this.live) {
+                    this.publishModified();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @return the most recently published snapshot of stub rules
+     */
+    public HttpStubIndex getSnapshot() {
+        return this.snapshot;
+    }
+
+
+    /**
+     * Called by a registered stubbing whenever it's been modified. Package private, used by {@link Stubbing} only.
+     * Doesn't lock, the change is published by the next {@link #publishChanges()} call.
+     */
+    void stubbingChanged() {
+        this.changed = true;
+    }
+
+
+    private void publishModified() {
+        //cleared first, so a modification made during the compilation is published next time
+        this.changed = false;
+
+        for (final Stubbing stubbing : this.stubbings) {
+            //an incomplete stubbing (no response defined yet) is not published until completed
+            if (stubbing.isModified() && stubbing.isComplete()) {
+                stubbing.clearModified();
+                this.rules.put(stubbing, stubbing.createRule(this.rules.get(stubbing)));
+            }
+        }
+
+        this.publishSnapshot();
+    }
+
+
+    private void publishSnapshot() {
+        final List<HttpStub> stubs = new ArrayList<HttpStub>(this.stubbings.size());
+        for (final Stubbing stubbing : this.stubbings) {
+            final HttpStub rule = this.rules.get(stubbing);
+            if (rule != null) {
+                stubs.add(rule);
+            }
+        }
+        this.snapshot = new HttpStubIndex(stubs);
+    }
+}
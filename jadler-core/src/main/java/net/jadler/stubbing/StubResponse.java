@@ -5,16 +5,49 @@
 package net.jadler.stubbing;
 
 import net.jadler.KeyValues;
+import net.jadler.exception.JadlerException;
 import org.apache.commons.lang.Validate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.apache.commons.lang.StringUtils.abbreviate;
 
 
 /**
- * Definition of a stub http response. For creating new instances use the {@link #builder()} static method.
+ * <p>Definition of a stub http response. For creating new instances use the {@link #builder()} static method.</p>
+ *
+ * <p>Instances of this class are immutable. The wire form of the response (the list of header fields and the body)
+ * is prepared just once when an instance is built, stub http server implementations should use
+ * {@link #getHeaderFields()} and {@link #writeBody(OutputStream)} so serving the same response repeatedly doesn't
+ * copy anything.</p>
+ *
+ * <p>The body is either kept in memory or backed by a file (see {@link Builder#body(Path)} and
+ * {@link Builder#body(FileChannel)}). A file-backed body is never loaded into memory as a whole unless
+ * {@link #getBody()} is called, it's streamed from the file every time it's written using
+ * {@link #writeBody(OutputStream)}.</p>
+ *
+ * <p>Instead of a body a response can consist of chunks (see {@link Builder#chunks(Iterable)}) which are sent
+ * one by one using the chunked transfer encoding, each of them after the chunk interval elapses. Such a streaming
+ * response simulates server-sent events, slow producers or long polling.</p>
+ *
+ * <p>A bandwidth limit (see {@link Builder#bandwidthLimit(long)}) makes the response (either its body or its
+ * chunks) trickle at the given rate to simulate a slow link.</p>
  */
 public class StubResponse {
     /**
@@ -23,21 +56,33 @@ public class StubResponse {
     public static final StubResponse EMPTY = builder().build();
     private final KeyValues headers;
     private final byte[] body;
+    private final FileBody fileBody;
     private final Charset encoding;
     private final int status;
     private final long delayValue;
     private final TimeUnit delayUnit;
+    private final Iterable<byte[]> chunks;
+    private final long chunkInterval;
+    private final long bandwidthLimit;
+    private final List<Map.Entry<String, String>> headerFields;
 
 
-    private StubResponse(final int status, final byte[] body, final Charset encoding,
-                         final KeyValues headers, final long delayValue, final TimeUnit delayUnit) {
+    private StubResponse(final int status, final byte[] body, final FileBody fileBody,
+                         final Iterable<byte[]> chunks, final long chunkInterval, final long bandwidthLimit,
+                         final Charset encoding, final KeyValues headers, final long delayValue,
+                         final TimeUnit delayUnit) {
 
         this.status = status;
         this.body = body;
+        this.fileBody = fileBody;
+        this.chunks = chunks;
+        this.chunkInterval = chunkInterval;
+        this.bandwidthLimit = bandwidthLimit;
         this.encoding = encoding;
         this.headers = headers;
         this.delayValue = delayValue;
         this.delayUnit = delayUnit;
+        this.headerFields = headerFields(headers);
     }
 
     /**
@@ -55,10 +100,73 @@ public class StubResponse {
     }
 
     /**
+     * Returns a copy of the response body. A file-backed body is read into memory by this method, consider using
+     * {@link #writeBody(OutputStream)} instead.
+     *
      * @return response body as an array of bytes
+     * @throws JadlerException if the body is backed by a file which cannot be read or is too large to fit
+     * into an array
      */
     public byte[] getBody() {
-        return this.body.clone();
+        if (this.fileBody == null) {
+            return this.body.clone();
+        }
+
+        if (this.fileBody.length > Integer.MAX_VALUE - 8) {
+            throw new JadlerException(this.fileBody + " is too large to fit into an array, "
+                    + "use writeBody(OutputStream) instead");
+        }
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream((int) this.fileBody.length);
+        try {
+            this.fileBody.transferTo(bos);
+        } catch (final IOException e) {
+            throw new JadlerException("cannot read the response body from " + this.fileBody, e);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Returns a read-only view of the response body. Unlike {@link #getBody()} the body isn't copied,
+     * a file-backed body is memory-mapped.
+     *
+     * @return response body as a read-only {@link ByteBuffer} instance
+     * @throws JadlerException if the body is backed by a file which cannot be mapped
+     */
+    public ByteBuffer getBodyAsBuffer() {
+        if (this.fileBody == null) {
+            return ByteBuffer.wrap(this.body).asReadOnlyBuffer();
+        }
+
+        try {
+            return this.fileBody.map();
+        } catch (final IOException e) {
+            throw new JadlerException("cannot map the response body from " + this.fileBody, e);
+        }
+    }
+
+    /**
+     * @return length of the response body in bytes (the length of a file-backed body is determined when
+     * this instance is built)
+     */
+    public long getBodyLength() {
+        return this.fileBody != null ? this.fileBody.length : this.body.length;
+    }
+
+    /**
+     * Writes the response body to the given stream. Unlike {@link #getBody()} the body isn't copied,
+     * a file-backed body is transferred from the file in chunks, so the memory usage doesn't depend on its length.
+     *
+     * @param out stream to write the body to (cannot be {@code null}, it's not closed by this method)
+     * @throws IOException if the body cannot be written or read from the file
+     */
+    public void writeBody(final OutputStream out) throws IOException {
+        Validate.notNull(out, "out cannot be null");
+
+        if (this.fileBody != null) {
+            this.fileBody.transferTo(out);
+        } else if (this.body.length > 0) {
+            out.write(this.body);
+        }
     }
 
     /**
@@ -75,6 +183,17 @@ public class StubResponse {
         return this.headers;
     }
 
+    /**
+     * Returns the header fields of this response in the order they should be sent. All values of a header
+     * are grouped together, the header names are lower-cased (see {@link KeyValues#normalize(String)}). The list
+     * is prepared when this instance is built, so this method neither copies nor allocates anything.
+     *
+     * @return read-only list of header fields (name-value pairs) of this response
+     */
+    public List<Map.Entry<String, String>> getHeaderFields() {
+        return this.headerFields;
+    }
+
     /**
      * @return a delay (in millis) this stub response will be returned after
      */
@@ -82,6 +201,46 @@ public class StubResponse {
         return this.delayUnit.toMillis(this.delayValue);
     }
 
+    /**
+     * @return {@code true} if this is a streaming response consisting of chunks (see {@link #getChunks()}),
+     * {@code false} if this response has a body
+     */
+    public boolean isStreaming() {
+        return this.chunks != null;
+    }
+
+    /**
+     * @return chunks of this streaming response, iterated anew every time the response is sent ({@code null} if
+     * this is not a streaming response)
+     */
+    public Iterable<byte[]> getChunks() {
+        return this.chunks;
+    }
+
+    /**
+     * @return an interval (in millis) each chunk of this streaming response is sent after
+     */
+    public long getChunkInterval() {
+        return this.chunkInterval;
+    }
+
+    /**
+     * @return maximal rate (in bytes per second) this response is sent at or {@code 0} if not limited
+     */
+    public long getBandwidthLimit() {
+        return this.bandwidthLimit;
+    }
+
+    private static List<Map.Entry<String, String>> headerFields(final KeyValues headers) {
+        final List<Map.Entry<String, String>> res = new ArrayList<Map.Entry<String, String>>();
+        for (final String name : headers.getKeys()) {
+            for (final String value : headers.getValues(name)) {
+                res.add(new AbstractMap.SimpleImmutableEntry<String, String>(name, value));
+            }
+        }
+        return Collections.unmodifiableList(res);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder()
@@ -89,7 +248,11 @@ public class StubResponse {
                 .append(this.status)
                 .append(", body=");
 
-        if (this.body.length > 0) {
+        if (this.fileBody != null) {
+            sb.append("<").append(this.fileBody).append(">");
+        } else if (this.chunks != null) {
+            sb.append("<chunks every ").append(this.chunkInterval).append(" ms>");
+        } else if (this.body.length > 0) {
             if (this.encoding != null) {
                 sb.append(abbreviate(new String(this.body, this.encoding), 13));
                 sb.append(", encoding=").append(this.encoding);
@@ -102,15 +265,84 @@ public class StubResponse {
 
         sb.append(", headers=(").append(this.headers.toString());
         sb.append("), delay=").append(this.delayValue).append(" ").append(this.delayUnit.toString().toLowerCase());
+        if (this.bandwidthLimit > 0) {
+            sb.append(", bandwidth=").append(this.bandwidthLimit).append(" B/s");
+        }
         return sb.toString();
     }
 
+    /*
+     * A response body backed by a file. A file given as a path is opened for every transfer, a given channel is
+     * shared by all transfers (it's accessed using the positional methods only which is safe) and never closed.
+     */
+    private static class FileBody {
+        private final Path path;
+        private final FileChannel channel;
+        private final long length;
+
+        private FileBody(final Path path, final FileChannel channel, final long length) {
+            this.path = path;
+            this.channel = channel;
+            this.length = length;
+        }
+
+        private void transferTo(final OutputStream out) throws IOException {
+            final FileChannel source = this.open();
+            try {
+                final WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                while (position < this.length) {
+                    final long transferred = source.transferTo(position, this.length - position, target);
+                    if (transferred <= 0) {
+                        throw new IOException(this + " is shorter than " + this.length + " bytes");
+                    }
+                    position += transferred;
+                }
+            } finally {
+                this.close(source);
+            }
+        }
+
+        private ByteBuffer map() throws IOException {
+            if (this.length > Integer.MAX_VALUE) {
+                throw new JadlerException(this + " is too large to be mapped, use writeBody(OutputStream) instead");
+            }
+
+            final FileChannel source = this.open();
+            try {
+                //the mapping stays valid even once the channel is closed
+                return source.map(FileChannel.MapMode.READ_ONLY, 0, this.length).asReadOnlyBuffer();
+            } finally {
+                this.close(source);
+            }
+        }
+
+        private FileChannel open() throws IOException {
+            return this.path != null ? FileChannel.open(this.path, StandardOpenOption.READ) : this.channel;
+        }
+
+        private void close(final FileChannel source) throws IOException {
+            if (this.path != null) {
+                source.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.path != null ? "file " + this.path : "file channel";
+        }
+    }
+
     /**
      * A builder class for creating new {@link StubResponse} instances.
      */
     public static class Builder {
         private int status;
         private byte[] body;
+        private FileBody fileBody;
+        private Iterable<byte[]> chunks;
+        private long chunkInterval;
+        private long bandwidthLimit;
         private Charset encoding;
         private KeyValues headers;
         private long delayValue;
@@ -145,7 +377,7 @@ public class StubResponse {
 
         /**
          * Sets the response body as an array of bytes. Calling this method resets all data
-         * previously provided by {@link #body(String, Charset)}. If the response body is not set at all, an empty
+         * previously provided by any other {@code body} method. If the response body is not set at all, an empty
          * body is used.
          *
          * @param body stub response body as an array of bytes (cannot be null).
@@ -154,14 +386,114 @@ public class StubResponse {
         public Builder body(final byte[] body) {
             Validate.notNull(body, "body cannot be null, use an empty array instead");
             this.body = body;
+            this.fileBody = null;
+            this.chunks = null;
+            this.encoding = null;
+            return this;
+        }
+
+
+        /**
+         * Sets the response body as the content of the given file. The file is not read by this method
+         * (except for its length), it's streamed every time the response is sent, so even a huge file can be used
+         * without affecting the memory usage. The file must not be modified as long as the response is used.
+         * Calling this method resets all data previously provided by any other {@code body} method.
+         *
+         * @param file file containing the stub response body (cannot be {@code null})
+         * @return this builder
+         * @throws JadlerException if the length of the file cannot be determined
+         */
+        public Builder body(final Path file) {
+            Validate.notNull(file, "file cannot be null");
+            Validate.isTrue(Files.isRegularFile(file), file + " is not a regular file");
+
+            final long length;
+            try {
+                length = Files.size(file);
+            } catch (final IOException e) {
+                throw new JadlerException("cannot determine the length of " + file, e);
+            }
+
+            return this.fileBody(new FileBody(file, null, length));
+        }
+
+
+        /**
+         * Sets the response body as the whole content of the given file channel. The channel is neither read by
+         * this method (except for its size) nor closed, it's used (using the positional methods only, so its
+         * position isn't affected) every time the response is sent, so it must be kept open as long as the response
+         * is used. The content must not be modified meanwhile. Calling this method resets all data previously
+         * provided by any other {@code body} method.
+         *
+         * @param channel open channel of a file containing the stub response body (cannot be {@code null})
+         * @return this builder
+         * @throws JadlerException if the size of the channel cannot be determined
+         */
+        public Builder body(final FileChannel channel) {
+            Validate.notNull(channel, "channel cannot be null");
+
+            final long length;
+            try {
+                length = channel.size();
+            } catch (final IOException e) {
+                throw new JadlerException("cannot determine the size of the file channel", e);
+            }
+
+            return this.fileBody(new FileBody(null, channel, length));
+        }
+
+
+        private Builder fileBody(final FileBody fileBody) {
+            this.body = new byte[0];
+            this.fileBody = fileBody;
+            this.chunks = null;
             this.encoding = null;
             return this;
         }
 
 
+        /**
+         * Makes the response a streaming one. The headers of such a response are sent immediately, the chunks follow
+         * one by one using the chunked transfer encoding, each of them after the chunk interval
+         * (see {@link #chunkInterval(long, TimeUnit)}) elapses. Calling this method resets all data previously
+         * provided by any {@code body} method (and any {@code body} method resets the chunks).
+         *
+         * @param chunks chunks of the response (cannot be {@code null}), the chunks are iterated anew every time
+         *               the response is sent, so besides a fixed collection an iterable generating the chunks
+         *               on the fly (even an infinite one) can be used
+         * @return this builder
+         */
+        public Builder chunks(final Iterable<byte[]> chunks) {
+            Validate.notNull(chunks, "chunks cannot be null");
+
+            this.body = new byte[0];
+            this.fileBody = null;
+            this.chunks = chunks;
+            this.encoding = null;
+            return this;
+        }
+
+
+        /**
+         * Sets the interval each chunk of a streaming response (see {@link #chunks(Iterable)}) is sent after.
+         * If not called {@code 0} will be used as a default (all chunks are sent immediately).
+         *
+         * @param intervalValue an interval (in units defined by the {@code intervalUnit} parameter)
+         * @param intervalUnit unit of the interval parameter
+         * @return this builder
+         */
+        public Builder chunkInterval(final long intervalValue, final TimeUnit intervalUnit) {
+            Validate.isTrue(intervalValue >= 0, "intervalValue cannot be negative");
+            Validate.notNull(intervalUnit, "intervalUnit cannot be null");
+
+            this.chunkInterval = intervalUnit.toMillis(intervalValue);
+            return this;
+        }
+
+
         /**
          * Sets the response body as a string. Calling this method resets all data previously provided
-         * by {@link #body(byte[])}. If the response body is not set at all, an empty body is used.
+         * by any other {@code body} method. If the response body is not set at all, an empty body is used.
          *
          * @param body     stub response body as a string (cannot be {@code null})
          * @param encoding encoding of the body (cannot be {@code null})
@@ -171,11 +503,28 @@ public class StubResponse {
             Validate.notNull(body, "body cannot be null, use an empty string instead");
             Validate.notNull(encoding, "encoding cannot be null");
             this.body = body.getBytes(encoding);
+            this.fileBody = null;
+            this.chunks = null;
             this.encoding = encoding;
             return this;
         }
 
 
+        /**
+         * Limits the rate the response (either its body or its chunks) is sent at. If not called {@code 0} will be
+         * used as a default (the rate is not limited).
+         *
+         * @param bytesPerSecond maximal rate in bytes per second (cannot be negative, {@code 0} means no limit)
+         * @return this builder
+         */
+        public Builder bandwidthLimit(final long bytesPerSecond) {
+            Validate.isTrue(bytesPerSecond >= 0, "bytesPerSecond cannot be negative");
+
+            this.bandwidthLimit = bytesPerSecond;
+            return this;
+        }
+
+
         /**
          * Sets new stub response headers (all previously set headers are discarded).
          *
@@ -227,8 +576,8 @@ public class StubResponse {
          * @return a {@link StubResponse} instance built from values stored in this builder
          */
         public StubResponse build() {
-            return new StubResponse(this.status, this.body, this.encoding, this.headers,
-                    this.delayValue, this.delayUnit);
+            return new StubResponse(this.status, this.body, this.fileBody, this.chunks, this.chunkInterval,
+                    this.bandwidthLimit, this.encoding, this.headers, this.delayValue, this.delayUnit);
         }
     }
 }
\ No newline at end of file
@@ -6,16 +6,20 @@ package net.jadler.stubbing;
 
 import net.jadler.AbstractRequestMatching;
 import net.jadler.Jadler;
+import net.jadler.Request;
 import net.jadler.exception.JadlerException;
 import org.apache.commons.collections.MultiMap;
 import org.apache.commons.collections.map.MultiValueMap;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.Validate;
+import org.hamcrest.Matcher;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -34,6 +38,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
     private final int defaultStatus;
     private final Charset defaultEncoding;
     Responder responder;
+    private volatile StubRegistry registry;
+    //modified since compiled the last time, see StubRegistry
+    private volatile boolean modified;
 
 
     /**
@@ -51,6 +58,18 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
         this.defaultStatus = defaultStatus;
         this.defaultEncoding = defaultEncoding;
         this.responder = null;
+        this.modified = true;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized RequestStubbing that(final Matcher<? super Request> predicate) {
+        super.that(predicate);
+        this.changed();
+        return this;
     }
 
 
@@ -67,7 +86,7 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing thenRespond() {
+    public synchronized ResponseStubbing thenRespond() {
         final MutableStubResponse response = new MutableStubResponse();
 
         response.addHeaders(defaultHeaders);
@@ -76,6 +95,7 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
         response.setBody("");
 
         stubResponses.add(response);
+        this.changed();
         return this;
     }
 
@@ -84,10 +104,11 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public void respondUsing(final Responder responder) {
+    public synchronized void respondUsing(final Responder responder) {
         Validate.notNull(responder, "responder cannot be null");
 
         this.responder = responder;
+        this.changed();
     }
 
 
@@ -95,8 +116,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withContentType(final String contentType) {
+    public synchronized ResponseStubbing withContentType(final String contentType) {
         currentResponse().setHeaderCaseInsensitive(CONTENT_TYPE_HEADER, contentType);
+        this.changed();
         return this;
     }
 
@@ -105,8 +127,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withEncoding(final Charset encoding) {
+    public synchronized ResponseStubbing withEncoding(final Charset encoding) {
         currentResponse().setEncoding(encoding);
+        this.changed();
         return this;
     }
 
@@ -115,8 +138,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withBody(final String responseBody) {
+    public synchronized ResponseStubbing withBody(final String responseBody) {
         currentResponse().setBody(responseBody);
+        this.changed();
         return this;
     }
 
@@ -125,7 +149,7 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withBody(final Reader reader) {
+    public synchronized ResponseStubbing withBody(final Reader reader) {
         try {
             final String responseBody;
 
@@ -147,7 +171,7 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withBody(final InputStream is) {
+    public synchronized ResponseStubbing withBody(final InputStream is) {
         try {
             final byte[] responseBody;
 
@@ -168,8 +192,101 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withBody(final byte[] responseBody) {
+    public synchronized ResponseStubbing withBody(final byte[] responseBody) {
         currentResponse().setBody(responseBody);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withBody(final Path file) {
+        Validate.notNull(file, "file cannot be null");
+
+        currentResponse().setBody(file);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withBody(final FileChannel channel) {
+        Validate.notNull(channel, "channel cannot be null");
+
+        currentResponse().setBody(channel);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withChunk(final String chunk) {
+        Validate.notNull(chunk, "chunk cannot be null");
+
+        currentResponse().addChunk(chunk);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withChunk(final byte[] chunk) {
+        Validate.notNull(chunk, "chunk cannot be null");
+
+        currentResponse().addChunk(chunk);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withChunks(final Iterable<byte[]> chunks) {
+        Validate.notNull(chunks, "chunks cannot be null");
+
+        currentResponse().setChunks(chunks);
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withChunkInterval(final long intervalValue, final TimeUnit intervalUnit) {
+        Validate.isTrue(intervalValue >= 0, "intervalValue cannot be negative");
+        Validate.notNull(intervalUnit, "intervalUnit cannot be null");
+
+        currentResponse().setChunkInterval(intervalUnit.toMillis(intervalValue));
+        this.changed();
+        return this;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized ResponseStubbing withBandwidthLimit(final long bytesPerSecond) {
+        Validate.isTrue(bytesPerSecond >= 0, "bytesPerSecond cannot be negative");
+
+        currentResponse().setBandwidthLimit(bytesPerSecond);
+        this.changed();
         return this;
     }
 
@@ -178,8 +295,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withHeader(final String name, final String value) {
+    public synchronized ResponseStubbing withHeader(final String name, final String value) {
         currentResponse().addHeader(name, value);
+        this.changed();
         return this;
     }
 
@@ -188,8 +306,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withStatus(final int status) {
+    public synchronized ResponseStubbing withStatus(final int status) {
         currentResponse().setStatus(status);
+        this.changed();
         return this;
     }
 
@@ -198,8 +317,9 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * {@inheritDoc}
      */
     @Override
-    public ResponseStubbing withDelay(long delayValue, TimeUnit delayUnit) {
+    public synchronized ResponseStubbing withDelay(long delayValue, TimeUnit delayUnit) {
         currentResponse().setDelay(java.util.concurrent.TimeUnit.MILLISECONDS.convert(delayValue, delayUnit));
+        this.changed();
         return this;
     }
 
@@ -211,6 +331,19 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
      * @return {@link HttpStub} instance configured using values from this stubbing
      */
     public HttpStub createRule() {
+        return this.createRule(null);
+    }
+
+
+    /**
+     * Creates a {@link HttpStub} instance from this Stubbing instance replacing the given rule created from this
+     * stubbing before. The new rule continues in the sequence of stub responses from the position the previous
+     * rule has reached. Package private, used by {@link StubRegistry} only.
+     *
+     * @param previous rule previously created from this stubbing (can be {@code null})
+     * @return {@link HttpStub} instance configured using values from this stubbing
+     */
+    synchronized HttpStub createRule(final HttpStub previous) {
         if (this.responder != null) {
             return new HttpStub(predicates, this.responder);
         }
@@ -220,7 +353,56 @@ public class Stubbing extends AbstractRequestMatching<RequestStubbing> implement
             res.add(msr.toStubResponse());
         }
 
-        return new HttpStub(predicates, new StaticResponder(res));
+        final StaticResponder responder = previous != null && previous.getResponder() instanceof StaticResponder
+                ? new StaticResponder(res, ((StaticResponder) previous.getResponder()).getServedCount())
+                : new StaticResponder(res);
+        return new HttpStub(predicates, responder);
+    }
+
+
+    /**
+     * @return {@code true} if at least one response (or a responder) has been defined in this stubbing,
+     * so a stub rule can be created using {@link #createRule()}
+     */
+    boolean isComplete() {
+        return this.responder != null || !this.stubResponses.isEmpty();
+    }
+
+
+    /**
+     * @return {@code true} if this stubbing has been modified since it was compiled (see {@link #createRule()})
+     * the last time
+     */
+    boolean isModified() {
+        return this.modified;
+    }
+
+
+    /**
+     * Clears the modified flag, called right before this stubbing is compiled.
+     */
+    void clearModified() {
+        this.modified = false;
+    }
+
+
+    /**
+     * Registers this stubbing to the given registry which is notified whenever this stubbing is modified.
+     *
+     * @param registry registry this stubbing has been added to ({@code null} once removed from the registry)
+     */
+    void setRegistry(final StubRegistry registry) {
+        this.registry = registry;
+    }
+
+
+    private void changed() {
+        this.modified = true;
+
+        final StubRegistry r = this.registry;
+        if (r != null) {
+            r.stubbingChanged();
+        }
     }
 
 
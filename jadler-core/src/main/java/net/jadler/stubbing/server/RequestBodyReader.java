@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.Validate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * <p>Reads bodies of incoming http requests on behalf of {@link StubHttpServer} implementations. The result is
+ * meant to be handed over to {@link net.jadler.Request.Builder#body(ByteBuffer)}.</p>
+ *
+ * <p>A body not longer than the given spill threshold is read to a heap buffer (allocated gradually as the body
+ * arrives, the declared length is never trusted upfront). A longer body is streamed to
+ * a temporary file which is memory-mapped, so the body never occupies the heap and its pages are loaded only if
+ * a predicate actually reads the body (predicates working with the method, path or headers never do). The file is
+ * deleted as soon as it's been mapped (or on exit if the platform doesn't allow deleting a mapped file).</p>
+ *
+ * <p>Since a {@link ByteBuffer} is indexed by an {@code int}, bodies longer than {@link Integer#MAX_VALUE} bytes
+ * are not supported.</p>
+ */
+public class RequestBodyReader {
+
+    //initial size of a heap buffer for a body of a declared length
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private RequestBodyReader() {
+        //gtfo
+    }
+
+
+    /**
+     * Reads the whole body from the given stream.
+     *
+     * @param is stream to read the body from (cannot be {@code null}, it's not closed by this method)
+     * @param contentLength declared length of the body in bytes (the {@code Content-Length} header) or a negative
+     *                      value if unknown
+     * @param spillThreshold maximal length in bytes of a body read to the heap, longer bodies are spilled
+     *                       to a memory-mapped temporary file (cannot be negative, {@link Long#MAX_VALUE}
+     *                       disables spilling)
+     * @return body of the request
+     * @throws IOException if the body cannot be read or is longer than {@link Integer#MAX_VALUE} bytes
+     */
+    public static ByteBuffer read(final InputStream is, final long contentLength, final long spillThreshold)
+            throws IOException {
+        Validate.notNull(is, "is cannot be null");
+        Validate.isTrue(spillThreshold >= 0, "spillThreshold cannot be negative");
+
+        if (contentLength > Integer.MAX_VALUE) {
+            throw new IOException("request body too long: " + contentLength + " bytes");
+        }
+
+        //the declared length fits the heap, read the body into an array growing up to the declared length
+        if (contentLength >= 0 && contentLength <= spillThreshold) {
+            return readDeclared(is, (int) contentLength);
+        }
+
+        if (contentLength >= 0) {
+            return spill(new byte[0], is);
+        }
+
+        if (spillThreshold == Long.MAX_VALUE) {
+            return ByteBuffer.wrap(IOUtils.toByteArray(is));
+        }
+
+        //unknown length, read up to the threshold to the heap and spill the rest if there is any
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        final long read = IOUtils.copyLarge(is, head, 0, spillThreshold + 1);
+
+        return read <= spillThreshold ? ByteBuffer.wrap(head.toByteArray()) : spill(head.toByteArray(), is);
+    }
+
+
+    /*
+     * The declared length is provided by the client, so the array is allocated gradually as the body arrives rather
+     * than trusting the length upfront.
+     */
+    private static ByteBuffer readDeclared(final InputStream is, final int contentLength) throws IOException {
+        byte[] body = new byte[Math.min(contentLength, INITIAL_BUFFER_SIZE)];
+        int count = 0;
+
+        while (count < contentLength) {
+            if (count == body.length) {
+                body = Arrays.copyOf(body, (int) Math.min(contentLength, 2L * body.length));
+            }
+
+            final int read = is.read(body, count, body.length - count);
+            if (read < 0) {
+                break;
+            }
+            count += read;
+        }
+
+        return ByteBuffer.wrap(body, 0, count);
+    }
+
+
+    private static ByteBuffer spill(final byte[] head, final InputStream rest) throws IOException {
+        final File file = File.createTempFile("jadler-body", ".bin");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+
+            channel.write(ByteBuffer.wrap(head));
+            IOUtils.copyLarge(rest, Channels.newOutputStream(channel));
+
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("request body too long: " + size + " bytes");
+            }
+
+            //the mapping stays valid after the channel has been closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
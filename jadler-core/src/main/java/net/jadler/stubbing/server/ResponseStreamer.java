@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import net.jadler.stubbing.StubResponse;
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>Sends stub responses which cannot be written at once on behalf of {@link StubHttpServer} implementations:
+ * streaming responses (see {@link StubResponse#isStreaming()}) and responses sent at a limited rate (see
+ * {@link StubResponse#getBandwidthLimit()} and {@link net.jadler.RequestManager#getBandwidthLimit()}). It also
+ * schedules delayed responses (see {@link StubResponse#getDelay()}) using {@link #delay(Runnable, long)}.</p>
+ *
+ * <p>A stub http server sends the headers of such a response, hands the response body stream over to
+ * {@link #stream(StubResponse, long, OutputStream, Runnable)} and releases its worker thread. The response is then
+ * paced by a single scheduler thread shared by all responses, so a response waiting for its next chunk or for its
+ * bandwidth share costs just a timer entry rather than a thread. The scheduler thread never writes though, once
+ * a response can proceed the next piece of its body is written (and flushed) by a writer thread taken from a pool
+ * shared by all responses. The writes block (the stub servers don't provide a non-blocking output), so a client
+ * reading slowly holds just the writer thread sending its own response, the other responses are not affected.
+ * Both the scheduler and the writer threads are started lazily, idle writer threads are discarded after
+ * a minute.</p>
+ *
+ * <p>A rate limited response is written in slices (each taking roughly 100ms at the given rate) paced by token
+ * buckets, one for each response and one shared by all responses of the server.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class ResponseStreamer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseStreamer.class);
+    private ScheduledExecutorService scheduler;
+    private ExecutorService writers;
+    private TokenBucket globalBucket;
+
+
+    /**
+     * Starts streaming the given response without a global bandwidth limit,
+     * see {@link #stream(StubResponse, long, OutputStream, Runnable)}.
+     *
+     * @param response a streaming or rate limited stub response (cannot be {@code null})
+     * @param out stream the response body is written to (cannot be {@code null}), it's not closed by this class
+     * @param whenDone callback run once the whole response has been written or the streaming has failed
+     *                 (cannot be {@code null})
+     */
+    public void stream(final StubResponse response, final OutputStream out, final Runnable whenDone) {
+        this.stream(response, 0, out, whenDone);
+    }
+
+
+    /**
+     * Starts streaming the given response. This method doesn't block. Chunks of a streaming response are written
+     * one by one, each of them after the chunk interval (see {@link StubResponse#getChunkInterval()}) elapses.
+     * The body (or each chunk) is written in slices of 64 KiB at most, if the response or the global bandwidth
+     * is limited, the slices are smaller and paced to the lower of the limits. A response which is neither
+     * streaming nor rate limited is supposed to be written by the stub server directly rather than by this class.
+     *
+     * @param response a streaming or rate limited stub response (cannot be {@code null})
+     * @param globalBandwidthLimit maximal rate (in bytes per second) all responses streamed by this instance together
+     *                             are sent at ({@code 0} means no limit), the most recent value applies
+     * @param out stream the response body is written to (cannot be {@code null}), it's not closed by this class
+     * @param whenDone callback run (by a writer thread) once the whole response has been written or the
+     *                 streaming has failed (typically once the client has disconnected), it's supposed to complete
+     *                 the http response (cannot be {@code null})
+     */
+    public void stream(final StubResponse response, final long globalBandwidthLimit, final OutputStream out,
+            final Runnable whenDone) {
+        Validate.notNull(response, "response cannot be null");
+        Validate.isTrue(globalBandwidthLimit >= 0, "globalBandwidthLimit cannot be negative");
+        Validate.notNull(out, "out cannot be null");
+        Validate.notNull(whenDone, "whenDone cannot be null");
+
+        final long now = System.nanoTime();
+        final TokenBucket responseBucket = response.getBandwidthLimit() > 0
+                ? new TokenBucket(response.getBandwidthLimit(), now)
+                : null;
+
+        final Transfer transfer = new Transfer(response, responseBucket, this.globalBucket(globalBandwidthLimit, now),
+                out, whenDone);
+        //the first chunk is sent after the interval too
+        this.schedule(transfer, response.isStreaming() ? transfer.chunkInterval : 0);
+    }
+
+
+    /**
+     * Runs the given task by a writer thread once the given delay elapses. This method doesn't block, a stub
+     * http server suspends a delayed response and resumes (or sends) it from the task, so the delay doesn't occupy
+     * any of its worker threads. The scheduler thread just hands the task over to a writer thread, so the task
+     * is allowed to block (for example while writing the response to a slow client).
+     *
+     * @param task task to be run after the delay (cannot be {@code null})
+     * @param delayMillis delay in milliseconds (cannot be negative)
+     */
+    public void delay(final Runnable task, final long delayMillis) {
+        Validate.notNull(task, "task cannot be null");
+        Validate.isTrue(delayMillis >= 0, "delayMillis cannot be negative");
+
+        final Runnable safeTask = new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } catch (final RuntimeException e) {
+                    //the executor would swallow it silently
+                    logger.warn("resuming a delayed response has failed", e);
+                }
+            }
+        };
+
+        try {
+            this.scheduler().schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    resume(safeTask);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            //shut down meanwhile, the response is resumed immediately so it's not left suspended
+            safeTask.run();
+        }
+    }
+
+
+    /**
+     * Stops the scheduler and writer threads. Responses in progress are abandoned (their callbacks are not run),
+     * neither are the tasks of pending delays.
+     */
+    public synchronized void shutdown() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+        if (this.writers != null) {
+            this.writers.shutdownNow();
+            this.writers = null;
+        }
+    }
+
+
+    /*
+     * The scheduler thread just waits for the delay, the next run of the transfer is handed over to a writer thread.
+     * A transfer schedules its next run at the end of the current one, so it's never run by two threads at once.
+     */
+    private void schedule(final Transfer transfer, final long delayNanos) {
+        if (delayNanos <= 0) {
+            this.write(transfer);
+            return;
+        }
+
+        try {
+            this.scheduler().schedule(new Runnable() {
+
+                @Override
+                public void run() {
+                    write(transfer);
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            //shut down meanwhile
+            transfer.complete();
+        }
+    }
+
+
+    private void resume(final Runnable task) {
+        try {
+            this.writers().execute(task);
+        } catch (final RejectedExecutionException e) {
+            //shut down meanwhile, the response is resumed immediately so it's not left suspended
+            task.run();
+        }
+    }
+
+
+    private void write(final Transfer transfer) {
+        try {
+            this.writers().execute(transfer);
+        } catch (final RejectedExecutionException e) {
+            //shut down meanwhile
+            transfer.complete();
+        }
+    }
+
+
+    /*
+     * The global bucket is kept as long as the global limit doesn't change.
+     */
+    private synchronized TokenBucket globalBucket(final long limit, final long now) {
+        if (limit == 0) {
+            this.globalBucket = null;
+        } else if (this.globalBucket == null || this.globalBucket.getRate() != limit) {
+            this.globalBucket = new TokenBucket(limit, now);
+        }
+        return this.globalBucket;
+    }
+
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory(
+                    "jadler-response-streamer"));
+        }
+        return this.scheduler;
+    }
+
+
+    private synchronized ExecutorService writers() {
+        if (this.writers == null) {
+            this.writers = Executors.newCachedThreadPool(new DaemonThreadFactory("jadler-response-writer"));
+        }
+        return this.writers;
+    }
+
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+
+        private DaemonThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread res = new Thread(r, this.name);
+            res.setDaemon(true);
+            return res;
+        }
+    }
+
+
+    /*
+     * State of a single response being streamed. Each run (by a writer thread) writes as much as possible (the rest
+     * of the current chunk or body unless the bandwidth is limited) slice by slice and schedules the next run.
+     */
+    private class Transfer implements Runnable {
+        private final Iterator<byte[]> chunks;
+        private final long chunkInterval;
+        private final TokenBucket responseBucket;
+        private final TokenBucket globalBucket;
+        private final int sliceSize;
+        private final OutputStream out;
+        private final WritableByteChannel channel;
+        private final Runnable whenDone;
+
+        private ByteBuffer pending;
+        private boolean awaitingChunk;
+        private int reserved;
+
+        private Transfer(final StubResponse response, final TokenBucket responseBucket,
+                final TokenBucket globalBucket, final OutputStream out, final Runnable whenDone) {
+            this.chunks = response.isStreaming() ? response.getChunks().iterator() : null;
+            this.chunkInterval = TimeUnit.MILLISECONDS.toNanos(response.getChunkInterval());
+            this.responseBucket = responseBucket;
+            this.globalBucket = globalBucket;
+            this.sliceSize = Math.min(sliceSize(responseBucket), sliceSize(globalBucket));
+            this.out = out;
+            this.channel = Channels.newChannel(out);
+            this.whenDone = whenDone;
+
+            this.awaitingChunk = this.chunks != null;
+            this.pending = this.chunks != null ? ByteBuffer.allocate(0) : response.getBodyAsBuffer();
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (this.awaitingChunk) {
+                    this.awaitingChunk = false;
+                    if (!this.chunks.hasNext()) {
+                        this.complete();
+                        return;
+                    }
+
+                    final byte[] chunk = this.chunks.next();
+                    Validate.notNull(chunk, "chunk cannot be null");
+                    this.pending = ByteBuffer.wrap(chunk);
+                }
+
+                while (true) {
+                    if (this.reserved > 0) {
+                        this.writeReserved();
+                    }
+
+                    //nothing is written for an empty chunk, it would terminate the chunked body prematurely
+                    if (!this.pending.hasRemaining()) {
+                        if (this.chunks != null && this.chunks.hasNext()) {
+                            this.awaitingChunk = true;
+                            schedule(this, this.chunkInterval);
+                        } else {
+                            this.complete();
+                        }
+                        return;
+                    }
+
+                    this.reserved = Math.min(this.pending.remaining(), this.sliceSize);
+                    final long wait = this.reserve(this.reserved);
+                    if (wait > 0) {
+                        schedule(this, wait);
+                        return;
+                    }
+                }
+            } catch (final Exception e) {
+                logger.debug("streaming of a response has failed", e);
+                this.complete();
+            }
+        }
+
+        private void writeReserved() throws IOException {
+            final ByteBuffer slice = this.pending.duplicate();
+            slice.limit(slice.position() + this.reserved);
+            while (slice.hasRemaining()) {
+                this.channel.write(slice);
+            }
+            this.out.flush();
+
+            this.pending.position(slice.position());
+            this.reserved = 0;
+        }
+
+        private long reserve(final int bytes) {
+            final long now = System.nanoTime();
+            final long responseWait = this.responseBucket != null ? this.responseBucket.reserve(bytes, now) : 0;
+            final long globalWait = this.globalBucket != null ? this.globalBucket.reserve(bytes, now) : 0;
+            return Math.max(responseWait, globalWait);
+        }
+
+        private void complete() {
+            try {
+                this.whenDone.run();
+            } catch (final RuntimeException e) {
+                logger.warn("completing a streamed response has failed", e);
+            }
+        }
+
+        private int sliceSize(final TokenBucket bucket) {
+            return bucket != null ? bucket.getSliceSize() : TokenBucket.MAX_SLICE_SIZE;
+        }
+    }
+}
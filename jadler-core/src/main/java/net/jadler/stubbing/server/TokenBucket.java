@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>A token bucket pacing a byte stream (or more of them sharing the bucket) to the given rate. The bucket holds at
+ * most one slice worth of tokens (see {@link #getSliceSize()}), so the stream can burst at most one slice.</p>
+ *
+ * <p>Bytes are reserved in advance: a reservation always succeeds, however it returns the time the reserved bytes
+ * can be sent after. The caller is supposed to schedule the write accordingly rather than wait for it.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+class TokenBucket {
+
+    //the rate is enforced in roughly 100ms slices
+    private static final int SLICES_PER_SECOND = 10;
+    //package private, used for responses with no limit as well
+    static final int MAX_SLICE_SIZE = 64 * 1024;
+
+    private final long rate;
+    private final int sliceSize;
+    private double tokens;
+    private long updated;
+
+
+    /**
+     * @param rate rate in bytes per second (must be positive)
+     * @param now current time in nanoseconds (see {@link System#nanoTime()})
+     */
+    TokenBucket(final long rate, final long now) {
+        Validate.isTrue(rate > 0, "rate must be positive");
+
+        this.rate = rate;
+        this.sliceSize = (int) Math.max(1, Math.min(MAX_SLICE_SIZE, rate / SLICES_PER_SECOND));
+        this.tokens = this.sliceSize;
+        this.updated = now;
+    }
+
+
+    /**
+     * @return rate in bytes per second
+     */
+    long getRate() {
+        return this.rate;
+    }
+
+
+    /**
+     * @return maximal number of bytes which should be written at once
+     */
+    int getSliceSize() {
+        return this.sliceSize;
+    }
+
+
+    /**
+     * Reserves the given number of bytes.
+     *
+     * @param bytes number of bytes to be sent
+     * @param now current time in nanoseconds (see {@link System#nanoTime()})
+     * @return time in nanoseconds the reserved bytes can be sent after ({@code 0} if they can be sent immediately)
+     */
+    synchronized long reserve(final int bytes, final long now) {
+        this.tokens = Math.min(this.sliceSize,
+                this.tokens + (now - this.updated) * (double) this.rate / TimeUnit.SECONDS.toNanos(1));
+        this.updated = now;
+        this.tokens -= bytes;
+
+        return this.tokens >= 0 ? 0 : (long) Math.ceil(-this.tokens * TimeUnit.SECONDS.toNanos(1) / this.rate);
+    }
+}
@@ -4,13 +4,18 @@
  */
 package net.jadler;
 
+import net.jadler.matchers.BinaryBodyRequestMatcher;
+import net.jadler.matchers.BodyDigestRequestMatcher;
 import net.jadler.matchers.BodyRequestMatcher;
 import net.jadler.matchers.HeaderRequestMatcher;
+import net.jadler.matchers.JsonValueRequestMatcher;
 import net.jadler.matchers.MethodRequestMatcher;
 import net.jadler.matchers.ParameterRequestMatcher;
+import net.jadler.matchers.PartRequestMatcher;
 import net.jadler.matchers.PathRequestMatcher;
 import net.jadler.matchers.QueryStringRequestMatcher;
-import net.jadler.matchers.RawBodyRequestMatcher;
+import net.jadler.matchers.RawPartRequestMatcher;
+import net.jadler.matchers.XPathRequestMatcher;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.Before;
@@ -19,6 +24,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -102,7 +108,174 @@ public class AbstractRequestMatchingTest {
     @Test
     public void havingRawBodyEqualTo() {
         this.stubbing.havingRawBodyEqualTo(new byte[0]);
-        this.assertOneMatcher(is(instanceOf(RawBodyRequestMatcher.class)));
+        this.assertOneMatcher(is(instanceOf(BinaryBodyRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawBodyStartingWithWrongParam() {
+        this.stubbing.havingRawBodyStartingWith(null);
+    }
+
+
+    @Test
+    public void havingRawBodyStartingWith() {
+        this.stubbing.havingRawBodyStartingWith(new byte[]{1});
+        this.assertOneMatcher(is(instanceOf(BinaryBodyRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawBodyContainingWrongParam() {
+        this.stubbing.havingRawBodyContaining(null);
+    }
+
+
+    @Test
+    public void havingRawBodyContaining() {
+        this.stubbing.havingRawBodyContaining(new byte[]{1});
+        this.assertOneMatcher(is(instanceOf(BinaryBodyRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawBodyDigestWrongParam1() {
+        this.stubbing.havingRawBodyDigest("", new byte[0]);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawBodyDigestWrongParam2() {
+        this.stubbing.havingRawBodyDigest("SHA-256", null);
+    }
+
+
+    @Test
+    public void havingRawBodyDigest() {
+        this.stubbing.havingRawBodyDigest("SHA-256", new byte[32]);
+        this.assertOneMatcher(is(instanceOf(BodyDigestRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawBodyWrongParam() {
+        this.stubbing.havingRawBody(null);
+    }
+
+
+    @Test
+    public void havingRawBody() {
+        this.stubbing.havingRawBody(Matchers.<ByteBuffer>anything());
+        this.assertOneMatcher(is(instanceOf(BinaryBodyRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingJsonValueWrongParam1() {
+        this.stubbing.havingJsonValue(null, Matchers.anything());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingJsonValueWrongParam2() {
+        this.stubbing.havingJsonValue("/id", null);
+    }
+
+
+    @Test
+    public void havingJsonValue() {
+        this.stubbing.havingJsonValue("/id", Matchers.anything());
+        this.assertOneMatcher(is(instanceOf(JsonValueRequestMatcher.class)));
+    }
+
+
+    @Test
+    public void havingJsonValueEqualTo() {
+        this.stubbing.havingJsonValueEqualTo("/id", 42);
+        this.assertOneMatcher(is(instanceOf(JsonValueRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingXPathWrongParam1() {
+        this.stubbing.havingXPath("", Matchers.anything());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingXPathWrongParam2() {
+        this.stubbing.havingXPath("/id", null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingXPathEqualToWrongParam() {
+        this.stubbing.havingXPathEqualTo("/id", null);
+    }
+
+
+    @Test
+    public void havingXPath() {
+        this.stubbing.havingXPath("/id", Matchers.anything());
+        this.assertOneMatcher(is(instanceOf(XPathRequestMatcher.class)));
+    }
+
+
+    @Test
+    public void havingXPathEqualTo() {
+        this.stubbing.havingXPathEqualTo("/id", "42");
+        this.assertOneMatcher(is(instanceOf(XPathRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingPartWrongParam1() {
+        this.stubbing.havingPart(null, Matchers.anything());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingPartWrongParam2() {
+        this.stubbing.havingPart("name", null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingPartEqualToWrongParam() {
+        this.stubbing.havingPartEqualTo("name", null);
+    }
+
+
+    @Test
+    public void havingPart() {
+        this.stubbing.havingPart("name", Matchers.anything());
+        this.assertOneMatcher(is(instanceOf(PartRequestMatcher.class)));
+    }
+
+
+    @Test
+    public void havingPartEqualTo() {
+        this.stubbing.havingPartEqualTo("name", "value");
+        this.assertOneMatcher(is(instanceOf(PartRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawPartWrongParam1() {
+        this.stubbing.havingRawPart(null, Matchers.<ByteBuffer>anything());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingRawPartWrongParam2() {
+        this.stubbing.havingRawPart("name", null);
+    }
+
+
+    @Test
+    public void havingRawPart() {
+        this.stubbing.havingRawPart("name", Matchers.<ByteBuffer>anything());
+        this.assertOneMatcher(is(instanceOf(RawPartRequestMatcher.class)));
     }
 
 
@@ -126,6 +299,32 @@ public class AbstractRequestMatchingTest {
     }
 
 
+    @Test(expected = IllegalArgumentException.class)
+    public void havingPathTemplateWrongParam() {
+        this.stubbing.havingPathTemplate("");
+    }
+
+
+    @Test
+    public void havingPathTemplate() {
+        this.stubbing.havingPathTemplate("/accounts/{id}");
+        this.assertOneMatcher(is(instanceOf(PathRequestMatcher.class)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingPathPrefixWrongParam() {
+        this.stubbing.havingPathPrefix("");
+    }
+
+
+    @Test
+    public void havingPathPrefix() {
+        this.stubbing.havingPathPrefix("/static");
+        this.assertOneMatcher(is(instanceOf(PathRequestMatcher.class)));
+    }
+
+
     @Test
     public void havingQueryStringEqualTo() {
         this.stubbing.havingQueryStringEqualTo("a=b");
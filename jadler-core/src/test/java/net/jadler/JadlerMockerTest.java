@@ -13,6 +13,8 @@ import net.jadler.exception.JadlerException;
 import net.jadler.mocking.VerificationException;
 import net.jadler.mocking.Verifying;
 import net.jadler.stubbing.HttpStub;
+import net.jadler.stubbing.RequestStubbing;
+import net.jadler.stubbing.Responder;
 import net.jadler.stubbing.StubResponse;
 import net.jadler.stubbing.Stubbing;
 import net.jadler.stubbing.StubbingFactory;
@@ -34,10 +36,16 @@ import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.lang.String.format;
+import static net.jadler.matchers.PathRequestMatcher.requestPath;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
@@ -47,6 +55,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -302,12 +311,85 @@ public class JadlerMockerTest {
     }
 
 
-    @Test(expected = IllegalStateException.class)
-    public void onRequestWrongState() {
+    @Test
+    public void onRequestAfterFirstRequest() {
         final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
-        mocker.provideStubResponseFor(prepareEmptyMockRequest());
-        mocker.onRequest();
-        fail("The mocker has already provided first response, cannot do any stubbing anymore");
+        mocker.onRequest().havingPathEqualTo("/a").respond().withStatus(201);
+
+        final Request req = prepareEmptyMockRequest();
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(404));
+
+        //new stubbings are published even once the first request has been served
+        mocker.onRequest().havingPathEqualTo("/").respond().withStatus(202);
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(202));
+
+        //a stubbing modification is published too
+        final RequestStubbing stubbing = mocker.onRequest().havingPathEqualTo("/");
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(202));
+        stubbing.respond().withStatus(203);
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(203));
+    }
+
+
+    @Test
+    public void onRequestPathTemplate() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.onRequest().havingPathTemplate("/accounts/{id}").respondUsing(new Responder() {
+            @Override
+            public StubResponse nextResponse(final Request request) {
+                return StubResponse.builder()
+                        .status(200)
+                        .body(request.getPathVariables().get("id"), Charset.forName("UTF-8"))
+                        .build();
+            }
+        });
+
+        final Request req = Request.builder().method("GET").requestURI(URI.create("http://localhost/accounts/12"))
+                .build();
+        assertThat(mocker.provideStubResponseFor(req).getBody(), is("12".getBytes()));
+
+        final Request other = Request.builder().method("GET").requestURI(URI.create("http://localhost/accounts"))
+                .build();
+        assertThat(mocker.provideStubResponseFor(other).getStatus(), is(404));
+    }
+
+
+    @Test
+    public void removeStubbing() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        final RequestStubbing first = mocker.onRequest();
+        first.respond().withStatus(201);
+        final RequestStubbing second = mocker.onRequest();
+        second.respond().withStatus(202);
+
+        final Request req = prepareEmptyMockRequest();
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(202));
+
+        assertThat(mocker.removeStubbing(second), is(true));
+        assertThat(mocker.removeStubbing(second), is(false));
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(201));
+
+        //received requests are kept
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptySet()), is(2));
+    }
+
+
+    @Test
+    public void resetStubbings() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.onRequest().respond().withStatus(201);
+
+        final Request req = prepareEmptyMockRequest();
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(201));
+
+        mocker.resetStubbings();
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(404));
+
+        mocker.onRequest().respond().withStatus(202);
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(202));
+
+        //received requests are kept
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptySet()), is(3));
     }
 
 
@@ -333,6 +415,8 @@ public class JadlerMockerTest {
     public void onRequestWithDefaults() {
         final StubHttpServer server = mock(StubHttpServer.class);
         final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class)))
+                .thenReturn(mock(Stubbing.class));
 
         final JadlerMocker mocker = new JadlerMocker(server, sf);
 
@@ -358,6 +442,8 @@ public class JadlerMockerTest {
     public void onRequestNoDefaultStatus() {
         final StubHttpServer server = mock(StubHttpServer.class);
         final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class)))
+                .thenReturn(mock(Stubbing.class));
 
         final JadlerMocker mocker = new JadlerMocker(server, sf);
 
@@ -372,6 +458,8 @@ public class JadlerMockerTest {
     public void onRequestNoDefaultEncoding() {
         final StubHttpServer server = mock(StubHttpServer.class);
         final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class)))
+                .thenReturn(mock(Stubbing.class));
 
         final JadlerMocker mocker = new JadlerMocker(server, sf);
 
@@ -386,6 +474,8 @@ public class JadlerMockerTest {
     public void onRequestNoDefaultHeaders() {
         final StubHttpServer server = mock(StubHttpServer.class);
         final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class)))
+                .thenReturn(mock(Stubbing.class));
 
         final JadlerMocker mocker = new JadlerMocker(server, sf);
 
@@ -487,6 +577,301 @@ public class JadlerMockerTest {
     }
 
 
+    @Test
+    public void provideStubResponseForUnmatched() {
+        final Request req = prepareEmptyMockRequest();
+
+        final HttpStub rule = mock(HttpStub.class);
+        final Stubbing stubbing = mock(Stubbing.class);
+        when(stubbing.createRule()).thenReturn(rule);
+        when(rule.matches(eq(req))).thenReturn(false);
+        when(rule.toString()).thenReturn(HTTP_STUB1_TO_STRING);
+        when(rule.describeMismatch(eq(req))).thenReturn(HTTP_STUB1_MISMATCH);
+
+        final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class))).thenReturn(stubbing);
+
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class), sf);
+        mocker.setMismatchLoggingSampleRate(0);
+        mocker.onRequest();
+
+        assertThat(mocker.provideStubResponseFor(req).getStatus(), is(404));
+
+        //no mismatch logged, the mismatch description is not computed until requested
+        verify(rule, never()).describeMismatch(any(Request.class));
+
+        assertThat(mocker.getUnmatchedRequestsCount(), is(1L));
+        assertThat(mocker.getUnmatchedRequests().size(), is(1));
+
+        final UnmatchedRequest unmatched = mocker.getUnmatchedRequests().get(0);
+        assertThat(unmatched.getRequest(), is(req));
+        assertThat(unmatched.describeMismatch(), is(format("No suitable rule found. Reason:\n"
+                + "The rule '%s' cannot be applied. Mismatch:\n%s\n", HTTP_STUB1_TO_STRING, HTTP_STUB1_MISMATCH)));
+
+        mocker.reset();
+        assertThat(mocker.getUnmatchedRequests().isEmpty(), is(true));
+        assertThat(mocker.getUnmatchedRequestsCount(), is(0L));
+    }
+
+
+    @Test
+    public void unmatchedRequestsCapacity() {
+        final Request req1 = prepareEmptyMockRequest();
+        final Request req2 = prepareEmptyMockRequest();
+        final Request req3 = prepareEmptyMockRequest();
+
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setUnmatchedRequestsCapacity(2);
+
+        mocker.provideStubResponseFor(req1);
+        mocker.provideStubResponseFor(req2);
+        mocker.provideStubResponseFor(req3);
+
+        assertThat(mocker.getUnmatchedRequestsCount(), is(3L));
+        assertThat(mocker.getUnmatchedRequests().get(0).getRequest(), is(req2));
+        assertThat(mocker.getUnmatchedRequests().get(1).getRequest(), is(req3));
+    }
+
+
+    @Test
+    public void unmatchedRequestsNoRecording() {
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/path?a=b"))
+                .header("h", "v")
+                .body("body".getBytes())
+                .build();
+
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordRequests(false);
+        mocker.provideStubResponseFor(req);
+
+        //the body is not kept when the requests are not recorded
+        final Request unmatched = mocker.getUnmatchedRequests().get(0).getRequest();
+        assertThat(unmatched.getBodyAsBytes().length, is(0));
+        assertThat(unmatched.getMethod(), is("POST"));
+        assertThat(unmatched.getURI(), is(req.getURI()));
+        assertThat(unmatched.getHeaders(), is(req.getHeaders()));
+        assertThat(unmatched.getParameters().getValue("a"), is("b"));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setUnmatchedRequestsCapacityWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).setUnmatchedRequestsCapacity(-1);
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void setUnmatchedRequestsCapacityWrongState() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.setUnmatchedRequestsCapacity(10);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMismatchLoggingSampleRateWrongParam1() {
+        new JadlerMocker(mock(StubHttpServer.class)).setMismatchLoggingSampleRate(-0.1);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMismatchLoggingSampleRateWrongParam2() {
+        new JadlerMocker(mock(StubHttpServer.class)).setMismatchLoggingSampleRate(1.1);
+    }
+
+
+    @Test
+    public void recordingPolicy() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordingPolicy(RecordingPolicy.builder().maxRequests(2).build());
+
+        for (int i = 0; i < 5; i++) {
+            mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        }
+
+        //only the last two requests are kept, the rest has been dropped
+        assertThat(mocker.getDroppedRequestsCount(), is(3L));
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptySet()), is(2));
+
+        mocker.reset();
+        assertThat(mocker.getDroppedRequestsCount(), is(0L));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRecordingPolicyWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).setRecordingPolicy(null);
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void registeredVerification() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+
+        final Matcher<Request> m = mock(Matcher.class);
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>singletonList(m));
+
+        final Request r1 = prepareEmptyMockRequest();
+        final Request r2 = prepareEmptyMockRequest();
+        when(m.matches(r1)).thenReturn(true);
+        when(m.matches(r2)).thenReturn(false);
+
+        mocker.provideStubResponseFor(r1);
+        mocker.provideStubResponseFor(r2);
+        mocker.provideStubResponseFor(r1);
+
+        //each request has been evaluated just once when received
+        verify(m, times(2)).matches(r1);
+        verify(m, times(1)).matches(r2);
+
+        final Matcher<Integer> countMatcher = mock(Matcher.class);
+        when(countMatcher.matches(2)).thenReturn(true);
+
+        mocker.evaluateRegisteredVerification(counter, countMatcher);
+        assertThat(counter.getCount(), is(2));
+    }
+
+
+    @Test(expected = VerificationException.class)
+    @SuppressWarnings("unchecked")
+    public void registeredVerification_negative() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>emptyList());
+
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+
+        final Matcher<Integer> countMatcher = mock(Matcher.class);
+        when(countMatcher.matches(1)).thenReturn(false);
+
+        mocker.evaluateRegisteredVerification(counter, countMatcher);
+    }
+
+
+    @Test
+    public void registeredVerificationDroppedRequests() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordingPolicy(RecordingPolicy.builder().maxRequests(2).build());
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>emptyList());
+
+        for (int i = 0; i < 5; i++) {
+            mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        }
+
+        //the live counter agrees with the verification evaluated against the recorded requests
+        assertThat(counter.getCount(), is(2));
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptyList()), is(2));
+    }
+
+
+    @Test
+    public void registeredVerificationDroppedRequestsConcurrently() throws InterruptedException {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordingPolicy(RecordingPolicy.builder().maxRequests(10).build());
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>emptyList());
+
+        final AtomicBoolean negativeCount = new AtomicBoolean(false);
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+                        //a request is never discarded from the counter before being offered to it
+                        if (counter.getCount() < 0) {
+                            negativeCount.set(true);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(negativeCount.get(), is(false));
+        mocker.evaluateRegisteredVerification(counter, equalTo(10));
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptyList()), is(10));
+    }
+
+
+    @Test
+    public void registeredVerificationExpiredRequests() throws InterruptedException {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordingPolicy(RecordingPolicy.builder().maxAge(50, TimeUnit.MILLISECONDS).build());
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>emptyList());
+
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        Thread.sleep(150);
+
+        //no request has been received since the first one expired, the verification evicts it anyway
+        mocker.evaluateRegisteredVerification(counter, equalTo(0));
+        assertThat(mocker.numberOfRequestsMatching(Collections.<Matcher<? super Request>>emptyList()), is(0));
+    }
+
+
+    @Test
+    public void registeredVerificationAfterReset() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        final RequestCounter counter = mocker.registerVerification(
+                Collections.<Matcher<? super Request>>emptyList());
+
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.reset();
+        assertThat(counter.getCount(), is(0));
+
+        //the counter is still registered
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        assertThat(counter.getCount(), is(1));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registerVerificationWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).registerVerification(null);
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void registerVerificationWrongState() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.registerVerification(Collections.<Matcher<? super Request>>emptyList());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void evaluateRegisteredVerificationWrongParam1() {
+        new JadlerMocker(mock(StubHttpServer.class)).evaluateRegisteredVerification(null, mock(Matcher.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateRegisteredVerificationWrongParam2() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.evaluateRegisteredVerification(
+                mocker.registerVerification(Collections.<Matcher<? super Request>>emptyList()), null);
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void setRecordingPolicyWrongState() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.setRecordingPolicy(RecordingPolicy.UNBOUNDED);
+    }
+
+
     @Test
     public void provideStubResponseFor3() {
         final Request req = prepareEmptyMockRequest();
@@ -556,6 +941,71 @@ public class JadlerMockerTest {
     }
 
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void evaluateVerification_parallel() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setParallelVerificationThreshold(1);
+
+        for (int i = 0; i < 100; i++) {
+            mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        }
+
+        final Matcher<Integer> countMatcher = mock(Matcher.class);
+        when(countMatcher.matches(100)).thenReturn(true);
+
+        mocker.evaluateVerification(Collections.<Matcher<? super Request>>emptySet(), countMatcher);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setParallelVerificationThresholdWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).setParallelVerificationThreshold(0);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBodySpillThresholdWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).setBodySpillThreshold(-1);
+    }
+
+
+    @Test
+    public void setBodySpillThreshold() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        assertThat(mocker.getBodySpillThreshold(), is(Long.MAX_VALUE));
+
+        mocker.setBodySpillThreshold(1024);
+        assertThat(mocker.getBodySpillThreshold(), is(1024L));
+
+        //can be changed even once the first request has been received
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.setBodySpillThreshold(0);
+        assertThat(mocker.getBodySpillThreshold(), is(0L));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setBandwidthLimitWrongParam() {
+        new JadlerMocker(mock(StubHttpServer.class)).setBandwidthLimit(-1);
+    }
+
+
+    @Test
+    public void setBandwidthLimit() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        assertThat(mocker.getBandwidthLimit(), is(0L));
+
+        mocker.setBandwidthLimit(1024);
+        assertThat(mocker.getBandwidthLimit(), is(1024L));
+
+        //can be changed even once the first request has been received
+        mocker.provideStubResponseFor(prepareEmptyMockRequest());
+        mocker.setBandwidthLimit(0);
+        assertThat(mocker.getBandwidthLimit(), is(0L));
+    }
+
+
     @Test(expected = IllegalStateException.class)
     public void verifyThatRequest_noRequestRecording() {
         final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
@@ -586,6 +1036,118 @@ public class JadlerMockerTest {
     }
 
 
+    @Test
+    public void provideStubResponseForRecordsTiming() {
+        final Request req = prepareEmptyMockRequest();
+
+        final HttpStub rule = mock(HttpStub.class);
+        final Stubbing stubbing = mock(Stubbing.class);
+        when(stubbing.createRule()).thenReturn(rule);
+        when(rule.matches(eq(req))).thenReturn(true);
+        when(rule.nextResponse(eq(req))).thenReturn(StubResponse.EMPTY);
+
+        final StubbingFactory sf = mock(StubbingFactory.class);
+        when(sf.createStubbing(any(Charset.class), anyInt(), any(MultiMap.class))).thenReturn(stubbing);
+
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class), sf);
+        mocker.onRequest();
+        mocker.provideStubResponseFor(req);
+
+        assertThat(req.getMatchedStub(), is(rule));
+        assertThat(req.getCompletedNanos(), is(-1L));
+
+        mocker.responseCompleted(req);
+        assertThat(req.getCompletedNanos() - req.getReceivedNanos() >= 0, is(true));
+
+        assertThat(mocker.getReceivedRequests(), contains(req));
+    }
+
+
+    @Test
+    public void provideStubResponseForUnmatchedNoStub() {
+        final Request req = prepareEmptyMockRequest();
+        new JadlerMocker(mock(StubHttpServer.class)).provideStubResponseFor(req);
+
+        assertThat(req.getMatchedStub(), is(nullValue()));
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void getReceivedRequests_recordingDisabled() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordRequests(false);
+
+        mocker.getReceivedRequests();
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateWindowedVerification_illegalArgument1() {
+        new JadlerMocker(mock(StubHttpServer.class)).evaluateWindowedVerification(null, 1, lessThanOrEqualTo(1));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateWindowedVerification_illegalArgument2() {
+        new JadlerMocker(mock(StubHttpServer.class)).evaluateWindowedVerification(
+                Collections.<Matcher<? super Request>>emptyList(), 0, lessThanOrEqualTo(1));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateWindowedVerification_illegalArgument3() {
+        new JadlerMocker(mock(StubHttpServer.class)).evaluateWindowedVerification(
+                Collections.<Matcher<? super Request>>emptyList(), 1, null);
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void evaluateWindowedVerification_recordingDisabled() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+        mocker.setRecordRequests(false);
+
+        mocker.evaluateWindowedVerification(Collections.<Matcher<? super Request>>emptyList(), 1,
+                lessThanOrEqualTo(1));
+    }
+
+
+    @Test
+    public void evaluateWindowedVerification() {
+        final JadlerMocker mocker = new JadlerMocker(mock(StubHttpServer.class));
+
+        //received at 0, 400, 900, 1000, 1500 ms (out of order), the one at 500 ms is not matched
+        for (final long millis : new long[]{0, 900, 400, 1000, 1500}) {
+            mocker.provideStubResponseFor(timedRequest("/a", millis));
+        }
+        mocker.provideStubResponseFor(timedRequest("/b", 500));
+
+        final Collection<Matcher<? super Request>> preds =
+                Collections.<Matcher<? super Request>>singletonList(requestPath(equalTo("/a")));
+        final long second = TimeUnit.SECONDS.toNanos(1);
+
+        //no second-long window contains more than 3 requests, the ones at 900 and 1000 ms are 100 ms apart
+        mocker.evaluateWindowedVerification(preds, second, is(3));
+        mocker.evaluateWindowedVerification(preds, TimeUnit.MILLISECONDS.toNanos(100), is(1));
+        mocker.evaluateWindowedVerification(preds, 1, is(1));
+
+        try {
+            mocker.evaluateWindowedVerification(preds, second, lessThanOrEqualTo(2));
+            fail("3 requests have been received within a second");
+        } catch (final VerificationException e) {
+            assertThat(e.getMessage(), is("The maximal number of http requests having Path is \"/a\" received "
+                    + "within any 1000 ms window was expected to be a value less than or equal to <2>, "
+                    + "but <3> was greater than <2>"));
+        }
+    }
+
+
+    @Test
+    public void evaluateWindowedVerification_noRequests() {
+        new JadlerMocker(mock(StubHttpServer.class)).evaluateWindowedVerification(
+                Collections.<Matcher<? super Request>>emptyList(), 1, is(0));
+    }
+
+
     @Test(expected = IllegalStateException.class)
     @SuppressWarnings("unchecked")
     public void evaluateVerification_recordingDisabled() {
@@ -989,6 +1551,15 @@ public class JadlerMockerTest {
     }
 
 
+    private Request timedRequest(final String path, final long millis) {
+        return Request.builder()
+                .method("GET")
+                .requestURI(URI.create("http://localhost" + path))
+                .receivedNanos(TimeUnit.MILLISECONDS.toNanos(millis))
+                .build();
+    }
+
+
     private Request prepareEmptyMockRequest() {
         return Request.builder()
                 .method("GET")
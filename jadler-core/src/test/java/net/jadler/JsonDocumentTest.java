@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+
+public class JsonDocumentTest {
+
+    private static final String DOCUMENT = "{\"order\": {\"id\": 42, \"items\": [{\"sku\": \"a/b\"}, {\"sku\": \"c~d\"}],"
+            + " \"paid\": true, \"note\": null}, \"total\": 12.5, \"big\": 12345678901234567890, \"long\": 4294967296,"
+            + " \"a/b\": 1, \"m~n\": 2, \"text\": \"tab\\t\\u00e1\\\"\"}";
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parsePointerWrongParam() {
+        JsonDocument.parsePointer("order");
+    }
+
+
+    @Test
+    public void parsePointer() {
+        assertThat(JsonDocument.parsePointer(""), is(empty()));
+        assertThat(JsonDocument.parsePointer("/"), contains(""));
+        assertThat(JsonDocument.parsePointer("/a~1b/m~0n/0"), contains("a/b", "m~n", "0"));
+    }
+
+
+    @Test
+    public void getValue() {
+        final JsonDocument doc = new JsonDocument(new StringReader(DOCUMENT));
+
+        assertThat(doc.getValue("/order/id"), is((Object) 42));
+        assertThat(doc.getValue("/order/items/1/sku"), is((Object) "c~d"));
+        assertThat(doc.getValue("/order/items/0/sku"), is((Object) "a/b"));
+        assertThat(doc.getValue("/order/paid"), is((Object) true));
+        assertThat(doc.getValue("/order/note"), is(nullValue()));
+        assertThat(doc.getValue("/total"), is((Object) 12.5));
+        assertThat(doc.getValue("/big"), is((Object) new BigInteger("12345678901234567890")));
+        assertThat(doc.getValue("/long"), is((Object) 4294967296L));
+        assertThat(doc.getValue("/a~1b"), is((Object) 1));
+        assertThat(doc.getValue("/m~0n"), is((Object) 2));
+        assertThat(doc.getValue("/text"), is((Object) "tab\tá\""));
+    }
+
+
+    @Test
+    public void getValueMissing() {
+        final JsonDocument doc = new JsonDocument(new StringReader(DOCUMENT));
+
+        assertThat(doc.getValue("/order/unknown"), is(nullValue()));
+        assertThat(doc.getValue("/order/items/2"), is(nullValue()));
+        assertThat(doc.getValue("/order/items/x"), is(nullValue()));
+        assertThat(doc.getValue("/order/items/01"), is(nullValue()));
+        assertThat(doc.getValue("/order/id/x"), is(nullValue()));
+        assertThat(doc.getValue("/unknown"), is(nullValue()));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getValueContainers() {
+        final JsonDocument doc = new JsonDocument(new StringReader(DOCUMENT));
+
+        final Object items = doc.getValue("/order/items");
+        assertThat(items, is(instanceOf(List.class)));
+        assertThat(((List<Object>) items).size(), is(2));
+
+        final Object root = doc.getValue("");
+        assertThat(root, is(instanceOf(Map.class)));
+        assertThat((Map<String, Object>) root, hasEntry("total", (Object) 12.5));
+
+        try {
+            ((Map<String, Object>) root).put("x", "y");
+            fail("the containers must be unmodifiable");
+        } catch (final UnsupportedOperationException e) {
+            //expected
+        }
+    }
+
+
+    @Test
+    public void getValueScalarDocument() {
+        assertThat(new JsonDocument(new StringReader(" \"text\" ")).getValue(""), is((Object) "text"));
+        assertThat(new JsonDocument(new StringReader("[]")).getValue(""), is((Object) Arrays.asList()));
+        assertThat(new JsonDocument(new StringReader("[]")).getValue("/0"), is(nullValue()));
+    }
+
+
+    @Test
+    public void getValueDuplicateMember() {
+        final JsonDocument doc = new JsonDocument(new StringReader("{\"a\": {\"b\": 1}, \"a\": {\"b\": 2}}"));
+
+        assertThat(doc.getValue("/a/b"), is((Object) 1));
+        assertThat(doc.getValue("/b"), is(nullValue()));
+    }
+
+
+    @Test
+    public void getValueStopsEarly() {
+        final CountingReader reader = new CountingReader("{\"id\": 1, \"rest\": [" + repeat("1, ", 100000) + "1]}");
+        final JsonDocument doc = new JsonDocument(reader);
+
+        assertThat(doc.getValue("/id"), is((Object) 1));
+        //just the first chunk has been read
+        assertThat(reader.read < 10000, is(true));
+
+        assertThat(doc.getValue("/rest/100000"), is((Object) 1));
+        assertThat(doc.getValue("/id"), is((Object) 1));
+    }
+
+
+    @Test
+    public void getValueMalformed() {
+        final JsonDocument doc = new JsonDocument(new StringReader("{\"a\": 1, \"b\": tru}"));
+
+        assertThat(doc.getValue("/a"), is((Object) 1));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                doc.getValue("/b");
+                fail("the document is malformed");
+            } catch (final JadlerException e) {
+                assertThat(e.getMessage(), is("malformed JSON request body: invalid literal"));
+            }
+        }
+    }
+
+
+    @Test(expected = JadlerException.class)
+    public void getValueTrailingCharacters() {
+        new JsonDocument(new StringReader("{} x")).getValue("");
+    }
+
+
+    @Test(expected = JadlerException.class)
+    public void getValueTruncated() {
+        new JsonDocument(new StringReader("{\"a\": [1, 2")).getValue("/b");
+    }
+
+
+    private static String repeat(final String s, final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+
+    private static class CountingReader extends Reader {
+        private final Reader delegate;
+        private int read;
+
+        private CountingReader(final String s) {
+            this.delegate = new StringReader(s);
+        }
+
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            final int res = this.delegate.read(cbuf, off, len);
+            this.read += Math.max(res, 0);
+            return res;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -7,6 +7,8 @@ package net.jadler;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -16,6 +18,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
 
 
 public class KeyValuesTest {
@@ -102,6 +105,52 @@ public class KeyValuesTest {
     }
 
 
+    @Test
+    public void addBranching() {
+        //both instances are created from the same one, they must not see each other's values
+        final KeyValues base = new KeyValues().add("a", "1");
+        final KeyValues first = base.add("b", "2");
+        final KeyValues second = base.add("b", "3");
+
+        assertThat(base.getValues("b"), is(nullValue()));
+        assertThat(first.getValues("b"), contains("2"));
+        assertThat(second.getValues("b"), contains("3"));
+        assertThat(first.add("c", "4").getKeys(), contains("a", "b", "c"));
+        assertThat(second.getKeys(), contains("a", "b"));
+    }
+
+
+    @Test
+    public void addMany() {
+        KeyValues kv = new KeyValues();
+        for (int i = 0; i < 100; i++) {
+            kv = kv.add("key" + (i % 10), Integer.toString(i));
+        }
+
+        assertThat(kv.getKeys().size(), is(10));
+        assertThat(kv.getValues("key3").size(), is(10));
+        assertThat(kv.getValues("key3").get(9), is("93"));
+    }
+
+
+    @Test
+    public void addAllBranching() {
+        final KeyValues additional = new KeyValues().add("name_4", "value_4_1");
+        final KeyValues empty = new KeyValues();
+
+        final KeyValues first = empty.addAll(additional);
+        final KeyValues second = first.addAll(this.keyValues);
+        final KeyValues third = first.add("name_5", "value_5_1");
+
+        assertThat(first.getKeys(), contains("name_4"));
+        assertThat(second.getKeys(), contains("name_4", "name_1", "name_2", "name_3"));
+        assertThat(third.getKeys(), contains("name_4", "name_5"));
+        assertThat(additional.getKeys(), contains("name_4"));
+        assertThat(this.keyValues.addAll(this.keyValues).getValues(HEADER1_NAME),
+                contains(HEADER1_VALUE1, HEADER1_VALUE1));
+    }
+
+
     @Test(expected = IllegalArgumentException.class)
     public void getValueWrongParam() {
         this.keyValues.getValue("");
@@ -184,6 +233,36 @@ public class KeyValuesTest {
     }
 
 
+    @Test
+    public void getKeysOrder() {
+        assertThat(keyValues.getKeys(), contains("name_1", "name_2", "name_3"));
+    }
+
+
+    @Test
+    public void equalsAndHashCode() {
+        final KeyValues other = new KeyValues()
+                .add(HEADER3_NAME, HEADER3_VALUE1)
+                .add(HEADER2_NAME.toUpperCase(), HEADER2_VALUE1)
+                .add(HEADER1_NAME, HEADER1_VALUE1)
+                .add(HEADER2_NAME, HEADER2_VALUE2);
+
+        //the order of values of different keys doesn't matter
+        assertThat(other, is(this.keyValues));
+        assertThat(other.hashCode(), is(this.keyValues.hashCode()));
+
+        //the order of values of one key does
+        final KeyValues reordered = new KeyValues()
+                .add(HEADER1_NAME, HEADER1_VALUE1)
+                .add(HEADER2_NAME, HEADER2_VALUE2)
+                .add(HEADER2_NAME, HEADER2_VALUE1)
+                .add(HEADER3_NAME, HEADER3_VALUE1);
+        assertThat(reordered, is(not(this.keyValues)));
+        assertThat(this.keyValues.add("x", "y"), is(not(this.keyValues)));
+        assertThat(new KeyValues(), is(KeyValues.EMPTY));
+    }
+
+
     @Test
     public void testToStringHeaders() {
         assertThat(this.keyValues.toString().length(), is(65));
@@ -192,4 +271,47 @@ public class KeyValuesTest {
         assertThat(this.keyValues.toString(), containsString("name_2: "));
         assertThat(this.keyValues.toString(), containsString("name_3: value_3_1"));
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void testToStringGroupedByKeys() {
+        final KeyValues kv = new KeyValues().add("a", "1").add("b", "2").add("a", "3");
+        assertThat(kv.toString(), is("a: 1, a: 3, b: 2"));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void normalizeWrongParam() {
+        KeyValues.normalize("");
+    }
+
+
+    @Test
+    public void normalize() {
+        final String normalized = KeyValues.normalize(new String("Content-TYPE"));
+
+        assertThat(normalized, is("content-type"));
+        assertThat(normalized, is(sameInstance("content-type")));
+        assertThat(KeyValues.normalize(normalized), is(sameInstance(normalized)));
+    }
+
+
+    @Test
+    public void getValuesView() {
+        final KeyValues kv = new KeyValues().add("A", "1").add("b", "2").add("a", "3");
+
+        final List<String> values = kv.getValues("a");
+        assertThat(values, contains("1", "3"));
+        //no copy
+        assertThat(kv.getValues(KeyValues.normalize("A")), is(sameInstance(values)));
+        assertThat(kv.getValue("A"), is("1"));
+        assertThat(kv.getKeys(), contains("a", "b"));
+
+        try {
+            values.add("4");
+            fail("the values must be read-only");
+        } catch (final UnsupportedOperationException e) {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+
+public class MatchingRequestsCounterTest {
+
+    private static final List<Request> REQUESTS;
+
+    static {
+        REQUESTS = new ArrayList<Request>();
+        for (int i = 0; i < 10000; i++) {
+            REQUESTS.add(Request.builder()
+                    .method(i % 3 == 0 ? "POST" : "GET")
+                    .requestURI(URI.create("http://localhost/" + i))
+                    .build());
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void countWrongParam1() {
+        MatchingRequestsCounter.count(null, mock(Matcher.class), 1);
+        fail("requests cannot be null");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void countWrongParam2() {
+        MatchingRequestsCounter.count(Collections.<Request>emptyList(), null, 1);
+        fail("predicate cannot be null");
+    }
+
+
+    @Test
+    public void countSequentially() {
+        final ThreadRecordingMatcher predicate = new ThreadRecordingMatcher();
+
+        assertThat(MatchingRequestsCounter.count(REQUESTS, predicate, Integer.MAX_VALUE), is(3334));
+        //evaluated in the calling thread only
+        assertThat(predicate.threads, contains(Thread.currentThread()));
+    }
+
+
+    @Test
+    public void countInParallel() {
+        assertThat(MatchingRequestsCounter.count(REQUESTS, new ThreadRecordingMatcher(), 1), is(3334));
+        assertThat(MatchingRequestsCounter.count(REQUESTS.subList(0, 1), new ThreadRecordingMatcher(), 1), is(1));
+        assertThat(MatchingRequestsCounter.count(REQUESTS.subList(0, 3), new ThreadRecordingMatcher(), 1), is(1));
+        assertThat(MatchingRequestsCounter.count(Collections.<Request>emptyList(), new ThreadRecordingMatcher(), 1),
+                is(0));
+    }
+
+
+    /*
+     * Matches POST requests, records all threads it's been evaluated in
+     */
+    private static class ThreadRecordingMatcher extends BaseMatcher<Request> {
+        private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+        @Override
+        public boolean matches(final Object item) {
+            this.threads.add(Thread.currentThread());
+            return "POST".equals(((Request) item).getMethod());
+        }
+
+        @Override
+        public void describeTo(final Description description) {
+            description.appendText("POST request");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+
+public class MultipartTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private static final String BODY = "preamble\r\n"
+            + "--XyZ\r\n"
+            + "Content-Disposition: form-data; name=\"field\"\r\n"
+            + "\r\n"
+            + "value\r\n"
+            + "--XyZ  \r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"a \\\"b\\\".txt\"\r\n"
+            + "Content-Type: text/plain; charset=ISO-8859-1\r\n"
+            + "\r\n"
+            + "line1\r\nline2\r\n"
+            + "--XyZ\r\n"
+            + "Content-Disposition: form-data; name=\"empty\"\r\n"
+            + "\r\n"
+            + "\r\n"
+            + "--XyZ\r\n"
+            + "\r\n"
+            + "no headers\r\n"
+            + "--XyZ--\r\n"
+            + "epilogue";
+
+
+    @Test
+    public void boundary() {
+        assertThat(Multipart.boundary("multipart/form-data; boundary=XyZ"), is("XyZ"));
+        assertThat(Multipart.boundary("Multipart/Mixed; charset=UTF-8; Boundary=\"a b\""), is("a b"));
+        assertThat(Multipart.boundary("multipart/form-data"), is(nullValue()));
+        assertThat(Multipart.boundary("multipart/form-data; boundary="), is(nullValue()));
+        assertThat(Multipart.boundary("text/plain; boundary=XyZ"), is(nullValue()));
+        assertThat(Multipart.boundary(null), is(nullValue()));
+    }
+
+
+    @Test
+    public void charset() {
+        assertThat(Multipart.charset("text/plain; charset=ISO-8859-1", UTF_8), is(ISO_8859_1));
+        assertThat(Multipart.charset("text/plain; charset=no-such-charset", UTF_8), is(UTF_8));
+        assertThat(Multipart.charset("text/plain", UTF_8), is(UTF_8));
+        assertThat(Multipart.charset(null, UTF_8), is(UTF_8));
+    }
+
+
+    @Test
+    public void parse() {
+        final List<Part> parts = Multipart.parse(ByteBuffer.wrap(BODY.getBytes(UTF_8)), "XyZ", UTF_8);
+        assertThat(parts, hasSize(4));
+
+        assertThat(parts.get(0).getName(), is("field"));
+        assertThat(parts.get(0).getFileName(), is(nullValue()));
+        assertThat(parts.get(0).getContentAsString(), is("value"));
+
+        assertThat(parts.get(1).getName(), is("file"));
+        assertThat(parts.get(1).getFileName(), is("a \"b\".txt"));
+        assertThat(parts.get(1).getContentType(), is("text/plain; charset=ISO-8859-1"));
+        assertThat(parts.get(1).getContentAsString(), is("line1\r\nline2"));
+        assertThat(parts.get(1).getLength(), is(12));
+
+        assertThat(parts.get(2).getName(), is("empty"));
+        assertThat(parts.get(2).getLength(), is(0));
+
+        assertThat(parts.get(3).getName(), is(nullValue()));
+        assertThat(parts.get(3).getHeaders().getKeys(), is(empty()));
+        assertThat(parts.get(3).getContentAsString(), is("no headers"));
+    }
+
+
+    @Test
+    public void parseContentNotCopied() {
+        final byte[] body = ("--b\r\nContent-Disposition: form-data; name=\"x\"\r\n\r\nabc\r\n--b--").getBytes(UTF_8);
+        final Part part = Multipart.parse(ByteBuffer.wrap(body), "b", UTF_8).get(0);
+
+        final ByteBuffer content = part.getContentAsBuffer();
+        assertThat(content.isReadOnly(), is(true));
+        assertThat(content.remaining(), is(3));
+
+        //a view of the body
+        body[body.length - 8] = (byte) 'X';
+        assertThat(part.getContentAsBuffer().get(2), is((byte) 'X'));
+    }
+
+
+    @Test
+    public void parseMalformed() {
+        assertThat(Multipart.parse(ByteBuffer.wrap("no boundary".getBytes(UTF_8)), "b", UTF_8), is(empty()));
+
+        //the last part is not terminated
+        final String body = "--b\r\n\r\nfirst\r\n--b\r\n\r\nsecond";
+        final List<Part> parts = Multipart.parse(ByteBuffer.wrap(body.getBytes(UTF_8)), "b", UTF_8);
+        assertThat(parts, hasSize(1));
+        assertThat(parts.get(0).getContentAsString(), is("first"));
+    }
+
+
+    @Test
+    public void parameter() {
+        assertThat(Multipart.parameter("form-data; name=\"a;b\"; filename=c", "filename"), is("c"));
+        assertThat(Multipart.parameter("form-data; name=\"a;b\"; filename=c", "name"), is("a;b"));
+        assertThat(Multipart.parameter("form-data; name=a", "filename"), is(nullValue()));
+        assertThat(Multipart.parameter("form-data", "name"), is(nullValue()));
+    }
+}
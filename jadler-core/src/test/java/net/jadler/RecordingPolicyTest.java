@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+
+public class RecordingPolicyTest {
+
+    @Test
+    public void unbounded() {
+        assertThat(RecordingPolicy.UNBOUNDED.getMaxRequests(), is(Integer.MAX_VALUE));
+        assertThat(RecordingPolicy.UNBOUNDED.getMaxBodyBytes(), is(Long.MAX_VALUE));
+        assertThat(RecordingPolicy.UNBOUNDED.getMaxAgeMillis(), is(Long.MAX_VALUE));
+        assertThat(RecordingPolicy.UNBOUNDED.getSpillDirectory(), is(nullValue()));
+        assertThat(RecordingPolicy.UNBOUNDED.isUnbounded(), is(true));
+    }
+
+
+    @Test
+    public void builder() {
+        final File dir = new File("dir");
+        final RecordingPolicy policy = RecordingPolicy.builder()
+                .maxRequests(10)
+                .maxBodyBytes(1024)
+                .maxAge(2, TimeUnit.SECONDS)
+                .spillTo(dir)
+                .build();
+
+        assertThat(policy.getMaxRequests(), is(10));
+        assertThat(policy.getMaxBodyBytes(), is(1024L));
+        assertThat(policy.getMaxAgeMillis(), is(2000L));
+        assertThat(policy.getSpillDirectory(), is(dir));
+        assertThat(policy.isUnbounded(), is(false));
+
+        assertThat(RecordingPolicy.builder().spillTo(dir).dropEvicted().build().getSpillDirectory(),
+                is(nullValue()));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxRequestsWrongParam() {
+        RecordingPolicy.builder().maxRequests(0);
+        fail("maxRequests must be positive");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxBodyBytesWrongParam() {
+        RecordingPolicy.builder().maxBodyBytes(-1);
+        fail("maxBodyBytes cannot be negative");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxAgeWrongParam1() {
+        RecordingPolicy.builder().maxAge(0, TimeUnit.SECONDS);
+        fail("maxAge must be positive");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxAgeWrongParam2() {
+        RecordingPolicy.builder().maxAge(1, null);
+        fail("unit cannot be null");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void spillToWrongParam() {
+        RecordingPolicy.builder().spillTo(null);
+        fail("directory cannot be null");
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class RequestCounterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new RequestCounter(null);
+        fail("predicates cannot be null");
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getPredicates() {
+        final Matcher<Request> m1 = mock(Matcher.class);
+        final Matcher<Request> m2 = mock(Matcher.class);
+        final List<Matcher<? super Request>> predicates = new ArrayList<Matcher<? super Request>>(Arrays.asList(m1));
+
+        final RequestCounter counter = new RequestCounter(predicates);
+        //the counter must not be affected by a subsequent modification of the collection
+        predicates.add(m2);
+
+        assertThat(counter.getPredicates().size(), is(1));
+        assertThat(counter.getPredicates().get(0), is(sameInstance((Object) m1)));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void offer() {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+
+        final Matcher<Request> m1 = mock(Matcher.class);
+        final Matcher<Request> m2 = mock(Matcher.class);
+        when(m1.matches(r1)).thenReturn(true);
+        when(m2.matches(r1)).thenReturn(true);
+        when(m1.matches(r2)).thenReturn(true);
+        when(m2.matches(r2)).thenReturn(false);
+
+        final RequestCounter counter = new RequestCounter(Arrays.<Matcher<? super Request>>asList(m1, m2));
+        assertThat(counter.getCount(), is(0));
+
+        counter.offer(r1);
+        counter.offer(r2);
+        counter.offer(r1);
+
+        assertThat(counter.getCount(), is(2));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void discard() {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+
+        final Matcher<Request> m = mock(Matcher.class);
+        when(m.matches(r1)).thenReturn(true);
+        when(m.matches(r2)).thenReturn(false);
+
+        final RequestCounter counter = new RequestCounter(Collections.<Matcher<? super Request>>singletonList(m));
+        counter.offer(r1);
+        counter.offer(r2);
+        counter.offer(r1);
+
+        counter.discard(r1);
+        counter.discard(r2);
+        assertThat(counter.getCount(), is(1));
+
+        counter.reset();
+        assertThat(counter.getCount(), is(0));
+    }
+
+
+    @Test
+    public void offerNoPredicates() {
+        final RequestCounter counter = new RequestCounter(Collections.<Matcher<? super Request>>emptyList());
+        counter.offer(mock(Request.class));
+
+        assertThat(counter.getCount(), is(1));
+    }
+}
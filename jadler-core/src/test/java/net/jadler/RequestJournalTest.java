@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+
+public class RequestJournalTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new RequestJournal(null);
+        fail("policy cannot be null");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void appendWrongParam() {
+        new RequestJournal().append(null);
+        fail("request cannot be null");
+    }
+
+
+    @Test
+    public void snapshotEmpty() {
+        final RequestJournal journal = new RequestJournal();
+
+        assertThat(journal.snapshot(), is(empty()));
+        assertThat(journal.size(), is(0));
+    }
+
+
+    @Test
+    public void snapshot() {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+        final Request r3 = mock(Request.class);
+
+        final RequestJournal journal = new RequestJournal();
+        journal.append(r1);
+        journal.append(r2);
+
+        final List<Request> snapshot = journal.snapshot();
+        journal.append(r3);
+
+        //the snapshot is not affected by subsequent appends
+        assertThat(snapshot, contains(r1, r2));
+        assertThat(journal.snapshot(), contains(r1, r2, r3));
+        assertThat(journal.size(), is(3));
+    }
+
+
+    @Test
+    public void clear() {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+
+        final RequestJournal journal = new RequestJournal();
+        journal.append(r1);
+        journal.clear();
+
+        assertThat(journal.snapshot(), is(empty()));
+        assertThat(journal.size(), is(0));
+
+        journal.append(r2);
+        assertThat(journal.snapshot(), contains(r2));
+    }
+
+
+    @Test
+    public void concurrentAppends() throws InterruptedException {
+        final int threadsCount = 8;
+        final int appendsPerThread = 10000;
+
+        final RequestJournal journal = new RequestJournal();
+        final Request req = mock(Request.class);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadsCount; i++) {
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+
+                    for (int j = 0; j < appendsPerThread; j++) {
+                        journal.append(req);
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        start.countDown();
+        for (final Thread t : threads) {
+            t.join();
+        }
+
+        assertThat(journal.snapshot(), hasSize(threadsCount * appendsPerThread));
+        assertThat(journal.size(), is(threadsCount * appendsPerThread));
+    }
+
+
+    @Test
+    public void concurrentSnapshotsAndClears() throws InterruptedException {
+        final RequestJournal journal = new RequestJournal();
+        final Request req = mock(Request.class);
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 100000; i++) {
+                        journal.append(req);
+                        if (i % 3 == 0) {
+                            journal.clear();
+                        }
+                    }
+                } finally {
+                    running.set(false);
+                }
+            }
+        });
+        writer.start();
+
+        //a snapshot taken concurrently with a clear never contains a released request
+        while (running.get()) {
+            assertThat(journal.snapshot(), everyItem(is(sameInstance(req))));
+        }
+        writer.join();
+    }
+
+
+    @Test
+    public void maxRequestsDropped() {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+        final Request r3 = mock(Request.class);
+
+        final RequestJournal journal = new RequestJournal(RecordingPolicy.builder().maxRequests(2).build());
+        journal.append(r1);
+        journal.append(r2);
+        assertThat(journal.getDroppedCount(), is(0L));
+
+        journal.append(r3);
+        assertThat(journal.snapshot(), contains(r2, r3));
+        assertThat(journal.size(), is(2));
+        assertThat(journal.getDroppedCount(), is(1L));
+
+        journal.clear();
+        assertThat(journal.getDroppedCount(), is(0L));
+    }
+
+
+    @Test
+    public void maxBodyBytesDropped() {
+        final Request r1 = request("/1", 10);
+        final Request r2 = request("/2", 10);
+        final Request r3 = request("/3", 5);
+
+        final RequestJournal journal = new RequestJournal(RecordingPolicy.builder().maxBodyBytes(20).build());
+        journal.append(r1);
+        journal.append(r2);
+        assertThat(journal.snapshot(), contains(r1, r2));
+
+        journal.append(r3);
+        assertThat(journal.snapshot(), contains(r2, r3));
+        assertThat(journal.getDroppedCount(), is(1L));
+    }
+
+
+    @Test
+    public void maxAgeDropped() throws InterruptedException {
+        final Request r1 = mock(Request.class);
+        final Request r2 = mock(Request.class);
+
+        final RequestJournal journal = new RequestJournal(
+                RecordingPolicy.builder().maxAge(50, TimeUnit.MILLISECONDS).build());
+        journal.append(r1);
+        Thread.sleep(100);
+        journal.append(r2);
+
+        assertThat(journal.snapshot(), contains(r2));
+        assertThat(journal.getDroppedCount(), is(1L));
+
+        //expired requests are evicted even if nothing new is appended
+        Thread.sleep(100);
+        assertThat(journal.snapshot(), is(empty()));
+        assertThat(journal.getDroppedCount(), is(2L));
+    }
+
+
+    @Test
+    public void spilled() {
+        final RequestJournal journal = new RequestJournal(
+                RecordingPolicy.builder().maxRequests(2).spillTo(this.folder.getRoot()).build());
+
+        for (int i = 1; i <= 5; i++) {
+            journal.append(request("/" + i, i));
+        }
+
+        final List<Request> snapshot = journal.snapshot();
+        assertThat(snapshot, hasSize(5));
+        assertThat(journal.size(), is(5));
+        assertThat(journal.getDroppedCount(), is(0L));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(snapshot.get(i).getURI().getPath(), is("/" + (i + 1)));
+            assertThat(snapshot.get(i).getBodyAsBytes().length, is(i + 1));
+        }
+
+        journal.clear();
+        assertThat(journal.snapshot(), is(empty()));
+        assertThat(this.folder.getRoot().list().length, is(0));
+    }
+
+
+    @Test
+    public void spillFailureDropped() {
+        final RequestJournal.DropListener listener = mock(RequestJournal.DropListener.class);
+        //the journal file cannot be created in a non-existing directory
+        final RequestJournal journal = new RequestJournal(RecordingPolicy.builder()
+                .maxRequests(2)
+                .spillTo(new File(this.folder.getRoot(), "missing"))
+                .build(), listener);
+
+        final Request r1 = request("/1", 1);
+        journal.append(r1);
+        journal.append(request("/2", 1));
+        journal.append(request("/3", 1));
+
+        //the request which couldn't be spilled is dropped rather than failing the append
+        assertThat(journal.snapshot(), hasSize(2));
+        assertThat(journal.size(), is(2));
+        assertThat(journal.getDroppedCount(), is(1L));
+        verify(listener).dropped(r1);
+        verifyNoMoreInteractions(listener);
+    }
+
+
+    private static Request request(final String path, final int bodyLength) {
+        return Request.builder()
+                .method("GET")
+                .requestURI(URI.create("http://localhost" + path))
+                .body(new byte[bodyLength])
+                .build();
+    }
+}
@@ -4,20 +4,34 @@
  */
 package net.jadler;
 
+import net.jadler.exception.JadlerException;
+import net.jadler.stubbing.HttpStub;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static java.lang.String.format;
 import static java.net.URI.create;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
 
 
 public class RequestTest {
@@ -260,6 +274,83 @@ public class RequestTest {
     }
 
 
+    @Test
+    public void parametersInBodyWithEncoding() {
+        final Charset utf16 = Charset.forName("UTF-16");
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(create("http://localhost/"))
+                .body(format("%s=%s&%s", PARAM1_NAME, STRING_WITH_DIACRITICS, PARAM2_NAME).getBytes(utf16))
+                .encoding(utf16)
+                .header("content-type", "application/x-www-form-urlencoded; charset=UTF-16")
+                .build();
+
+        final KeyValues expected = new KeyValues()
+                .add(PARAM1_NAME, STRING_WITH_DIACRITICS)
+                .add(PARAM2_NAME, "");
+
+        assertThat(req.getParameters(), is(expected));
+    }
+
+
+    @Test
+    public void parametersInBodyDecodedAlready() {
+        final Request req = Request.builder()
+                .method("PUT")
+                .requestURI(create("http://localhost/"))
+                .body(format("%s=%s", PARAM1_NAME, STRING_WITH_DIACRITICS).getBytes(UTF_8_CHARSET))
+                .encoding(UTF_8_CHARSET)
+                .header("content-type", "application/x-www-form-urlencoded")
+                .build();
+
+        assertThat(req.getBodyAsString(), is(format("%s=%s", PARAM1_NAME, STRING_WITH_DIACRITICS)));
+        assertThat(req.getParameters().getValue(PARAM1_NAME), is(STRING_WITH_DIACRITICS));
+    }
+
+
+    @Test
+    public void parametersBlankBody() {
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(create("http://localhost/"))
+                .body(" \r\n".getBytes())
+                .header("content-type", "application/x-www-form-urlencoded")
+                .build();
+
+        assertThat(req.getParameters().getKeys(), is(empty()));
+    }
+
+
+    @Test
+    public void parametersWithoutName() {
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(create(format("http://localhost/?%s=%s&&=x&", PARAM1_NAME, PARAM1_VALUE1)))
+                .body(format("&%s=&=y", PARAM2_NAME).getBytes())
+                .header("content-type", "application/x-www-form-urlencoded")
+                .build();
+
+        final KeyValues expected = new KeyValues()
+                .add(PARAM1_NAME, PARAM1_VALUE1)
+                .add(PARAM2_NAME, "");
+
+        assertThat(req.getParameters(), is(expected));
+    }
+
+
+    @Test
+    public void parametersParsedOnce() {
+        final Request req = Request.builder()
+                .method(METHOD)
+                .requestURI(create(format("http://localhost/?%s=%s", PARAM1_NAME, PARAM1_VALUE1)))
+                .build();
+
+        assertThat(req.getParameters(), is(sameInstance(req.getParameters())));
+        assertThat(req.withPathVariables(Collections.<String, String>emptyMap()).getParameters(),
+                is(sameInstance(req.getParameters())));
+    }
+
+
     @Test
     public void getParameterValueInQueryURLEncoded() {
         final Request req = Request.builder()
@@ -332,6 +423,104 @@ public class RequestTest {
     }
 
 
+    @Test
+    public void getBodyAsBuffer() {
+        final Request req = Request.builder()
+                .method(METHOD)
+                .requestURI(URI)
+                .body(BINARY_BODY)
+                .build();
+
+        final ByteBuffer buffer = req.getBodyAsBuffer();
+        assertThat(buffer.isReadOnly(), is(true));
+        assertThat(buffer.remaining(), is(BINARY_BODY.length));
+        assertThat(buffer.get(2), is(BINARY_BODY[2]));
+
+        //every call provides a new view
+        buffer.get();
+        assertThat(req.getBodyAsBuffer().position(), is(0));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bodyBufferWrongParam() {
+        Request.builder().body((ByteBuffer) null);
+    }
+
+
+    @Test
+    public void bodyBuffer() throws IOException {
+        final ByteBuffer source = ByteBuffer.wrap(new byte[]{0, 1, 2, 3, 4});
+        source.position(1).limit(4);
+
+        final Request req = Request.builder()
+                .method(METHOD)
+                .requestURI(URI)
+                .body(source)
+                .build();
+
+        //only the remaining content is used, the source buffer isn't modified
+        assertThat(req.getBodyAsBytes(), is(BINARY_BODY));
+        assertThat(IOUtils.toByteArray(req.getBodyAsStream()), is(BINARY_BODY));
+        assertThat(req.getBodyAsBuffer().remaining(), is(3));
+        assertThat(source.position(), is(1));
+        assertThat(source.limit(), is(4));
+    }
+
+
+    @Test
+    public void bodyDirectBuffer() throws IOException {
+        final ByteBuffer source = ByteBuffer.allocateDirect(UTF_8_REPRESENTATION.length);
+        source.put(UTF_8_REPRESENTATION).flip();
+
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(URI)
+                .body(source)
+                .encoding(UTF_8_CHARSET)
+                .build();
+
+        assertThat(req.getBodyAsBytes(), is(UTF_8_REPRESENTATION));
+        assertThat(IOUtils.toByteArray(req.getBodyAsStream()), is(UTF_8_REPRESENTATION));
+        assertThat(req.getBodyAsString(), is(STRING_WITH_DIACRITICS));
+        assertThat(req.getBodyAsBuffer().isReadOnly(), is(true));
+    }
+
+
+    @Test
+    public void parametersInDirectBufferBody() {
+        final byte[] form = format("%s=%s&%s=%s", PARAM1_NAME, PARAM1_VALUE1, PARAM2_NAME, PARAM2_VALUE).getBytes();
+        final ByteBuffer source = ByteBuffer.allocateDirect(form.length);
+        source.put(form).flip();
+
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(URI)
+                .body(source)
+                .header("content-type", "application/x-www-form-urlencoded")
+                .build();
+
+        final KeyValues expected = new KeyValues()
+                .add(PARAM1_NAME, PARAM1_VALUE1)
+                .add(PARAM2_NAME, PARAM2_VALUE);
+
+        assertThat(req.getParameters(), is(expected));
+    }
+
+
+    @Test
+    public void getBodyAsStringDecodedOnce() {
+        final Request req = Request.builder()
+                .method(METHOD)
+                .requestURI(URI)
+                .body(UTF_8_REPRESENTATION)
+                .encoding(UTF_8_CHARSET)
+                .build();
+
+        assertThat(req.getBodyAsString(), is(sameInstance(req.getBodyAsString())));
+    }
+
+
     @Test
     public void getBodyAsStringEmpty() {
         final Request req = Request.builder()
@@ -458,4 +647,346 @@ public class RequestTest {
         assertThat(req.toString(), is("{method=GET, URI=http://localhost, parameters=[], headers=[], "
                 + "encoding=UTF-8, body=<nonempty>}"));
     }
+
+
+    @Test
+    public void getPathVariablesNone() {
+        final Request req = Request.builder().method(METHOD).requestURI(URI).build();
+        assertThat(req.getPathVariables().isEmpty(), is(true));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withPathVariablesWrongParam() {
+        Request.builder().method(METHOD).requestURI(URI).build().withPathVariables(null);
+    }
+
+
+    @Test
+    public void withPathVariables() {
+        final Request req = Request.builder().method(METHOD).requestURI(create("http://localhost/?a=b"))
+                .body(BINARY_BODY).build();
+        final Request res = req.withPathVariables(Collections.singletonMap("id", "12"));
+
+        assertThat(res.getPathVariables(), hasEntry("id", "12"));
+        assertThat(res.getMethod(), is(METHOD));
+        assertThat(res.getParameters().getValue("a"), is("b"));
+        assertThat(res.getBodyAsBytes(), is(BINARY_BODY));
+        assertThat(req.getPathVariables().isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void getBodyGzipped() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip")
+                .encoding(UTF_8_CHARSET)
+                .body(gzip(UTF_8_REPRESENTATION))
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(UTF_8_REPRESENTATION));
+        assertThat(req.getDecodedBodyAsString(), is(STRING_WITH_DIACRITICS));
+        assertThat(IOUtils.toByteArray(req.getDecodedBodyAsStream()), is(UTF_8_REPRESENTATION));
+        assertThat(req.getDecodedBodyAsBuffer().remaining(), is(UTF_8_REPRESENTATION.length));
+        assertThat(req.getDecodedBodyAsBuffer().isReadOnly(), is(true));
+    }
+
+
+    @Test
+    public void getBodyXGzipped() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "X-GZIP")
+                .body(gzip(BINARY_BODY))
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(BINARY_BODY));
+    }
+
+
+    @Test
+    public void getBodyDeflated() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "deflate")
+                .body(deflate(BINARY_BODY, false))
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(BINARY_BODY));
+    }
+
+
+    @Test
+    public void getBodyRawDeflated() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "deflate")
+                .body(deflate(BINARY_BODY, true))
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(BINARY_BODY));
+    }
+
+
+    @Test
+    public void getBodyMultipleCodings() throws IOException {
+        //deflate applied first, then gzip
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "deflate, identity")
+                .header("Content-Encoding", "gzip")
+                .body(gzip(deflate(BINARY_BODY, false)))
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(BINARY_BODY));
+    }
+
+
+    @Test
+    public void getBodyUnsupportedCoding() throws IOException {
+        final byte[] compressed = gzip(BINARY_BODY);
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip, br")
+                .body(compressed)
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(compressed));
+    }
+
+
+    @Test
+    public void getBodyDecodedOnce() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip")
+                .body(gzip(BINARY_BODY))
+                .build();
+
+        final ByteBuffer first = req.getDecodedBodyAsBuffer();
+        final ByteBuffer second = req.getDecodedBodyAsBuffer();
+        final ByteBuffer copied = req.withPathVariables(Collections.singletonMap("id", "1")).getDecodedBodyAsBuffer();
+
+        //independent views of the very same decoded content
+        assertThat(first, is(not(sameInstance(second))));
+        assertThat(first, is(second));
+        assertThat(copied, is(first));
+    }
+
+
+    @Test
+    public void getBodyDecodedTooLong() throws IOException {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip")
+                .body(gzip(new byte[1025]))
+                .maxDecodedBodyLength(1024)
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                req.getDecodedBodyAsBytes();
+                fail("the decoded body is too long");
+            } catch (final JadlerException e) {
+                assertThat(e.getMessage(), is("the decoded request body is longer than 1024 bytes"));
+            }
+        }
+    }
+
+
+    @Test(expected = JadlerException.class)
+    public void getBodyCorrupted() {
+        Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip")
+                .body(BINARY_BODY)
+                .build()
+                .getDecodedBodyAsString();
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxDecodedBodyLengthWrongParam() {
+        Request.builder().maxDecodedBodyLength(0);
+    }
+
+
+    @Test
+    public void getBodyAsReceived() throws IOException {
+        final byte[] compressed = gzip(BINARY_BODY);
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .header("Content-Encoding", "gzip")
+                .body(compressed)
+                .build();
+
+        //the raw accessors never decompress the body
+        assertThat(req.getBodyAsBytes(), is(compressed));
+        assertThat(IOUtils.toByteArray(req.getBodyAsStream()), is(compressed));
+        assertThat(req.getBodyAsBuffer().remaining(), is(compressed.length));
+        assertThat(req.getBodyAsString(), is(new String(compressed, "ISO-8859-1")));
+    }
+
+
+    @Test
+    public void getDecodedBodyNotCompressed() {
+        final Request req = Request.builder().method(METHOD).requestURI(URI)
+                .encoding(UTF_8_CHARSET)
+                .body(UTF_8_REPRESENTATION)
+                .build();
+
+        assertThat(req.getDecodedBodyAsBytes(), is(UTF_8_REPRESENTATION));
+        //shared with the raw body string
+        assertThat(req.getDecodedBodyAsString(), is(sameInstance(req.getBodyAsString())));
+    }
+
+
+    @Test
+    public void toStringBodyCorrupted() {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Content-Encoding", "gzip")
+                .body(BINARY_BODY)
+                .build();
+
+        assertThat(req.toString().startsWith("{method=POST, URI=" + URI + ", parameters=[<unavailable: "), is(true));
+    }
+
+
+    @Test
+    public void getParametersFromGzippedBody() throws IOException {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Content-Encoding", "gzip")
+                .body(gzip("a=1&b=2".getBytes("US-ASCII")))
+                .build();
+
+        assertThat(req.getParameters().getValue("a"), is("1"));
+        assertThat(req.getParameters().getValue("b"), is("2"));
+    }
+
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write(data);
+        }
+        return bos.toByteArray();
+    }
+
+
+    private static byte[] deflate(final byte[] data, final boolean nowrap) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bos, deflater)) {
+            out.write(data);
+        } finally {
+            deflater.end();
+        }
+        return bos.toByteArray();
+    }
+
+
+    @Test
+    public void getBodyAsJson() {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .body("{\"name\": \"\u00e1\u00ed\u00e9\"}".getBytes(UTF_8_CHARSET))
+                .build();
+
+        //UTF-8 by default
+        assertThat(req.getBodyAsJson().getValue("/name"), is((Object) STRING_WITH_DIACRITICS));
+        assertThat(req.getBodyAsJson(), is(sameInstance(req.getBodyAsJson())));
+        assertThat(req.withPathVariables(Collections.singletonMap("id", "1")).getBodyAsJson(),
+                is(sameInstance(req.getBodyAsJson())));
+    }
+
+
+    @Test
+    public void getBodyAsXml() {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .body("<a><b>1</b></a>".getBytes(UTF_8_CHARSET))
+                .build();
+
+        assertThat(req.getBodyAsXml().evaluate("/a/b"), is("1"));
+        assertThat(req.getBodyAsXml(), is(sameInstance(req.getBodyAsXml())));
+        assertThat(req.withPathVariables(Collections.singletonMap("id", "1")).getBodyAsXml(),
+                is(sameInstance(req.getBodyAsXml())));
+    }
+
+
+    @Test
+    public void getBodyDigest() throws Exception {
+        final byte[] body = "<a><b>1</b></a>".getBytes(UTF_8_CHARSET);
+        final Request req = Request.builder().method("POST").requestURI(URI).body(body).build();
+
+        final byte[] expected = MessageDigest.getInstance("SHA-256").digest(body);
+        assertThat(req.getBodyDigest("SHA-256"), is(expected));
+        //a copy is returned, the cached digest cannot be modified
+        req.getBodyDigest("SHA-256")[0]++;
+        assertThat(req.withPathVariables(Collections.singletonMap("id", "1")).getBodyDigest("SHA-256"),
+                is(expected));
+        assertThat(req.getBodyDigest("MD5"), is(MessageDigest.getInstance("MD5").digest(body)));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getBodyDigestUnsupportedAlgorithm() {
+        Request.builder().method("GET").requestURI(URI).build().getBodyDigest("NO-SUCH-DIGEST");
+    }
+
+
+    @Test
+    public void getParts() {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .header("Content-Type", "multipart/form-data; boundary=b")
+                .body(("--b\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n\u00e1\r\n"
+                        + "--b\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nsecond\r\n--b--")
+                        .getBytes(UTF_8_CHARSET))
+                .build();
+
+        assertThat(req.getParts().size(), is(2));
+        assertThat(req.getParts(), is(sameInstance(req.getParts())));
+        //UTF-8 by default
+        assertThat(req.getPart("a").getContentAsString(), is("\u00e1"));
+        assertThat(req.getPart("b"), is(nullValue()));
+    }
+
+
+    @Test
+    public void getPartsNotMultipart() {
+        final Request req = Request.builder().method("POST").requestURI(URI)
+                .header("Content-Type", "text/plain")
+                .body("--b\r\n\r\nvalue\r\n--b--".getBytes(UTF_8_CHARSET))
+                .build();
+
+        assertThat(req.getParts(), is(empty()));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPartWrongParam() {
+        Request.builder().method(METHOD).requestURI(URI).build().getPart(null);
+    }
+
+
+    @Test
+    public void receivedNanosDefault() {
+        final long before = System.nanoTime();
+        final Request req = Request.builder().method(METHOD).requestURI(URI).build();
+        final long after = System.nanoTime();
+
+        assertThat(req.getReceivedNanos() - before >= 0, is(true));
+        assertThat(after - req.getReceivedNanos() >= 0, is(true));
+    }
+
+
+    @Test
+    public void timing() {
+        final Request req = Request.builder().method(METHOD).requestURI(URI).receivedNanos(10L).build();
+
+        assertThat(req.getReceivedNanos(), is(10L));
+        assertThat(req.getMatchedStub(), is(nullValue()));
+        assertThat(req.getCompletedNanos(), is(-1L));
+
+        //copies share the timing
+        final Request copy = req.withPathVariables(Collections.singletonMap("id", "1"));
+        final HttpStub stub = mock(HttpStub.class);
+        req.recordMatch(stub);
+        copy.recordCompletion(20L);
+
+        assertThat(copy.getReceivedNanos(), is(10L));
+        assertThat(copy.getMatchedStub(), is(stub));
+        assertThat(req.getCompletedNanos(), is(20L));
+    }
 }
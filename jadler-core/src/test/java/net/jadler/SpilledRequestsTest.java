@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+
+public class SpilledRequestsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new SpilledRequests(null);
+        fail("directory cannot be null");
+    }
+
+
+    @Test
+    public void writeAndRead() throws Exception {
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost:8080/a/b?p=1"))
+                .header("Content-Type", "text/plain")
+                .header("X-Multi", "1")
+                .header("X-Multi", "2")
+                .encoding(Charset.forName("UTF-8"))
+                .body("čeština".getBytes("UTF-8"))
+                .build();
+
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, req);
+        write(spilled, Request.builder().method("GET").requestURI(URI.create("http://localhost/")).build());
+
+        final List<Request> snapshot = spilled.snapshot();
+        assertThat(snapshot, hasSize(2));
+        assertThat(spilled.size(), is(2));
+
+        final Request read = snapshot.get(0);
+        assertThat(read.getMethod(), is("POST"));
+        assertThat(read.getURI(), is(req.getURI()));
+        assertThat(read.getHeaders(), is(req.getHeaders()));
+        assertThat(read.getEncoding(), is(Charset.forName("UTF-8")));
+        assertThat(read.getBodyAsString(), is("čeština"));
+        assertThat(read.getParameters().getValue("p"), is("1"));
+
+        assertThat(snapshot.get(1).getMethod(), is("GET"));
+        assertThat(snapshot.get(1).getEncoding(), is(nullValue()));
+        assertThat(snapshot.get(1).getBodyAsBytes().length, is(0));
+    }
+
+
+    @Test
+    public void writeAndReadGzipped() throws Exception {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+            out.write("body".getBytes("US-ASCII"));
+        }
+
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .header("Content-Encoding", "gzip")
+                .body(bos.toByteArray())
+                .build());
+
+        //the body is stored as received and decompressed just once when read
+        assertThat(spilled.snapshot().get(0).getDecodedBodyAsString(), is("body"));
+    }
+
+
+    @Test
+    public void writeAndReadTiming() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        final Request req = Request.builder()
+                .method("GET")
+                .requestURI(URI.create("http://localhost/"))
+                .receivedNanos(42L)
+                .build();
+        req.recordCompletion(100L);
+        write(spilled, req);
+
+        final Request read = spilled.snapshot().get(0);
+        assertThat(read.getReceivedNanos(), is(42L));
+        assertThat(read.getCompletedNanos(), is(100L));
+    }
+
+
+    @Test
+    public void snapshotNotAffectedBySubsequentWrites() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, request("/1"));
+
+        final List<Request> snapshot = spilled.snapshot();
+        for (int i = 2; i < 100; i++) {
+            write(spilled, request("/" + i));
+        }
+
+        assertThat(snapshot, hasSize(1));
+        assertThat(snapshot.get(0).getURI().getPath(), is("/1"));
+        assertThat(spilled.snapshot().get(98).getURI().getPath(), is("/99"));
+    }
+
+
+    @Test
+    public void clear() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, request("/1"));
+        assertThat(this.folder.getRoot().list().length, is(1));
+
+        spilled.clear();
+        assertThat(spilled.snapshot(), is(empty()));
+        assertThat(spilled.size(), is(0));
+        assertThat(this.folder.getRoot().list().length, is(0));
+
+        write(spilled, request("/2"));
+        assertThat(spilled.snapshot(), hasSize(1));
+        assertThat(spilled.snapshot().get(0).getURI().getPath(), is("/2"));
+    }
+
+
+    @Test
+    public void snapshotEmpty() {
+        assertThat(new SpilledRequests(this.folder.getRoot()).snapshot(), is(empty()));
+        //no file created until the first request is spilled
+        assertThat(this.folder.getRoot().list().length, is(0));
+    }
+
+
+    @Test
+    public void addNotFlushed() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        spilled.add(request("/1"));
+
+        //queued requests are part of the snapshots, the file is not created until flushed
+        assertThat(spilled.size(), is(1));
+        assertThat(spilled.snapshot().get(0).getURI().getPath(), is("/1"));
+        assertThat(this.folder.getRoot().list().length, is(0));
+
+        spilled.flush();
+        write(spilled, request("/2"));
+        assertThat(this.folder.getRoot().list().length, is(1));
+        assertThat(spilled.snapshot(), hasSize(2));
+        assertThat(spilled.snapshot().get(1).getURI().getPath(), is("/2"));
+    }
+
+
+    @Test
+    public void addQueueFull() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot(), 2, Long.MAX_VALUE);
+
+        assertThat(spilled.add(request("/1")), is(true));
+        assertThat(spilled.add(request("/2")), is(true));
+        assertThat(spilled.add(request("/3")), is(false));
+        assertThat(spilled.size(), is(2));
+
+        //flushing makes room in the queue again
+        assertThat(spilled.flush(), is(empty()));
+        assertThat(spilled.add(request("/3")), is(true));
+        assertThat(spilled.size(), is(3));
+    }
+
+
+    @Test
+    public void addQueueFullBodyBytes() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot(), Integer.MAX_VALUE, 15);
+
+        //a single request is queued no matter its size
+        assertThat(spilled.add(request("/1", 20)), is(true));
+        assertThat(spilled.add(request("/2", 1)), is(false));
+
+        spilled.flush();
+        assertThat(spilled.add(request("/2", 10)), is(true));
+        assertThat(spilled.add(request("/3", 10)), is(false));
+        assertThat(spilled.size(), is(2));
+    }
+
+
+    @Test
+    public void flushFailure() {
+        //the journal file cannot be created in a non-existing directory
+        final SpilledRequests spilled = new SpilledRequests(new File(this.folder.getRoot(), "missing"));
+        final Request r1 = request("/1");
+        final Request r2 = request("/2");
+        spilled.add(r1);
+        spilled.add(r2);
+
+        //the failed requests are returned and removed from the queue
+        assertThat(spilled.flush(), contains(r1, r2));
+        assertThat(spilled.size(), is(0));
+        assertThat(spilled.snapshot(), is(empty()));
+    }
+
+
+    @Test
+    public void snapshotReadableAfterClear() {
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, request("/1"));
+
+        final List<Request> snapshot = spilled.snapshot();
+        spilled.clear();
+
+        //the snapshot keeps the file open
+        assertThat(snapshot.get(0).getURI().getPath(), is("/1"));
+    }
+
+
+    @Test
+    public void writeAndReadLargeBody() {
+        final byte[] body = new byte[200 * 1024];
+        Arrays.fill(body, (byte) 'x');
+
+        final SpilledRequests spilled = new SpilledRequests(this.folder.getRoot());
+        write(spilled, Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .body(ByteBuffer.wrap(body))
+                .build());
+        write(spilled, request("/2"));
+
+        //large bodies are mapped rather than copied
+        assertThat(spilled.snapshot().get(0).getBodyAsBytes(), is(body));
+        assertThat(spilled.snapshot().get(1).getURI().getPath(), is("/2"));
+    }
+
+
+    private static void write(final SpilledRequests spilled, final Request request) {
+        spilled.add(request);
+        spilled.flush();
+    }
+
+
+    private static Request request(final String path) {
+        return Request.builder().method("GET").requestURI(URI.create("http://localhost" + path)).build();
+    }
+
+
+    private static Request request(final String path, final int bodyLength) {
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost" + path))
+                .body(new byte[bodyLength])
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.stubbing.HttpStub;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+
+public class UnmatchedRequestsTest {
+
+    private static final UnmatchedRequest U1 = unmatched();
+    private static final UnmatchedRequest U2 = unmatched();
+    private static final UnmatchedRequest U3 = unmatched();
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new UnmatchedRequests(-1);
+        fail("capacity cannot be negative");
+    }
+
+
+    @Test
+    public void snapshotEmpty() {
+        assertThat(new UnmatchedRequests(2).snapshot(), is(empty()));
+    }
+
+
+    @Test
+    public void snapshot() {
+        final UnmatchedRequests buffer = new UnmatchedRequests(3);
+        buffer.add(U1);
+        buffer.add(U2);
+
+        assertThat(buffer.snapshot(), contains(U1, U2));
+        assertThat(buffer.getTotalCount(), is(2L));
+    }
+
+
+    @Test
+    public void snapshotOverwritten() {
+        final UnmatchedRequests buffer = new UnmatchedRequests(2);
+        buffer.add(U1);
+        buffer.add(U2);
+        buffer.add(U3);
+
+        //the oldest one has been overwritten
+        assertThat(buffer.snapshot(), contains(U2, U3));
+        assertThat(buffer.getTotalCount(), is(3L));
+    }
+
+
+    @Test
+    public void zeroCapacity() {
+        final UnmatchedRequests buffer = new UnmatchedRequests(0);
+        buffer.add(U1);
+
+        assertThat(buffer.snapshot(), is(empty()));
+        assertThat(buffer.getTotalCount(), is(1L));
+    }
+
+
+    private static UnmatchedRequest unmatched() {
+        return new UnmatchedRequest(mock(Request.class), Collections.<HttpStub>emptyList());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler;
+
+import net.jadler.exception.JadlerException;
+import org.junit.Test;
+
+import javax.xml.xpath.XPathExpression;
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+
+public class XmlDocumentTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<order xmlns=\"urn:orders\" id=\"42\"><item sku=\"a\"/><item sku=\"b\"/><note>á</note></order>";
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compileWrongParam() {
+        XmlDocument.compile("/order[");
+    }
+
+
+    @Test
+    public void evaluate() throws UnsupportedEncodingException {
+        final XmlDocument doc = xml(DOCUMENT);
+
+        assertThat(doc.evaluate("/order/@id"), is("42"));
+        assertThat(doc.evaluate("/order/item[2]/@sku"), is("b"));
+        assertThat(doc.evaluate("count(/order/item)"), is("2"));
+        assertThat(doc.evaluate("/order/note"), is("á"));
+        assertThat(doc.evaluate("/order/unknown"), is(""));
+    }
+
+
+    @Test
+    public void evaluateCompiled() throws UnsupportedEncodingException {
+        final XPathExpression expression = XmlDocument.compile("/order/@id");
+
+        //the compiled expression can be reused
+        assertThat(xml(DOCUMENT).evaluate(expression), is("42"));
+        assertThat(xml("<order id=\"43\"/>").evaluate(expression), is("43"));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateCompiledWrongParam() throws UnsupportedEncodingException {
+        xml(DOCUMENT).evaluate((XPathExpression) null);
+    }
+
+
+    @Test
+    public void evaluateMalformed() throws UnsupportedEncodingException {
+        final XmlDocument doc = xml("<order>");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                doc.evaluate("/order");
+                fail("the document is malformed");
+            } catch (final JadlerException e) {
+                assertThat(e.getMessage(), is("malformed XML request body"));
+            }
+        }
+    }
+
+
+    @Test(expected = JadlerException.class)
+    public void evaluateDoctype() throws UnsupportedEncodingException {
+        xml("<!DOCTYPE order [<!ENTITY e SYSTEM \"file:///etc/passwd\">]><order>&e;</order>").evaluate("/order");
+    }
+
+
+    private static XmlDocument xml(final String document) throws UnsupportedEncodingException {
+        return new XmlDocument(new ByteArrayInputStream(document.getBytes("UTF-8")));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.nio.ByteBuffer;
+
+import static net.jadler.matchers.BinaryBodyRequestMatcher.requestBinaryBody;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class BinaryBodyRequestMatcherTest {
+
+    @Mock
+    private Matcher<ByteBuffer> mockMatcher;
+
+
+    @Test
+    public void retrieveValue() {
+        final ByteBuffer body = ByteBuffer.wrap("Sample body".getBytes()).asReadOnlyBuffer();
+        final Request req = when(mock(Request.class).getDecodedBodyAsBuffer()).thenReturn(body).getMock();
+
+        assertThat(requestBinaryBody(mockMatcher).retrieveValue(req), is(sameInstance(body)));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestBinaryBody(mockMatcher).provideDescription(), is("binary body is"));
+    }
+}
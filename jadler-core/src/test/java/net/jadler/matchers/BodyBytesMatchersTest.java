@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+import static net.jadler.matchers.BodyBytesMatchers.bytesEqualTo;
+import static net.jadler.matchers.BodyBytesMatchers.containingBytes;
+import static net.jadler.matchers.BodyBytesMatchers.havingDigest;
+import static net.jadler.matchers.BodyBytesMatchers.havingLength;
+import static net.jadler.matchers.BodyBytesMatchers.startingWithBytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+
+public class BodyBytesMatchersTest {
+
+    private static final byte[] BODY = {1, 2, 3, 4, 5};
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bytesEqualToWrongParam() {
+        bytesEqualTo(null);
+    }
+
+
+    @Test
+    public void bytesEqualToMatching() {
+        assertThat(bytesEqualTo(BODY).matches(body()), is(true));
+        assertThat(bytesEqualTo(new byte[0]).matches(ByteBuffer.allocate(0)), is(true));
+        assertThat(bytesEqualTo(new byte[]{1, 2, 3, 4}).matches(body()), is(false));
+        assertThat(bytesEqualTo(new byte[]{1, 2, 3, 4, 6}).matches(body()), is(false));
+        assertThat(bytesEqualTo(BODY).matches("string"), is(false));
+    }
+
+
+    @Test
+    public void bytesEqualToCopiesExpected() {
+        final byte[] expected = BODY.clone();
+        final Matcher<ByteBuffer> matcher = bytesEqualTo(expected);
+        expected[0] = 9;
+
+        assertThat(matcher.matches(body()), is(true));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void startingWithBytesWrongParam() {
+        startingWithBytes(null);
+    }
+
+
+    @Test
+    public void startingWithBytesMatching() {
+        assertThat(startingWithBytes(new byte[]{1, 2}).matches(body()), is(true));
+        assertThat(startingWithBytes(new byte[0]).matches(body()), is(true));
+        assertThat(startingWithBytes(BODY).matches(body()), is(true));
+        assertThat(startingWithBytes(new byte[]{2}).matches(body()), is(false));
+        assertThat(startingWithBytes(new byte[]{1, 2, 3, 4, 5, 6}).matches(body()), is(false));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void containingBytesWrongParam() {
+        containingBytes(null);
+    }
+
+
+    @Test
+    public void containingBytesMatching() {
+        assertThat(containingBytes(new byte[]{3, 4}).matches(body()), is(true));
+        assertThat(containingBytes(new byte[]{4, 5}).matches(body()), is(true));
+        assertThat(containingBytes(new byte[0]).matches(body()), is(true));
+        assertThat(containingBytes(new byte[]{5, 6}).matches(body()), is(false));
+        assertThat(containingBytes(new byte[]{3, 5}).matches(body()), is(false));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingDigestWrongParam1() {
+        havingDigest("", new byte[0]);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingDigestWrongParam2() {
+        havingDigest("SHA-256", null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingDigestUnsupportedAlgorithm() {
+        havingDigest("NO-SUCH-DIGEST", new byte[0]);
+    }
+
+
+    @Test
+    public void havingDigestMatching() throws Exception {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(BODY);
+
+        assertThat(havingDigest("SHA-256", digest).matches(body()), is(true));
+        assertThat(havingDigest("SHA-256", new byte[32]).matches(body()), is(false));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void havingLengthWrongParam() {
+        havingLength(null);
+    }
+
+
+    @Test
+    public void havingLengthMatching() {
+        assertThat(havingLength(is(BODY.length)).matches(body()), is(true));
+        assertThat(havingLength(greaterThan(BODY.length)).matches(body()), is(false));
+        assertThat(StringDescription.toString(havingLength(is(5))), is("length is <5>"));
+    }
+
+
+    @Test
+    public void bufferNotModified() {
+        final ByteBuffer body = body();
+        containingBytes(new byte[]{5}).matches(body);
+        havingDigest("MD5", new byte[16]).matches(body);
+
+        assertThat(body.position(), is(0));
+        assertThat(body.remaining(), is(BODY.length));
+    }
+
+
+    @Test
+    public void description() {
+        assertThat(StringDescription.toString(bytesEqualTo(BODY)), is("equal to [0102030405]"));
+        assertThat(StringDescription.toString(containingBytes(new byte[20])),
+                is("containing [00000000000000000000000000000000...]"));
+        assertThat(StringDescription.toString(havingDigest("MD5", new byte[]{(byte) 0xff})),
+                is("MD5 digest equal to [ff]"));
+    }
+
+
+    @Test
+    public void describeMismatch() {
+        final StringDescription desc = new StringDescription();
+        bytesEqualTo(new byte[0]).describeMismatch(body(), desc);
+
+        assertThat(desc.toString(), is("was [0102030405] (5 bytes)"));
+    }
+
+
+    private static ByteBuffer body() {
+        return ByteBuffer.wrap(BODY).asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URI;
+import java.security.MessageDigest;
+
+import static net.jadler.matchers.BodyDigestRequestMatcher.requestBodyDigest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class BodyDigestRequestMatcherTest {
+
+    private static final byte[] BODY = {1, 2, 3, 4, 5};
+
+    @Mock
+    Matcher<byte[]> mockMatcher;
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam1() {
+        requestBodyDigest("", this.mockMatcher);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam2() {
+        requestBodyDigest("NO-SUCH-DIGEST", this.mockMatcher);
+    }
+
+
+    @Test
+    public void retrieveValue() throws Exception {
+        assertThat(requestBodyDigest("SHA-256", this.mockMatcher).retrieveValue(request()),
+                is(MessageDigest.getInstance("SHA-256").digest(BODY)));
+    }
+
+
+    @Test
+    public void matches() throws Exception {
+        final Request req = request();
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(BODY);
+
+        assertThat(requestBodyDigest("SHA-256", equalTo(digest)).matches(req), is(true));
+        assertThat(requestBodyDigest("SHA-256", equalTo(new byte[32])).matches(req), is(false));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestBodyDigest("SHA-256", this.mockMatcher).provideDescription(),
+                is("SHA-256 digest of body is"));
+    }
+
+
+    private static Request request() {
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .body(BODY)
+                .build();
+    }
+}
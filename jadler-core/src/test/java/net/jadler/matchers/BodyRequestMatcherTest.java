@@ -29,16 +29,16 @@ public class BodyRequestMatcherTest {
 
     @Test
     public void retrieveValue() {
-        final Request req = when(mock(Request.class).getBodyAsString()).thenReturn(BODY).getMock();
-        when(req.getBodyAsString()).thenReturn(BODY);
+        final Request req = when(mock(Request.class).getDecodedBodyAsString()).thenReturn(BODY).getMock();
+        when(req.getDecodedBodyAsString()).thenReturn(BODY);
         assertThat(requestBody(mockMatcher).retrieveValue(req), is(BODY));
     }
 
 
     @Test
     public void retrieveValueEmptyBody() {
-        final Request req = when(mock(Request.class).getBodyAsString()).thenReturn("").getMock();
-        when(req.getBodyAsString()).thenReturn("");
+        final Request req = when(mock(Request.class).getDecodedBodyAsString()).thenReturn("").getMock();
+        when(req.getDecodedBodyAsString()).thenReturn("");
         assertThat(requestBody(mockMatcher).retrieveValue(req), is(""));
     }
 
@@ -66,6 +66,16 @@ public class HeaderRequestMatcherTest {
     }
 
 
+    @Test
+    public void retrieveValueCaseInsensitive() {
+        final KeyValues headers = EMPTY.add(HEADER_NAME, HEADER_VALUE1);
+        final Request req = when(mock(Request.class).getHeaders()).thenReturn(headers).getMock();
+
+        assertThat(requestHeader("HEADER1", mockMatcher).retrieveValue(req), contains(HEADER_VALUE1));
+        assertThat(requestHeader("HEADER1", mockMatcher).provideDescription(), is("header \"HEADER1\" is"));
+    }
+
+
     @Test
     public void provideDescription() {
         assertThat(requestHeader(HEADER_NAME, mockMatcher).provideDescription(),
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URI;
+
+import static net.jadler.matchers.JsonValueRequestMatcher.requestJsonValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class JsonValueRequestMatcherTest {
+
+    private static final String POINTER = "/order/id";
+
+    @Mock
+    Matcher<Object> mockMatcher;
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        requestJsonValue("order", this.mockMatcher);
+    }
+
+
+    @Test
+    public void retrieveValue() throws Exception {
+        final Request req = request("{\"order\": {\"id\": 42}}");
+        assertThat(requestJsonValue(POINTER, this.mockMatcher).retrieveValue(req), is((Object) 42));
+    }
+
+
+    @Test
+    public void retrieveValueMissing() throws Exception {
+        final Request req = request("{\"order\": {}}");
+        assertThat(requestJsonValue(POINTER, this.mockMatcher).retrieveValue(req), is(nullValue()));
+    }
+
+
+    @Test
+    public void matches() throws Exception {
+        final Request req = request("{\"order\": {\"id\": 42}}");
+
+        assertThat(requestJsonValue(POINTER, equalTo(42)).matches(req), is(true));
+        assertThat(requestJsonValue(POINTER, equalTo("42")).matches(req), is(false));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestJsonValue(POINTER, this.mockMatcher).provideDescription(),
+                is("JSON value \"" + POINTER + "\" is"));
+    }
+
+
+    private static Request request(final String body) throws Exception {
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .body(body.getBytes("UTF-8"))
+                .build();
+    }
+}
@@ -13,8 +13,10 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static net.jadler.matchers.MethodRequestMatcher.requestMethod;
+import static net.jadler.matchers.MethodRequestMatcher.requestMethodEqualTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -43,4 +45,25 @@ public class MethodRequestMatcherTest {
     public void provideDescription() {
         assertThat(requestMethod(mockMatcher).provideDescription(), is("method is"));
     }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requestMethodEqualToWrongParam() {
+        requestMethodEqualTo("");
+    }
+
+
+    @Test
+    public void requestMethodEqualToLiteral() {
+        final MethodRequestMatcher matcher = requestMethodEqualTo("get");
+
+        assertThat(matcher.getExpectedMethod(), is("get"));
+        assertThat(matcher.matches(this.request), is(true));
+    }
+
+
+    @Test
+    public void getExpectedMethodNotLiteral() {
+        assertThat(requestMethod(mockMatcher).getExpectedMethod(), is(nullValue()));
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URI;
+
+import static net.jadler.matchers.PartRequestMatcher.requestPart;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartRequestMatcherTest {
+
+    private static final String PART_NAME = "field";
+
+    @Mock
+    Matcher<? super String> mockMatcher;
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        requestPart(null, this.mockMatcher);
+    }
+
+
+    @Test
+    public void retrieveValue() throws Exception {
+        assertThat(requestPart(PART_NAME, this.mockMatcher).retrieveValue(request()), is("value"));
+    }
+
+
+    @Test
+    public void retrieveValueNoPart() throws Exception {
+        assertThat(requestPart("unknown", this.mockMatcher).retrieveValue(request()), is(nullValue()));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestPart(PART_NAME, this.mockMatcher).provideDescription(),
+                is("part \"" + PART_NAME + "\" is"));
+    }
+
+
+    private static Request request() throws Exception {
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .header("Content-Type", "multipart/form-data; boundary=b")
+                .body("--b\r\nContent-Disposition: form-data; name=\"field\"\r\n\r\nvalue\r\n--b--".getBytes("UTF-8"))
+                .build();
+    }
+}
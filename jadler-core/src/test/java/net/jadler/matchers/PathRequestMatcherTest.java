@@ -7,16 +7,20 @@ package net.jadler.matchers;
 
 import net.jadler.Request;
 import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.net.URI;
 
 import static net.jadler.matchers.PathRequestMatcher.requestPath;
+import static net.jadler.matchers.PathRequestMatcher.requestPathEqualTo;
+import static net.jadler.matchers.PathRequestMatcher.requestPathPrefix;
+import static net.jadler.matchers.PathRequestMatcher.requestPathTemplate;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -32,14 +36,14 @@ public class PathRequestMatcherTest {
 
     @Test
     public void retrieveValue() throws Exception {
-        final Request req = when(mock(Request.class).getURI()).thenReturn(new URI("http://localhost" + PATH)).getMock();
+        final Request req = when(mock(Request.class).getRawPath()).thenReturn(PATH).getMock();
         assertThat(requestPath(mockMatcher).retrieveValue(req), is(PATH));
     }
 
 
     @Test
     public void retrieveValueRootPath() throws Exception {
-        final Request req = when(mock(Request.class).getURI()).thenReturn(new URI("http://localhost/")).getMock();
+        final Request req = when(mock(Request.class).getRawPath()).thenReturn("/").getMock();
         assertThat(requestPath(mockMatcher).retrieveValue(req), is("/"));
     }
 
@@ -49,4 +53,59 @@ public class PathRequestMatcherTest {
         assertThat(requestPath(mockMatcher).provideDescription(), is("Path is"));
     }
 
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requestPathEqualToWrongParam() {
+        requestPathEqualTo("");
+    }
+
+
+    @Test
+    public void requestPathEqualToLiteral() throws Exception {
+        final Request req = when(mock(Request.class).getRawPath()).thenReturn(PATH).getMock();
+        final PathRequestMatcher matcher = requestPathEqualTo(PATH);
+
+        assertThat(matcher.getExpectedPath(), is(PATH));
+        assertThat(matcher.matches(req), is(true));
+    }
+
+
+    @Test
+    public void getExpectedPathNotLiteral() {
+        assertThat(requestPath(mockMatcher).getExpectedPath(), is(nullValue()));
+    }
+
+
+    @Test
+    public void requestPathTemplateMatching() throws Exception {
+        final Request req = when(mock(Request.class).getRawPath())
+                .thenReturn("/accounts/12/orders").getMock();
+        final PathRequestMatcher matcher = requestPathTemplate("/accounts/{id}/orders");
+
+        assertThat(matcher.getPathTemplate().isPrefix(), is(false));
+        assertThat(matcher.getExpectedPath(), is(nullValue()));
+        assertThat(matcher.matches(req), is(true));
+        assertThat(requestPathTemplate("/accounts/{id}").matches(req), is(false));
+        assertThat(StringDescription.toString(matcher), is("Path is matching template \"/accounts/{id}/orders\""));
+    }
+
+
+    @Test
+    public void requestPathPrefixMatching() throws Exception {
+        final Request req = when(mock(Request.class).getRawPath())
+                .thenReturn("/accounts/12/orders").getMock();
+        final PathRequestMatcher matcher = requestPathPrefix("/accounts/{id}");
+
+        assertThat(matcher.getPathTemplate().isPrefix(), is(true));
+        assertThat(matcher.matches(req), is(true));
+        assertThat(requestPathPrefix("/orders").matches(req), is(false));
+        assertThat(StringDescription.toString(matcher), is("Path is starting with segments \"/accounts/{id}\""));
+    }
+
+
+    @Test
+    public void getPathTemplateNotTemplate() {
+        assertThat(requestPath(mockMatcher).getPathTemplate(), is(nullValue()));
+        assertThat(requestPathEqualTo(PATH).getPathTemplate(), is(nullValue()));
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+
+public class PathTemplateTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactWrongParam1() {
+        PathTemplate.exact("");
+        fail("template cannot be empty");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactWrongParam2() {
+        PathTemplate.exact("accounts");
+        fail("template must start with /");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactWrongParam3() {
+        PathTemplate.exact("/accounts/{}");
+        fail("variable name cannot be empty");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactWrongParam4() {
+        PathTemplate.exact("/accounts/{id}/orders/{id}");
+        fail("duplicate variable name");
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactWrongParam5() {
+        PathTemplate.exact("/accounts/id-{id}");
+        fail("a variable must span the whole segment");
+    }
+
+
+    @Test
+    public void segments() {
+        final PathTemplate template = PathTemplate.exact("/accounts/{id}/orders/{orderId}");
+
+        assertThat(template.getSegments(), contains("accounts", null, "orders", null));
+        assertThat(template.getVariableNames(), contains("id", "orderId"));
+        assertThat(template.isPrefix(), is(false));
+        assertThat(template.toString(), is("/accounts/{id}/orders/{orderId}"));
+    }
+
+
+    @Test
+    public void matchExact() {
+        final PathTemplate template = PathTemplate.exact("/accounts/{id}/orders/{orderId}");
+
+        final Map<String, String> vars = template.match("/accounts/12/orders/a%20b");
+        assertThat(vars, hasEntry("id", "12"));
+        assertThat(vars, hasEntry("orderId", "a%20b"));
+
+        assertThat(template.match("/accounts/12/orders"), is(nullValue()));
+        assertThat(template.match("/accounts/12/orders/1/2"), is(nullValue()));
+        assertThat(template.match("/accounts//orders/1"), is(nullValue()));
+        assertThat(template.match("/account/12/orders/1"), is(nullValue()));
+        assertThat(template.match(null), is(nullValue()));
+    }
+
+
+    @Test
+    public void matchExactNoVariables() {
+        assertThat(PathTemplate.exact("/a/b").match("/a/b").isEmpty(), is(true));
+        assertThat(PathTemplate.exact("/a/b").match("/a/b/"), is(nullValue()));
+        assertThat(PathTemplate.exact("/").match("/").isEmpty(), is(true));
+        assertThat(PathTemplate.exact("/").match("/a"), is(nullValue()));
+    }
+
+
+    @Test
+    public void matchPrefix() {
+        final PathTemplate template = PathTemplate.prefix("/static/");
+
+        assertThat(template.isPrefix(), is(true));
+        assertThat(template.getSegments(), contains("static"));
+        assertThat(template.match("/static"), is(Collections.<String, String>emptyMap()));
+        assertThat(template.match("/static/"), is(Collections.<String, String>emptyMap()));
+        assertThat(template.match("/static/css/main.css"), is(Collections.<String, String>emptyMap()));
+        assertThat(template.match("/statics"), is(nullValue()));
+        assertThat(template.match("/"), is(nullValue()));
+
+        assertThat(PathTemplate.prefix("/accounts/{id}").match("/accounts/12/orders"), hasEntry("id", "12"));
+    }
+
+
+    @Test
+    public void matchRootPrefix() {
+        final PathTemplate template = PathTemplate.prefix("/");
+
+        assertThat(template.getSegments(), is(empty()));
+        assertThat(template.match("/").isEmpty(), is(true));
+        assertThat(template.match("/a/b").isEmpty(), is(true));
+    }
+
+
+    @Test
+    public void bind() {
+        final PathTemplate template = PathTemplate.exact("/accounts/{id}/orders/{orderId}");
+        final Map<String, String> vars = template.bind(Arrays.asList("1", "2"));
+
+        assertThat(vars, hasEntry("id", "1"));
+        assertThat(vars, hasEntry("orderId", "2"));
+    }
+
+
+    @Test
+    public void splitPath() {
+        assertThat(PathTemplate.splitPath("/"), is(new String[0]));
+        assertThat(PathTemplate.splitPath("/a//b/"), is(new String[]{"a", "", "b", ""}));
+    }
+}
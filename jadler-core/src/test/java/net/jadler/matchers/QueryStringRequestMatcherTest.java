@@ -12,7 +12,6 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.net.URI;
 
 import static net.jadler.matchers.QueryStringRequestMatcher.requestQueryString;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -34,22 +33,22 @@ public class QueryStringRequestMatcherTest {
 
     @Test
     public void retrieveValue() throws Exception {
-        final Request req = when(mock(Request.class).getURI())
-                .thenReturn(new URI("http://localhost?" + QUERY)).getMock();
+        final Request req = when(mock(Request.class).getRawQuery())
+                .thenReturn(QUERY).getMock();
         assertThat(requestQueryString(mockMatcher).retrieveValue(req), is(QUERY));
     }
 
 
     @Test
     public void retrieveValueNoQueryString() throws Exception {
-        final Request req = when(mock(Request.class).getURI()).thenReturn(new URI("http://localhost")).getMock();
+        final Request req = when(mock(Request.class).getRawQuery()).thenReturn(null).getMock();
         assertThat(requestQueryString(mockMatcher).retrieveValue(req), is(nullValue()));
     }
 
 
     @Test
     public void retrieveValueEmptyQueryString() throws Exception {
-        final Request req = when(mock(Request.class).getURI()).thenReturn(new URI("http://localhost/?")).getMock();
+        final Request req = when(mock(Request.class).getRawQuery()).thenReturn("").getMock();
         assertThat(requestQueryString(mockMatcher).retrieveValue(req), is(emptyString()));
     }
 
@@ -11,8 +11,6 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.io.ByteArrayInputStream;
-
 import static net.jadler.matchers.RawBodyRequestMatcher.requestRawBody;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -32,8 +30,8 @@ public class RawBodyRequestMatcherTest {
     @Test
     public void retrieveValue() throws Exception {
         final Request req =
-                when(mock(Request.class).getBodyAsStream())
-                        .thenReturn(new ByteArrayInputStream(BODY.getBytes()))
+                when(mock(Request.class).getDecodedBodyAsBytes())
+                        .thenReturn(BODY.getBytes())
                         .getMock();
 
         assertThat(requestRawBody(mockMatcher).retrieveValue(req), is(BODY.getBytes()));
@@ -43,8 +41,8 @@ public class RawBodyRequestMatcherTest {
     @Test
     public void retrieveValueEmptyBody() throws Exception {
         final Request req =
-                when(mock(Request.class).getBodyAsStream())
-                        .thenReturn(new ByteArrayInputStream(new byte[0]))
+                when(mock(Request.class).getDecodedBodyAsBytes())
+                        .thenReturn(new byte[0])
                         .getMock();
 
         assertThat(requestRawBody(mockMatcher).retrieveValue(req), is(new byte[0]));
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+import static net.jadler.matchers.BodyBytesMatchers.bytesEqualTo;
+import static net.jadler.matchers.BodyBytesMatchers.havingLength;
+import static net.jadler.matchers.RawPartRequestMatcher.requestRawPart;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class RawPartRequestMatcherTest {
+
+    private static final String PART_NAME = "file";
+
+    @Mock
+    Matcher<? super ByteBuffer> mockMatcher;
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        requestRawPart(null, this.mockMatcher);
+    }
+
+
+    @Test
+    public void retrieveValue() throws Exception {
+        final ByteBuffer value = requestRawPart(PART_NAME, this.mockMatcher).retrieveValue(request());
+
+        assertThat(value.isReadOnly(), is(true));
+        assertThat(bytesEqualTo(new byte[]{1, 2, 3}).matches(value), is(true));
+    }
+
+
+    @Test
+    public void retrieveValueNoPart() throws Exception {
+        assertThat(requestRawPart("unknown", this.mockMatcher).retrieveValue(request()), is(nullValue()));
+    }
+
+
+    @Test
+    public void matches() throws Exception {
+        assertThat(requestRawPart(PART_NAME, havingLength(is(3))).matches(request()), is(true));
+        assertThat(requestRawPart("unknown", havingLength(is(3))).matches(request()), is(false));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestRawPart(PART_NAME, this.mockMatcher).provideDescription(),
+                is("raw part \"" + PART_NAME + "\" is"));
+    }
+
+
+    private static Request request() throws Exception {
+        final byte[] head = "--b\r\nContent-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n\r\n"
+                .getBytes("UTF-8");
+        final byte[] tail = "\r\n--b--".getBytes("UTF-8");
+
+        final ByteBuffer body = ByteBuffer.allocate(head.length + 3 + tail.length);
+        body.put(head).put(new byte[]{1, 2, 3}).put(tail).flip();
+
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .header("Content-Type", "multipart/form-data; boundary=b")
+                .body(body)
+                .build();
+    }
+}
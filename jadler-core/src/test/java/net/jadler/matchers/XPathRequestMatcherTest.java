@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.matchers;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.net.URI;
+
+import static net.jadler.matchers.XPathRequestMatcher.requestXPath;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+
+@RunWith(MockitoJUnitRunner.class)
+public class XPathRequestMatcherTest {
+
+    private static final String EXPRESSION = "/order/id";
+
+    @Mock
+    Matcher<? super String> mockMatcher;
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        requestXPath("/order[", this.mockMatcher);
+    }
+
+
+    @Test
+    public void retrieveValue() throws Exception {
+        final Request req = request("<order><id>42</id></order>");
+        assertThat(requestXPath(EXPRESSION, this.mockMatcher).retrieveValue(req), is("42"));
+    }
+
+
+    @Test
+    public void retrieveValueNoNode() throws Exception {
+        final Request req = request("<order/>");
+        assertThat(requestXPath(EXPRESSION, this.mockMatcher).retrieveValue(req), is(""));
+    }
+
+
+    @Test
+    public void matches() throws Exception {
+        final Request req = request("<order><id>42</id></order>");
+
+        assertThat(requestXPath(EXPRESSION, equalTo("42")).matches(req), is(true));
+        assertThat(requestXPath(EXPRESSION, equalTo("43")).matches(req), is(false));
+    }
+
+
+    @Test
+    public void matchesMultipleRequests() throws Exception {
+        final XPathRequestMatcher matcher = requestXPath(EXPRESSION, equalTo("42"));
+
+        assertThat(matcher.matches(request("<order><id>42</id></order>")), is(true));
+        assertThat(matcher.matches(request("<order><id>43</id></order>")), is(false));
+        assertThat(matcher.matches(request("<order><id>42</id></order>")), is(true));
+    }
+
+
+    @Test
+    public void provideDescription() {
+        assertThat(requestXPath(EXPRESSION, this.mockMatcher).provideDescription(),
+                is("XPath \"" + EXPRESSION + "\" is"));
+    }
+
+
+    private static Request request(final String body) throws Exception {
+        return Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .body(body.getBytes("UTF-8"))
+                .build();
+    }
+}
@@ -5,6 +5,7 @@
 package net.jadler.mocking;
 
 import net.jadler.Request;
+import net.jadler.RequestCounter;
 import net.jadler.RequestManager;
 import org.hamcrest.Matcher;
 import org.hamcrest.core.IsEqual;
@@ -17,6 +18,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
@@ -24,6 +26,8 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -154,4 +158,93 @@ public class VerifyingTest {
     public void receivedNever_negative() {
         new Verifying(requestManager).receivedNever();
     }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void register() {
+        final Matcher<Request> m1 = mock(Matcher.class);
+        final Collection<Matcher<? super Request>> matchers = Arrays.<Matcher<? super Request>>asList(m1);
+        final RequestCounter counter = mock(RequestCounter.class);
+        final Matcher<Integer> pred = mock(Matcher.class);
+
+        when(this.requestManager.registerVerification(eq(matchers))).thenReturn(counter);
+
+        final Verifying v = new Verifying(requestManager).that(m1).register();
+        v.receivedTimes(pred);
+
+        //the registered counter is used instead of evaluating the predicates again
+        verify(this.requestManager).evaluateRegisteredVerification(counter, pred);
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void registerTwice() {
+        when(this.requestManager.registerVerification(Mockito.<Matcher<? super Request>>anyCollection()))
+                .thenReturn(mock(RequestCounter.class));
+
+        new Verifying(requestManager).register().register();
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    @SuppressWarnings("unchecked")
+    public void thatAfterRegister() {
+        when(this.requestManager.registerVerification(Mockito.<Matcher<? super Request>>anyCollection()))
+                .thenReturn(mock(RequestCounter.class));
+
+        new Verifying(requestManager).register().that(mock(Matcher.class));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void receivedInAnyWindow() {
+        final Matcher<Request> m1 = mock(Matcher.class);
+        final Collection<Matcher<? super Request>> matchers = Arrays.<Matcher<? super Request>>asList(m1);
+        final Matcher<Integer> pred = mock(Matcher.class);
+
+        new Verifying(requestManager).that(m1).receivedInAnyWindow(2, TimeUnit.SECONDS, pred);
+
+        verify(this.requestManager).evaluateWindowedVerification(eq(matchers), eq(2000000000L), eq(pred));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void receivedInAnyWindowIllegalArg1() {
+        new Verifying(requestManager).receivedInAnyWindow(0, TimeUnit.SECONDS, mock(Matcher.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void receivedInAnyWindowIllegalArg2() {
+        new Verifying(requestManager).receivedInAnyWindow(1, null, mock(Matcher.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void receivedInAnyWindowIllegalArg3() {
+        new Verifying(requestManager).receivedInAnyWindow(1, TimeUnit.SECONDS, null);
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void receivedAtMost() {
+        final Matcher<Request> m1 = mock(Matcher.class);
+        final Collection<Matcher<? super Request>> matchers = Arrays.<Matcher<? super Request>>asList(m1);
+
+        new Verifying(requestManager).that(m1).receivedAtMost(5, 100, TimeUnit.MILLISECONDS);
+
+        verify(this.requestManager).evaluateWindowedVerification(eq(matchers), eq(100000000L),
+                Mockito.<Matcher<Integer>>any());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void receivedAtMostIllegalArg() {
+        new Verifying(requestManager).receivedAtMost(-1, 1, TimeUnit.SECONDS);
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import net.jadler.Request;
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static net.jadler.matchers.MethodRequestMatcher.requestMethodEqualTo;
+import static net.jadler.matchers.PathRequestMatcher.requestPath;
+import static net.jadler.matchers.PathRequestMatcher.requestPathEqualTo;
+import static net.jadler.matchers.PathRequestMatcher.requestPathPrefix;
+import static net.jadler.matchers.PathRequestMatcher.requestPathTemplate;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class HttpStubIndexTest {
+
+    private static final Request GET_A = request("GET", "/a");
+    private static final Request POST_A = request("POST", "/a");
+    private static final Request GET_B = request("GET", "/b");
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new HttpStubIndex(null);
+        fail("stubs cannot be null");
+    }
+
+
+    @Test
+    public void emptyIndex() {
+        assertThat(HttpStubIndex.EMPTY.getStubs(), is(empty()));
+        assertThat(HttpStubIndex.EMPTY.findMatching(GET_A), is(nullValue()));
+    }
+
+
+    @Test
+    public void getStubs() {
+        final HttpStub s1 = stub(requestMethodEqualTo("GET"));
+        final HttpStub s2 = stub();
+        final HttpStub s3 = stub(requestPathEqualTo("/a"));
+
+        assertThat(new HttpStubIndex(Arrays.asList(s1, s2, s3)).getStubs(), contains(s1, s2, s3));
+    }
+
+
+    @Test
+    public void findMatchingByMethodAndPath() {
+        final HttpStub getA = stub(requestMethodEqualTo("GET"), requestPathEqualTo("/a"));
+        final HttpStub postA = stub(requestMethodEqualTo("post"), requestPathEqualTo("/a"));
+        final HttpStub getB = stub(requestPathEqualTo("/b"), requestMethodEqualTo("GET"));
+
+        final HttpStubIndex index = new HttpStubIndex(Arrays.asList(getA, postA, getB));
+
+        assertThat(index.findMatching(GET_A), is(sameInstance(getA)));
+        assertThat(index.findMatching(POST_A), is(sameInstance(postA)));
+        assertThat(index.findMatching(GET_B), is(sameInstance(getB)));
+        assertThat(index.findMatching(request("PUT", "/a")), is(nullValue()));
+    }
+
+
+    @Test
+    public void findMatchingLastRegisteredWins() {
+        final HttpStub residual = stub();
+        final HttpStub byMethodAndPath = stub(requestMethodEqualTo("GET"), requestPathEqualTo("/a"));
+        final HttpStub byPath = stub(requestPathEqualTo("/a"));
+        final HttpStub byMethod = stub(requestMethodEqualTo("GET"));
+
+        //the stub registered as the last one wins regardless of the bucket it's stored in
+        assertThat(new HttpStubIndex(Arrays.asList(residual, byMethodAndPath, byPath, byMethod))
+                .findMatching(GET_A), is(sameInstance(byMethod)));
+        assertThat(new HttpStubIndex(Arrays.asList(byMethod, byPath, byMethodAndPath, residual))
+                .findMatching(GET_A), is(sameInstance(residual)));
+        assertThat(new HttpStubIndex(Arrays.asList(byMethod, residual, byMethodAndPath, byPath))
+                .findMatching(GET_A), is(sameInstance(byPath)));
+        assertThat(new HttpStubIndex(Arrays.asList(byMethod, residual, byPath, byMethodAndPath))
+                .findMatching(GET_A), is(sameInstance(byMethodAndPath)));
+    }
+
+
+    @Test
+    public void findMatchingResidual() {
+        final HttpStub indexed = stub(requestMethodEqualTo("GET"), requestPathEqualTo("/a"));
+        final HttpStub residual = stub(requestPath(startsWith("/b")));
+
+        final HttpStubIndex index = new HttpStubIndex(Arrays.asList(residual, indexed));
+
+        assertThat(index.findMatching(GET_A), is(sameInstance(indexed)));
+        assertThat(index.findMatching(GET_B), is(sameInstance(residual)));
+        assertThat(index.findMatching(request("GET", "/c")), is(nullValue()));
+    }
+
+
+    @Test
+    public void findMatchingSkipsOtherBuckets() {
+        final HttpStub other = mock(HttpStub.class);
+        when(other.getIndexedMethod()).thenReturn("POST");
+        when(other.getIndexedPath()).thenReturn("/a");
+
+        final HttpStub matching = stub(requestMethodEqualTo("GET"));
+
+        final HttpStubIndex index = new HttpStubIndex(Arrays.asList(matching, other));
+
+        assertThat(index.findMatching(GET_A), is(sameInstance(matching)));
+        //the stub requiring the POST method must not be evaluated at all
+        verify(other, never()).matches(GET_A);
+    }
+
+
+    @Test
+    public void findMatchingNotIndexed() {
+        //no stub is indexed so neither the method nor the URI of the request is needed
+        final Request req = mock(Request.class);
+        final HttpStub stub = stub();
+
+        assertThat(new HttpStubIndex(Collections.singletonList(stub)).findMatching(req), is(sameInstance(stub)));
+    }
+
+
+    @Test
+    public void findMatchByPathTemplate() {
+        final HttpStub account = stub(requestMethodEqualTo("GET"), requestPathTemplate("/accounts/{id}"));
+        final HttpStub orders = stub(requestPathTemplate("/accounts/{id}/orders/{orderId}"));
+        final HttpStub statics = stub(requestPathPrefix("/static"));
+
+        final HttpStubIndex index = new HttpStubIndex(Arrays.asList(account, orders, statics));
+
+        final HttpStubIndex.Match match = index.findMatch(request("GET", "/accounts/12/orders/3"));
+        assertThat(match.getStub(), is(sameInstance(orders)));
+        assertThat(match.getRequest().getPathVariables(), hasEntry("id", "12"));
+        assertThat(match.getRequest().getPathVariables(), hasEntry("orderId", "3"));
+
+        assertThat(index.findMatch(request("GET", "/accounts/12")).getStub(), is(sameInstance(account)));
+        assertThat(index.findMatch(request("POST", "/accounts/12")), is(nullValue()));
+        assertThat(index.findMatching(request("GET", "/static/a/b.css")), is(sameInstance(statics)));
+
+        //no variables, the very same request is provided
+        final Request req = request("GET", "/static");
+        assertThat(index.findMatch(req).getRequest(), is(sameInstance(req)));
+    }
+
+
+    @Test
+    public void findMatchByPathTemplateLastRegisteredWins() {
+        final HttpStub literal = stub(requestPathEqualTo("/accounts/12"));
+        final HttpStub template = stub(requestPathTemplate("/accounts/{id}"));
+        final HttpStub prefix = stub(requestPathPrefix("/accounts"));
+
+        assertThat(new HttpStubIndex(Arrays.asList(literal, template, prefix))
+                .findMatching(request("GET", "/accounts/12")), is(sameInstance(prefix)));
+        assertThat(new HttpStubIndex(Arrays.asList(prefix, template, literal))
+                .findMatching(request("GET", "/accounts/12")), is(sameInstance(literal)));
+        assertThat(new HttpStubIndex(Arrays.asList(prefix, literal, template))
+                .findMatch(request("GET", "/accounts/12")).getRequest().getPathVariables(), hasEntry("id", "12"));
+    }
+
+
+    @SafeVarargs
+    private static HttpStub stub(final Matcher<? super Request>... predicates) {
+        return new HttpStub(Arrays.<Matcher<? super Request>>asList(predicates), new Responder() {
+            @Override
+            public StubResponse nextResponse(final Request request) {
+                return StubResponse.EMPTY;
+            }
+        });
+    }
+
+
+    private static Request request(final String method, final String path) {
+        return Request.builder().method(method).requestURI(URI.create("http://localhost" + path)).build();
+    }
+}
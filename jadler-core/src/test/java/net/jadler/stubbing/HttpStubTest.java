@@ -14,6 +14,10 @@ import org.mockito.stubbing.Answer;
 import java.util.Arrays;
 import java.util.Collections;
 
+import static net.jadler.matchers.BodyDigestRequestMatcher.requestBodyDigest;
+import static net.jadler.matchers.BodyRequestMatcher.requestBody;
+import static net.jadler.matchers.MethodRequestMatcher.requestMethodEqualTo;
+import static net.jadler.matchers.PathRequestMatcher.requestPathEqualTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anything;
 import static org.hamcrest.Matchers.is;
@@ -23,6 +27,8 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -68,6 +74,66 @@ public class HttpStubTest {
     }
 
 
+    @Test
+    public void matchesCheapPredicatesFirst() {
+        final Request req = mock(Request.class);
+        when(req.getMethod()).thenReturn("POST");
+
+        @SuppressWarnings("unchecked") final Matcher<String> bodyPred = mock(Matcher.class);
+        @SuppressWarnings("unchecked") final Matcher<Object> custom = mock(Matcher.class);
+
+        //the body and custom predicates are declared first, however the method predicate must be evaluated first
+        final HttpStub rule = new HttpStub(Arrays.<Matcher<? super Request>>asList(
+                custom, requestBody(bodyPred), requestPathEqualTo("/"), requestMethodEqualTo("GET")),
+                DUMMY_RESPONSE_PRODUCER);
+
+        assertThat(rule.matches(req), is(false));
+        verify(bodyPred, never()).matches(any());
+        verify(custom, never()).matches(any());
+        verify(req, never()).getRawPath();
+    }
+
+
+    @Test
+    public void matchesBodyDigestBeforeOtherBodyPredicates() {
+        final Request req = mock(Request.class);
+        when(req.getBodyDigest("SHA-256")).thenReturn(new byte[]{1, 2, 3});
+
+        @SuppressWarnings("unchecked") final Matcher<String> bodyPred = mock(Matcher.class);
+        @SuppressWarnings("unchecked") final Matcher<Object> custom = mock(Matcher.class);
+        @SuppressWarnings("unchecked") final Matcher<byte[]> digestPred = mock(Matcher.class);
+        when(digestPred.matches(any())).thenReturn(false);
+
+        //the digest predicate is declared last, however it must be evaluated before the string body and custom ones
+        final HttpStub rule = new HttpStub(Arrays.<Matcher<? super Request>>asList(
+                custom, requestBody(bodyPred), requestBodyDigest("SHA-256", digestPred)),
+                DUMMY_RESPONSE_PRODUCER);
+
+        assertThat(rule.matches(req), is(false));
+        verify(digestPred).matches(any());
+        verify(bodyPred, never()).matches(any());
+        verify(custom, never()).matches(any());
+    }
+
+
+    @Test
+    public void evaluationCounters() {
+        final HttpStub rule = new HttpStub(
+                Arrays.<Matcher<? super Request>>asList(anything(), not(anything()), anything()),
+                DUMMY_RESPONSE_PRODUCER);
+
+        assertThat(rule.getMatchEvaluationsCount(), is(0L));
+        assertThat(rule.getPredicateEvaluationsCount(), is(0L));
+
+        rule.matches(mock(Request.class));
+        rule.matches(mock(Request.class));
+
+        //the evaluation stops after the second predicate
+        assertThat(rule.getMatchEvaluationsCount(), is(2L));
+        assertThat(rule.getPredicateEvaluationsCount(), is(4L));
+    }
+
+
     @Test
     public void describeMismatch() {
         final Request req = mock(Request.class);
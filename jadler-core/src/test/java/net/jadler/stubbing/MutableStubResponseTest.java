@@ -10,14 +10,20 @@ import org.apache.commons.collections.map.MultiValueMap;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
 
 
 public class MutableStubResponseTest {
@@ -68,6 +74,71 @@ public class MutableStubResponseTest {
     }
 
 
+    @Test
+    public void setBodyFile() {
+        final Path file = Paths.get("body.bin");
+        this.msr.setBody(STRING_BODY);
+        this.msr.setBody(file);  //this must reset the STRING_BODY
+
+        assertThat(this.msr.getStringBody(), is(nullValue()));
+        assertThat(this.msr.getFileBody(), is(file));
+        assertThat(this.msr.getChannelBody(), is(nullValue()));
+    }
+
+
+    @Test
+    public void setBodyFileChannel() {
+        final FileChannel channel = mock(FileChannel.class);
+        this.msr.setBody(Paths.get("body.bin"));
+        this.msr.setBody(channel);  //this must reset the file
+
+        assertThat(this.msr.getFileBody(), is(nullValue()));
+        assertThat(this.msr.getChannelBody(), is(channel));
+
+        this.msr.setBody(BYTES_BODY);  //this must reset the channel
+        assertThat(this.msr.getChannelBody(), is(nullValue()));
+        assertThat(this.msr.getRawBody(), is(BYTES_BODY));
+    }
+
+
+    @Test
+    public void addChunk() {
+        this.msr.setBody(STRING_BODY);
+        this.msr.addChunk(STRING_BODY);  //this must reset the STRING_BODY
+        this.msr.addChunk(BYTES_BODY);
+        this.msr.setEncoding(CHARSET);
+        this.msr.setChunkInterval(DELAY);
+
+        assertThat(this.msr.getStringBody(), is(nullValue()));
+        assertThat(this.msr.getChunkInterval(), is(DELAY));
+
+        final StubResponse resp = this.msr.toStubResponse();
+        assertThat(resp.isStreaming(), is(true));
+        assertThat(resp.getChunks(), contains(STRING_BODY.getBytes(CHARSET), BYTES_BODY));
+        assertThat(resp.getChunkInterval(), is(DELAY));
+
+        this.msr.setBody(BYTES_BODY);  //this must reset the chunks
+        assertThat(this.msr.toStubResponse().isStreaming(), is(false));
+    }
+
+
+    @Test
+    public void setChunks() {
+        final Iterable<byte[]> chunks = Collections.singletonList(BYTES_BODY);
+        this.msr.addChunk(STRING_BODY);
+        this.msr.setChunks(chunks);  //this must reset the chunks added before
+
+        assertThat(this.msr.toStubResponse().getChunks(), is(chunks));
+    }
+
+
+    @Test(expected = IllegalStateException.class)
+    public void toStubResponseChunkEncodingNotSet() {
+        this.msr.addChunk(STRING_BODY);
+        this.msr.toStubResponse();
+    }
+
+
     @Test
     @SuppressWarnings("unchecked")
     public void addHeader() {
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import net.jadler.matchers.PathTemplate;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+
+public class PathTemplateTrieTest {
+
+    @Test
+    public void emptyTrie() {
+        final PathTemplateTrie trie = new PathTemplateTrie();
+
+        assertThat(trie.isEmpty(), is(true));
+        assertThat(trie.candidates("/a"), is(empty()));
+    }
+
+
+    @Test
+    public void candidates() {
+        final PathTemplateTrie trie = new PathTemplateTrie();
+        trie.add(PathTemplate.exact("/accounts/{id}"), 3);
+        trie.add(PathTemplate.exact("/accounts/{accountId}/orders"), 1);
+        trie.add(PathTemplate.exact("/accounts/current/orders"), 0);
+        trie.add(PathTemplate.prefix("/accounts"), 2);
+        trie.add(PathTemplate.prefix("/"), 4);
+
+        assertThat(trie.isEmpty(), is(false));
+
+        final List<PathTemplateTrie.Candidate> candidates = trie.candidates("/accounts/current/orders");
+        //sorted by position, templates requiring a different number of segments are skipped
+        assertThat(candidates, hasSize(4));
+        assertThat(candidates.get(0).getPosition(), is(0));
+        assertThat(candidates.get(0).getVariables().isEmpty(), is(true));
+        assertThat(candidates.get(1).getPosition(), is(1));
+        assertThat(candidates.get(1).getVariables(), hasEntry("accountId", "current"));
+        assertThat(candidates.get(2).getPosition(), is(2));
+        assertThat(candidates.get(3).getPosition(), is(4));
+
+        final List<PathTemplateTrie.Candidate> accounts = trie.candidates("/accounts/12");
+        assertThat(accounts, hasSize(3));
+        assertThat(accounts.get(1).getPosition(), is(3));
+        assertThat(accounts.get(1).getVariables(), hasEntry("id", "12"));
+
+        assertThat(trie.candidates("/orders"), hasSize(1));
+        assertThat(trie.candidates(null), is(empty()));
+    }
+}
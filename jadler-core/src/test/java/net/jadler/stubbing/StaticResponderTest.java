@@ -51,6 +51,27 @@ public class StaticResponderTest {
     }
 
 
+    @Test
+    public void nextResponseServed() {
+        final StubResponse r1 = StubResponse.builder().build();
+        final StubResponse r2 = StubResponse.builder().build();
+        final StubResponse r3 = StubResponse.builder().build();
+
+        //continues after the responses served by a replaced responder
+        final StaticResponder producer = new StaticResponder(Arrays.asList(r1, r2, r3), 2);
+        assertThat(producer.nextResponse(null), is(r3));
+        assertThat(producer.getServedCount(), is(3));
+        assertThat(producer.nextResponse(null), is(r3));
+        assertThat(producer.getServedCount(), is(3));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongServed() {
+        new StaticResponder(Collections.singletonList(StubResponse.EMPTY), -1);
+    }
+
+
     @Test
     public void testToString() {
         final StubResponse r1 = mock(StubResponse.class);
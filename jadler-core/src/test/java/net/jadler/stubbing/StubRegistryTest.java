@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing;
+
+import net.jadler.Request;
+import org.apache.commons.collections.map.MultiValueMap;
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+
+public class StubRegistryTest {
+
+    private static final Request REQUEST = Request.builder()
+            .method("GET")
+            .requestURI(URI.create("http://localhost/a"))
+            .build();
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addWrongParam() {
+        new StubRegistry().add(null);
+        fail("stubbing cannot be null");
+    }
+
+
+    @Test
+    public void notPublished() {
+        final StubRegistry registry = new StubRegistry();
+        final Stubbing stubbing = stubbing();
+        registry.add(stubbing);
+        stubbing.respond().withStatus(201);
+
+        //nothing is published until the publish method is called
+        assertThat(registry.getSnapshot().getStubs(), is(empty()));
+
+        registry.publish();
+        assertThat(statusFor(registry), is(201));
+    }
+
+
+    @Test
+    public void publishedLive() {
+        final StubRegistry registry = new StubRegistry();
+        registry.publish();
+
+        final Stubbing stubbing = stubbing();
+        registry.add(stubbing);
+        registry.publishChanges();
+        //no response has been defined yet, so the stubbing is not published
+        assertThat(registry.getSnapshot().getStubs(), is(empty()));
+
+        stubbing.respond().withStatus(201);
+        //the fluent calls don't publish anything
+        assertThat(registry.getSnapshot().getStubs(), is(empty()));
+        registry.publishChanges();
+        assertThat(statusFor(registry), is(201));
+
+        stubbing.withStatus(202);
+        registry.publishChanges();
+        assertThat(statusFor(registry), is(202));
+
+        //a predicate added later is taken into account too
+        stubbing.havingPathEqualTo("/b");
+        registry.publishChanges();
+        assertThat(registry.getSnapshot().findMatching(REQUEST), is(nullValue()));
+    }
+
+
+    @Test
+    public void publishChangesOnce() {
+        final StubRegistry registry = new StubRegistry();
+        registry.publish();
+
+        final Stubbing stubbing = stubbing();
+        registry.add(stubbing);
+        stubbing.respond().withStatus(201).withHeader("h", "v");
+        registry.publishChanges();
+        final HttpStubIndex snapshot = registry.getSnapshot();
+
+        //nothing has changed since, the very same snapshot is kept
+        registry.publishChanges();
+        assertThat(registry.getSnapshot(), is(sameInstance(snapshot)));
+    }
+
+
+    @Test
+    public void sequenceKeptWhenRecompiled() {
+        final StubRegistry registry = new StubRegistry();
+        final Stubbing stubbing = stubbing();
+        stubbing.respond().withStatus(201).thenRespond().withStatus(202);
+        registry.add(stubbing);
+        registry.publish();
+
+        assertThat(statusFor(registry), is(201));
+        assertThat(statusFor(registry), is(202));
+        assertThat(statusFor(registry), is(202));
+
+        //the recompiled rule continues in the sequence
+        stubbing.thenRespond().withStatus(203);
+        registry.publishChanges();
+        assertThat(statusFor(registry), is(203));
+        assertThat(statusFor(registry), is(203));
+    }
+
+
+    @Test
+    public void unchangedRulesReused() {
+        final StubRegistry registry = new StubRegistry();
+        final Stubbing first = stubbing();
+        first.respond();
+        registry.add(first);
+        registry.publish();
+
+        final HttpStub rule = registry.getSnapshot().getStubs().get(0);
+
+        final Stubbing second = stubbing();
+        registry.add(second);
+        second.respond();
+        registry.publishChanges();
+
+        final HttpStubIndex snapshot = registry.getSnapshot();
+        assertThat(snapshot.getStubs(), hasSize(2));
+        assertThat(snapshot.getStubs().get(0), is(sameInstance(rule)));
+    }
+
+
+    @Test
+    public void remove() {
+        final StubRegistry registry = new StubRegistry();
+        final Stubbing first = stubbing();
+        first.respond().withStatus(201);
+        final Stubbing second = stubbing();
+        second.respond().withStatus(202);
+
+        registry.add(first);
+        registry.add(second);
+        registry.publish();
+        assertThat(statusFor(registry), is(202));
+
+        final HttpStubIndex previous = registry.getSnapshot();
+
+        assertThat(registry.remove(second), is(true));
+        assertThat(registry.remove(second), is(false));
+        assertThat(statusFor(registry), is(201));
+
+        //already published snapshots are immutable
+        assertThat(previous.getStubs(), hasSize(2));
+
+        //a removed stubbing is not published once modified
+        second.withStatus(203);
+        registry.publishChanges();
+        assertThat(statusFor(registry), is(201));
+    }
+
+
+    @Test
+    public void clear() {
+        final StubRegistry registry = new StubRegistry();
+        final Stubbing stubbing = stubbing();
+        stubbing.respond();
+        registry.add(stubbing);
+        registry.publish();
+        assertThat(registry.getSnapshot().getStubs(), is(not(empty())));
+
+        registry.clear();
+        assertThat(registry.getSnapshot().getStubs(), is(empty()));
+
+        //the registry is still live
+        final Stubbing another = stubbing();
+        registry.add(another);
+        another.respond().withStatus(204);
+        registry.publishChanges();
+        assertThat(statusFor(registry), is(204));
+    }
+
+
+    private static Stubbing stubbing() {
+        return new Stubbing(Charset.forName("UTF-8"), 200, new MultiValueMap());
+    }
+
+
+    private static int statusFor(final StubRegistry registry) {
+        return registry.getSnapshot().findMatching(REQUEST).nextResponse(REQUEST).getStatus();
+    }
+}
@@ -6,21 +6,41 @@ package net.jadler.stubbing;
 
 
 import net.jadler.KeyValues;
+import net.jadler.exception.JadlerException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 
 public class StubResponseTest {
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+
     private static final String STRING_WITH_DIACRITICS = "\u00e1\u0159\u017e";
     private static final byte[] UTF_8_REPRESENTATION =
             {(byte) 0xC3, (byte) 0xA1, (byte) 0xC5, (byte) 0x99, (byte) 0xC5, (byte) 0xBE};
@@ -56,7 +76,7 @@ public class StubResponseTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void builderBodyArrayWrongParam() {
-        StubResponse.builder().body(null);
+        StubResponse.builder().body((byte[]) null);
     }
 
 
@@ -211,4 +231,204 @@ public class StubResponseTest {
         final StubResponse resp = StubResponse.builder().delay(4, TimeUnit.DAYS).build();
         assertThat(resp.toString(), is("status=200, body=<empty>, headers=(), delay=4 days"));
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void headerFields() {
+        final StubResponse resp = StubResponse.builder()
+                .header("Content-Type", "text/plain")
+                .header("X-Custom", "1")
+                .header("x-custom", "2")
+                .build();
+
+        assertThat(resp.getHeaderFields(), contains(
+                field("content-type", "text/plain"), field("x-custom", "1"), field("x-custom", "2")));
+        assertThat(resp.getHeaderFields(), is(sameInstance(resp.getHeaderFields())));
+    }
+
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void headerFieldsReadOnly() {
+        StubResponse.builder().build().getHeaderFields().clear();
+    }
+
+
+    @Test
+    public void bodyWithoutCopy() throws IOException {
+        final StubResponse resp = StubResponse.builder().body(UTF_8_REPRESENTATION).build();
+
+        assertThat(resp.getBodyLength(), is((long) UTF_8_REPRESENTATION.length));
+        assertThat(resp.getBodyAsBuffer(), is(ByteBuffer.wrap(UTF_8_REPRESENTATION)));
+        assertThat(resp.getBodyAsBuffer().isReadOnly(), is(true));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resp.writeBody(out);
+        assertThat(out.toByteArray(), is(UTF_8_REPRESENTATION));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeBodyWrongParam() throws IOException {
+        StubResponse.EMPTY.writeBody(null);
+    }
+
+
+@Test
+    public void builderBodyFile() throws IOException {
+        final Path file = this.fileWith(UTF_8_REPRESENTATION);
+        final StubResponse resp = StubResponse.builder().body(STRING_WITH_DIACRITICS, UTF_8_CHARSET).body(file).build();
+
+        assertThat(resp.getEncoding(), is(nullValue()));
+        assertThat(resp.getBodyLength(), is((long) UTF_8_REPRESENTATION.length));
+        assertThat(resp.getBody(), is(UTF_8_REPRESENTATION));
+        assertThat(resp.getBodyAsBuffer(), is(ByteBuffer.wrap(UTF_8_REPRESENTATION)));
+        assertThat(resp.getBodyAsBuffer().isReadOnly(), is(true));
+        assertThat(resp.toString(), is("status=200, body=<file " + file + ">, headers=(), delay=0 milliseconds"));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resp.writeBody(out);
+        resp.writeBody(out);
+        assertThat(out.size(), is(2 * UTF_8_REPRESENTATION.length));
+    }
+
+
+    @Test
+    public void builderBodyFileChannel() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.fileWith(UTF_8_REPRESENTATION), StandardOpenOption.READ)) {
+            final StubResponse resp = StubResponse.builder().body(channel).build();
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            resp.writeBody(out);
+            assertThat(out.toByteArray(), is(UTF_8_REPRESENTATION));
+            assertThat(resp.getBodyAsBuffer(), is(ByteBuffer.wrap(UTF_8_REPRESENTATION)));
+
+            //positional transfers only, the channel stays open
+            assertThat(channel.position(), is(0L));
+            assertThat(channel.isOpen(), is(true));
+        }
+    }
+
+
+    @Test
+    public void builderBodyFileReset() throws IOException {
+        final StubResponse resp = StubResponse.builder().body(this.fileWith(UTF_8_REPRESENTATION))
+                .body(new byte[]{1}).build();
+
+        assertThat(resp.getBodyLength(), is(1L));
+        assertThat(resp.getBody(), is(new byte[]{1}));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderBodyFileWrongParam1() {
+        StubResponse.builder().body((Path) null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderBodyFileWrongParam2() {
+        StubResponse.builder().body(this.folder.getRoot().toPath().resolve("missing"));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderBodyFileChannelWrongParam() {
+        StubResponse.builder().body((FileChannel) null);
+    }
+
+
+    @Test(expected = IOException.class)
+    public void writeBodyFileTruncated() throws IOException {
+        final Path file = this.fileWith(UTF_8_REPRESENTATION);
+        final StubResponse resp = StubResponse.builder().body(file).build();
+        Files.write(file, new byte[1]);
+
+        resp.writeBody(new ByteArrayOutputStream());
+    }
+
+
+    @Test(expected = JadlerException.class)
+    public void getBodyFileDeleted() throws IOException {
+        final Path file = this.fileWith(UTF_8_REPRESENTATION);
+        final StubResponse resp = StubResponse.builder().body(file).build();
+        Files.delete(file);
+
+        resp.getBody();
+    }
+
+
+@Test
+    public void builderChunks() {
+        final StubResponse resp = StubResponse.builder()
+                .body(UTF_8_REPRESENTATION)
+                .chunks(Arrays.asList(new byte[]{1}, new byte[]{2}))
+                .chunkInterval(2, TimeUnit.SECONDS)
+                .build();
+
+        assertThat(resp.isStreaming(), is(true));
+        assertThat(resp.getChunks(), contains(new byte[]{1}, new byte[]{2}));
+        assertThat(resp.getChunkInterval(), is(2000L));
+        assertThat(resp.getBodyLength(), is(0L));
+        assertThat(resp.toString(), is("status=200, body=<chunks every 2000 ms>, headers=(), delay=0 milliseconds"));
+    }
+
+
+    @Test
+    public void builderChunksReset() {
+        final StubResponse resp = StubResponse.builder()
+                .chunks(Collections.singletonList(new byte[]{1}))
+                .body(UTF_8_REPRESENTATION)
+                .build();
+
+        assertThat(resp.isStreaming(), is(false));
+        assertThat(resp.getChunks(), is(nullValue()));
+        assertThat(resp.getBody(), is(UTF_8_REPRESENTATION));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderChunksWrongParam() {
+        StubResponse.builder().chunks(null);
+    }
+
+
+    @Test
+    public void builderBandwidthLimit() {
+        final StubResponse resp = StubResponse.builder().bandwidthLimit(1024).build();
+
+        assertThat(resp.getBandwidthLimit(), is(1024L));
+        assertThat(resp.toString(),
+                is("status=200, body=<empty>, headers=(), delay=0 milliseconds, bandwidth=1024 B/s"));
+        assertThat(StubResponse.EMPTY.getBandwidthLimit(), is(0L));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderBandwidthLimitWrongParam() {
+        StubResponse.builder().bandwidthLimit(-1);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderChunkIntervalWrongParam1() {
+        StubResponse.builder().chunkInterval(-1, TimeUnit.SECONDS);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderChunkIntervalWrongParam2() {
+        StubResponse.builder().chunkInterval(1, null);
+    }
+
+
+        private Path fileWith(final byte[] content) throws IOException {
+        final Path file = this.folder.newFile().toPath();
+        Files.write(file, content);
+        return file;
+    }
+
+
+        private static Map.Entry<String, String> field(final String name, final String value) {
+        return new AbstractMap.SimpleImmutableEntry<String, String>(name, value);
+    }
+}
@@ -9,19 +9,27 @@ import net.jadler.exception.JadlerException;
 import org.apache.commons.collections.MultiMap;
 import org.apache.commons.collections.map.MultiValueMap;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
@@ -43,6 +51,9 @@ public class StubbingTest {
     private static final Charset DEFAULT_ENCODING = Charset.forName("UTF-8");
     private static final Responder RESPONDER = mock(Responder.class);
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private TestStubbing stubbing;
 
 
@@ -154,6 +165,107 @@ public class StubbingTest {
     }
 
 
+    @Test
+    public void withBodyFile() throws IOException {
+        final byte[] body = "body".getBytes(DEFAULT_ENCODING);
+        final Path file = this.folder.newFile().toPath();
+        Files.write(file, body);
+        this.stubbing.respond().withBody(file);
+
+        final StubResponse response = assertAndGetOneResponse();
+        assertThat(response.getBodyLength(), is((long) body.length));
+        assertThat(response.getBody(), equalTo(body));
+    }
+
+
+    @Test
+    public void withBodyFileChannel() throws IOException {
+        final byte[] body = "body".getBytes(DEFAULT_ENCODING);
+        final Path file = this.folder.newFile().toPath();
+        Files.write(file, body);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.stubbing.respond().withBody(channel);
+
+            final StubResponse response = assertAndGetOneResponse();
+            assertThat(response.getBody(), equalTo(body));
+        }
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withBodyFileWrongParam() {
+        this.stubbing.respond().withBody((Path) null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withBodyFileChannelWrongParam() {
+        this.stubbing.respond().withBody((FileChannel) null);
+    }
+
+
+    @Test
+    public void withChunks() {
+        this.stubbing.respond()
+                .withChunk("a")
+                .withChunk(new byte[]{1})
+                .withChunkInterval(1, TimeUnit.SECONDS);
+
+        final StubResponse response = assertAndGetOneResponse();
+        assertThat(response.isStreaming(), is(true));
+        assertThat(response.getChunks(), contains("a".getBytes(DEFAULT_ENCODING), new byte[]{1}));
+        assertThat(response.getChunkInterval(), is(1000L));
+    }
+
+
+    @Test
+    public void withChunksIterable() {
+        final Iterable<byte[]> chunks = Collections.singletonList(new byte[]{1});
+        this.stubbing.respond().withChunks(chunks);
+
+        assertThat(assertAndGetOneResponse().getChunks(), is(chunks));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withChunkWrongParam1() {
+        this.stubbing.respond().withChunk((String) null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withChunkWrongParam2() {
+        this.stubbing.respond().withChunk((byte[]) null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withChunksWrongParam() {
+        this.stubbing.respond().withChunks(null);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withChunkIntervalWrongParam() {
+        this.stubbing.respond().withChunkInterval(-1, TimeUnit.SECONDS);
+    }
+
+
+    @Test
+    public void withBandwidthLimit() {
+        this.stubbing.respond().withBandwidthLimit(1024);
+
+        assertThat(assertAndGetOneResponse().getBandwidthLimit(), is(1024L));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withBandwidthLimitWrongParam() {
+        this.stubbing.respond().withBandwidthLimit(-1);
+    }
+
+
     @Test
     public void withHeader() {
         final String name = "name";
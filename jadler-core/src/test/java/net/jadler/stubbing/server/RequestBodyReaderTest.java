@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import net.jadler.Request;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+
+public class RequestBodyReaderTest {
+
+    private static final byte[] BODY = "0123456789".getBytes();
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readWrongParam1() throws IOException {
+        RequestBodyReader.read(null, -1, 10);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readWrongParam2() throws IOException {
+        RequestBodyReader.read(stream(), -1, -1);
+    }
+
+
+    @Test(expected = IOException.class)
+    public void readTooLong() throws IOException {
+        RequestBodyReader.read(stream(), Integer.MAX_VALUE + 1L, 10);
+    }
+
+
+    @Test
+    public void readKnownLengthToHeap() throws IOException {
+        final ByteBuffer body = RequestBodyReader.read(stream(), BODY.length, BODY.length);
+
+        assertThat(body, is(not(instanceOf(MappedByteBuffer.class))));
+        assertThat(bytes(body), is(BODY));
+    }
+
+
+    @Test
+    public void readKnownLengthShorterStream() throws IOException {
+        final ByteBuffer body = RequestBodyReader.read(stream(), 20, 100);
+        assertThat(bytes(body), is(BODY));
+    }
+
+
+    @Test
+    public void readKnownLengthExaggerated() throws IOException {
+        //a bogus declared length mustn't be allocated upfront
+        final ByteBuffer body = RequestBodyReader.read(stream(), Integer.MAX_VALUE, Long.MAX_VALUE);
+        assertThat(bytes(body), is(BODY));
+    }
+
+
+    @Test
+    public void readKnownLengthLong() throws IOException {
+        final byte[] longBody = new byte[200 * 1024 + 1];
+        new Random(42).nextBytes(longBody);
+
+        final ByteBuffer body = RequestBodyReader.read(new ByteArrayInputStream(longBody), longBody.length,
+                Long.MAX_VALUE);
+        assertThat(bytes(body), is(longBody));
+    }
+
+
+    @Test
+    public void readKnownLengthSpilled() throws IOException {
+        final ByteBuffer body = RequestBodyReader.read(stream(), BODY.length, BODY.length - 1);
+
+        assertThat(body, is(instanceOf(MappedByteBuffer.class)));
+        assertThat(bytes(body), is(BODY));
+    }
+
+
+    @Test
+    public void readUnknownLengthToHeap() throws IOException {
+        assertThat(bytes(RequestBodyReader.read(stream(), -1, BODY.length)), is(BODY));
+        assertThat(bytes(RequestBodyReader.read(stream(), -1, Long.MAX_VALUE)), is(BODY));
+    }
+
+
+    @Test
+    public void readUnknownLengthSpilled() throws IOException {
+        final ByteBuffer body = RequestBodyReader.read(stream(), -1, 3);
+
+        assertThat(body, is(instanceOf(MappedByteBuffer.class)));
+        assertThat(bytes(body), is(BODY));
+    }
+
+
+    @Test
+    public void readEmptySpilled() throws IOException {
+        assertThat(RequestBodyReader.read(new ByteArrayInputStream(new byte[0]), 0, 0).remaining(), is(0));
+    }
+
+
+    @Test
+    public void spilledBodyInRequest() throws IOException {
+        final Request req = Request.builder()
+                .method("POST")
+                .requestURI(URI.create("http://localhost/"))
+                .body(RequestBodyReader.read(stream(), -1, 0))
+                .build();
+
+        assertThat(req.getBodyAsString(), is("0123456789"));
+        assertThat(req.getBodyAsBytes(), is(BODY));
+    }
+
+
+    private static InputStream stream() {
+        return new ByteArrayInputStream(BODY);
+    }
+
+
+    private static byte[] bytes(final ByteBuffer buffer) {
+        final byte[] res = new byte[buffer.remaining()];
+        buffer.duplicate().get(res);
+        return res;
+    }
+}
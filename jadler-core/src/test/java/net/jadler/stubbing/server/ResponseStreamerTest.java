@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import net.jadler.stubbing.StubResponse;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+
+public class ResponseStreamerTest {
+
+    private final ResponseStreamer streamer = new ResponseStreamer();
+
+
+    @After
+    public void tearDown() {
+        this.streamer.shutdown();
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamWrongParam1() {
+        this.streamer.stream(null, new ByteArrayOutputStream(), mock(Runnable.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamWrongParam2() {
+        this.streamer.stream(streaming(0, "a"), -1, new ByteArrayOutputStream(), mock(Runnable.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamWrongParam3() {
+        this.streamer.stream(streaming(0, "a"), null, mock(Runnable.class));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void streamWrongParam4() {
+        this.streamer.stream(streaming(0, "a"), new ByteArrayOutputStream(), null);
+    }
+
+
+    @Test
+    public void stream() throws InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final long start = System.nanoTime();
+        this.streamer.stream(streaming(50, "a", "", "b", "c"), out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        //each of the four chunks (including the empty one which is not written at all) is sent after the interval
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(200L)));
+        assertThat(out.toString(), is("abc"));
+    }
+
+
+    @Test
+    public void streamNoChunks() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        this.streamer.stream(streaming(0), new ByteArrayOutputStream(), countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+
+    @Test
+    public void streamFailing() throws Exception {
+        final OutputStream out = mock(OutputStream.class);
+        doThrow(new IOException("client gone")).when(out).write(any(byte[].class));
+        final CountDownLatch done = new CountDownLatch(1);
+
+        this.streamer.stream(streaming(0, "a", "b"), out, countDown(done));
+
+        //the stream is completed even if writing fails
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+
+    @Test
+    public void streamBlockedClient() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blockedDone = new CountDownLatch(1);
+        //a client not reading its response at all
+        final OutputStream blocked = new OutputStream() {
+
+            @Override
+            public void write(final int b) {
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        this.streamer.stream(streaming(0, "a", "b"), blocked, countDown(blockedDone));
+
+        //the other responses are not affected
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(1);
+        this.streamer.stream(streaming(10, "c", "d"), out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(out.toString(), is("cd"));
+        assertThat(blockedDone.getCount(), is(1L));
+
+        release.countDown();
+        assertThat(blockedDone.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+
+    @Test
+    public void streamBody() throws InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        this.streamer.stream(StubResponse.builder().body(new byte[]{1, 2, 3}).build(), out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(out.toByteArray(), is(new byte[]{1, 2, 3}));
+    }
+
+
+    @Test
+    public void streamBodyInSlices() throws InterruptedException {
+        final byte[] body = new byte[3 * 64 * 1024 + 1];
+        Arrays.fill(body, (byte) 7);
+        final AtomicInteger flushes = new AtomicInteger();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        final CountDownLatch done = new CountDownLatch(1);
+
+        //no limit, the body is written (and flushed) in 64KiB slices anyway
+        this.streamer.stream(StubResponse.builder().body(body).build(), out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(out.toByteArray(), is(body));
+        assertThat(flushes.get(), is(4));
+    }
+
+
+    @Test
+    public void streamBodyRateLimited() throws InterruptedException {
+        final byte[] body = new byte[1000];
+        Arrays.fill(body, (byte) 7);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final long start = System.nanoTime();
+        //sent in 200B slices, the first one immediately, the other four every 100ms
+        this.streamer.stream(StubResponse.builder().body(body).bandwidthLimit(2000).build(), out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(350L)));
+        assertThat(out.toByteArray(), is(body));
+    }
+
+
+    @Test
+    public void streamChunksRateLimited() throws InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final long start = System.nanoTime();
+        //1B slices every 100ms
+        final StubResponse response = StubResponse.builder()
+                .chunks(Arrays.asList("ab".getBytes(), "cd".getBytes()))
+                .bandwidthLimit(10)
+                .build();
+        this.streamer.stream(response, out, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(250L)));
+        assertThat(out.toString(), is("abcd"));
+    }
+
+
+    @Test
+    public void streamGlobalBandwidthLimit() throws InterruptedException {
+        final StubResponse response = StubResponse.builder().body(new byte[500]).build();
+        final ByteArrayOutputStream out1 = new ByteArrayOutputStream();
+        final ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        final CountDownLatch done = new CountDownLatch(2);
+
+        final long start = System.nanoTime();
+        //both responses share the 2000B/s limit, 1000B are sent in 200B slices every 100ms
+        this.streamer.stream(response, 2000, out1, countDown(done));
+        this.streamer.stream(response, 2000, out2, countDown(done));
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(350L)));
+        assertThat(out1.size(), is(500));
+        assertThat(out2.size(), is(500));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void delayWrongParam1() {
+        this.streamer.delay(null, 0);
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void delayWrongParam2() {
+        this.streamer.delay(mock(Runnable.class), -1);
+    }
+
+
+    @Test
+    public void delay() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final long start = System.nanoTime();
+        this.streamer.delay(countDown(done), 100);
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(100L)));
+    }
+
+
+    @Test
+    public void delayBlockingTask() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        //a delayed response being sent to a client not reading it
+        this.streamer.delay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 0);
+        //neither the other delays nor the streamed responses are affected
+        this.streamer.delay(countDown(done), 10);
+        this.streamer.stream(streaming(10, "a"), new ByteArrayOutputStream(), countDown(done));
+
+        try {
+            assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        } finally {
+            release.countDown();
+        }
+    }
+
+
+    @Test
+    public void delayFailing() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+
+        this.streamer.delay(new Runnable() {
+
+            @Override
+            public void run() {
+                throw new IllegalStateException("response gone");
+            }
+        }, 0);
+        //the scheduler thread survives a failing task
+        this.streamer.delay(countDown(done), 0);
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+
+    private static StubResponse streaming(final long interval, final String... chunks) {
+        final byte[][] bytes = new byte[chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            bytes[i] = chunks[i].getBytes();
+        }
+
+        return StubResponse.builder()
+                .chunks(Arrays.asList(bytes))
+                .chunkInterval(interval, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+
+    private static Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 - 2016 Jadler contributors
+ * This program is made available under the terms of the MIT License.
+ */
+package net.jadler.stubbing.server;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWrongParam() {
+        new TokenBucket(0, 0);
+    }
+
+
+    @Test
+    public void sliceSize() {
+        assertThat(new TokenBucket(1, 0).getSliceSize(), is(1));
+        assertThat(new TokenBucket(2000, 0).getSliceSize(), is(200));
+        assertThat(new TokenBucket(100 * 1024 * 1024, 0).getSliceSize(), is(64 * 1024));
+    }
+
+
+    @Test
+    public void reserve() {
+        final TokenBucket bucket = new TokenBucket(2000, 0);
+
+        //the first slice can be sent immediately
+        assertThat(bucket.reserve(200, 0), is(0L));
+        //the next one once it's been refilled
+        assertThat(bucket.reserve(200, 0), is(100 * MILLISECOND));
+        //reservations queue up
+        assertThat(bucket.reserve(200, 0), is(200 * MILLISECOND));
+        assertThat(bucket.reserve(200, 150 * MILLISECOND), is(150 * MILLISECOND));
+    }
+
+
+    @Test
+    public void reserveNoBurstAfterIdle() {
+        final TokenBucket bucket = new TokenBucket(2000, 0);
+        bucket.reserve(200, 0);
+
+        //no more than a single slice is accumulated however long the bucket has been idle
+        assertThat(bucket.reserve(200, 10 * SECOND), is(0L));
+        assertThat(bucket.reserve(200, 10 * SECOND), is(100 * MILLISECOND));
+    }
+}
@@ -4,62 +4,126 @@
  */
 package net.jadler.stubbing.server.jdk;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import net.jadler.KeyValues;
 import net.jadler.Request;
 import net.jadler.RequestManager;
 import net.jadler.stubbing.StubResponse;
+import net.jadler.stubbing.server.ResponseStreamer;
 import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 
 
 /**
  * Processes requests and sends them to the rest of Jadler library.
  */
 class JdkHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(JdkHandler.class);
+
     private final RequestManager requestManager;
+    private final ResponseStreamer streamer;
 
     public JdkHandler(final RequestManager requestManager) {
+        this(requestManager, new ResponseStreamer());
+    }
+
+    public JdkHandler(final RequestManager requestManager, final ResponseStreamer streamer) {
         Validate.notNull(requestManager, "requestManager cannot be null");
+        Validate.notNull(streamer, "streamer cannot be null");
 
         this.requestManager = requestManager;
+        this.streamer = streamer;
     }
 
     @Override
     public void handle(final HttpExchange httpExchange) throws IOException {
-        final Request req = RequestUtils.convert(httpExchange);
+        final Request req = RequestUtils.convert(httpExchange, this.requestManager.getBodySpillThreshold());
         final StubResponse stubResponse = this.requestManager.provideStubResponseFor(req);
 
-        final byte[] body = stubResponse.getBody();
+        if (stubResponse.getDelay() > 0) {
+            //the exchange is left open and the response is sent by a writer thread of the streamer once the delay
+            //elapses, so neither the delay nor sending the response occupies the server dispatcher thread
+            this.streamer.delay(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        respond(req, stubResponse, httpExchange);
+                    } catch (final Exception e) {
+                        //there is nobody to propagate the failure to, it's logged and the exchange is just closed
+                        logger.warn("sending a delayed response has failed", e);
+                        httpExchange.close();
+                    }
+                }
+            }, stubResponse.getDelay());
+            return;
+        }
+
+        this.respond(req, stubResponse, httpExchange);
+    }
 
-        this.processDelay(stubResponse.getDelay());
+    private void respond(final Request req, final StubResponse stubResponse, final HttpExchange httpExchange)
+            throws IOException {
+        boolean streaming = false;
+        try {
+            final long bodyLength = stubResponse.getBodyLength();
 
-        final KeyValues headers = stubResponse.getHeaders();
-        for (final String key : headers.getKeys()) {
-            for (final String value : headers.getValues(key)) {
-                httpExchange.getResponseHeaders().add(key, value);
+            //the header fields are prepared by the stub response just once, no need to copy them here
+            final List<Map.Entry<String, String>> headerFields = stubResponse.getHeaderFields();
+            final Headers responseHeaders = httpExchange.getResponseHeaders();
+            for (int i = 0; i < headerFields.size(); i++) {
+                final Map.Entry<String, String> field = headerFields.get(i);
+                responseHeaders.add(field.getKey(), field.getValue());
             }
-        }
 
-        httpExchange.sendResponseHeaders(stubResponse.getStatus(), body.length > 0 ? body.length : -1);
+            final long bandwidthLimit = this.requestManager.getBandwidthLimit();
+            if (stubResponse.isStreaming() || isRateLimited(stubResponse, bandwidthLimit)) {
+                //the headers are sent immediately, the body (or the chunks using the chunked transfer encoding)
+                //follows
+                httpExchange.sendResponseHeaders(stubResponse.getStatus(), stubResponse.isStreaming() ? 0 : bodyLength);
+                this.startStreaming(req, stubResponse, bandwidthLimit, httpExchange);
+                //the exchange is closed once the whole body has been sent
+                streaming = true;
+                return;
+            }
+
+            httpExchange.sendResponseHeaders(stubResponse.getStatus(), bodyLength > 0 ? bodyLength : -1);
 
-        if (body.length > 0) {
-            OutputStream outputStream = httpExchange.getResponseBody();
-            outputStream.write(body);
-            outputStream.close();
+            if (bodyLength > 0) {
+                OutputStream outputStream = httpExchange.getResponseBody();
+                stubResponse.writeBody(outputStream);
+                outputStream.close();
+            }
+        } finally {
+            if (!streaming) {
+                this.requestManager.responseCompleted(req);
+            }
         }
     }
 
-    private void processDelay(final long delay) {
-        if (delay > 0) {
-            try {
-                Thread.sleep(delay);
-            } catch (InterruptedException e) {
-                // ok
+    private static boolean isRateLimited(final StubResponse stubResponse, final long bandwidthLimit) {
+        return stubResponse.getBodyLength() > 0 && (stubResponse.getBandwidthLimit() > 0 || bandwidthLimit > 0);
+    }
+
+    private void startStreaming(final Request req, final StubResponse stubResponse, final long bandwidthLimit,
+            final HttpExchange httpExchange) {
+        this.streamer.stream(stubResponse, bandwidthLimit, httpExchange.getResponseBody(), new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    httpExchange.close();
+                } finally {
+                    requestManager.responseCompleted(req);
+                }
             }
-        }
+        });
     }
 }
@@ -7,6 +7,7 @@ package net.jadler.stubbing.server.jdk;
 import com.sun.net.httpserver.HttpServer;
 import net.jadler.RequestManager;
 import net.jadler.exception.JadlerException;
+import net.jadler.stubbing.server.ResponseStreamer;
 import net.jadler.stubbing.server.StubHttpServer;
 
 import java.io.IOException;
@@ -22,6 +23,7 @@ import static org.apache.commons.lang.Validate.notNull;
 public class JdkStubHttpServer implements StubHttpServer {
 
     private final HttpServer server;
+    private final ResponseStreamer streamer = new ResponseStreamer();
 
     public JdkStubHttpServer(final int port) {
         isTrue(port >= 0, "port cannot be a negative number");
@@ -40,7 +42,7 @@ public class JdkStubHttpServer implements StubHttpServer {
     @Override
     public void registerRequestManager(final RequestManager ruleProvider) {
         notNull(ruleProvider, "ruleProvider cannot be null");
-        server.createContext("/", new JdkHandler(ruleProvider));
+        server.createContext("/", new JdkHandler(ruleProvider, this.streamer));
     }
 
     @Override
@@ -51,6 +53,7 @@ public class JdkStubHttpServer implements StubHttpServer {
     @Override
     public void stop() throws Exception {
         server.stop(0);
+        this.streamer.shutdown();
     }
 
     @Override
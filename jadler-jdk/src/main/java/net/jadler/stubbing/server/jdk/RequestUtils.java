@@ -7,7 +7,7 @@ package net.jadler.stubbing.server.jdk;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import net.jadler.Request;
-import org.apache.commons.io.IOUtils;
+import net.jadler.stubbing.server.RequestBodyReader;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -20,10 +20,15 @@ class RequestUtils {
     private static final Pattern CHARSET_PATTERN = Pattern.compile("(?i).*\\bcharset=\\s*\"?([^\\s;\"]*)");
 
     static Request convert(final HttpExchange httpExchange) throws IOException {
+        return convert(httpExchange, Long.MAX_VALUE);
+    }
+
+    static Request convert(final HttpExchange httpExchange, final long bodySpillThreshold) throws IOException {
         final Request.Builder builder = Request.builder()
                 .method(httpExchange.getRequestMethod())
                 .requestURI(httpExchange.getRequestURI())
-                .body(IOUtils.toByteArray(httpExchange.getRequestBody()));
+                .body(RequestBodyReader.read(httpExchange.getRequestBody(), contentLength(httpExchange),
+                        bodySpillThreshold));
 
         addEncoding(builder, httpExchange);
         addHeaders(builder, httpExchange);
@@ -31,6 +36,21 @@ class RequestUtils {
         return builder.build();
     }
 
+    private static long contentLength(final HttpExchange httpExchange) {
+        final String value = httpExchange.getRequestHeaders().getFirst("Content-Length");
+        if (value != null) {
+            try {
+                final long length = Long.parseLong(value.trim());
+                if (length >= 0) {
+                    return length;
+                }
+            } catch (NumberFormatException e) {
+                //just ignore, the body will be read until the end of the stream
+            }
+        }
+        return -1;
+    }
+
     //package protected for testing purposes
     static void addEncoding(final Request.Builder builder, final HttpExchange httpExchange) {
         final String contentType = httpExchange.getRequestHeaders().getFirst("Content-Type");
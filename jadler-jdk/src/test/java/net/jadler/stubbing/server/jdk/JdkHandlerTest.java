@@ -24,9 +24,14 @@ import java.util.concurrent.TimeUnit;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -126,6 +131,9 @@ public class JdkHandlerTest {
 
         final long start = System.currentTimeMillis();
         new JdkHandler(mockManager).handle(httpExchange);
+
+        //the handler doesn't wait for the delay, the response is sent once it elapses
+        verify(mockManager, timeout(10000)).responseCompleted(reqEq(EXPECTED_REQUEST));
         assertThat(RESPONSE_DELAY_UNIT.toMillis(RESPONSE_DELAY),
                 is(lessThanOrEqualTo(System.currentTimeMillis() - start)));
 
@@ -150,6 +158,22 @@ public class JdkHandlerTest {
         verifyNoInteractions(mockResponseStream);
     }
 
+    @Test
+    public void handle_delayDoesNotBlock() throws IOException {
+        when(mockManager.provideStubResponseFor(reqEq(EXPECTED_REQUEST))).thenReturn(StubResponse.builder()
+                .status(RESPONSE_STATUS)
+                .delay(RESPONSE_DELAY, RESPONSE_DELAY_UNIT)
+                .build());
+
+        new JdkHandler(mockManager).handle(httpExchange);
+
+        //nothing has been sent yet
+        verify(httpExchange, never()).sendResponseHeaders(anyInt(), anyLong());
+        verify(mockManager, never()).responseCompleted(any(Request.class));
+
+        verify(httpExchange, timeout(10000)).sendResponseHeaders(RESPONSE_STATUS, -1);
+    }
+
     private static class RequestMatcher implements ArgumentMatcher<Request> {
 
         private final Request expected;
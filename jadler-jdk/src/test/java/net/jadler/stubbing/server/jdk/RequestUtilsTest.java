@@ -10,6 +10,7 @@ import net.jadler.Request;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.nio.charset.Charset;
 
@@ -81,4 +82,47 @@ public class RequestUtilsTest {
 
         assertThat(builder.build().getEncoding(), is(nullValue()));
     }
+
+
+    @Test
+    public void convertBody() throws Exception {
+        this.requestHeaders.add("Content-Length", "4");
+        this.prepareBody("abcd");
+
+        assertThat(RequestUtils.convert(mockHttpExchange).getBodyAsString(), is("abcd"));
+    }
+
+
+    @Test
+    public void convertBodyShorterThanDeclared() throws Exception {
+        this.requestHeaders.add("Content-Length", "10");
+        this.prepareBody("abcd");
+
+        assertThat(RequestUtils.convert(mockHttpExchange).getBodyAsBytes(), is("abcd".getBytes()));
+    }
+
+
+    @Test
+    public void convertBodyNoContentLength() throws Exception {
+        this.requestHeaders.add("Content-Length", "crippled");
+        this.prepareBody("abcd");
+
+        assertThat(RequestUtils.convert(mockHttpExchange).getBodyAsString(), is("abcd"));
+    }
+
+
+    @Test
+    public void convertBodySpilled() throws Exception {
+        this.requestHeaders.add("Content-Length", "4");
+        this.prepareBody("abcd");
+
+        assertThat(RequestUtils.convert(mockHttpExchange, 2).getBodyAsString(), is("abcd"));
+    }
+
+
+    private void prepareBody(final String body) {
+        when(mockHttpExchange.getRequestMethod()).thenReturn("POST");
+        when(mockHttpExchange.getRequestURI()).thenReturn(URI.create("http://localhost/"));
+        when(mockHttpExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(body.getBytes()));
+    }
 }
@@ -4,18 +4,21 @@
  */
 package net.jadler.stubbing.server.jetty;
 
-import net.jadler.KeyValues;
 import net.jadler.RequestManager;
 import net.jadler.stubbing.StubResponse;
+import net.jadler.stubbing.server.ResponseStreamer;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.AbstractHandler;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -24,15 +27,23 @@ import java.io.OutputStream;
  */
 class JadlerHandler extends AbstractHandler {
 
+    //a delayed request is dispatched again once the delay elapses, the attributes carry the already provided response
+    private static final String REQUEST_ATTRIBUTE = JadlerHandler.class.getName() + ".request";
+    private static final String STUB_RESPONSE_ATTRIBUTE = JadlerHandler.class.getName() + ".stubResponse";
+
     private final RequestManager requestManager;
+    private final ResponseStreamer streamer;
 
 
     /**
      * @param requestManager request manager instance to retrieve stub responses
+     * @param streamer streamer sending chunks of streaming stub responses and scheduling delayed responses
      */
-    JadlerHandler(final RequestManager requestManager) {
+    JadlerHandler(final RequestManager requestManager, final ResponseStreamer streamer) {
         Validate.notNull(requestManager, "requestManager cannot be null");
+        Validate.notNull(streamer, "streamer cannot be null");
         this.requestManager = requestManager;
+        this.streamer = streamer;
     }
 
 
@@ -40,44 +51,131 @@ class JadlerHandler extends AbstractHandler {
     public void handle(final String target, final Request baseRequest, final HttpServletRequest request,
                        final HttpServletResponse response) throws IOException, ServletException {
 
-        final net.jadler.Request req = RequestUtils.convert(request);
-        final StubResponse stubResponse = this.requestManager.provideStubResponseFor(req);
+        final net.jadler.Request req;
+        final StubResponse stubResponse;
+
+        if (DispatcherType.ASYNC == request.getDispatcherType() && request.getAttribute(REQUEST_ATTRIBUTE) != null) {
+            //the delay has elapsed already
+            req = (net.jadler.Request) request.getAttribute(REQUEST_ATTRIBUTE);
+            stubResponse = (StubResponse) request.getAttribute(STUB_RESPONSE_ATTRIBUTE);
+            request.removeAttribute(REQUEST_ATTRIBUTE);
+            request.removeAttribute(STUB_RESPONSE_ATTRIBUTE);
+        } else {
+            req = RequestUtils.convert(request, this.requestManager.getBodySpillThreshold());
+            stubResponse = this.requestManager.provideStubResponseFor(req);
+
+            if (stubResponse.getDelay() > 0) {
+                this.suspend(req, stubResponse, baseRequest, request);
+                return;
+            }
+        }
+
+        boolean streaming = false;
+        try {
+            response.setStatus(stubResponse.getStatus());
+            this.insertResponseHeaders(stubResponse.getHeaderFields(), response);
+
+            baseRequest.setHandled(true);
+
+            final long bandwidthLimit = this.requestManager.getBandwidthLimit();
+            if (stubResponse.isStreaming() || isRateLimited(stubResponse, bandwidthLimit)) {
+                if (!stubResponse.isStreaming()) {
+                    this.insertContentLength(stubResponse.getBodyLength(), response);
+                }
+                this.startStreaming(req, stubResponse, bandwidthLimit, baseRequest, response);
+                //the response is completed once the whole body has been sent
+                streaming = true;
+            } else {
+                this.insertResponseBody(stubResponse, response);
+            }
+        } finally {
+            if (!streaming) {
+                this.requestManager.responseCompleted(req);
+            }
+        }
+    }
 
-        response.setStatus(stubResponse.getStatus());
-        this.insertResponseHeaders(stubResponse.getHeaders(), response);
 
+    /*
+     * Suspends the request for the stub response delay, no worker thread is occupied meanwhile.
+     */
+    private void suspend(final net.jadler.Request req, final StubResponse stubResponse, final Request baseRequest,
+            final HttpServletRequest request) {
+        request.setAttribute(REQUEST_ATTRIBUTE, req);
+        request.setAttribute(STUB_RESPONSE_ATTRIBUTE, stubResponse);
         baseRequest.setHandled(true);
 
-        this.processDelay(stubResponse.getDelay());
-        this.insertResponseBody(stubResponse.getBody(), response);
+        final AsyncContext asyncContext = baseRequest.startAsync();
+        asyncContext.setTimeout(0);
+
+        this.streamer.delay(new Runnable() {
+
+            @Override
+            public void run() {
+                asyncContext.dispatch();
+            }
+        }, stubResponse.getDelay());
+    }
+
+
+    private static boolean isRateLimited(final StubResponse stubResponse, final long bandwidthLimit) {
+        return stubResponse.getBodyLength() > 0 && (stubResponse.getBandwidthLimit() > 0 || bandwidthLimit > 0);
     }
 
 
-    private void insertResponseBody(final byte[] body, final HttpServletResponse response) throws IOException {
-        if (body.length > 0) {
-            final OutputStream os = response.getOutputStream();
-            os.write(body);
+    private void startStreaming(final net.jadler.Request req, final StubResponse stubResponse,
+            final long bandwidthLimit, final Request baseRequest, final HttpServletResponse response)
+            throws IOException {
+        final AsyncContext asyncContext = baseRequest.startAsync();
+        asyncContext.setTimeout(0);
+
+        try {
+            //the headers are sent immediately, the body (or the chunks) follows
+            response.flushBuffer();
+        } catch (final IOException e) {
+            asyncContext.complete();
+            throw e;
         }
+
+        this.streamer.stream(stubResponse, bandwidthLimit, response.getOutputStream(), new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    asyncContext.complete();
+                } finally {
+                    requestManager.responseCompleted(req);
+                }
+            }
+        });
     }
 
 
-    private void insertResponseHeaders(final KeyValues headers, final HttpServletResponse response) {
-        for (final String key : headers.getKeys()) {
+    private void insertResponseBody(final StubResponse stubResponse, final HttpServletResponse response)
+            throws IOException {
+        final long length = stubResponse.getBodyLength();
+        if (length > 0) {
+            this.insertContentLength(length, response);
+            stubResponse.writeBody(response.getOutputStream());
+        }
+    }
+
 
-            for (final String value : headers.getValues(key)) {
-                response.addHeader(key, value);
-            }
+    private void insertContentLength(final long length, final HttpServletResponse response) {
+        //large (file-backed or rate limited) bodies don't fit into the response buffer, set the length explicitly
+        //so they are not sent chunked (unless the length has been stubbed already)
+        if (!response.containsHeader("Content-Length")) {
+            response.setHeader("Content-Length", Long.toString(length));
         }
     }
 
 
-    private void processDelay(final long delay) {
-        if (delay > 0) {
-            try {
-                Thread.sleep(delay);
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+    private void insertResponseHeaders(final List<Map.Entry<String, String>> headerFields,
+            final HttpServletResponse response) {
+        //the header fields are prepared by the stub response just once, no need to copy them here
+        for (int i = 0; i < headerFields.size(); i++) {
+            final Map.Entry<String, String> field = headerFields.get(i);
+            response.addHeader(field.getKey(), field.getValue());
         }
     }
 }
\ No newline at end of file
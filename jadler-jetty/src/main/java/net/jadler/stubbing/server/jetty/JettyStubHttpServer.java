@@ -5,6 +5,7 @@
 package net.jadler.stubbing.server.jetty;
 
 import net.jadler.RequestManager;
+import net.jadler.stubbing.server.ResponseStreamer;
 import net.jadler.stubbing.server.StubHttpServer;
 import org.apache.commons.lang.Validate;
 import org.eclipse.jetty.server.Connector;
@@ -22,6 +23,7 @@ public class JettyStubHttpServer implements StubHttpServer {
     private static final Logger logger = LoggerFactory.getLogger(JettyStubHttpServer.class);
     private final Server server;
     private final Connector httpConnector;
+    private final ResponseStreamer streamer = new ResponseStreamer();
 
     public JettyStubHttpServer() {
         this(0);
@@ -46,7 +48,7 @@ public class JettyStubHttpServer implements StubHttpServer {
     public void registerRequestManager(final RequestManager ruleProvider) {
         Validate.notNull(ruleProvider, "ruleProvider cannot be null");
 
-        server.setHandler(new JadlerHandler(ruleProvider));
+        server.setHandler(new JadlerHandler(ruleProvider, this.streamer));
     }
 
 
@@ -68,6 +70,7 @@ public class JettyStubHttpServer implements StubHttpServer {
     public void stop() throws Exception {
         logger.debug("stopping jetty");
         server.stop();
+        this.streamer.shutdown();
         logger.debug("jetty stopped");
     }
 
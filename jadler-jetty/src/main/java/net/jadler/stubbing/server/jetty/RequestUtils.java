@@ -6,13 +6,13 @@ package net.jadler.stubbing.server.jetty;
 
 import net.jadler.Request;
 
+import net.jadler.stubbing.server.RequestBodyReader;
+
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
-import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.Enumeration;
 
-import static org.apache.commons.io.IOUtils.toByteArray;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 
@@ -22,6 +22,18 @@ import static org.apache.commons.lang.StringUtils.isNotBlank;
 class RequestUtils {
 
     static Request convert(final HttpServletRequest source) throws IOException {
+        return convert(source, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * @param source request to be converted
+     * @param bodySpillThreshold maximal length in bytes of a request body read to the heap (see
+     *                           {@link RequestBodyReader})
+     * @return converted request
+     * @throws IOException if the request body cannot be read
+     */
+    static Request convert(final HttpServletRequest source, final long bodySpillThreshold) throws IOException {
 
         final Charset encoding = isNotBlank(source.getCharacterEncoding())
                 ? Charset.forName(source.getCharacterEncoding())
@@ -29,8 +41,10 @@ class RequestUtils {
 
         final Request.Builder builder = Request.builder()
                 .method(source.getMethod())
-                .requestURI(URI.create(source.getRequestURL() + getQueryString(source)))
-                .body(toByteArray(source.getInputStream()));
+                .origin(source.getScheme(), source.getServerName(), getPort(source))
+                .rawPath(source.getRequestURI())
+                .rawQuery(source.getQueryString())
+                .body(RequestBodyReader.read(source.getInputStream(), source.getContentLength(), bodySpillThreshold));
 
         if (encoding != null) {
             builder.encoding(encoding);
@@ -40,8 +54,17 @@ class RequestUtils {
     }
 
 
-    private static String getQueryString(final HttpServletRequest source) {
-        return source.getQueryString() != null ? ("?" + source.getQueryString()) : "";
+    /*
+     * The default port of the scheme is omitted, just like in HttpServletRequest#getRequestURL()
+     */
+    private static int getPort(final HttpServletRequest source) {
+        final int port = source.getServerPort();
+
+        if (port <= 0 || ("http".equalsIgnoreCase(source.getScheme()) && port == 80)
+                || ("https".equalsIgnoreCase(source.getScheme()) && port == 443)) {
+            return -1;
+        }
+        return port;
     }
 
 
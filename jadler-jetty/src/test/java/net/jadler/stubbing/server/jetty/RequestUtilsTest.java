@@ -37,6 +37,31 @@ public class RequestUtilsTest {
     }
 
 
+    @Test
+    public void bodySpilled() throws IOException {
+        final MockHttpServletRequest httpRequest = prepareEmptyRequest();
+        httpRequest.setContent("abcd".getBytes());
+
+        final Request req = RequestUtils.convert(httpRequest, 2);
+        assertThat(req.getBodyAsString(), is("abcd"));
+    }
+
+
+    @Test
+    public void bodyUnknownLength() throws IOException {
+        final MockHttpServletRequest httpRequest = new MockHttpServletRequest("POST", "/") {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        httpRequest.setContent("abcd".getBytes());
+
+        final Request req = RequestUtils.convert(httpRequest);
+        assertThat(req.getBodyAsString(), is("abcd"));
+    }
+
+
     @Test
     public void headers() throws IOException {
         final MockHttpServletRequest httpRequest = prepareEmptyRequest();
@@ -93,6 +118,23 @@ public class RequestUtilsTest {
     }
 
 
+    @Test
+    public void uriSplit() throws IOException {
+        final MockHttpServletRequest httpRequest = prepareEmptyRequest();
+        httpRequest.setScheme("http");
+        httpRequest.setServerName("example.com");
+        httpRequest.setServerPort(80);
+        httpRequest.setRequestURI("/te%20st");
+        httpRequest.setQueryString("a=%201");
+
+        Request req = RequestUtils.convert(httpRequest);
+        assertThat(req.getRawPath(), is("/te%20st"));
+        assertThat(req.getRawQuery(), is("a=%201"));
+        //the default port is omitted
+        assertThat(req.getURI(), is(URI.create("http://example.com/te%20st?a=%201")));
+    }
+
+
     @Test
     public void uriURLEncoded() throws IOException {
         final MockHttpServletRequest httpRequest = prepareEmptyRequest();
@@ -8,6 +8,7 @@ import net.jadler.Jadler;
 import net.jadler.Jadler.OngoingConfiguration;
 import net.jadler.JadlerConfiguration;
 import net.jadler.KeyValues;
+import net.jadler.RecordingPolicy;
 import net.jadler.stubbing.server.StubHttpServer;
 import org.junit.rules.ExternalResource;
 
@@ -33,6 +34,9 @@ public class JadlerRule extends ExternalResource implements JadlerConfiguration
     private Charset defaultEncoding;
     private int defaultStatus = -1;
     private boolean skipsRequestsRecording = false;
+    private RecordingPolicy recordingPolicy;
+    private long bodySpillThreshold = -1;
+    private long bandwidthLimit = -1;
     private KeyValues defaultHeaders = KeyValues.EMPTY;
 
     /**
@@ -110,6 +114,18 @@ public class JadlerRule extends ExternalResource implements JadlerConfiguration
         if (this.skipsRequestsRecording) {
             conf.withRequestsRecordingDisabled();
         }
+
+        if (this.recordingPolicy != null) {
+            conf.withRecordingPolicy(this.recordingPolicy);
+        }
+
+        if (this.bodySpillThreshold > -1) {
+            conf.withBodySpillThreshold(this.bodySpillThreshold);
+        }
+
+        if (this.bandwidthLimit > -1) {
+            conf.withBandwidthLimit(this.bandwidthLimit);
+        }
     }
 
     @Override
@@ -161,4 +177,31 @@ public class JadlerRule extends ExternalResource implements JadlerConfiguration
         this.skipsRequestsRecording = true;
         return this;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JadlerRule withRecordingPolicy(final RecordingPolicy policy) {
+        this.recordingPolicy = policy;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JadlerRule withBodySpillThreshold(final long threshold) {
+        this.bodySpillThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JadlerRule withBandwidthLimit(final long bytesPerSecond) {
+        this.bandwidthLimit = bytesPerSecond;
+        return this;
+    }
 }